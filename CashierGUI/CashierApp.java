@@ -10,6 +10,10 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.stream.Stream;
 import java.nio.file.*;
+import New_Additions.ConnectionPool;
+import New_Additions.IdAllocator;
+import New_Additions.MenuPicker;
+import New_Additions.SalesRollups;
 
 /**
  * Main cashier application for handling food orders and menu items.
@@ -29,9 +33,16 @@ public class CashierApp {
     private static final String DB_USER = env.get("DB_USER");
     /** Password for databse access. */
     private static final String DB_PASS = env.get("DB_PASS");
+    /** Pool of databse connections shared by every cashier window. */
+    private static ConnectionPool pool;
+    /** Hands out order and order item IDs from reserved blocks. */
+    private static IdAllocator idAllocator;
 
-    /** List showing menu ittems. */
-    private JList<String> menuList;
+    /** Days of sales used to pick the quick keys. */
+    private static final int QUICK_KEY_SALES_DAYS = 7;
+
+    /** Menu search, item list and quick keys. */
+    private MenuPicker<MenuItem> menuPicker;
     /** Model for displaying current order items. */
     private DefaultListModel<String> orderListModel;
     /** Label to show total ammount. */
@@ -43,6 +54,8 @@ public class CashierApp {
 
     /** Holds menu item data retrived from DB. */
     private List<MenuItem> menuItems = new ArrayList<>();
+    /** Units sold per menu item ID over the last few days. */
+    private Map<Integer, Long> salesCounts = new HashMap<>();
     /** Holds items currently in an order. */
     private List<OrderItem> currentOrder = new ArrayList<>();
     /** Keeps track of total cost. */
@@ -63,17 +76,23 @@ public class CashierApp {
         JFrame frame = new JFrame("Cashier - Order System");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(900, 500);
+        frame.addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                System.out.println("Cashier " + menuPicker.getLatencySummary());
+            }
+        });
 
-        // Left Panel: Menu Items
+        // Left Panel: Menu Items, searchable
         JPanel leftPanel = new JPanel(new BorderLayout());
         JLabel menuLabel = new JLabel("Menu Items", JLabel.CENTER);
-        menuList = new JList<>(menuItems.stream().map(item -> item.name + " - $" + item.price).toArray(String[]::new));
-        JScrollPane menuScrollPane = new JScrollPane(menuList);
-        JButton addButton = new JButton("Add to Order");
-        addButton.addActionListener(_ -> addToOrder());
+        menuPicker = new MenuPicker<>(item -> item.id, item -> item.name, item -> item.category,
+                item -> item.name + " - $" + item.price, this::addToOrder,
+                readInt("CASHIER_QUICK_KEYS", 12));
+        menuPicker.setItems(menuItems);
+        menuPicker.setSalesCounts(salesCounts);
         leftPanel.add(menuLabel, BorderLayout.NORTH);
-        leftPanel.add(menuScrollPane, BorderLayout.CENTER);
-        leftPanel.add(addButton, BorderLayout.SOUTH);
+        leftPanel.add(menuPicker, BorderLayout.CENTER);
 
         // Center Panel: Current Order
         JPanel centerPanel = new JPanel(new BorderLayout());
@@ -106,6 +125,9 @@ public class CashierApp {
         rightPanel.add(quantityBox);
         rightPanel.add(customerLabel);
         rightPanel.add(customerNameField);
+        JPanel quickKeys = menuPicker.getQuickKeyPanel();
+        quickKeys.setBorder(BorderFactory.createTitledBorder("Quick Keys"));
+        rightPanel.add(quickKeys);
 
         // Layout setup
         frame.setLayout(new GridLayout(1, 3));
@@ -113,40 +135,60 @@ public class CashierApp {
         frame.add(centerPanel);
         frame.add(rightPanel);
         frame.setVisible(true);
+        menuPicker.focusSearch();
     }
 
     /**
-     * Loads menu items from databse and fills list.
+     * Loads menu items from databse and fills list, then loads recent sales
+     * to rank the quick keys.
      */
     private void loadMenuItems() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        try (Connection conn = getPool().getConnection();
                 Statement stmt = conn.createStatement();
                 ResultSet rs = stmt
-                        .executeQuery("SELECT menuitemid, menuitemname, price FROM menuitems ORDER BY menuitemid")) {
+                        .executeQuery("SELECT menuitemid, menuitemname, drinkcategory, price FROM menuitems ORDER BY menuitemid")) {
 
             while (rs.next()) {
                 menuItems.add(new MenuItem(
                         rs.getInt("menuitemid"),
                         rs.getString("menuitemname"),
+                        rs.getString("drinkcategory"),
                         rs.getDouble("price")));
             }
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(null, "Failed to load menu items: " + e.getMessage(), "Database Error",
                     JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        String salesSQL = "SELECT oi.menuitemid, SUM(oi.quantity) AS total_sold FROM orderitems oi "
+                + "JOIN orders o ON oi.orderid = o.orderid WHERE o.timeoforder >= ? GROUP BY oi.menuitemid";
+        try (Connection conn = getPool().getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(salesSQL)) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(java.time.LocalDate.now()
+                    .minusDays(QUICK_KEY_SALES_DAYS - 1).atStartOfDay()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    salesCounts.put(rs.getInt("menuitemid"), rs.getLong("total_sold"));
+                }
+            }
+        } catch (SQLException e) {
+            // Quick keys fall back to menu order
+            System.err.println("Failed to load menu item sales: " + e.getMessage());
         }
     }
 
     /**
-     * Adds selected menu item to the current order list.
+     * Adds a menu item to the current order list.
+     *
+     * @param item the item to add, or null if none was selected
      */
-    private void addToOrder() {
-        int selectedIndex = menuList.getSelectedIndex();
-        if (selectedIndex < 0) {
+    private void addToOrder(MenuItem item) {
+        if (item == null) {
             JOptionPane.showMessageDialog(null, "Please select a menu item", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        MenuItem item = menuItems.get(selectedIndex);
         int quantity = (int) quantityBox.getSelectedItem();
 
         OrderItem orderItem = new OrderItem(item, quantity);
@@ -174,6 +216,7 @@ public class CashierApp {
      * - Validates order is not empty
      * - Creates new order record in database
      * - Adds all order items to orderitems table
+     * - Adds the order to the sales rollup tables
      * - Uses transaction to ensure data integrity
      * - Shows confirmation message on success
      * - Clears the order form after successful submission
@@ -184,36 +227,49 @@ public class CashierApp {
             return;
         }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
-            conn.setAutoCommit(false);
-
-            int orderID = getNextID(conn, "orders", "orderid");
+        try {
+            IdAllocator ids = getIdAllocator();
+            int orderID = ids.nextId(IdAllocator.Sequence.ORDERS);
+            int[] orderItemIDs = ids.nextIds(IdAllocator.Sequence.ORDER_ITEMS, currentOrder.size());
+
+            try (Connection conn = getPool().getConnection()) {
+                conn.setAutoCommit(false);
+
+                New_Additions.Order order = new New_Additions.Order(orderID, new Timestamp(System.currentTimeMillis()),
+                        null, 1, totalCost, getCurrentWeek());
+                String orderSQL = "INSERT INTO orders (orderid, timeoforder, customerid, employeeid, totalcost, orderweek) VALUES (?, ?, ?, ?, ?, ?)";
+                try (PreparedStatement pstmt = conn.prepareStatement(orderSQL)) {
+                    pstmt.setInt(1, orderID);
+                    pstmt.setTimestamp(2, order.getTimeOfOrder());
+                    pstmt.setNull(3, Types.INTEGER);
+                    pstmt.setInt(4, order.getEmployeeID());
+                    pstmt.setDouble(5, totalCost);
+                    pstmt.setInt(6, order.getOrderWeek());
+                    pstmt.executeUpdate();
+                }
 
-            String orderSQL = "INSERT INTO orders (orderid, timeoforder, customerid, employeeid, totalcost, orderweek) VALUES (?, ?, ?, ?, ?, ?)";
-            try (PreparedStatement pstmt = conn.prepareStatement(orderSQL)) {
-                pstmt.setInt(1, orderID);
-                pstmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
-                pstmt.setNull(3, Types.INTEGER);
-                pstmt.setInt(4, 1);
-                pstmt.setDouble(5, totalCost);
-                pstmt.setInt(6, getCurrentWeek());
-                pstmt.executeUpdate();
-            }
+                String itemSQL = "INSERT INTO orderitems (orderitemid, orderid, menuitemid, quantity) VALUES (?, ?, ?, ?)";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(itemSQL)) {
+                    for (int i = 0; i < currentOrder.size(); i++) {
+                        OrderItem item = currentOrder.get(i);
+                        pstmt.setInt(1, orderItemIDs[i]);
+                        pstmt.setInt(2, orderID);
+                        pstmt.setInt(3, item.menuItem.id);
+                        pstmt.setInt(4, item.quantity);
+                        pstmt.executeUpdate();
+                    }
+                }
 
-            int orderItemID = getNextID(conn, "orderitems", "orderitemid");
-            String itemSQL = "INSERT INTO orderitems (orderitemid, orderid, menuitemid, quantity) VALUES (?, ?, ?, ?)";
+                // Keep the manager's sales reports current
+                SalesRollups.record(conn, List.of(order));
 
-            try (PreparedStatement pstmt = conn.prepareStatement(itemSQL)) {
-                for (OrderItem item : currentOrder) {
-                    pstmt.setInt(1, orderItemID++);
-                    pstmt.setInt(2, orderID);
-                    pstmt.setInt(3, item.menuItem.id);
-                    pstmt.setInt(4, item.quantity);
-                    pstmt.executeUpdate();
-                }
+                conn.commit();
             }
 
-            conn.commit();
+            for (OrderItem item : currentOrder) {
+                menuPicker.recordSale(item.menuItem.id, item.quantity);
+            }
             JOptionPane.showMessageDialog(null, "Order #" + orderID + " submitted succesfully!", "Success",
                     JOptionPane.INFORMATION_MESSAGE);
             clearOrder();
@@ -225,23 +281,31 @@ public class CashierApp {
     }
 
     /**
-     * Gets the next available ID for a given database table.
-     * Calculates by finding the maximum current ID and adding 1.
-     * 
-     * @param conn the database Connection to use
-     * @param table the name of the table to query
-     * @param idColumn the name of the ID column in the table
-     * @return the next available ID number
-     * @throws SQLException if there's an error accessing the database
+     * Gets the shared connection pool, creating it on first use.
+     * Connections borrowed from the pool are returned when closed, so
+     * each order no longer pays for a new databse login.
+     *
+     * @return the shared connection pool
+     * @throws SQLException if the first connection cannot be opened
+     */
+    private static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASS, ConnectionPool.Settings.fromEnvironment(env));
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the shared ID allocator, creating it (and the pool) on first use.
+     *
+     * @return the shared ID allocator
+     * @throws SQLException if the first connection cannot be opened
      */
-    private int getNextID(Connection conn, String table, String idColumn) throws SQLException {
-        String sql = "SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table;
-        try (Statement stmt = conn.createStatement();
-                ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next())
-                return rs.getInt(1);
+    private static synchronized IdAllocator getIdAllocator() throws SQLException {
+        if (idAllocator == null) {
+            idAllocator = new IdAllocator(getPool());
         }
-        return 1;
+        return idAllocator;
     }
 
     /**
@@ -264,18 +328,20 @@ public class CashierApp {
     }
 
     /**
-     * Represents a menu item entity with its ID, name and price.
+     * Represents a menu item entity with its ID, name, category and price.
      * Used to store and display individual menu items available for ordering.
      */
     static class MenuItem {
         int id;
         String name;
+        String category;
         double price;
 
         /** Creates a new menu item. */
-        MenuItem(int id, String name, double price) {
+        MenuItem(int id, String name, String category, double price) {
             this.id = id;
             this.name = name;
+            this.category = category;
             this.price = price;
         }
     }
@@ -296,6 +362,26 @@ public class CashierApp {
         }
     }
 
+    /**
+     * Reads an optional integer setting from the .env file.
+     *
+     * @param key          setting name
+     * @param defaultValue value used if the setting is missing or invalid
+     * @return the setting value
+     */
+    private static int readInt(String key, int defaultValue) {
+        String value = env.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
     /**
      * Loads environment variables from a file and returns them as a map.
      * Skips empty lines and comments (lines starting with #).
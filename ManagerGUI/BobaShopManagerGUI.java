@@ -1,3 +1,15 @@
+import New_Additions.BackgroundTasks;
+import New_Additions.BarChartPanel;
+import New_Additions.IdAllocator;
+import New_Additions.OrderCube;
+import New_Additions.PagedTableModel;
+import New_Additions.PagedTableView;
+import New_Additions.ReportCache;
+import New_Additions.SalesLeaderboard;
+import New_Additions.SalesRollups;
+import New_Additions.StreamingExporter;
+import java.util.HashMap;
+import java.util.Map;
 import java.sql.*;
 import javax.swing.*;
 import java.awt.*;
@@ -8,6 +20,14 @@ public class BobaShopManagerGUI extends JFrame {
     private JTextArea inventoryDisplayArea;
     private JTextArea employeeDisplayArea;
     private JTextArea reportsDisplayArea;
+    // Table views shown in place of the text areas by the View buttons
+    private PagedTableView menuTable;
+    private PagedTableView inventoryTable;
+    private PagedTableView employeeTable;
+    // Chart opened by the Period Usage Chart button; reused while its window is open
+    private BarChartPanel periodUsageChart;
+    // Background work for the reports area; a new report replaces the one before
+    private final BackgroundTasks.Lane reportLane = new BackgroundTasks.Lane();
 
     public BobaShopManagerGUI() {
         setTitle("Boba Shop Manager System");
@@ -50,12 +70,15 @@ public class BobaShopManagerGUI extends JFrame {
         JPanel statusPanel = new JPanel();
         JLabel statusLabel = new JLabel("Ready");
         statusPanel.add(statusLabel);
+        BackgroundTasks.showStatistics(statusLabel);
+        statusPanel.add(BackgroundTasks.createIndicator());
         add(statusPanel, BorderLayout.SOUTH);
 
         setVisible(true);
     }
     
     public void cleanup() {
+        reportLane.cancel();
         if (dbManager != null) {
             dbManager.closeConnection();
         }
@@ -70,7 +93,13 @@ public class BobaShopManagerGUI extends JFrame {
         displayArea.setEditable(false);
         displayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(displayArea);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        menuTable = new PagedTableView(new PagedTableModel(new PagedTableModel.QuerySource(dbManager.getDataSource(),
+                "SELECT menuitemid, drinkcategory, menuitemname, price FROM menuitems",
+                new String[] {"menuitemid", "drinkcategory", "menuitemname", "price"},
+                new String[] {"Item ID", "Category", "Item Name", "Price"},
+                new Class<?>[] {Integer.class, String.class, String.class, Double.class},
+                "drinkcategory", "menuitemname"), 1, true));
+        panel.add(createCardPanel(scrollPane, menuTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel();
@@ -81,11 +110,17 @@ public class BobaShopManagerGUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = new JButton("Add Menu Item");
-        addButton.addActionListener(e -> addMenuItem());
+        addButton.addActionListener(e -> {
+            showCard(displayArea, "text");
+            addMenuItem();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = new JButton("Update Item Price");
-        updateButton.addActionListener(e -> updateMenuItemPrice());
+        updateButton.addActionListener(e -> {
+            showCard(displayArea, "text");
+            updateMenuItemPrice();
+        });
         buttonPanel.add(updateButton);
 
         panel.add(buttonPanel, BorderLayout.NORTH);
@@ -99,6 +134,25 @@ public class BobaShopManagerGUI extends JFrame {
         return panel;
     }
 
+    // Puts a display area and a table view in the same place, showing the display area first
+    private JPanel createCardPanel(JScrollPane textPane, PagedTableView tableView) {
+        JPanel cards = new JPanel(new CardLayout());
+        cards.add(textPane, "text");
+        cards.add(tableView, "table");
+        return cards;
+    }
+
+    // Shows the "text" or "table" card of the card panel holding a component
+    private void showCard(Component inside, String card) {
+        Container parent = inside.getParent();
+        while (parent != null && !(parent.getLayout() instanceof CardLayout)) {
+            parent = parent.getParent();
+        }
+        if (parent != null) {
+            ((CardLayout) parent.getLayout()).show(parent, card);
+        }
+    }
+
     private JPanel createEmployeeManagementTab() {
         JPanel panel = new JPanel(new BorderLayout());
 
@@ -107,7 +161,13 @@ public class BobaShopManagerGUI extends JFrame {
         employeeDisplayArea.setEditable(false);
         employeeDisplayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(employeeDisplayArea);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        employeeTable = new PagedTableView(new PagedTableModel(new PagedTableModel.QuerySource(dbManager.getDataSource(),
+                "SELECT employeeid, employeename, employeerole, hoursworked FROM employees",
+                new String[] {"employeeid", "employeename", "employeerole", "hoursworked"},
+                new String[] {"Employee ID", "Employee Name", "Role", "Hours Worked"},
+                new Class<?>[] {Integer.class, String.class, String.class, Integer.class},
+                "employeename", "employeerole"), 0, true));
+        panel.add(createCardPanel(scrollPane, employeeTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel();
@@ -118,15 +178,24 @@ public class BobaShopManagerGUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = new JButton("Add Employee");
-        addButton.addActionListener(e -> addEmployee());
+        addButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, "text");
+            addEmployee();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = new JButton("Update Employee");
-        updateButton.addActionListener(e -> updateEmployee());
+        updateButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, "text");
+            updateEmployee();
+        });
         buttonPanel.add(updateButton);
 
         JButton deleteButton = new JButton("Remove Employee");
-        deleteButton.addActionListener(e -> removeEmployee());
+        deleteButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, "text");
+            removeEmployee();
+        });
         buttonPanel.add(deleteButton);
 
         panel.add(buttonPanel, BorderLayout.NORTH);
@@ -156,55 +225,67 @@ public class BobaShopManagerGUI extends JFrame {
 
         // Sales Reports
         JButton topSellingButton = new JButton("Top 5 Best Selling Drinks");
-        topSellingButton.addActionListener(e -> generateTopSellingReport());
+        topSellingButton.addActionListener(e -> showCachedReport("generateTopSellingReport", this::generateTopSellingReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
         buttonPanel.add(topSellingButton);
 
         JButton worstSellingButton = new JButton("5 Worst Selling Drinks");
-        worstSellingButton.addActionListener(e -> generateWorstSellingReport());
+        worstSellingButton.addActionListener(e -> showCachedReport("generateWorstSellingReport", this::generateWorstSellingReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
         buttonPanel.add(worstSellingButton);
 
         JButton revenueTodayButton = new JButton("Today's Revenue");
-        revenueTodayButton.addActionListener(e -> generateRevenueTodayReport());
+        revenueTodayButton.addActionListener(e -> showCachedReport("generateRevenueTodayReport", this::generateRevenueTodayReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(revenueTodayButton);
 
         JButton totalRevenueButton = new JButton("Total Revenue (All Time)");
-        totalRevenueButton.addActionListener(e -> generateTotalRevenueReport());
+        totalRevenueButton.addActionListener(e -> showCachedReport("generateTotalRevenueReport", this::generateTotalRevenueReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(totalRevenueButton);
 
         JButton avgOrderCostButton = new JButton("Average Order Cost");
-        avgOrderCostButton.addActionListener(e -> generateAvgOrderCostReport());
+        avgOrderCostButton.addActionListener(e -> showCachedReport("generateAvgOrderCostReport", this::generateAvgOrderCostReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(avgOrderCostButton);
 
         JButton ordersTodayButton = new JButton("Orders Today");
-        ordersTodayButton.addActionListener(e -> generateOrdersTodayReport());
+        ordersTodayButton.addActionListener(e -> showCachedReport("generateOrdersTodayReport", this::generateOrdersTodayReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(ordersTodayButton);
 
         // Customer Reports
         JButton frequentCustomersButton = new JButton("Most Frequent Customers");
-        frequentCustomersButton.addActionListener(e -> generateFrequentCustomersReport());
+        frequentCustomersButton.addActionListener(e -> showCachedReport("generateFrequentCustomersReport", this::generateFrequentCustomersReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(frequentCustomersButton);
 
         // Inventory Reports
         JButton outOfStockButton = new JButton("Out of Stock Items");
-        outOfStockButton.addActionListener(e -> generateOutOfStockReport());
+        outOfStockButton.addActionListener(e -> showCachedReport("generateOutOfStockReport", this::generateOutOfStockReport,
+                ReportCache.Tag.INVENTORY));
         buttonPanel.add(outOfStockButton);
 
         // Preference Reports
         JButton sugarLevelButton = new JButton("Sugar Level Popularity");
-        sugarLevelButton.addActionListener(e -> generateSugarLevelReport());
+        sugarLevelButton.addActionListener(e -> showCachedReport("generateSugarLevelReport", this::generateSugarLevelReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(sugarLevelButton);
 
         JButton iceLevelButton = new JButton("Ice Level Popularity");
-        iceLevelButton.addActionListener(e -> generateIceLevelReport());
+        iceLevelButton.addActionListener(e -> showCachedReport("generateIceLevelReport", this::generateIceLevelReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(iceLevelButton);
 
         // Time-based Reports
         JButton yearlyRevenueButton = new JButton("Yearly Revenue");
-        yearlyRevenueButton.addActionListener(e -> generateYearlyRevenueReport());
+        yearlyRevenueButton.addActionListener(e -> showCachedReport("generateYearlyRevenueReport", this::generateYearlyRevenueReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(yearlyRevenueButton);
 
         JButton ordersByHourButton = new JButton("Orders by Hour");
-        ordersByHourButton.addActionListener(e -> generateOrdersByHourReport());
+        ordersByHourButton.addActionListener(e -> showCachedReport("generateOrdersByHourReport", this::generateOrdersByHourReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(ordersByHourButton);
 
         JButton periodUsageChartButton = new JButton("Period Usage Chart");
@@ -212,15 +293,18 @@ public class BobaShopManagerGUI extends JFrame {
         buttonPanel.add(periodUsageChartButton);
 
         JButton peakSalesButton = new JButton("Peak Sales Days");
-        peakSalesButton.addActionListener(e -> generatePeakSalesReport());
+        peakSalesButton.addActionListener(e -> showCachedReport("generatePeakSalesReport", this::generatePeakSalesReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(peakSalesButton);
 
         JButton ordersByWeekButton = new JButton("Orders by Week");
-        ordersByWeekButton.addActionListener(e -> generateOrdersByWeekReport());
+        ordersByWeekButton.addActionListener(e -> showCachedReport("generateOrdersByWeekReport", this::generateOrdersByWeekReport,
+                ReportCache.Tag.ORDERS));
         buttonPanel.add(ordersByWeekButton);
 
         JButton menuItemIngredientsButton = new JButton("Menu Item Ingredients");
-        menuItemIngredientsButton.addActionListener(e -> generateMenuItemIngredientsReport());
+        menuItemIngredientsButton.addActionListener(e -> showCachedReport("generateMenuItemIngredientsReport", this::generateMenuItemIngredientsReport,
+                ReportCache.Tag.MENU, ReportCache.Tag.INVENTORY));
         buttonPanel.add(menuItemIngredientsButton);
 
         // Export button
@@ -257,7 +341,13 @@ public class BobaShopManagerGUI extends JFrame {
         inventoryDisplayArea.setEditable(false);
         inventoryDisplayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(inventoryDisplayArea);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        inventoryTable = new PagedTableView(new PagedTableModel(new PagedTableModel.QuerySource(dbManager.getDataSource(),
+                "SELECT ingredientid, ingredientname, ingredientcount FROM inventory",
+                new String[] {"ingredientid", "ingredientname", "ingredientcount"},
+                new String[] {"Ingredient ID", "Ingredient Name", "Quantity"},
+                new Class<?>[] {Integer.class, String.class, Integer.class},
+                "ingredientname"), 1, true));
+        panel.add(createCardPanel(scrollPane, inventoryTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel();
@@ -268,11 +358,17 @@ public class BobaShopManagerGUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = new JButton("Add Inventory Item");
-        addButton.addActionListener(e -> addInventoryItem());
+        addButton.addActionListener(e -> {
+            showCard(inventoryDisplayArea, "text");
+            addInventoryItem();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = new JButton("Update Quantity");
-        updateButton.addActionListener(e -> updateInventoryQuantity());
+        updateButton.addActionListener(e -> {
+            showCard(inventoryDisplayArea, "text");
+            updateInventoryQuantity();
+        });
         buttonPanel.add(updateButton);
 
         panel.add(buttonPanel, BorderLayout.NORTH);
@@ -287,60 +383,13 @@ public class BobaShopManagerGUI extends JFrame {
     }
 
     private void viewMenuItems() {
-        displayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT * FROM menuitems ORDER BY drinkcategory, menuitemname";
-            ResultSet rs = stmt.executeQuery(sql);
-
-            displayArea.append("MENU ITEMS\n");
-            displayArea.append("=".repeat(80) + "\n");
-            displayArea.append(String.format("%-12s %-20s %-30s %-10s\n",
-                    "Item ID", "Category", "Item Name", "Price"));
-            displayArea.append("-".repeat(80) + "\n");
-
-            while (rs.next()) {
-                displayArea.append(String.format("%-12d %-20s %-30s $%-9.2f\n",
-                        rs.getInt("menuitemid"),
-                        rs.getString("drinkcategory"),
-                        rs.getString("menuitemname"),
-                        rs.getDouble("price")));
-            }
-
-            rs.close();
-            stmt.close();
-        } catch (Exception e) {
-            displayArea.append("\nERROR: " + e.getMessage() + "\n");
-            e.printStackTrace();
-        }
+        showCard(displayArea, "table");
+        menuTable.refresh();
     }
 
     private void viewInventory() {
-        inventoryDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT * FROM inventory ORDER BY ingredientname";
-            ResultSet rs = stmt.executeQuery(sql);
-
-            inventoryDisplayArea.append("INVENTORY\n");
-            inventoryDisplayArea.append("=".repeat(70) + "\n");
-            inventoryDisplayArea.append(String.format("%-15s %-35s %-15s\n",
-                    "Ingredient ID", "Ingredient Name", "Quantity"));
-            inventoryDisplayArea.append("-".repeat(70) + "\n");
-
-            while (rs.next()) {
-                inventoryDisplayArea.append(String.format("%-15d %-35s %-15d\n",
-                        rs.getInt("ingredientid"),
-                        rs.getString("ingredientname"),
-                        rs.getInt("ingredientcount")));
-            }
-
-            rs.close();
-            stmt.close();
-        } catch (Exception e) {
-            inventoryDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-            e.printStackTrace();
-        }
+        showCard(inventoryDisplayArea, "table");
+        inventoryTable.refresh();
     }
 
     private void addInventoryItem() {
@@ -368,13 +417,7 @@ public class BobaShopManagerGUI extends JFrame {
                 }
 
                 // Get the next ingredientid
-                Statement stmt = dbManager.getConnection().createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT MAX(ingredientid) as maxid FROM inventory");
-                int nextId = 1;
-                if (rs.next() && rs.getObject("maxid") != null) {
-                    nextId = rs.getInt("maxid") + 1;
-                }
-                rs.close();
+                int nextId = dbManager.nextId(IdAllocator.Sequence.INVENTORY);
 
                 // Insert new inventory item
                 String sql = "INSERT INTO inventory (ingredientid, ingredientname, ingredientcount) VALUES (?, ?, ?)";
@@ -384,6 +427,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setInt(3, quantity);
 
                 pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.INVENTORY);
 
                 inventoryDisplayArea.append("✓ Inventory item added successfully!\n");
                 inventoryDisplayArea.append("=".repeat(60) + "\n");
@@ -392,7 +436,6 @@ public class BobaShopManagerGUI extends JFrame {
                 inventoryDisplayArea.append(String.format("Quantity: %d\n", quantity));
 
                 pstmt.close();
-                stmt.close();
 
             } catch (NumberFormatException e) {
                 inventoryDisplayArea.append("\nERROR: Invalid quantity format. Please enter a valid number.\n");
@@ -458,6 +501,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setInt(2, ingredientId);
 
                 int rowsAffected = pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.INVENTORY);
 
                 if (rowsAffected > 0) {
                     // Get updated item details
@@ -522,13 +566,7 @@ public class BobaShopManagerGUI extends JFrame {
                 }
 
                 // Get the next menuitemid
-                Statement stmt = dbManager.getConnection().createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT MAX(menuitemid) as maxid FROM menuitems");
-                int nextId = 1;
-                if (rs.next() && rs.getObject("maxid") != null) {
-                    nextId = rs.getInt("maxid") + 1;
-                }
-                rs.close();
+                int nextId = dbManager.nextId(IdAllocator.Sequence.MENU_ITEMS);
 
                 // Insert new menu item
                 String sql = "INSERT INTO menuitems (menuitemid, drinkcategory, menuitemname, price) VALUES (?, ?, ?, ?)";
@@ -539,6 +577,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setDouble(4, price);
 
                 pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.MENU);
 
                 displayArea.append("✓ Menu item added successfully!\n");
                 displayArea.append("=".repeat(60) + "\n");
@@ -548,7 +587,6 @@ public class BobaShopManagerGUI extends JFrame {
                 displayArea.append(String.format("Price: $%.2f\n", price));
 
                 pstmt.close();
-                stmt.close();
 
             } catch (NumberFormatException e) {
                 displayArea.append("\nERROR: Invalid price format. Please enter a valid number.\n");
@@ -614,6 +652,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setInt(2, itemId);
 
                 int rowsAffected = pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.MENU);
 
                 if (rowsAffected > 0) {
                     // Get updated item details
@@ -652,32 +691,8 @@ public class BobaShopManagerGUI extends JFrame {
 
     // View all employees
     private void viewEmployees() {
-        employeeDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT * FROM employees ORDER BY employeeid";
-            ResultSet rs = stmt.executeQuery(sql);
-
-            employeeDisplayArea.append("EMPLOYEES\n");
-            employeeDisplayArea.append("=".repeat(80) + "\n");
-            employeeDisplayArea.append(String.format("%-12s %-25s %-20s %-15s\n",
-                    "Employee ID", "Employee Name", "Role", "Hours Worked"));
-            employeeDisplayArea.append("-".repeat(80) + "\n");
-
-            while (rs.next()) {
-                employeeDisplayArea.append(String.format("%-12d %-25s %-20s %-15d\n",
-                        rs.getInt("employeeid"),
-                        rs.getString("employeename"),
-                        rs.getString("employeerole"),
-                        rs.getInt("hoursworked")));
-            }
-
-            rs.close();
-            stmt.close();
-        } catch (Exception e) {
-            employeeDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-            e.printStackTrace();
-        }
+        showCard(employeeDisplayArea, "table");
+        employeeTable.refresh();
     }
 
     // Add new employee
@@ -710,13 +725,7 @@ public class BobaShopManagerGUI extends JFrame {
                 }
 
                 // Get the next employeeid
-                Statement stmt = dbManager.getConnection().createStatement();
-                ResultSet rs = stmt.executeQuery("SELECT MAX(employeeid) as maxid FROM employees");
-                int nextId = 1;
-                if (rs.next() && rs.getObject("maxid") != null) {
-                    nextId = rs.getInt("maxid") + 1;
-                }
-                rs.close();
+                int nextId = dbManager.nextId(IdAllocator.Sequence.EMPLOYEES);
 
                 // Insert new employee
                 String sql = "INSERT INTO employees (employeeid, employeename, employeerole, hoursworked) VALUES (?, ?, ?, ?)";
@@ -727,6 +736,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setInt(4, hours);
 
                 pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.EMPLOYEES);
 
                 employeeDisplayArea.append("✓ Employee added successfully!\n");
                 employeeDisplayArea.append("=".repeat(60) + "\n");
@@ -736,7 +746,6 @@ public class BobaShopManagerGUI extends JFrame {
                 employeeDisplayArea.append(String.format("Hours Worked: %d\n", hours));
 
                 pstmt.close();
-                stmt.close();
 
             } catch (NumberFormatException e) {
                 employeeDisplayArea.append("\nERROR: Invalid hours format. Please enter a valid number.\n");
@@ -841,6 +850,7 @@ public class BobaShopManagerGUI extends JFrame {
                 pstmt.setInt(4, employeeId);
 
                 pstmt.executeUpdate();
+                dbManager.getReportCache().invalidate(ReportCache.Tag.EMPLOYEES);
 
                 employeeDisplayArea.append("✓ Employee updated successfully!\n");
                 employeeDisplayArea.append("=".repeat(60) + "\n");
@@ -938,6 +948,7 @@ public class BobaShopManagerGUI extends JFrame {
                     pstmt.setInt(1, employeeId);
 
                     int rowsAffected = pstmt.executeUpdate();
+                    dbManager.getReportCache().invalidate(ReportCache.Tag.EMPLOYEES);
 
                     if (rowsAffected > 0) {
                         employeeDisplayArea.append("✓ Employee removed successfully!\n");
@@ -963,176 +974,232 @@ public class BobaShopManagerGUI extends JFrame {
 
     // ==================== REPORT GENERATION METHODS ====================
 
-    private void generateTopSellingReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT MenuItems.menuItemName, SUM(OrderItems.quantity) AS total_qty " +
-                    "FROM OrderItems JOIN MenuItems ON OrderItems.menuItemID = MenuItems.menuItemID " +
-                    "GROUP BY MenuItems.menuItemName ORDER BY total_qty DESC LIMIT 5";
-            ResultSet rs = stmt.executeQuery(sql);
+    // Text of a report or listing while it is generated off the event thread. It is
+    // written here instead of a display area, which is only touched once it is done.
+    private static final class ReportText {
+        private final StringBuilder text = new StringBuilder();
+        // Set when the report hit an error, so it is not cached
+        private boolean failed;
 
-            reportsDisplayArea.append("TOP 5 BEST SELLING DRINKS\n");
-            reportsDisplayArea.append("=".repeat(50) + "\n");
-            reportsDisplayArea.append(String.format("%-30s %-15s\n", "Drink Name", "Total Quantity"));
-            reportsDisplayArea.append("-".repeat(50) + "\n");
+        void setText(String value) {
+            text.setLength(0);
+            text.append(value);
+        }
 
-            while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-30s %-15d\n",
-                        rs.getString("menuItemName"),
-                        rs.getInt("total_qty")));
-            }
+        void append(String value) {
+            text.append(value);
+        }
 
-            rs.close();
-            stmt.close();
-        } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-            e.printStackTrace();
+        @Override
+        public String toString() {
+            return text.toString();
         }
     }
 
-    private void generateWorstSellingReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT MenuItems.menuItemName, SUM(OrderItems.quantity) AS total_qty " +
-                    "FROM OrderItems JOIN MenuItems ON OrderItems.menuItemID = MenuItems.menuItemID " +
-                    "GROUP BY MenuItems.menuItemName ORDER BY total_qty ASC LIMIT 5";
-            ResultSet rs = stmt.executeQuery(sql);
+    // Shows a report from the report cache, generating it on a background thread on
+    // a miss. Cached text is dropped when the data it reads is written, or after
+    // REPORT_CACHE_TTL_SECONDS. A report clicked while another runs replaces it.
+    private void showCachedReport(String name, java.util.function.Consumer<ReportText> report,
+            ReportCache.Tag tag, ReportCache.Tag... moreTags) {
+        // Keyed by day so reports about today are rebuilt after midnight
+        String key = name + "@" + java.time.LocalDate.now();
+        java.util.Set<ReportCache.Tag> tags = java.util.EnumSet.of(tag, moreTags);
+        reportsDisplayArea.setText("Generating report...\n");
+        reportLane.run(name, () -> {
+            ReportText[] fresh = new ReportText[1];
+            String text = dbManager.getReportCache().get(key, tags, () -> {
+                fresh[0] = new ReportText();
+                report.accept(fresh[0]);
+                return fresh[0].failed ? null : fresh[0].toString();
+            });
+            return text != null ? text : fresh[0].toString();
+        }, text -> reportsDisplayArea.setText(text), e -> {
+            reportsDisplayArea.setText("\nERROR: " + e.getMessage() + "\n");
+        });
+    }
 
-            reportsDisplayArea.append("5 WORST SELLING DRINKS\n");
-            reportsDisplayArea.append("=".repeat(50) + "\n");
-            reportsDisplayArea.append(String.format("%-30s %-15s\n", "Drink Name", "Total Quantity"));
-            reportsDisplayArea.append("-".repeat(50) + "\n");
+    private void appendReportError(ReportText out, Exception e) {
+        out.append("\nERROR: " + e.getMessage() + "\n");
+        out.failed = true;
+    }
+
+    private void generateTopSellingReport(ReportText out) {
+        out.setText("");
+        try {
+            Map<Integer, String> names = getMenuItemNames();
+            SalesLeaderboard leaderboard = dbManager.getSalesLeaderboard();
+            leaderboard.track(names.keySet());
+
+            out.append("TOP 5 BEST SELLING DRINKS\n");
+            out.append("=".repeat(50) + "\n");
+            out.append(String.format("%-30s %-15s\n", "Drink Name", "Total Quantity"));
+            out.append("-".repeat(50) + "\n");
+
+            for (SalesLeaderboard.Entry entry : leaderboard.top(SalesLeaderboard.Window.ALL_TIME, 5)) {
+                out.append(String.format("%-30s %-15d\n",
+                        names.getOrDefault(entry.getMenuItemId(), "Item #" + entry.getMenuItemId()),
+                        entry.getQuantity()));
+            }
+        } catch (Exception e) {
+            appendReportError(out, e);
+            e.printStackTrace();
+        }
+    }
 
+    // Menu item names by ID, for reports that rank items without joining MenuItems
+    private Map<Integer, String> getMenuItemNames() throws SQLException {
+        Map<Integer, String> names = new HashMap<>();
+        try (Connection conn = dbManager.getDataSource().getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT menuItemID, menuItemName FROM MenuItems")) {
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-30s %-15d\n",
-                        rs.getString("menuItemName"),
-                        rs.getInt("total_qty")));
+                names.put(rs.getInt("menuItemID"), rs.getString("menuItemName"));
             }
+        }
+        return names;
+    }
 
-            rs.close();
-            stmt.close();
+    private void generateWorstSellingReport(ReportText out) {
+        out.setText("");
+        try {
+            Map<Integer, String> names = getMenuItemNames();
+            SalesLeaderboard leaderboard = dbManager.getSalesLeaderboard();
+            leaderboard.track(names.keySet());
+
+            out.append("5 WORST SELLING DRINKS\n");
+            out.append("=".repeat(50) + "\n");
+            out.append(String.format("%-30s %-15s\n", "Drink Name", "Total Quantity"));
+            out.append("-".repeat(50) + "\n");
+
+            for (SalesLeaderboard.Entry entry : leaderboard.bottom(SalesLeaderboard.Window.ALL_TIME, 5)) {
+                out.append(String.format("%-30s %-15d\n",
+                        names.getOrDefault(entry.getMenuItemId(), "Item #" + entry.getMenuItemId()),
+                        entry.getQuantity()));
+            }
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateRevenueTodayReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT SUM(totalCost) AS revenue_today FROM Orders WHERE DATE(timeOfOrder) = CURRENT_DATE";
+    private void generateRevenueTodayReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            String sql = "SELECT COALESCE(SUM(revenue), 0) AS revenue_today FROM SalesDaily WHERE salesDate = CURRENT_DATE";
+            Statement stmt = conn.createStatement();
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("TODAY'S REVENUE\n");
-            reportsDisplayArea.append("=".repeat(30) + "\n");
+            out.append("TODAY'S REVENUE\n");
+            out.append("=".repeat(30) + "\n");
 
             if (rs.next()) {
                 double revenue = rs.getDouble("revenue_today");
-                reportsDisplayArea.append(String.format("Revenue Today: $%.2f\n", revenue));
+                out.append(String.format("Revenue Today: $%.2f\n", revenue));
             } else {
-                reportsDisplayArea.append("No revenue data for today.\n");
+                out.append("No revenue data for today.\n");
             }
 
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateTotalRevenueReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT SUM(totalCost) AS total_revenue FROM Orders";
+    private void generateTotalRevenueReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT SUM(revenue) AS total_revenue FROM SalesYearly";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("TOTAL REVENUE (ALL TIME)\n");
-            reportsDisplayArea.append("=".repeat(40) + "\n");
+            out.append("TOTAL REVENUE (ALL TIME)\n");
+            out.append("=".repeat(40) + "\n");
 
             if (rs.next()) {
                 double revenue = rs.getDouble("total_revenue");
-                reportsDisplayArea.append(String.format("Total Revenue: $%.2f\n", revenue));
+                out.append(String.format("Total Revenue: $%.2f\n", revenue));
             } else {
-                reportsDisplayArea.append("No revenue data available.\n");
+                out.append("No revenue data available.\n");
             }
 
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateAvgOrderCostReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT AVG(Orders.totalCost) AS avg_order_cost FROM Orders";
+    private void generateAvgOrderCostReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT SUM(revenue) / NULLIF(SUM(orderCount), 0) AS avg_order_cost FROM SalesYearly";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("AVERAGE ORDER COST\n");
-            reportsDisplayArea.append("=".repeat(30) + "\n");
+            out.append("AVERAGE ORDER COST\n");
+            out.append("=".repeat(30) + "\n");
 
             if (rs.next()) {
                 double avgCost = rs.getDouble("avg_order_cost");
-                reportsDisplayArea.append(String.format("Average Order Cost: $%.2f\n", avgCost));
+                out.append(String.format("Average Order Cost: $%.2f\n", avgCost));
             } else {
-                reportsDisplayArea.append("No order data available.\n");
+                out.append("No order data available.\n");
             }
 
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateOrdersTodayReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT COUNT(*) AS orders_today FROM Orders WHERE DATE(timeOfOrder) = CURRENT_DATE";
+    private void generateOrdersTodayReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            String sql = "SELECT COALESCE(SUM(orderCount), 0) AS orders_today FROM SalesDaily WHERE salesDate = CURRENT_DATE";
+            Statement stmt = conn.createStatement();
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("ORDERS TODAY\n");
-            reportsDisplayArea.append("=".repeat(25) + "\n");
+            out.append("ORDERS TODAY\n");
+            out.append("=".repeat(25) + "\n");
 
             if (rs.next()) {
                 int orders = rs.getInt("orders_today");
-                reportsDisplayArea.append(String.format("Orders Today: %d\n", orders));
+                out.append(String.format("Orders Today: %d\n", orders));
             } else {
-                reportsDisplayArea.append("No orders for today.\n");
+                out.append("No orders for today.\n");
             }
 
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateFrequentCustomersReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
+    private void generateFrequentCustomersReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            Statement stmt = conn.createStatement();
             String sql = "SELECT customerID, COUNT(*) AS order_count FROM Orders GROUP BY customerID ORDER BY order_count DESC LIMIT 5";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("5 MOST FREQUENT CUSTOMERS\n");
-            reportsDisplayArea.append("=".repeat(40) + "\n");
-            reportsDisplayArea.append(String.format("%-15s %-15s\n", "Customer ID", "Order Count"));
-            reportsDisplayArea.append("-".repeat(40) + "\n");
+            out.append("5 MOST FREQUENT CUSTOMERS\n");
+            out.append("=".repeat(40) + "\n");
+            out.append(String.format("%-15s %-15s\n", "Customer ID", "Order Count"));
+            out.append("-".repeat(40) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-15d %-15d\n",
+                out.append(String.format("%-15d %-15d\n",
                         rs.getInt("customerID"),
                         rs.getInt("order_count")));
             }
@@ -1140,59 +1207,58 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateOutOfStockReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
+    private void generateOutOfStockReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            Statement stmt = conn.createStatement();
             String sql = "SELECT ingredientID, ingredientName, ingredientCount FROM Inventory WHERE ingredientCount = 0";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("OUT OF STOCK ITEMS\n");
-            reportsDisplayArea.append("=".repeat(40) + "\n");
-            reportsDisplayArea
-                    .append(String.format("%-15s %-25s %-10s\n", "Ingredient ID", "Ingredient Name", "Count"));
-            reportsDisplayArea.append("-".repeat(40) + "\n");
+            out.append("OUT OF STOCK ITEMS\n");
+            out.append("=".repeat(40) + "\n");
+            out.append(String.format("%-15s %-25s %-10s\n", "Ingredient ID", "Ingredient Name", "Count"));
+            out.append("-".repeat(40) + "\n");
 
             boolean hasOutOfStock = false;
             while (rs.next()) {
                 hasOutOfStock = true;
-                reportsDisplayArea.append(String.format("%-15d %-25s %-10d\n",
+                out.append(String.format("%-15d %-25s %-10d\n",
                         rs.getInt("ingredientID"),
                         rs.getString("ingredientName"),
                         rs.getInt("ingredientCount")));
             }
 
             if (!hasOutOfStock) {
-                reportsDisplayArea.append("All items are in stock! ✓\n");
+                out.append("All items are in stock! ✓\n");
             }
 
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateSugarLevelReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
+    private void generateSugarLevelReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            Statement stmt = conn.createStatement();
             String sql = "SELECT sugarLevel, SUM(quantity) AS drinks_count FROM OrderItems GROUP BY sugarLevel ORDER BY drinks_count DESC";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("SUGAR LEVEL POPULARITY\n");
-            reportsDisplayArea.append("=".repeat(35) + "\n");
-            reportsDisplayArea.append(String.format("%-15s %-15s\n", "Sugar Level", "Drinks Count"));
-            reportsDisplayArea.append("-".repeat(35) + "\n");
+            out.append("SUGAR LEVEL POPULARITY\n");
+            out.append("=".repeat(35) + "\n");
+            out.append(String.format("%-15s %-15s\n", "Sugar Level", "Drinks Count"));
+            out.append("-".repeat(35) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-15s %-15d\n",
+                out.append(String.format("%-15s %-15d\n",
                         rs.getString("sugarLevel"),
                         rs.getInt("drinks_count")));
             }
@@ -1200,25 +1266,25 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateIceLevelReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
+    private void generateIceLevelReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            Statement stmt = conn.createStatement();
             String sql = "SELECT iceLevel, SUM(quantity) AS drinks_count FROM OrderItems GROUP BY iceLevel ORDER BY drinks_count DESC";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("ICE LEVEL POPULARITY\n");
-            reportsDisplayArea.append("=".repeat(30) + "\n");
-            reportsDisplayArea.append(String.format("%-15s %-15s\n", "Ice Level", "Drinks Count"));
-            reportsDisplayArea.append("-".repeat(30) + "\n");
+            out.append("ICE LEVEL POPULARITY\n");
+            out.append("=".repeat(30) + "\n");
+            out.append(String.format("%-15s %-15s\n", "Ice Level", "Drinks Count"));
+            out.append("-".repeat(30) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-15s %-15d\n",
+                out.append(String.format("%-15s %-15d\n",
                         rs.getString("iceLevel"),
                         rs.getInt("drinks_count")));
             }
@@ -1226,25 +1292,26 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateYearlyRevenueReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT EXTRACT(YEAR FROM timeOfOrder) AS year, SUM(totalCost) AS revenue FROM Orders GROUP BY year ORDER BY year";
+    private void generateYearlyRevenueReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT salesYear AS year, revenue FROM SalesYearly ORDER BY salesYear";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("YEARLY REVENUE\n");
-            reportsDisplayArea.append("=".repeat(30) + "\n");
-            reportsDisplayArea.append(String.format("%-10s %-15s\n", "Year", "Revenue"));
-            reportsDisplayArea.append("-".repeat(30) + "\n");
+            out.append("YEARLY REVENUE\n");
+            out.append("=".repeat(30) + "\n");
+            out.append(String.format("%-10s %-15s\n", "Year", "Revenue"));
+            out.append("-".repeat(30) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-10.0f %-15.2f\n",
+                out.append(String.format("%-10.0f %-15.2f\n",
                         rs.getDouble("year"),
                         rs.getDouble("revenue")));
             }
@@ -1252,27 +1319,27 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateOrdersByHourReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT EXTRACT(HOUR FROM \"timeoforder\") AS hour_of_day, COUNT(*) AS orders, SUM(totalcost) AS cost "
-                    +
-                    "FROM orders GROUP BY hour_of_day ORDER BY hour_of_day";
+    private void generateOrdersByHourReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT EXTRACT(HOUR FROM hourStart) AS hour_of_day, SUM(orderCount) AS orders, SUM(revenue) AS cost "
+                    + "FROM SalesHourly GROUP BY hour_of_day ORDER BY hour_of_day";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("ORDERS BY HOUR OF DAY\n");
-            reportsDisplayArea.append("=".repeat(50) + "\n");
-            reportsDisplayArea.append(String.format("%-10s %-10s %-15s\n", "Hour", "Orders", "Total Cost"));
-            reportsDisplayArea.append("-".repeat(50) + "\n");
+            out.append("ORDERS BY HOUR OF DAY\n");
+            out.append("=".repeat(50) + "\n");
+            out.append(String.format("%-10s %-10s %-15s\n", "Hour", "Orders", "Total Cost"));
+            out.append("-".repeat(50) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-10.0f %-10d %-15.2f\n",
+                out.append(String.format("%-10.0f %-10d %-15.2f\n",
                         rs.getDouble("hour_of_day"),
                         rs.getInt("orders"),
                         rs.getDouble("cost")));
@@ -1281,26 +1348,27 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generatePeakSalesReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT \"timeoforder\"::date AS order_date, SUM(totalcost) AS total " +
-                    "FROM orders GROUP BY order_date ORDER BY total DESC LIMIT 10";
+    private void generatePeakSalesReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT salesDate AS order_date, revenue AS total " +
+                    "FROM SalesDaily ORDER BY revenue DESC LIMIT 10";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("TOP 10 PEAK SALES DAYS\n");
-            reportsDisplayArea.append("=".repeat(40) + "\n");
-            reportsDisplayArea.append(String.format("%-15s %-15s\n", "Date", "Total Sales"));
-            reportsDisplayArea.append("-".repeat(40) + "\n");
+            out.append("TOP 10 PEAK SALES DAYS\n");
+            out.append("=".repeat(40) + "\n");
+            out.append(String.format("%-15s %-15s\n", "Date", "Total Sales"));
+            out.append("-".repeat(40) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-15s %-15.2f\n",
+                out.append(String.format("%-15s %-15.2f\n",
                         rs.getDate("order_date").toString(),
                         rs.getDouble("total")));
             }
@@ -1308,25 +1376,26 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateOrdersByWeekReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT orderWeek, COUNT(*) FROM orders GROUP BY orderWeek";
+    private void generateOrdersByWeekReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            SalesRollups.fold(conn);
+            Statement stmt = conn.createStatement();
+            String sql = "SELECT orderWeek, orderCount AS count FROM SalesWeekly ORDER BY orderWeek";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("ORDERS BY WEEK\n");
-            reportsDisplayArea.append("=".repeat(30) + "\n");
-            reportsDisplayArea.append(String.format("%-15s %-10s\n", "Week", "Order Count"));
-            reportsDisplayArea.append("-".repeat(30) + "\n");
+            out.append("ORDERS BY WEEK\n");
+            out.append("=".repeat(30) + "\n");
+            out.append(String.format("%-15s %-10s\n", "Week", "Order Count"));
+            out.append("-".repeat(30) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-15s %-10d\n",
+                out.append(String.format("%-15s %-10d\n",
                         rs.getString("orderWeek"),
                         rs.getInt("count")));
             }
@@ -1334,26 +1403,26 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
-    private void generateMenuItemIngredientsReport() {
-        reportsDisplayArea.setText("");
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
+    private void generateMenuItemIngredientsReport(ReportText out) {
+        out.setText("");
+        try (Connection conn = dbManager.getDataSource().getConnection()) {
+            Statement stmt = conn.createStatement();
             String sql = "SELECT mi.menuitemid, menuitemname, COUNT(*) FROM MenuItemIngredients m " +
                     "INNER JOIN MenuItems mi ON m.menuitemid = mi.menuitemid GROUP BY mi.menuitemid";
             ResultSet rs = stmt.executeQuery(sql);
 
-            reportsDisplayArea.append("MENU ITEM INGREDIENTS COUNT\n");
-            reportsDisplayArea.append("=".repeat(50) + "\n");
-            reportsDisplayArea.append(String.format("%-10s %-25s %-10s\n", "Item ID", "Menu Item Name", "Ingredients"));
-            reportsDisplayArea.append("-".repeat(50) + "\n");
+            out.append("MENU ITEM INGREDIENTS COUNT\n");
+            out.append("=".repeat(50) + "\n");
+            out.append(String.format("%-10s %-25s %-10s\n", "Item ID", "Menu Item Name", "Ingredients"));
+            out.append("-".repeat(50) + "\n");
 
             while (rs.next()) {
-                reportsDisplayArea.append(String.format("%-10d %-25s %-10d\n",
+                out.append(String.format("%-10d %-25s %-10d\n",
                         rs.getInt("menuitemid"),
                         rs.getString("menuitemname"),
                         rs.getInt("count")));
@@ -1362,12 +1431,62 @@ public class BobaShopManagerGUI extends JFrame {
             rs.close();
             stmt.close();
         } catch (Exception e) {
-            reportsDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
+            appendReportError(out, e);
             e.printStackTrace();
         }
     }
 
+    // Asks whether to save the report on screen or stream a whole table to a
+    // CSV, JSON lines or columnar file
     private void exportCurrentReport() {
+        String[] choices = { "Current Report", "All Orders", "All Order Items" };
+        int choice = JOptionPane.showOptionDialog(this, "What would you like to export?", "Export",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (choice < 0) {
+            return;
+        }
+        if (choice == 0) {
+            exportReportText();
+            return;
+        }
+
+        String[] formatNames = { "CSV (.csv)", "JSON Lines (.jsonl)", "Columnar Binary (.bin)" };
+        int format = JOptionPane.showOptionDialog(this, "Choose a file format:", "Export " + choices[choice],
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, formatNames, formatNames[0]);
+        if (format < 0) {
+            return;
+        }
+        String sql = choice == 1 ? "SELECT * FROM orders ORDER BY orderid"
+                : "SELECT * FROM orderitems ORDER BY orderid, orderitemid";
+        exportTable(choices[choice], sql, StreamingExporter.Format.values()[format]);
+    }
+
+    // Streams a query to a timestamped file on a background thread, showing
+    // the row count in a progress monitor as it goes
+    private void exportTable(String name, String sql, StreamingExporter.Format format) {
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String filename = "boba_shop_" + name.toLowerCase().replace(' ', '_') + "_" + timestamp
+                + format.getExtension();
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting " + name.toLowerCase() + " to " + filename,
+                "Starting...", 0, 1);
+        monitor.setMillisToDecideToPopup(250);
+
+        BackgroundTasks.run("Export " + name.toLowerCase(), () -> dbManager.exportQuery(sql,
+                java.nio.file.Paths.get(filename), format,
+                (done, bytes) -> SwingUtilities.invokeLater(() -> monitor
+                        .setNote(String.format("%,d rows, %,d KB", done, bytes / 1024)))), rows -> {
+            monitor.close();
+            JOptionPane.showMessageDialog(this, String.format("Exported %,d rows to: %s", rows, filename),
+                    "Export Success", JOptionPane.INFORMATION_MESSAGE);
+        }, e -> {
+            monitor.close();
+            JOptionPane.showMessageDialog(this, "Failed to export " + name.toLowerCase() + ": " + e.getMessage(),
+                    "Export Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void exportReportText() {
         try {
             String reportContent = reportsDisplayArea.getText();
             if (reportContent.trim().isEmpty()) {
@@ -1394,36 +1513,30 @@ public class BobaShopManagerGUI extends JFrame {
     }
 
     // Generates and displays a visual bar chart showing order distribution by hour
-    // of day
+    // of day. The totals come from the in-memory order history, so reopening the
+    // chart does not query the database again.
     private void showPeriodUsageChart() {
-        try {
-            Statement stmt = dbManager.getConnection().createStatement();
-            String sql = "SELECT EXTRACT(HOUR FROM \"timeoforder\") AS hour_of_day, COUNT(*) AS orders, SUM(totalcost) AS cost "
-                    +
-                    "FROM orders GROUP BY hour_of_day ORDER BY hour_of_day";
-            ResultSet rs = stmt.executeQuery(sql);
-
-            java.util.List<Integer> hours = new java.util.ArrayList<>();
-            java.util.List<Integer> orderCounts = new java.util.ArrayList<>();
-            java.util.List<Double> totalCosts = new java.util.ArrayList<>();
-
-            while (rs.next()) {
-                hours.add((int) rs.getDouble("hour_of_day"));
-                orderCounts.add(rs.getInt("orders"));
-                totalCosts.add(rs.getDouble("cost"));
+        reportsDisplayArea.setText("Generating report...\n");
+        reportLane.run("showPeriodUsageChart",
+                () -> dbManager.getOrderCube().breakdown(OrderCube.Dimension.HOUR_OF_DAY, null), byHour -> {
+            String[] hours = new String[byHour.size()];
+            double[] orderCounts = new double[byHour.size()];
+            for (int i = 0; i < byHour.size(); i++) {
+                hours[i] = String.valueOf(byHour.getKey(i));
+                orderCounts[i] = byHour.getCount(i);
             }
 
-            rs.close();
-            stmt.close();
-
-            JFrame chartFrame = new JFrame("Period Usage Chart - Orders by Hour");
-            chartFrame.setSize(1000, 600);
-            chartFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-
-            PeriodUsageChartPanel chartPanel = new PeriodUsageChartPanel(hours, orderCounts, totalCosts);
-            chartFrame.add(chartPanel);
-
-            chartFrame.setVisible(true);
+            if (periodUsageChart == null || !periodUsageChart.isDisplayable()) {
+                JFrame chartFrame = new JFrame("Period Usage Chart - Orders by Hour");
+                chartFrame.setSize(1000, 600);
+                chartFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+                periodUsageChart = new BarChartPanel("Period Usage Chart - Orders by Hour", "Hour of Day",
+                        "Number of Orders");
+                chartFrame.add(periodUsageChart);
+                chartFrame.setVisible(true);
+            }
+            periodUsageChart.setData(hours, orderCounts);
+            SwingUtilities.getWindowAncestor(periodUsageChart).toFront();
 
             reportsDisplayArea.setText("");
             reportsDisplayArea.append("ORDERS BY HOUR OF DAY\n");
@@ -1431,132 +1544,17 @@ public class BobaShopManagerGUI extends JFrame {
             reportsDisplayArea.append(String.format("%-10s %-10s %-15s\n", "Hour", "Orders", "Total Cost"));
             reportsDisplayArea.append("-".repeat(50) + "\n");
 
-            for (int i = 0; i < hours.size(); i++) {
+            for (int i = 0; i < byHour.size(); i++) {
                 reportsDisplayArea.append(String.format("%-10d %-10d $%-14.2f\n",
-                        hours.get(i),
-                        orderCounts.get(i),
-                        totalCosts.get(i)));
+                        byHour.getKey(i),
+                        byHour.getCount(i),
+                        byHour.getRevenue(i)));
             }
-
-        } catch (Exception e) {
+        }, e -> {
+            reportsDisplayArea.setText("");
             JOptionPane.showMessageDialog(this, "Failed to generate chart: " + e.getMessage(),
                     "Chart Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
-    }
-
-    class PeriodUsageChartPanel extends JPanel {
-        private java.util.List<Integer> hours;
-        private java.util.List<Integer> orderCounts;
-        private java.util.List<Double> totalCosts;
-
-        public PeriodUsageChartPanel(java.util.List<Integer> hours, java.util.List<Integer> orderCounts,
-                java.util.List<Double> totalCosts) {
-            this.hours = hours;
-            this.orderCounts = orderCounts;
-            this.totalCosts = totalCosts;
-            setBackground(Color.WHITE);
-        }
-
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            if (hours.isEmpty()) {
-                g2d.drawString("No data available", getWidth() / 2 - 50, getHeight() / 2);
-                return;
-            }
-
-            // Chart dimensions
-            int padding = 60;
-            int chartWidth = getWidth() - 2 * padding;
-            int chartHeight = getHeight() - 2 * padding;
-
-            // Find max values for scaling
-            int maxOrders = orderCounts.stream().max(Integer::compare).orElse(1);
-            double maxCost = totalCosts.stream().max(Double::compare).orElse(1.0);
-
-            // Draw title
-            g2d.setFont(new Font("Arial", Font.BOLD, 18));
-            g2d.setColor(Color.BLACK);
-            String title = "Period Usage Chart - Orders by Hour";
-            int titleWidth = g2d.getFontMetrics().stringWidth(title);
-            g2d.drawString(title, (getWidth() - titleWidth) / 2, 30);
-
-            // Draw axes
-            g2d.setColor(Color.BLACK);
-            g2d.drawLine(padding, getHeight() - padding, getWidth() - padding, getHeight() - padding); // X-axis
-            g2d.drawLine(padding, padding, padding, getHeight() - padding); // Y-axis
-
-            // Draw Y-axis label
-            g2d.setFont(new Font("Arial", Font.PLAIN, 12));
-            g2d.drawString("Number of Orders", 10, padding - 10);
-
-            // Draw X-axis label
-            g2d.drawString("Hour of Day", getWidth() / 2 - 30, getHeight() - 10);
-
-            // Calculate bar width
-            int numBars = hours.size();
-            int barWidth = Math.max(10, chartWidth / (numBars * 2));
-            int spacing = chartWidth / numBars;
-
-            // Draw bars and labels
-            for (int i = 0; i < hours.size(); i++) {
-                int hour = hours.get(i);
-                int orders = orderCounts.get(i);
-                double cost = totalCosts.get(i);
-
-                // Calculate bar height
-                int barHeight = (int) ((orders * 1.0 / maxOrders) * chartHeight);
-
-                // Calculate bar position
-                int x = padding + (i * spacing) + (spacing - barWidth) / 2;
-                int y = getHeight() - padding - barHeight;
-
-                // Draw bar with gradient
-                GradientPaint gradient = new GradientPaint(
-                        x, y, new Color(70, 130, 180),
-                        x, getHeight() - padding, new Color(135, 206, 250));
-                g2d.setPaint(gradient);
-                g2d.fillRect(x, y, barWidth, barHeight);
-
-                // Draw bar border
-                g2d.setColor(Color.BLACK);
-                g2d.drawRect(x, y, barWidth, barHeight);
-
-                // Draw hour label
-                g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-                String hourLabel = String.valueOf(hour);
-                int labelWidth = g2d.getFontMetrics().stringWidth(hourLabel);
-                g2d.drawString(hourLabel, x + (barWidth - labelWidth) / 2, getHeight() - padding + 15);
-
-                // Draw order count on top of bar
-                g2d.setFont(new Font("Arial", Font.BOLD, 9));
-                String orderLabel = String.valueOf(orders);
-                int orderLabelWidth = g2d.getFontMetrics().stringWidth(orderLabel);
-                g2d.drawString(orderLabel, x + (barWidth - orderLabelWidth) / 2, y - 5);
-            }
-
-            // Draw legend
-            g2d.setFont(new Font("Arial", Font.PLAIN, 11));
-            g2d.setColor(new Color(70, 130, 180));
-            g2d.fillRect(getWidth() - padding - 150, padding + 20, 15, 15);
-            g2d.setColor(Color.BLACK);
-            g2d.drawString("Order Count", getWidth() - padding - 130, padding + 32);
-
-            // Draw Y-axis scale
-            g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-            for (int i = 0; i <= 5; i++) {
-                int scaleValue = (maxOrders / 5) * i;
-                int yPos = getHeight() - padding - (chartHeight / 5) * i;
-                g2d.drawString(String.valueOf(scaleValue), padding - 35, yPos + 5);
-                g2d.setColor(Color.LIGHT_GRAY);
-                g2d.drawLine(padding, yPos, getWidth() - padding, yPos);
-                g2d.setColor(Color.BLACK);
-            }
-        }
+        });
     }
 
 
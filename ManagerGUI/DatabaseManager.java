@@ -1,7 +1,15 @@
+import New_Additions.ConnectionPool;
+import New_Additions.IdAllocator;
+import New_Additions.OrderCube;
+import New_Additions.ReportCache;
+import New_Additions.SalesLeaderboard;
+import New_Additions.StreamingExporter;
 import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 
 /**
@@ -14,7 +22,17 @@ public class DatabaseManager {
     private static final String DB_USER = env.get("DB_USER");
     private static final String DB_PASS = env.get("DB_PASS");
     
+    private ConnectionPool pool = null;
     private Connection conn = null;
+    private IdAllocator idAllocator = null;
+    private OrderCube orderCube = null;
+    private SalesLeaderboard salesLeaderboard = null;
+    /** Guards orderCube and salesLeaderboard. A lock rather than synchronized, so lanes waiting on a load do not pin their carrier threads. */
+    private final ReentrantLock orderLock = new ReentrantLock();
+    private final ReportCache<String> reportCache = new ReportCache<>(readReportCacheTtlMillis());
+
+    /** How often the leaderboard checks for orders from the cashier terminals, in ms. */
+    private static final long ORDER_REFRESH_MILLIS = 30_000;
     
     /** Creates a new DatabaseManager and connects to the databse. */
     public DatabaseManager() {
@@ -25,17 +43,77 @@ public class DatabaseManager {
     private void connectToDatabase() {
         try {
             Class.forName("org.postgresql.Driver");
-            conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+            ConnectionPool.Settings settings = ConnectionPool.Settings.fromEnvironment(env);
+            // The GUI keeps conn for its whole lifetime, so it must not be reported as a leak
+            settings.setLeakDetectionThresholdMillis(0);
+            pool = new ConnectionPool(DB_URL, DB_USER, DB_PASS, settings);
+            conn = pool.getConnection();
+            idAllocator = new IdAllocator(pool);
         } catch (Exception e) {
             throw new RuntimeException("Database connection failed: " + e.getMessage(), e);
         }
     }
     
-    /** Gets the current connection. @return active connection or null if not connected. */
+    /** Gets the current connection, for work on the event thread; background tasks borrow their own from getDataSource(), since a cancelled task can still be using it. @return active connection or null if not connected. */
     public Connection getConnection() {
         return conn;
     }
     
+    /** Gets the connection pool, for work that borrows its own connections such as paged table views. @return pool or null if not connected. */
+    public javax.sql.DataSource getDataSource() {
+        return pool;
+    }
+    
+    /** Gets the next primary key for a table from the shared ID allocator. @param sequence table sequence. @return unique id. @throws SQLException if a new id block could not be reserved. */
+    public int nextId(IdAllocator.Sequence sequence) throws SQLException {
+        return idAllocator.nextId(sequence);
+    }
+    
+    /** Gets live best/worst seller rankings, loading order history on first use and pulling in new orders every 30 seconds. @return leaderboard over all orders. @throws SQLException if the order history could not be loaded. */
+    public SalesLeaderboard getSalesLeaderboard() throws SQLException {
+        orderLock.lock();
+        try {
+            if (orderCube == null) {
+                orderCube = OrderCube.load(pool);
+                salesLeaderboard = new SalesLeaderboard();
+                orderCube.addItemListener(salesLeaderboard);
+            } else if (orderCube.getMillisSinceRefresh() > ORDER_REFRESH_MILLIS) {
+                try {
+                    if (orderCube.refresh() > 0) {
+                        reportCache.invalidate(ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Error refreshing orders: " + e.getMessage());
+                }
+            }
+            return salesLeaderboard;
+        } finally {
+            orderLock.unlock();
+        }
+    }
+    
+    /** Gets the order history held in memory, loading it on first use and pulling in new orders every 30 seconds. @return order cube. @throws SQLException if the order history could not be loaded. */
+    public OrderCube getOrderCube() throws SQLException {
+        orderLock.lock();
+        try {
+            getSalesLeaderboard();
+            return orderCube;
+        } finally {
+            orderLock.unlock();
+        }
+    }
+    
+    /** Streams a query's rows to a file through a pooled cursor connection, so memory use stays flat. @param sql query without parameters. @param file file to write. @param format file format. @param progress progress callback or null. @return rows written. @throws SQLException if the query failed. @throws java.io.IOException if the file could not be written. */
+    public long exportQuery(String sql, Path file, StreamingExporter.Format format,
+            StreamingExporter.ProgressListener progress) throws SQLException, java.io.IOException {
+        return StreamingExporter.exportQuery(pool, sql, file, format, progress);
+    }
+    
+    /** Gets the cache of finished report text. Call invalidate on it after every write. @return report cache. */
+    public ReportCache<String> getReportCache() {
+        return reportCache;
+    }
+    
     /** Close the database connection if open. Print error if it cant close. */
     public void closeConnection() {
         try {
@@ -45,6 +123,20 @@ public class DatabaseManager {
         } catch (SQLException e) {
             System.err.println("Error closing database connection: " + e.getMessage());
         }
+        if (pool != null) {
+            pool.close();
+        }
+        System.out.println(reportCache.getStatistics());
+    }
+    
+    /** Reads REPORT_CACHE_TTL_SECONDS from env, 60 seconds if missing or invalid. @return report cache ttl in ms. */
+    private static long readReportCacheTtlMillis() {
+        try {
+            return Long.parseLong(env.getOrDefault("REPORT_CACHE_TTL_SECONDS", "60").trim()) * 1000L;
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid REPORT_CACHE_TTL_SECONDS: " + e.getMessage());
+            return 60_000L;
+        }
     }
     
     /** Loads env variable from .env file. @param filePath path to env file. @return map of key and value. */
@@ -3,11 +3,28 @@ package ManagerGUI;
 import javax.swing.*;
 import java.awt.*;
 import java.sql.*;
+import New_Additions.BackgroundTasks;
+import New_Additions.BarChartPanel;
+import New_Additions.ChangeNotifier;
 import New_Additions.DatabaseManager;
 import New_Additions.LandingPage;
 import New_Additions.MenuItem;
 import New_Additions.Inventory;
+import New_Additions.InventoryForecast;
 import New_Additions.Employee;
+import New_Additions.CustomerVisits;
+import New_Additions.DashboardSnapshot;
+import New_Additions.OrderCube;
+import New_Additions.OrderValues;
+import New_Additions.PagedTableModel;
+import New_Additions.PagedTableView;
+import New_Additions.QuantileSketch;
+import New_Additions.RegisterCloseout;
+import New_Additions.ReportCache;
+import New_Additions.SalesLeaderboard;
+import New_Additions.StreamingExporter;
+import New_Additions.TimeRange;
+import New_Additions.TimeSeriesChartPanel;
 
 /**
  * Manager UI for managing menu, inventory, employees, and reports.
@@ -29,6 +46,49 @@ public class ManagerUI extends JFrame {
     private JTextArea employeeDisplayArea;
     /** Text area for displaying reports and analytics */
     private JTextArea reportsDisplayArea;
+    /** Table views shown in place of the text areas by the View buttons */
+    private PagedTableView menuTable;
+    private PagedTableView inventoryTable;
+    private PagedTableView employeeTable;
+    /** Table view of the whole order history */
+    private PagedTableView orderTable;
+    private boolean orderHistoryLoaded;
+    /** Open chart windows, reused by later clicks until they are closed */
+    private TimeSeriesChartPanel salesChart;
+    private BarChartPanel hourlyChart;
+    /** Card names for a display area and its table view */
+    private static final String TEXT_CARD = "text";
+    private static final String TABLE_CARD = "table";
+    /**
+     * Background reads for each display area; a new task replaces the one
+     * before. Writes never run on a lane, so viewing the data while a save is
+     * in flight cannot drop the save or its result.
+     */
+    private final BackgroundTasks.Lane menuLane = new BackgroundTasks.Lane();
+    private final BackgroundTasks.Lane inventoryLane = new BackgroundTasks.Lane();
+    private final BackgroundTasks.Lane employeeLane = new BackgroundTasks.Lane();
+    private final BackgroundTasks.Lane reportLane = new BackgroundTasks.Lane();
+    /** Changes from other terminals, or this one in mock mode, waiting to be applied to the tables */
+    private final java.util.List<ChangeNotifier.Change> pendingChanges = new java.util.ArrayList<>();
+    /** Applies pending changes once they stop arriving for a moment */
+    private javax.swing.Timer liveUpdateTimer;
+    /** Hands changes to the event thread */
+    private final ChangeNotifier.Listener changeListener =
+            changes -> SwingUtilities.invokeLater(() -> queueChanges(changes));
+    /** Shows when changes last arrived */
+    private JLabel liveStatusLabel;
+    /** Cached report generators by button text, in button order, for the dashboard */
+    private final java.util.Map<String, java.util.function.Supplier<String>> cachedReports =
+            new java.util.LinkedHashMap<>();
+
+    /** How long each report in a dashboard snapshot may run, in ms */
+    private static final long DASHBOARD_REPORT_TIMEOUT_MILLIS = 10_000;
+    /** Low stock report warns about items expected to run out within this many hours */
+    private static final int LOW_STOCK_ALERT_HOURS = 48;
+    /** Restock report suggests enough stock for this many days */
+    private static final int RESTOCK_COVER_DAYS = 7;
+    /** How long changes are gathered before being applied together, in ms */
+    private static final int LIVE_UPDATE_DELAY_MILLIS = 250;
 
     /**
      * Constructs the manager UI and initializes services and components.
@@ -82,10 +142,24 @@ public class ManagerUI extends JFrame {
         tabbedPane.addTab("Menu Management", createMenuManagementTab());
         tabbedPane.addTab("Inventory Management", createInventoryManagementTab());
         tabbedPane.addTab("Employee Management", createEmployeeManagementTab());
+        tabbedPane.addTab("Order History", createOrderHistoryTab());
         tabbedPane.addTab("Reports & Analytics", createReportsTab());
 
+        // The order history loads the first time its tab is opened
+        tabbedPane.addChangeListener(e -> {
+            if (!orderHistoryLoaded && tabbedPane.getSelectedComponent() == orderTable.getParent()) {
+                orderHistoryLoaded = true;
+                orderTable.refresh();
+            }
+        });
+
         mainPanel.add(tabbedPane, BorderLayout.CENTER);
 
+        // Open tables follow changes as they are made, a batch at a time
+        liveUpdateTimer = new javax.swing.Timer(LIVE_UPDATE_DELAY_MILLIS, e -> applyPendingChanges());
+        liveUpdateTimer.setRepeats(false);
+        dbManager.addChangeListener(changeListener);
+
         // Status panel
         JPanel statusPanel = createStatusPanel();
         mainPanel.add(statusPanel, BorderLayout.SOUTH);
@@ -165,8 +239,16 @@ public class ManagerUI extends JFrame {
         JLabel statusLabel = new JLabel(statusText);
         statusLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         statusLabel.setForeground(dbManager.isUsingMockData() ? Color.ORANGE : Color.BLACK);
+        BackgroundTasks.showStatistics(statusLabel);
+
+        liveStatusLabel = new JLabel(dbManager.isUsingMockData() ? "Live updates: this window's changes only"
+                : "Live updates: waiting for changes");
+        liveStatusLabel.setFont(new Font("Arial", Font.ITALIC, 12));
+        liveStatusLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
         statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(liveStatusLabel, BorderLayout.CENTER);
+        statusPanel.add(BackgroundTasks.createIndicator(), BorderLayout.EAST);
 
         return statusPanel;
     }
@@ -191,7 +273,8 @@ public class ManagerUI extends JFrame {
         menuDisplayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(menuDisplayArea);
         scrollPane.setPreferredSize(new Dimension(600, 400));
-        panel.add(scrollPane, BorderLayout.CENTER);
+        menuTable = new PagedTableView(new PagedTableModel(dbManager.getMenuItemPages(), 2, true));
+        panel.add(createCardPanel(scrollPane, menuTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
@@ -201,15 +284,24 @@ public class ManagerUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = createStyledButton("Add Menu Item", "Add a new menu item");
-        addButton.addActionListener(e -> addMenuItem());
+        addButton.addActionListener(e -> {
+            showCard(menuDisplayArea, TEXT_CARD);
+            addMenuItem();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = createStyledButton("Update Price", "Update menu item price");
-        updateButton.addActionListener(e -> updateMenuItemPrice());
+        updateButton.addActionListener(e -> {
+            showCard(menuDisplayArea, TEXT_CARD);
+            updateMenuItemPrice();
+        });
         buttonPanel.add(updateButton);
 
         JButton seasonalButton = createStyledButton("Add Seasonal Item", "Add new seasonal menu item");
-        seasonalButton.addActionListener(e -> addSeasonalMenuItem());
+        seasonalButton.addActionListener(e -> {
+            showCard(menuDisplayArea, TEXT_CARD);
+            addSeasonalMenuItem();
+        });
         buttonPanel.add(seasonalButton);
 
         panel.add(buttonPanel, BorderLayout.SOUTH);
@@ -221,6 +313,64 @@ public class ManagerUI extends JFrame {
         return panel;
     }
 
+    /**
+     * Puts a display area and a table view in the same place, showing one at
+     * a time. The display area is shown first.
+     *
+     * @param textPane  the scroll pane around the display area
+     * @param tableView the table view
+     * @return the panel holding both
+     */
+    private JPanel createCardPanel(JScrollPane textPane, PagedTableView tableView) {
+        JPanel cards = new JPanel(new CardLayout());
+        cards.add(textPane, TEXT_CARD);
+        cards.add(tableView, TABLE_CARD);
+        return cards;
+    }
+
+    /**
+     * Shows the display area or the table view of a card panel.
+     *
+     * @param inside any component inside the card panel
+     * @param card   {@link #TEXT_CARD} or {@link #TABLE_CARD}
+     */
+    private void showCard(Component inside, String card) {
+        Container parent = inside.getParent();
+        while (parent != null && !(parent.getLayout() instanceof CardLayout)) {
+            parent = parent.getParent();
+        }
+        if (parent != null) {
+            ((CardLayout) parent.getLayout()).show(parent, card);
+        }
+    }
+
+    /**
+     * Builds the Order History tab: every order in a table that loads pages
+     * as they are scrolled into view.
+     *
+     * @return order history panel
+     */
+    private JPanel createOrderHistoryTab() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        JLabel titleLabel = new JLabel("Order History");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        panel.add(titleLabel, BorderLayout.NORTH);
+
+        // Newest first
+        orderTable = new PagedTableView(new PagedTableModel(dbManager.getOrderPages(), 1, false));
+        panel.add(orderTable, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
+        JButton refreshButton = createStyledButton("Refresh", "Load orders placed since the table was opened");
+        refreshButton.addActionListener(e -> orderTable.refresh());
+        buttonPanel.add(refreshButton);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        return panel;
+    }
+
     /**
      * Builds the Inventory Management tab UI.
      * 
@@ -240,7 +390,8 @@ public class ManagerUI extends JFrame {
         inventoryDisplayArea.setEditable(false);
         inventoryDisplayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(inventoryDisplayArea);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        inventoryTable = new PagedTableView(new PagedTableModel(dbManager.getInventoryPages(), 1, true));
+        panel.add(createCardPanel(scrollPane, inventoryTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
@@ -250,11 +401,17 @@ public class ManagerUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = createStyledButton("Add Item", "Add new inventory item");
-        addButton.addActionListener(e -> addInventoryItem());
+        addButton.addActionListener(e -> {
+            showCard(inventoryDisplayArea, TEXT_CARD);
+            addInventoryItem();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = createStyledButton("Update Quantity", "Update item quantity");
-        updateButton.addActionListener(e -> updateInventoryQuantity());
+        updateButton.addActionListener(e -> {
+            showCard(inventoryDisplayArea, TEXT_CARD);
+            updateInventoryQuantity();
+        });
         buttonPanel.add(updateButton);
 
         panel.add(buttonPanel, BorderLayout.SOUTH);
@@ -285,7 +442,8 @@ public class ManagerUI extends JFrame {
         employeeDisplayArea.setEditable(false);
         employeeDisplayArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(employeeDisplayArea);
-        panel.add(scrollPane, BorderLayout.CENTER);
+        employeeTable = new PagedTableView(new PagedTableModel(dbManager.getEmployeePages(), 1, true));
+        panel.add(createCardPanel(scrollPane, employeeTable), BorderLayout.CENTER);
 
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
@@ -295,16 +453,25 @@ public class ManagerUI extends JFrame {
         buttonPanel.add(viewButton);
 
         JButton addButton = createStyledButton("Add Employee", "Add new employee");
-        addButton.addActionListener(e -> addEmployee());
+        addButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, TEXT_CARD);
+            addEmployee();
+        });
         buttonPanel.add(addButton);
 
         JButton updateButton = createStyledButton("Update Employee", "Update employee info");
-        updateButton.addActionListener(e -> updateEmployee());
+        updateButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, TEXT_CARD);
+            updateEmployee();
+        });
         buttonPanel.add(updateButton);
 
         JButton deleteButton = createStyledButton("Remove Employee", "Remove employee");
         deleteButton.setBackground(new Color(255, 200, 200));
-        deleteButton.addActionListener(e -> removeEmployee());
+        deleteButton.addActionListener(e -> {
+            showCard(employeeDisplayArea, TEXT_CARD);
+            removeEmployee();
+        });
         buttonPanel.add(deleteButton);
 
         panel.add(buttonPanel, BorderLayout.SOUTH);
@@ -338,26 +505,48 @@ public class ManagerUI extends JFrame {
         panel.add(scrollPane, BorderLayout.CENTER);
 
         // Button panel with multiple rows
-        JPanel buttonPanel = new JPanel(new GridLayout(3, 4, 10, 10));
+        JPanel buttonPanel = new JPanel(new GridLayout(5, 4, 10, 10));
 
         // Sales Reports
-        buttonPanel.add(createReportButton("Sales Today", this::generateSalesTodayReport));
-        buttonPanel.add(createReportButton("Top Sellers", this::generateTopSellersReport));
-        buttonPanel.add(createReportButton("Revenue Report", this::generateRevenueReport));
-        buttonPanel.add(createReportButton("Product Usage", this::generateUsageReport));
+        buttonPanel.add(createCachedReportButton("Sales Today", this::generateSalesTodayReport,
+                ReportCache.Tag.ORDERS));
+        buttonPanel.add(createCachedReportButton("Top Sellers", this::generateTopSellersReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
+        buttonPanel.add(createCachedReportButton("Revenue Report", this::generateRevenueReport,
+                ReportCache.Tag.ORDERS));
+        buttonPanel.add(createCachedReportButton("Product Usage", this::generateUsageReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
 
         // Inventory Reports
-        buttonPanel.add(createReportButton("Low Stock", this::generateLowStockReport));
-        buttonPanel.add(createReportButton("Inventory Value", this::generateInventoryValueReport));
-        buttonPanel.add(createReportButton("Restock Report", this::generateRestockReport));
-        buttonPanel.add(createReportButton("X-Report", this::generateXReport));
+        buttonPanel.add(createCachedReportButton("Low Stock", this::generateLowStockReport,
+                ReportCache.Tag.INVENTORY, ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
+        buttonPanel.add(createCachedReportButton("Inventory Value", this::generateInventoryValueReport,
+                ReportCache.Tag.INVENTORY));
+        buttonPanel.add(createCachedReportButton("Restock Report", this::generateRestockReport,
+                ReportCache.Tag.INVENTORY, ReportCache.Tag.ORDERS, ReportCache.Tag.MENU));
+        buttonPanel.add(createReportButton("X-Report", () -> runReport("X-Report", this::generateXReport)));
 
         // Employee Reports
-        buttonPanel.add(createReportButton("Staff Hours", this::generateStaffHoursReport));
-        buttonPanel.add(createReportButton("Performance", this::generatePerformanceReport));
+        buttonPanel.add(createCachedReportButton("Staff Hours", this::generateStaffHoursReport,
+                ReportCache.Tag.EMPLOYEES));
+        buttonPanel.add(createCachedReportButton("Performance", this::generatePerformanceReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.EMPLOYEES));
         buttonPanel.add(createReportButton("Z-Report", this::generateZReport));
         buttonPanel.add(createReportButton("Export Report", this::exportCurrentReport));
 
+        // Customer Reports
+        buttonPanel.add(createCachedReportButton("Unique Customers", this::generateUniqueCustomersReport,
+                ReportCache.Tag.ORDERS));
+        buttonPanel.add(createCachedReportButton("Retention", this::generateRetentionReport,
+                ReportCache.Tag.ORDERS));
+        buttonPanel.add(createCachedReportButton("Order Values", this::generateOrderValuesReport,
+                ReportCache.Tag.ORDERS, ReportCache.Tag.EMPLOYEES));
+        buttonPanel.add(createReportButton("Dashboard", this::showDashboard));
+
+        // Charts
+        buttonPanel.add(createReportButton("Sales Chart", this::showSalesChart));
+        buttonPanel.add(createReportButton("Orders by Hour", this::showHourlyChart));
+
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
         // Show initial message
@@ -398,6 +587,268 @@ public class ManagerUI extends JFrame {
         return button;
     }
 
+    /**
+     * Creates a report button whose output is kept in the report cache. A
+     * repeated click shows the cached text until a write to the data the
+     * report reads, or the cache time to live, drops it. Reports that could
+     * not load all of their data are not cached. The report is also added to
+     * the dashboard.
+     *
+     * @param text     the text to display on the report button
+     * @param report   the report generator; it must not touch Swing components
+     * @param tag      the data the report reads
+     * @param moreTags any further data the report reads
+     * @return a styled JButton configured for cached report generation
+     */
+    private JButton createCachedReportButton(String text, java.util.function.Consumer<ReportText> report,
+            ReportCache.Tag tag, ReportCache.Tag... moreTags) {
+        java.util.Set<ReportCache.Tag> tags = java.util.EnumSet.of(tag, moreTags);
+        java.util.function.Supplier<String> cached = () -> {
+            ReportText[] fresh = new ReportText[1];
+            // Keyed by day so "today" reports are rebuilt after midnight
+            String hit = dbManager.getReportCache().get(text + "@" + java.time.LocalDate.now(), tags, () -> {
+                long failures = dbManager.getReadFailureCount();
+                fresh[0] = new ReportText();
+                report.accept(fresh[0]);
+                // A read that failed returns sample data, which must not be kept for the TTL
+                if (dbManager.getReadFailureCount() != failures) {
+                    fresh[0].markIncomplete();
+                }
+                return fresh[0].isIncomplete() ? null : fresh[0].toString();
+            });
+            return hit != null ? hit : fresh[0].toString();
+        };
+        cachedReports.put(text, cached);
+        return createReportButton(text, () -> runReport(text, cached::get));
+    }
+
+    /**
+     * Builds a report on a background thread and shows it when it is ready.
+     * A report started while another is still running replaces it.
+     *
+     * @param name   the report name, for the busy indicator
+     * @param report builds the report text; it must not touch Swing components
+     */
+    private void runReport(String name, java.util.concurrent.Callable<String> report) {
+        reportsDisplayArea.setText("Generating " + name + " report...\n");
+        reportLane.run(name + " report", report, text -> {
+            reportsDisplayArea.setText(text);
+            reportsDisplayArea.setCaretPosition(0);
+        }, e -> showTaskError(reportsDisplayArea, e));
+    }
+
+    /**
+     * Shows the error of a failed background task in a display area.
+     *
+     * @param area the display area the task was filling
+     * @param e    what went wrong
+     */
+    private void showTaskError(JTextArea area, Exception e) {
+        area.setText("");
+        area.append("\nERROR: " + e.getMessage() + "\n");
+    }
+
+    /**
+     * Runs every cached report at once and shows them together, followed by
+     * how long each one took. Reports run on worker threads, so the window
+     * stays responsive while the snapshot is taken.
+     */
+    private void showDashboard() {
+        reportLane.cancel();
+        reportsDisplayArea.setText("Running " + cachedReports.size() + " reports...\n");
+        java.util.Map<String, java.util.concurrent.Callable<String>> reports = new java.util.LinkedHashMap<>();
+        cachedReports.forEach((name, report) -> reports.put(name, report::get));
+        DashboardSnapshot.take(reports, DASHBOARD_REPORT_TIMEOUT_MILLIS)
+                .thenAccept(snapshot -> SwingUtilities.invokeLater(() -> showDashboardSnapshot(snapshot)));
+    }
+
+    /**
+     * Shows a finished dashboard snapshot in the report area.
+     *
+     * @param snapshot the reports to show
+     */
+    private void showDashboardSnapshot(DashboardSnapshot snapshot) {
+        StringBuilder text = new StringBuilder();
+        text.append("DASHBOARD SNAPSHOT\n");
+        text.append("=".repeat(50) + "\n");
+        text.append("Taken: " + snapshot.getTakenAt().withNano(0) + "\n\n");
+        for (DashboardSnapshot.Section section : snapshot.getSections()) {
+            text.append(section.getText()).append("\n");
+        }
+
+        text.append("REPORT TIMINGS\n");
+        text.append("-".repeat(50) + "\n");
+        for (DashboardSnapshot.Section section : snapshot.getSections()) {
+            text.append(String.format("%-20s %-10s %6d ms\n", section.getName(), section.getStatus(),
+                    section.getLatencyMillis()));
+        }
+        text.append(String.format("Total: %d ms (one at a time: about %d ms)\n", snapshot.getTotalMillis(),
+                snapshot.getSumOfLatenciesMillis()));
+        reportsDisplayArea.setText(text.toString());
+        reportsDisplayArea.setCaretPosition(0);
+    }
+
+    /**
+     * Opens a chart of revenue per minute over the whole order history. The
+     * chart can be zoomed from the full range down to single minutes.
+     */
+    private void showSalesChart() {
+        reportsDisplayArea.setText("Loading sales chart...\n");
+        reportLane.run("Sales chart", () -> {
+            OrderCube cube = dbManager.getOrderCube();
+            return cube == null ? null : cube.series(60);
+        }, series -> {
+            if (series == null) {
+                reportsDisplayArea.setText("Order data is unavailable right now. Please try again later.\n");
+                return;
+            }
+            long[] times = new long[series.size()];
+            double[] revenue = new double[series.size()];
+            double total = 0;
+            for (int i = 0; i < times.length; i++) {
+                times[i] = series.getTime(i);
+                revenue[i] = series.getRevenue(i);
+                total += revenue[i];
+            }
+            if (salesChart == null || !salesChart.isDisplayable()) {
+                salesChart = new TimeSeriesChartPanel("Revenue per Minute", "$%,.2f");
+                openChartWindow("Sales Over Time", salesChart);
+            }
+            salesChart.setData(times, revenue);
+            SwingUtilities.getWindowAncestor(salesChart).toFront();
+
+            reportsDisplayArea.setText("SALES CHART\n");
+            reportsDisplayArea.append("=".repeat(50) + "\n");
+            reportsDisplayArea.append(String.format("Points charted:  %,d\n", times.length));
+            reportsDisplayArea.append(String.format("Total revenue:   $%,.2f\n", total));
+            reportsDisplayArea.append("\nScroll over the chart to zoom, drag to pan, double-click to reset.\n");
+        }, e -> showTaskError(reportsDisplayArea, e));
+    }
+
+    /**
+     * Opens a bar chart of orders by hour of day over the whole order history.
+     */
+    private void showHourlyChart() {
+        reportsDisplayArea.setText("Loading hourly chart...\n");
+        reportLane.run("Hourly chart", () -> {
+            OrderCube cube = dbManager.getOrderCube();
+            return cube == null ? null : cube.breakdown(OrderCube.Dimension.HOUR_OF_DAY, null);
+        }, byHour -> {
+            if (byHour == null) {
+                reportsDisplayArea.setText("Order data is unavailable right now. Please try again later.\n");
+                return;
+            }
+            String[] hours = new String[byHour.size()];
+            double[] orders = new double[byHour.size()];
+            for (int i = 0; i < hours.length; i++) {
+                hours[i] = String.valueOf(byHour.getKey(i));
+                orders[i] = byHour.getCount(i);
+            }
+            if (hourlyChart == null || !hourlyChart.isDisplayable()) {
+                hourlyChart = new BarChartPanel("Orders by Hour of Day", "Hour of Day", "Number of Orders");
+                openChartWindow("Orders by Hour", hourlyChart);
+            }
+            hourlyChart.setData(hours, orders);
+            SwingUtilities.getWindowAncestor(hourlyChart).toFront();
+            reportsDisplayArea.setText("ORDERS BY HOUR\n");
+            reportsDisplayArea.append("=".repeat(50) + "\n");
+            reportsDisplayArea.append(String.format("Orders charted: %,d\n", byHour.getTotalCount()));
+        }, e -> showTaskError(reportsDisplayArea, e));
+    }
+
+    /**
+     * Queues changes for the tables. A burst of changes, such as a rush of
+     * orders, is applied once it pauses for {@value #LIVE_UPDATE_DELAY_MILLIS} ms.
+     *
+     * @param changes the changes that arrived
+     */
+    private void queueChanges(java.util.List<ChangeNotifier.Change> changes) {
+        pendingChanges.addAll(changes);
+        liveUpdateTimer.restart();
+    }
+
+    /**
+     * Applies the queued changes to every table that has been loaded:
+     * changed rows are updated in place, and added or removed rows reload
+     * the pages on screen. Tables not loaded yet are left alone.
+     */
+    private void applyPendingChanges() {
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        java.util.Map<ChangeNotifier.Table, java.util.Set<Integer>> updated =
+                new java.util.EnumMap<>(ChangeNotifier.Table.class);
+        java.util.Set<ChangeNotifier.Table> resized = java.util.EnumSet.noneOf(ChangeNotifier.Table.class);
+        for (ChangeNotifier.Change change : pendingChanges) {
+            if (change.getOperation() == ChangeNotifier.Operation.UPDATE) {
+                updated.computeIfAbsent(change.getTable(), table -> new java.util.HashSet<>()).add(change.getId());
+            } else {
+                resized.add(change.getTable());
+            }
+        }
+        int count = pendingChanges.size();
+        pendingChanges.clear();
+
+        for (ChangeNotifier.Table table : ChangeNotifier.Table.values()) {
+            PagedTableView view = switch (table) {
+                case ORDERS -> orderTable;
+                case INVENTORY -> inventoryTable;
+                case MENU -> menuTable;
+                case EMPLOYEES -> employeeTable;
+            };
+            if (updated.containsKey(table) || resized.contains(table)) {
+                view.applyChanges(updated.getOrDefault(table, java.util.Set.of()),
+                        resized.contains(table));
+            }
+        }
+        liveStatusLabel.setText(String.format("Live updates: %d change%s at %s", count, count == 1 ? "" : "s",
+                java.time.LocalTime.now().withNano(0)));
+    }
+
+    /**
+     * Shows a chart in a window of its own.
+     *
+     * @param title the window title
+     * @param chart the chart to show
+     */
+    private void openChartWindow(String title, JComponent chart) {
+        JFrame frame = new JFrame(title);
+        frame.setSize(1000, 600);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        frame.add(chart);
+        frame.setLocationRelativeTo(this);
+        frame.setVisible(true);
+    }
+
+    /**
+     * Text of one report as it is generated. Reports build into this rather
+     * than the report area, so they can be cached and run off the Swing
+     * thread.
+     */
+    private static final class ReportText {
+        private final StringBuilder text = new StringBuilder();
+        private boolean incomplete;
+
+        ReportText append(String line) {
+            text.append(line);
+            return this;
+        }
+
+        /** Marks the report as missing data, so it is shown but not cached. */
+        void markIncomplete() {
+            incomplete = true;
+        }
+
+        boolean isIncomplete() {
+            return incomplete;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
     /**
      * Shows a standard initial message in a text area.
      * 
@@ -427,30 +878,13 @@ public class ManagerUI extends JFrame {
 
     // Menu Management Methods
     /**
-     * Displays all menu items in the menu area.
+     * Displays all menu items in a table, loading rows as they are scrolled
+     * into view.
      */
     private void viewMenuItems() {
-        menuDisplayArea.setText("");
-        try {
-            java.util.List<MenuItem> menuItems = dbManager.getAllMenuItems();
-
-            menuDisplayArea.append("MENU ITEMS\n");
-            menuDisplayArea.append("=".repeat(80) + "\n");
-            menuDisplayArea.append(String.format("%-12s %-20s %-30s %-10s\n",
-                    "Item ID", "Category", "Item Name", "Price"));
-            menuDisplayArea.append("-".repeat(80) + "\n");
-
-            for (MenuItem item : menuItems) {
-                menuDisplayArea.append(String.format("%-12d %-20s %-30s $%-9.2f\n",
-                        item.getMenuItemID(),
-                        item.getDrinkCategory(),
-                        item.getMenuItemName(),
-                        item.getPrice()));
-            }
-
-        } catch (Exception e) {
-            menuDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-        }
+        menuLane.cancel();
+        showCard(menuDisplayArea, TABLE_CARD);
+        menuTable.refresh();
     }
 
     /**
@@ -485,17 +919,19 @@ public class ManagerUI extends JFrame {
                 }
 
                 MenuItem item = new MenuItem(0, category, name, price);
-                boolean success = dbManager.addMenuItem(item);
-
-                if (success) {
-                    menuDisplayArea.append("✓ Menu item added successfully!\n");
-                    menuDisplayArea.append("=".repeat(60) + "\n");
-                    menuDisplayArea.append(String.format("Category: %s\n", category));
-                    menuDisplayArea.append(String.format("Name: %s\n", name));
-                    menuDisplayArea.append(String.format("Price: $%.2f\n", price));
-                } else {
-                    menuDisplayArea.append("\nERROR: Failed to add menu item\n");
-                }
+                menuDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Add menu item", () -> dbManager.addMenuItem(item), success -> {
+                    menuDisplayArea.setText("");
+                    if (success) {
+                        menuDisplayArea.append("✓ Menu item added successfully!\n");
+                        menuDisplayArea.append("=".repeat(60) + "\n");
+                        menuDisplayArea.append(String.format("Category: %s\n", category));
+                        menuDisplayArea.append(String.format("Name: %s\n", name));
+                        menuDisplayArea.append(String.format("Price: $%.2f\n", price));
+                    } else {
+                        menuDisplayArea.append("\nERROR: Failed to add menu item\n");
+                    }
+                }, e -> showTaskError(menuDisplayArea, e));
 
             } catch (NumberFormatException e) {
                 menuDisplayArea.append("\nERROR: Invalid price format. Please enter a valid number.\n");
@@ -509,8 +945,17 @@ public class ManagerUI extends JFrame {
      * Prompts for and updates a menu item's price.
      */
     private void updateMenuItemPrice() {
+        menuLane.run("Load menu items", dbManager::getAllMenuItems, this::showUpdateMenuItemPriceDialog,
+                e -> showTaskError(menuDisplayArea, e));
+    }
+
+    /**
+     * Shows the price update dialog once the data it lists has loaded.
+     *
+     * @param menuItems the current menu
+     */
+    private void showUpdateMenuItemPriceDialog(java.util.List<MenuItem> menuItems) {
         try {
-            java.util.List<MenuItem> menuItems = dbManager.getAllMenuItems();
 
             StringBuilder menuList = new StringBuilder("Current Menu Items:\n\n");
             for (MenuItem item : menuItems) {
@@ -549,16 +994,18 @@ public class ManagerUI extends JFrame {
                 int itemId = Integer.parseInt(idField.getText().trim());
                 double newPrice = Double.parseDouble(priceField.getText().trim());
 
-                boolean success = dbManager.updateMenuItemPrice(itemId, newPrice);
-
-                if (success) {
-                    menuDisplayArea.append("✓ Menu item price updated successfully!\n");
-                    menuDisplayArea.append("=".repeat(60) + "\n");
-                    menuDisplayArea.append(String.format("Item ID: %d\n", itemId));
-                    menuDisplayArea.append(String.format("New Price: $%.2f\n", newPrice));
-                } else {
-                    menuDisplayArea.append("\nERROR: Menu item ID not found or update failed.\n");
-                }
+                menuDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Update menu item price", () -> dbManager.updateMenuItemPrice(itemId, newPrice), success -> {
+                    menuDisplayArea.setText("");
+                    if (success) {
+                        menuDisplayArea.append("✓ Menu item price updated successfully!\n");
+                        menuDisplayArea.append("=".repeat(60) + "\n");
+                        menuDisplayArea.append(String.format("Item ID: %d\n", itemId));
+                        menuDisplayArea.append(String.format("New Price: $%.2f\n", newPrice));
+                    } else {
+                        menuDisplayArea.append("\nERROR: Menu item ID not found or update failed.\n");
+                    }
+                }, e -> showTaskError(menuDisplayArea, e));
             }
 
         } catch (NumberFormatException e) {
@@ -609,22 +1056,24 @@ public class ManagerUI extends JFrame {
 
                 // Create seasonal menu item with "Seasonal" category
                 MenuItem seasonalItem = new MenuItem(0, "Seasonal", name, price);
-                boolean success = dbManager.addMenuItem(seasonalItem);
-
-                if (success) {
-                    menuDisplayArea.append("✓ NEW SEASONAL MENU ITEM ADDED!\n");
-                    menuDisplayArea.append("=".repeat(60) + "\n");
-                    menuDisplayArea.append(String.format("Item Name: %s\n", name));
-                    menuDisplayArea.append(String.format("Category: Seasonal\n"));
-                    menuDisplayArea.append(String.format("Price: $%.2f\n", price));
-                    menuDisplayArea.append(String.format("Season: %s\n", season));
-                    menuDisplayArea.append(String.format("Description: %s\n", description));
-                    menuDisplayArea.append("\n• This item has been added to the POS system\n");
-                    menuDisplayArea.append("• Staff can now take orders for this seasonal item\n");
-                    menuDisplayArea.append("• Remember to update inventory with required ingredients\n");
-                } else {
-                    menuDisplayArea.append("\nERROR: Failed to add seasonal menu item.\n");
-                }
+                menuDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Add seasonal menu item", () -> dbManager.addMenuItem(seasonalItem), success -> {
+                    menuDisplayArea.setText("");
+                    if (success) {
+                        menuDisplayArea.append("✓ NEW SEASONAL MENU ITEM ADDED!\n");
+                        menuDisplayArea.append("=".repeat(60) + "\n");
+                        menuDisplayArea.append(String.format("Item Name: %s\n", name));
+                        menuDisplayArea.append(String.format("Category: Seasonal\n"));
+                        menuDisplayArea.append(String.format("Price: $%.2f\n", price));
+                        menuDisplayArea.append(String.format("Season: %s\n", season));
+                        menuDisplayArea.append(String.format("Description: %s\n", description));
+                        menuDisplayArea.append("\n• This item has been added to the POS system\n");
+                        menuDisplayArea.append("• Staff can now take orders for this seasonal item\n");
+                        menuDisplayArea.append("• Remember to update inventory with required ingredients\n");
+                    } else {
+                        menuDisplayArea.append("\nERROR: Failed to add seasonal menu item.\n");
+                    }
+                }, e -> showTaskError(menuDisplayArea, e));
 
             } catch (NumberFormatException e) {
                 menuDisplayArea.append("\nERROR: Invalid price format. Please enter a valid number.\n");
@@ -639,26 +1088,9 @@ public class ManagerUI extends JFrame {
      * Displays all inventory items and quantities.
      */
     private void viewInventory() {
-        inventoryDisplayArea.setText("");
-        try {
-            java.util.List<Inventory> inventory = dbManager.getAllInventory();
-
-            inventoryDisplayArea.append("INVENTORY\n");
-            inventoryDisplayArea.append("=".repeat(70) + "\n");
-            inventoryDisplayArea.append(String.format("%-15s %-35s %-15s\n",
-                    "Ingredient ID", "Ingredient Name", "Quantity"));
-            inventoryDisplayArea.append("-".repeat(70) + "\n");
-
-            for (Inventory item : inventory) {
-                inventoryDisplayArea.append(String.format("%-15d %-35s %-15d\n",
-                        item.getIngredientID(),
-                        item.getIngredientName(),
-                        item.getIngredientCount()));
-            }
-
-        } catch (Exception e) {
-            inventoryDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-        }
+        inventoryLane.cancel();
+        showCard(inventoryDisplayArea, TABLE_CARD);
+        inventoryTable.refresh();
     }
 
     /**
@@ -689,16 +1121,18 @@ public class ManagerUI extends JFrame {
                 }
 
                 Inventory item = new Inventory(0, name, quantity);
-                boolean success = dbManager.addInventoryItem(item);
-
-                if (success) {
-                    inventoryDisplayArea.append("✓ Inventory item added successfully!\n");
-                    inventoryDisplayArea.append("=".repeat(60) + "\n");
-                    inventoryDisplayArea.append(String.format("Name: %s\n", name));
-                    inventoryDisplayArea.append(String.format("Quantity: %d\n", quantity));
-                } else {
-                    inventoryDisplayArea.append("\nERROR: Failed to add inventory item\n");
-                }
+                inventoryDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Add inventory item", () -> dbManager.addInventoryItem(item), success -> {
+                    inventoryDisplayArea.setText("");
+                    if (success) {
+                        inventoryDisplayArea.append("✓ Inventory item added successfully!\n");
+                        inventoryDisplayArea.append("=".repeat(60) + "\n");
+                        inventoryDisplayArea.append(String.format("Name: %s\n", name));
+                        inventoryDisplayArea.append(String.format("Quantity: %d\n", quantity));
+                    } else {
+                        inventoryDisplayArea.append("\nERROR: Failed to add inventory item\n");
+                    }
+                }, e -> showTaskError(inventoryDisplayArea, e));
 
             } catch (NumberFormatException e) {
                 inventoryDisplayArea.append("\nERROR: Invalid quantity format. Please enter a valid number.\n");
@@ -712,8 +1146,17 @@ public class ManagerUI extends JFrame {
      * Prompts for and updates an inventory item's quantity.
      */
     private void updateInventoryQuantity() {
+        inventoryLane.run("Load inventory", dbManager::getAllInventory, this::showUpdateInventoryQuantityDialog,
+                e -> showTaskError(inventoryDisplayArea, e));
+    }
+
+    /**
+     * Shows the quantity update dialog once the data it lists has loaded.
+     *
+     * @param inventory the current inventory
+     */
+    private void showUpdateInventoryQuantityDialog(java.util.List<Inventory> inventory) {
         try {
-            java.util.List<Inventory> inventory = dbManager.getAllInventory();
 
             StringBuilder inventoryList = new StringBuilder("Current Inventory:\n\n");
             for (Inventory item : inventory) {
@@ -752,16 +1195,18 @@ public class ManagerUI extends JFrame {
                 int ingredientId = Integer.parseInt(idField.getText().trim());
                 int newQuantity = Integer.parseInt(quantityField.getText().trim());
 
-                boolean success = dbManager.updateInventoryQuantity(ingredientId, newQuantity);
-
-                if (success) {
-                    inventoryDisplayArea.append("✓ Inventory quantity updated successfully!\n");
-                    inventoryDisplayArea.append("=".repeat(60) + "\n");
-                    inventoryDisplayArea.append(String.format("Ingredient ID: %d\n", ingredientId));
-                    inventoryDisplayArea.append(String.format("New Quantity: %d\n", newQuantity));
-                } else {
-                    inventoryDisplayArea.append("\nERROR: Ingredient ID not found or update failed.\n");
-                }
+                inventoryDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Update inventory quantity", () -> dbManager.updateInventoryQuantity(ingredientId, newQuantity), success -> {
+                    inventoryDisplayArea.setText("");
+                    if (success) {
+                        inventoryDisplayArea.append("✓ Inventory quantity updated successfully!\n");
+                        inventoryDisplayArea.append("=".repeat(60) + "\n");
+                        inventoryDisplayArea.append(String.format("Ingredient ID: %d\n", ingredientId));
+                        inventoryDisplayArea.append(String.format("New Quantity: %d\n", newQuantity));
+                    } else {
+                        inventoryDisplayArea.append("\nERROR: Ingredient ID not found or update failed.\n");
+                    }
+                }, e -> showTaskError(inventoryDisplayArea, e));
             }
 
         } catch (NumberFormatException e) {
@@ -778,27 +1223,9 @@ public class ManagerUI extends JFrame {
      * Displays all employees and their details.
      */
     private void viewEmployees() {
-        employeeDisplayArea.setText("");
-        try {
-            java.util.List<Employee> employees = dbManager.getAllEmployees();
-
-            employeeDisplayArea.append("EMPLOYEES\n");
-            employeeDisplayArea.append("=".repeat(80) + "\n");
-            employeeDisplayArea.append(String.format("%-12s %-25s %-20s %-15s\n",
-                    "Employee ID", "Employee Name", "Role", "Hours Worked"));
-            employeeDisplayArea.append("-".repeat(80) + "\n");
-
-            for (Employee employee : employees) {
-                employeeDisplayArea.append(String.format("%-12d %-25s %-20s %-15d\n",
-                        employee.getEmployeeID(),
-                        employee.getEmployeeName(),
-                        employee.getEmployeeRole(),
-                        employee.getHoursWorked()));
-            }
-
-        } catch (Exception e) {
-            employeeDisplayArea.append("\nERROR: " + e.getMessage() + "\n");
-        }
+        employeeLane.cancel();
+        showCard(employeeDisplayArea, TABLE_CARD);
+        employeeTable.refresh();
     }
 
     /**
@@ -833,17 +1260,19 @@ public class ManagerUI extends JFrame {
                 }
 
                 Employee employee = new Employee(0, name, role, hours);
-                boolean success = dbManager.addEmployee(employee);
-
-                if (success) {
-                    employeeDisplayArea.append("✓ Employee added successfully!\n");
-                    employeeDisplayArea.append("=".repeat(60) + "\n");
-                    employeeDisplayArea.append(String.format("Name: %s\n", name));
-                    employeeDisplayArea.append(String.format("Role: %s\n", role));
-                    employeeDisplayArea.append(String.format("Hours Worked: %d\n", hours));
-                } else {
-                    employeeDisplayArea.append("\nERROR: Failed to add employee\n");
-                }
+                employeeDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Add employee", () -> dbManager.addEmployee(employee), success -> {
+                    employeeDisplayArea.setText("");
+                    if (success) {
+                        employeeDisplayArea.append("✓ Employee added successfully!\n");
+                        employeeDisplayArea.append("=".repeat(60) + "\n");
+                        employeeDisplayArea.append(String.format("Name: %s\n", name));
+                        employeeDisplayArea.append(String.format("Role: %s\n", role));
+                        employeeDisplayArea.append(String.format("Hours Worked: %d\n", hours));
+                    } else {
+                        employeeDisplayArea.append("\nERROR: Failed to add employee\n");
+                    }
+                }, e -> showTaskError(employeeDisplayArea, e));
 
             } catch (NumberFormatException e) {
                 employeeDisplayArea.append("\nERROR: Invalid hours format. Please enter a valid number.\n");
@@ -857,8 +1286,17 @@ public class ManagerUI extends JFrame {
      * Prompts for and updates an employee's details.
      */
     private void updateEmployee() {
+        employeeLane.run("Load employees", dbManager::getAllEmployees, this::showUpdateEmployeeDialog,
+                e -> showTaskError(employeeDisplayArea, e));
+    }
+
+    /**
+     * Shows the employee update dialog once the data it lists has loaded.
+     *
+     * @param employees the current employees
+     */
+    private void showUpdateEmployeeDialog(java.util.List<Employee> employees) {
         try {
-            java.util.List<Employee> employees = dbManager.getAllEmployees();
 
             StringBuilder employeeList = new StringBuilder("Current Employees:\n\n");
             for (Employee employee : employees) {
@@ -934,18 +1372,20 @@ public class ManagerUI extends JFrame {
                 }
 
                 Employee updatedEmployee = new Employee(employeeId, newName, newRole, newHours);
-                boolean success = dbManager.updateEmployee(updatedEmployee);
-
-                if (success) {
-                    employeeDisplayArea.append("✓ Employee updated successfully!\n");
-                    employeeDisplayArea.append("=".repeat(60) + "\n");
-                    employeeDisplayArea.append(String.format("Employee ID: %d\n", employeeId));
-                    employeeDisplayArea.append(String.format("Name: %s\n", newName));
-                    employeeDisplayArea.append(String.format("Role: %s\n", newRole));
-                    employeeDisplayArea.append(String.format("Hours Worked: %d\n", newHours));
-                } else {
-                    employeeDisplayArea.append("\nERROR: Failed to update employee\n");
-                }
+                employeeDisplayArea.append("Saving...\n");
+                BackgroundTasks.run("Update employee", () -> dbManager.updateEmployee(updatedEmployee), success -> {
+                    employeeDisplayArea.setText("");
+                    if (success) {
+                        employeeDisplayArea.append("✓ Employee updated successfully!\n");
+                        employeeDisplayArea.append("=".repeat(60) + "\n");
+                        employeeDisplayArea.append(String.format("Employee ID: %d\n", employeeId));
+                        employeeDisplayArea.append(String.format("Name: %s\n", updatedEmployee.getEmployeeName()));
+                        employeeDisplayArea.append(String.format("Role: %s\n", updatedEmployee.getEmployeeRole()));
+                        employeeDisplayArea.append(String.format("Hours Worked: %d\n", updatedEmployee.getHoursWorked()));
+                    } else {
+                        employeeDisplayArea.append("\nERROR: Failed to update employee\n");
+                    }
+                }, e -> showTaskError(employeeDisplayArea, e));
             }
 
         } catch (NumberFormatException e) {
@@ -961,8 +1401,17 @@ public class ManagerUI extends JFrame {
      * Prompts for and removes an employee by ID.
      */
     private void removeEmployee() {
+        employeeLane.run("Load employees", dbManager::getAllEmployees, this::showRemoveEmployeeDialog,
+                e -> showTaskError(employeeDisplayArea, e));
+    }
+
+    /**
+     * Shows the employee removal dialog once the data it lists has loaded.
+     *
+     * @param employees the current employees
+     */
+    private void showRemoveEmployeeDialog(java.util.List<Employee> employees) {
         try {
-            java.util.List<Employee> employees = dbManager.getAllEmployees();
 
             StringBuilder employeeList = new StringBuilder("Current Employees:\n\n");
             for (Employee employee : employees) {
@@ -1020,16 +1469,19 @@ public class ManagerUI extends JFrame {
                         JOptionPane.WARNING_MESSAGE);
 
                 if (confirm == JOptionPane.YES_OPTION) {
-                    boolean success = dbManager.deleteEmployee(employeeId);
-
-                    if (success) {
-                        employeeDisplayArea.append("✓ Employee removed successfully!\n");
-                        employeeDisplayArea.append("=".repeat(60) + "\n");
-                        employeeDisplayArea.append(String.format("Removed: %s (ID: %d)\n",
-                                employeeToDelete.getEmployeeName(), employeeId));
-                    } else {
-                        employeeDisplayArea.append("\nERROR: Failed to remove employee\n");
-                    }
+                    String removedName = employeeToDelete.getEmployeeName();
+                    employeeDisplayArea.append("Saving...\n");
+                    BackgroundTasks.run("Remove employee", () -> dbManager.deleteEmployee(employeeId), success -> {
+                        employeeDisplayArea.setText("");
+                        if (success) {
+                            employeeDisplayArea.append("✓ Employee removed successfully!\n");
+                            employeeDisplayArea.append("=".repeat(60) + "\n");
+                            employeeDisplayArea.append(String.format("Removed: %s (ID: %d)\n",
+                                    removedName, employeeId));
+                        } else {
+                            employeeDisplayArea.append("\nERROR: Failed to remove employee\n");
+                        }
+                    }, e -> showTaskError(employeeDisplayArea, e));
                 } else {
                     employeeDisplayArea.append("Employee removal cancelled.\n");
                 }
@@ -1048,85 +1500,337 @@ public class ManagerUI extends JFrame {
     /**
      * Generates and displays today's sales summary.
      */
-    private void generateSalesTodayReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("SALES TODAY REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
-        reportsDisplayArea.append("Date: " + java.time.LocalDate.now() + "\n\n");
+    private void generateSalesTodayReport(ReportText out) {
+        out.append("SALES TODAY REPORT\n");
+        out.append("=".repeat(50) + "\n");
+        out.append("Date: " + java.time.LocalDate.now() + "\n\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Sample Data:\n");
-            reportsDisplayArea.append("Orders Today: 15\n");
-            reportsDisplayArea.append("Total Revenue: $247.50\n");
-            reportsDisplayArea.append("Average Order: $16.50\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Sample Data:\n");
+            out.append("Orders Today: 15\n");
+            out.append("Total Revenue: $247.50\n");
+            out.append("Average Order: $16.50\n");
+            return;
+        }
+
+        OrderCube cube = getOrderCube(out);
+        if (cube == null) {
+            return;
+        }
+        OrderCube.Breakdown totals = cube.summarize(TimeRange.today());
+        long orders = totals.getTotalCount();
+        double revenue = totals.getTotalRevenue();
+        out.append(String.format("Orders Today: %d\n", orders));
+        out.append(String.format("Drinks Sold: %d\n", totals.getTotalQuantity()));
+        out.append(String.format("Total Revenue: $%.2f\n", revenue));
+        out.append(String.format("Average Order: $%.2f\n", orders == 0 ? 0.0 : revenue / orders));
+
+        out.append("\nSales by Hour:\n");
+        OrderCube.Breakdown byHour = cube.breakdown(OrderCube.Dimension.HOUR_OF_DAY, TimeRange.today());
+        for (int i = 0; i < byHour.size(); i++) {
+            out.append(String.format("%02d:00  %4d orders  $%9.2f\n",
+                    byHour.getKey(i), byHour.getCount(i), byHour.getRevenue(i)));
         }
     }
 
     /**
      * Generates and displays the top selling items.
      */
-    private void generateTopSellersReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("TOP SELLING ITEMS REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateTopSellersReport(ReportText out) {
+        out.append("TOP SELLING ITEMS REPORT\n");
+        out.append("=".repeat(50) + "\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("1. Brown Sugar Boba - 45 orders\n");
-            reportsDisplayArea.append("2. Classic Milk Tea - 38 orders\n");
-            reportsDisplayArea.append("3. Taro Milk Tea - 32 orders\n");
-            reportsDisplayArea.append("4. Mango Smoothie - 28 orders\n");
-            reportsDisplayArea.append("5. Matcha Milk Tea - 25 orders\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("1. Brown Sugar Boba - 45 orders\n");
+            out.append("2. Classic Milk Tea - 38 orders\n");
+            out.append("3. Taro Milk Tea - 32 orders\n");
+            out.append("4. Mango Smoothie - 28 orders\n");
+            out.append("5. Matcha Milk Tea - 25 orders\n");
+            return;
+        }
+
+        SalesLeaderboard leaderboard = dbManager.getSalesLeaderboard();
+        if (leaderboard == null) {
+            appendUnavailable(out);
+            return;
+        }
+        java.util.Map<Integer, String> names = getMenuItemNames();
+        appendLeaderboard(out, "Last Hour", leaderboard.top(SalesLeaderboard.Window.LAST_HOUR, 5), names);
+        appendLeaderboard(out, "Today", leaderboard.top(SalesLeaderboard.Window.TODAY, 5), names);
+        appendLeaderboard(out, "Last 7 Days", leaderboard.top(SalesLeaderboard.Window.LAST_7_DAYS, 5), names);
+        appendLeaderboard(out, "All Time", leaderboard.top(SalesLeaderboard.Window.ALL_TIME, 5), names);
+    }
+
+    /**
+     * Appends one ranked list of menu items to a report.
+     *
+     * @param out     the report being generated
+     * @param title   heading for the list
+     * @param entries ranked menu items
+     * @param names   menu item names keyed by ID
+     */
+    private void appendLeaderboard(ReportText out, String title, java.util.List<SalesLeaderboard.Entry> entries,
+            java.util.Map<Integer, String> names) {
+        out.append("\n" + title + ":\n");
+        int rank = 1;
+        for (SalesLeaderboard.Entry entry : entries) {
+            if (entry.getQuantity() == 0) {
+                break;
+            }
+            out.append(String.format("%d. %s - %d drinks\n", rank++,
+                    names.getOrDefault(entry.getMenuItemId(), "Item #" + entry.getMenuItemId()),
+                    entry.getQuantity()));
+        }
+        if (rank == 1) {
+            out.append("No sales yet.\n");
         }
     }
 
     /**
      * Generates and displays revenue totals.
      */
-    private void generateRevenueReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("REVENUE REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateRevenueReport(ReportText out) {
+        out.append("REVENUE REPORT\n");
+        out.append("=".repeat(50) + "\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Total Revenue (All Time): $12,450.75\n");
-            reportsDisplayArea.append("This Month: $3,247.50\n");
-            reportsDisplayArea.append("This Week: $987.25\n");
-            reportsDisplayArea.append("Today: $247.50\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Total Revenue (All Time): $12,450.75\n");
+            out.append("This Month: $3,247.50\n");
+            out.append("This Week: $987.25\n");
+            out.append("Today: $247.50\n");
+            return;
+        }
+
+        OrderCube cube = getOrderCube(out);
+        if (cube == null) {
+            return;
         }
+        java.time.LocalDate today = java.time.LocalDate.now();
+        out.append(String.format("Total Revenue (All Time): $%,.2f\n",
+                cube.summarize(null).getTotalRevenue()));
+        out.append(String.format("This Month: $%,.2f\n",
+                cube.summarize(TimeRange.days(today.withDayOfMonth(1), today)).getTotalRevenue()));
+        out.append(String.format("This Week: $%,.2f\n",
+                cube.summarize(TimeRange.days(today.with(java.time.DayOfWeek.MONDAY), today)).getTotalRevenue()));
+        out.append(String.format("Today: $%,.2f\n",
+                cube.summarize(TimeRange.today()).getTotalRevenue()));
     }
 
     /**
      * Generates and displays product usage metrics.
      */
-    private void generateUsageReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("PRODUCT USAGE CHART\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
-        reportsDisplayArea.append("Period: Last 7 days\n\n");
+    private void generateUsageReport(ReportText out) {
+        out.append("PRODUCT USAGE CHART\n");
+        out.append("=".repeat(50) + "\n");
+        out.append("Period: Last 7 days\n\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Tapioca Pearls: 250 servings\n");
-            reportsDisplayArea.append("Milk Tea Base: 180 servings\n");
-            reportsDisplayArea.append("Fruit Syrups: 145 servings\n");
-            reportsDisplayArea.append("Toppings (Mixed): 320 servings\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Tapioca Pearls: 250 servings\n");
+            out.append("Milk Tea Base: 180 servings\n");
+            out.append("Fruit Syrups: 145 servings\n");
+            out.append("Toppings (Mixed): 320 servings\n");
+            return;
+        }
+
+        OrderCube cube = getOrderCube(out);
+        if (cube == null) {
+            return;
+        }
+        OrderCube.Breakdown byItem = cube.breakdown(OrderCube.Dimension.MENU_ITEM, TimeRange.lastDays(7));
+        java.util.Map<Integer, String> names = getMenuItemNames();
+        for (int group : byItem.topByQuantity(byItem.size())) {
+            out.append(String.format("%s: %d servings\n",
+                    names.getOrDefault(byItem.getKey(group), "Item #" + byItem.getKey(group)),
+                    byItem.getQuantity(group)));
+        }
+    }
+
+    /**
+     * Generates and displays estimated distinct customers over common periods.
+     */
+    private void generateUniqueCustomersReport(ReportText out) {
+        out.append("UNIQUE CUSTOMERS REPORT\n");
+        out.append("=".repeat(50) + "\n");
+
+        if (dbManager.isUsingMockData()) {
+            out.append("Today: 42\n");
+            out.append("This Week: 186\n");
+            out.append("This Month: 530\n");
+            return;
+        }
+
+        CustomerVisits visits = dbManager.getCustomerVisits();
+        if (visits == null) {
+            appendUnavailable(out);
+            return;
+        }
+        java.time.LocalDate today = java.time.LocalDate.now();
+        out.append(String.format("Today: %,d\n", visits.countUniqueCustomers(TimeRange.today())));
+        out.append(String.format("This Week: %,d\n", visits.countUniqueCustomers(
+                TimeRange.days(today.with(java.time.DayOfWeek.MONDAY), today))));
+        out.append(String.format("This Month: %,d\n", visits.countUniqueCustomers(
+                TimeRange.days(today.withDayOfMonth(1), today))));
+        out.append(String.format("Last 30 Days: %,d\n",
+                visits.countUniqueCustomers(TimeRange.lastDays(30))));
+
+        out.append("\nDaily (last 7 days):\n");
+        for (java.util.Map.Entry<Long, Long> day : visits.getDailyUniqueCustomers(TimeRange.lastDays(7)).entrySet()) {
+            out.append(String.format("%s: %,d\n", java.time.LocalDate.ofEpochDay(day.getKey()),
+                    day.getValue()));
+        }
+        out.append("\nCounts are estimates (within about 2%) and exclude walk-in orders.\n");
+    }
+
+    /**
+     * Generates and displays new versus returning customers for recent weeks.
+     */
+    private void generateRetentionReport(ReportText out) {
+        out.append("CUSTOMER RETENTION REPORT\n");
+        out.append("=".repeat(50) + "\n");
+
+        if (dbManager.isUsingMockData()) {
+            out.append("This Week: 186 customers, 120 returning, 66 new\n");
+            return;
+        }
+
+        CustomerVisits visits = dbManager.getCustomerVisits();
+        if (visits == null) {
+            appendUnavailable(out);
+            return;
+        }
+        out.append(String.format("%-12s %10s %10s %10s %10s\n",
+                "Week of", "Customers", "Returning", "New", "Return %"));
+        out.append("-".repeat(56) + "\n");
+        java.time.LocalDate monday = java.time.LocalDate.now().with(java.time.DayOfWeek.MONDAY);
+        for (int week = 0; week < 8; week++) {
+            java.time.LocalDate start = monday.minusWeeks(week);
+            CustomerVisits.Retention retention = visits.getRetention(TimeRange.days(start, start.plusDays(6)));
+            long unique = retention.getUniqueCustomers();
+            out.append(String.format("%-12s %,10d %,10d %,10d %9.1f%%\n", start, unique,
+                    retention.getReturningCustomers(), retention.getNewCustomers(),
+                    unique == 0 ? 0.0 : 100.0 * retention.getReturningCustomers() / unique));
+        }
+        out.append("\nCounts are estimates and exclude walk-in orders.\n");
+    }
+
+    /**
+     * Generates and displays order value percentiles, a histogram of order
+     * totals and the spread per employee and hour.
+     */
+    private void generateOrderValuesReport(ReportText out) {
+        out.append("ORDER VALUE REPORT\n");
+        out.append("=".repeat(50) + "\n");
+
+        if (dbManager.isUsingMockData()) {
+            out.append("Last 30 Days: 450 orders, avg $16.50, p50 $14.75, p90 $28.00, p99 $52.25\n");
+            return;
+        }
+
+        OrderValues values = dbManager.getOrderValues();
+        if (values == null) {
+            appendUnavailable(out);
+            return;
+        }
+
+        out.append(String.format("%-14s %8s %9s %9s %9s %9s\n",
+                "Period", "Orders", "Average", "p50", "p90", "p99"));
+        out.append("-".repeat(62) + "\n");
+        appendOrderValueRow(out, "Today", values.getDistribution(TimeRange.today()));
+        appendOrderValueRow(out, "Last 7 Days", values.getDistribution(TimeRange.lastDays(7)));
+        appendOrderValueRow(out, "Last 30 Days", values.getDistribution(TimeRange.lastDays(30)));
+        appendOrderValueRow(out, "All Time", values.getDistribution(null));
+
+        QuantileSketch month = values.getDistribution(TimeRange.lastDays(30));
+        out.append("\nOrder Totals, Last 30 Days:\n");
+        double[] edges = { 5, 10, 15, 20, 30, 50 };
+        long previous = 0;
+        for (int i = 0; i <= edges.length; i++) {
+            long upTo = i < edges.length ? month.countAtMost(edges[i]) : month.getCount();
+            String label = i == 0 ? String.format("up to $%.0f", edges[0])
+                    : i < edges.length ? String.format("$%.0f-$%.0f", edges[i - 1], edges[i])
+                            : String.format("over $%.0f", edges[edges.length - 1]);
+            long inBin = upTo - previous;
+            int bar = month.getCount() == 0 ? 0 : (int) Math.round(40.0 * inBin / month.getCount());
+            out.append(String.format("%-12s %6d %s\n", label, inBin, "#".repeat(bar)));
+            previous = upTo;
+        }
+
+        out.append("\nBy Employee, Last 30 Days:\n");
+        for (java.util.Map.Entry<Integer, QuantileSketch> employee : values
+                .getDistributionByEmployee(TimeRange.lastDays(30)).entrySet()) {
+            appendOrderValueRow(out, "Employee " + employee.getKey(), employee.getValue());
+        }
+
+        out.append("\nBy Hour of Day, Last 7 Days:\n");
+        for (java.util.Map.Entry<Integer, QuantileSketch> hour : values
+                .getDistributionByHourOfDay(TimeRange.lastDays(7)).entrySet()) {
+            appendOrderValueRow(out, String.format("%02d:00", hour.getKey()), hour.getValue());
+        }
+        out.append("\nPercentiles are within 1% of the exact values.\n");
+    }
+
+    /**
+     * Appends one row of order count, average and percentiles.
+     *
+     * @param out    the report being generated
+     * @param label  row label
+     * @param sketch order totals for the row
+     */
+    private void appendOrderValueRow(ReportText out, String label, QuantileSketch sketch) {
+        if (sketch.getCount() == 0) {
+            out.append(String.format("%-14s %8d %9s\n", label, 0, "-"));
+            return;
+        }
+        out.append(String.format("%-14s %8d %9.2f %9.2f %9.2f %9.2f\n", label,
+                sketch.getCount(), sketch.getMean(), sketch.getQuantile(0.5), sketch.getQuantile(0.9),
+                sketch.getQuantile(0.99)));
+    }
+
+    /**
+     * Gets the in-memory order cube for live reports, noting in the report
+     * when it is unavailable.
+     *
+     * @param out the report being generated
+     * @return the order cube, or null if order data could not be loaded
+     */
+    private OrderCube getOrderCube(ReportText out) {
+        OrderCube cube = dbManager.getOrderCube();
+        if (cube == null) {
+            appendUnavailable(out);
+        }
+        return cube;
+    }
+
+    /**
+     * Notes in a report that order data could not be loaded, and keeps the
+     * incomplete report out of the cache.
+     *
+     * @param out the report being generated
+     */
+    private void appendUnavailable(ReportText out) {
+        out.append("Order data is unavailable right now. Please try again later.\n");
+        out.markIncomplete();
+    }
+
+    /**
+     * Gets menu item names keyed by menu item ID.
+     *
+     * @return map of menu item ID to name
+     */
+    private java.util.Map<Integer, String> getMenuItemNames() {
+        java.util.Map<Integer, String> names = new java.util.HashMap<>();
+        for (MenuItem item : dbManager.getAllMenuItems()) {
+            names.put(item.getMenuItemID(), item.getMenuItemName());
         }
+        return names;
     }
 
     /**
      * Generates and displays low stock alerts.
      */
-    private void generateLowStockReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("LOW STOCK ALERT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateLowStockReport(ReportText out) {
+        out.append("LOW STOCK ALERT\n");
+        out.append("=".repeat(50) + "\n");
 
         java.util.List<Inventory> inventory = dbManager.getAllInventory();
         boolean hasLowStock = false;
@@ -1134,88 +1838,141 @@ public class ManagerUI extends JFrame {
         for (Inventory item : inventory) {
             if (item.getIngredientCount() < 50) { // Threshold of 50
                 hasLowStock = true;
-                reportsDisplayArea.append(String.format("⚠ %s: %d remaining\n",
+                out.append(String.format("⚠ %s: %d remaining\n",
                         item.getIngredientName(), item.getIngredientCount()));
             }
         }
 
         if (!hasLowStock) {
-            reportsDisplayArea.append("✓ All items are adequately stocked!\n");
+            out.append("✓ All items are adequately stocked!\n");
+        }
+
+        if (dbManager.isUsingMockData()) {
+            return;
+        }
+        java.util.List<InventoryForecast.Forecast> forecasts = dbManager.getInventoryForecast();
+        if (forecasts == null) {
+            appendUnavailable(out);
+            return;
+        }
+        out.append(String.format("\nRunning out within %d hours (at current sales rates):\n",
+                LOW_STOCK_ALERT_HOURS));
+        boolean runningOut = false;
+        for (InventoryForecast.Forecast forecast : forecasts) {
+            if (forecast.getHoursToStockout() <= LOW_STOCK_ALERT_HOURS) {
+                runningOut = true;
+                out.append(String.format("⚠ %s: %d remaining, out in %.1f hours\n",
+                        forecast.getItem().getIngredientName(), forecast.getItem().getIngredientCount(),
+                        forecast.getHoursToStockout()));
+            }
+        }
+        if (!runningOut) {
+            out.append("✓ Nothing is expected to run out.\n");
         }
     }
 
     /**
      * Generates and displays an inventory value estimate.
      */
-    private void generateInventoryValueReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("INVENTORY VALUE REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateInventoryValueReport(ReportText out) {
+        out.append("INVENTORY VALUE REPORT\n");
+        out.append("=".repeat(50) + "\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Total Inventory Items: 28\n");
-            reportsDisplayArea.append("Estimated Total Value: $3,450.00\n");
-            reportsDisplayArea.append("High-Value Items: 12\n");
-            reportsDisplayArea.append("Low-Stock Items: 3\n");
+            out.append("Total Inventory Items: 28\n");
+            out.append("Estimated Total Value: $3,450.00\n");
+            out.append("High-Value Items: 12\n");
+            out.append("Low-Stock Items: 3\n");
         } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("This feature will be enhanced when database is connected.\n");
         }
     }
 
     /**
      * Generates and displays restock recommendations.
      */
-    private void generateRestockReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("RESTOCK RECOMMENDATIONS\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateRestockReport(ReportText out) {
+        out.append("RESTOCK RECOMMENDATIONS\n");
+        out.append("=".repeat(50) + "\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Items to Restock:\n");
-            reportsDisplayArea.append("- Oat Milk: Current 45, Recommended 100\n");
-            reportsDisplayArea.append("- Aloe Vera: Current 120, Recommended 200\n");
-            reportsDisplayArea.append("- Cup Sleeves: Current 500, Recommended 800\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Items to Restock:\n");
+            out.append("- Oat Milk: Current 45, Recommended 100\n");
+            out.append("- Aloe Vera: Current 120, Recommended 200\n");
+            out.append("- Cup Sleeves: Current 500, Recommended 800\n");
+            return;
+        }
+
+        java.util.List<InventoryForecast.Forecast> forecasts = dbManager.getInventoryForecast();
+        if (forecasts == null) {
+            appendUnavailable(out);
+            return;
+        }
+        out.append(String.format("Order enough to last %d days at the sales rate of the last %d days.\n\n",
+                RESTOCK_COVER_DAYS, InventoryForecast.WINDOW_DAYS));
+        out.append(String.format("%-22s %9s %9s %-17s %9s\n", "Item", "In Stock", "Per Day", "Runs Out", "Order"));
+        out.append("-".repeat(70) + "\n");
+        boolean needsRestock = false;
+        for (InventoryForecast.Forecast forecast : forecasts) {
+            int order = (int) Math.ceil(forecast.getDailyUsage() * RESTOCK_COVER_DAYS)
+                    - forecast.getItem().getIngredientCount();
+            if (!forecast.runsOut() || order <= 0) {
+                continue;
+            }
+            needsRestock = true;
+            out.append(String.format("%-22s %9d %9.1f %-17s %9d\n", forecast.getItem().getIngredientName(),
+                    forecast.getItem().getIngredientCount(), forecast.getDailyUsage(),
+                    forecast.getStockoutTime().toString().replace('T', ' '), order));
+        }
+        if (!needsRestock) {
+            out.append(String.format("✓ Everything is stocked for the next %d days.\n", RESTOCK_COVER_DAYS));
         }
     }
 
     /**
-     * Generates and displays the hourly X-report.
+     * Generates the hourly X-report.
+     *
+     * @return the report text
      */
-    private void generateXReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("X-REPORT (HOURLY SALES)\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
-        reportsDisplayArea.append("Date: " + java.time.LocalDate.now() + "\n");
-        reportsDisplayArea.append("Time: " + java.time.LocalTime.now().toString().substring(0, 8) + "\n\n");
+    private String generateXReport() {
+        ReportText out = new ReportText();
+        out.append("X-REPORT (HOURLY SALES)\n");
+        out.append("=".repeat(50) + "\n");
+        out.append("Date: " + java.time.LocalDate.now() + "\n");
+        out.append("Time: " + java.time.LocalTime.now().toString().substring(0, 8) + "\n\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Sales by Hour:\n");
-            reportsDisplayArea.append("9 AM:  $45.50\n");
-            reportsDisplayArea.append("10 AM: $67.25\n");
-            reportsDisplayArea.append("11 AM: $89.75\n");
-            reportsDisplayArea.append("12 PM: $125.00\n");
-            reportsDisplayArea.append("1 PM:  $98.50\n");
-            reportsDisplayArea.append("2 PM:  $76.25\n");
-            reportsDisplayArea.append("\nTotal So Far: $502.25\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Sales by Hour:\n");
+            out.append("9 AM:  $45.50\n");
+            out.append("10 AM: $67.25\n");
+            out.append("11 AM: $89.75\n");
+            out.append("12 PM: $125.00\n");
+            out.append("1 PM:  $98.50\n");
+            out.append("2 PM:  $76.25\n");
+            out.append("\nTotal So Far: $502.25\n");
+            return out.toString();
         }
+
+        RegisterCloseout closeout = dbManager.getRegisterCloseout();
+        if (closeout == null) {
+            out.append("Register totals are unavailable right now. Please try again later.\n");
+            return out.toString();
+        }
+        appendRegisterTotals(out, closeout.snapshot());
+        return out.toString();
     }
 
     /**
      * Generates and displays staff hours per employee.
      */
-    private void generateStaffHoursReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("STAFF HOURS REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generateStaffHoursReport(ReportText out) {
+        out.append("STAFF HOURS REPORT\n");
+        out.append("=".repeat(50) + "\n");
 
         java.util.List<Employee> employees = dbManager.getAllEmployees();
 
         for (Employee employee : employees) {
-            reportsDisplayArea.append(String.format("%s (%s): %d hours\n",
+            out.append(String.format("%s (%s): %d hours\n",
                     employee.getEmployeeName(),
                     employee.getEmployeeRole(),
                     employee.getHoursWorked()));
@@ -1225,19 +1982,18 @@ public class ManagerUI extends JFrame {
     /**
      * Generates and displays team performance metrics.
      */
-    private void generatePerformanceReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("PERFORMANCE REPORT\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
+    private void generatePerformanceReport(ReportText out) {
+        out.append("PERFORMANCE REPORT\n");
+        out.append("=".repeat(50) + "\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Team Performance Metrics:\n");
-            reportsDisplayArea.append("- Average Order Processing Time: 3.2 minutes\n");
-            reportsDisplayArea.append("- Customer Satisfaction: 4.5/5\n");
-            reportsDisplayArea.append("- Daily Order Volume: 85 orders\n");
-            reportsDisplayArea.append("- Peak Hour Efficiency: 92%\n");
+            out.append("Team Performance Metrics:\n");
+            out.append("- Average Order Processing Time: 3.2 minutes\n");
+            out.append("- Customer Satisfaction: 4.5/5\n");
+            out.append("- Daily Order Volume: 85 orders\n");
+            out.append("- Peak Hour Efficiency: 92%\n");
         } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("This feature will be enhanced when database is connected.\n");
         }
     }
 
@@ -1245,38 +2001,190 @@ public class ManagerUI extends JFrame {
      * Generates and displays the end-of-day Z-report.
      */
     private void generateZReport() {
-        reportsDisplayArea.setText("");
-        reportsDisplayArea.append("Z-REPORT (END OF DAY)\n");
-        reportsDisplayArea.append("=".repeat(50) + "\n");
-        reportsDisplayArea.append("Date: " + java.time.LocalDate.now() + "\n\n");
+        if (!dbManager.isUsingMockData()) {
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "The Z-report closes the register day and resets its totals. Continue?",
+                    "Close Register Day",
+                    JOptionPane.YES_NO_OPTION);
+            if (choice != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+
+        // Not on the report lane: the day closes even if another report is
+        // clicked meanwhile, so its totals must always be shown
+        reportLane.cancel();
+        reportsDisplayArea.setText("Closing register day...\n");
+        BackgroundTasks.run("Z-Report", () -> {
+            ReportText out = new ReportText();
+            buildZReport(out);
+            return out.toString();
+        }, text -> reportsDisplayArea.setText(text), e -> showTaskError(reportsDisplayArea, e));
+    }
+
+    /**
+     * Builds the Z-report, closing the register day when connected.
+     *
+     * @param out receives the report text
+     */
+    private void buildZReport(ReportText out) {
+        out.append("Z-REPORT (END OF DAY)\n");
+        out.append("=".repeat(50) + "\n");
+        out.append("Date: " + java.time.LocalDate.now() + "\n\n");
 
         if (dbManager.isUsingMockData()) {
-            reportsDisplayArea.append("Daily Summary:\n");
-            reportsDisplayArea.append("Total Orders: 67\n");
-            reportsDisplayArea.append("Total Sales: $1,245.75\n");
-            reportsDisplayArea.append("Cash: $345.25\n");
-            reportsDisplayArea.append("Card: $900.50\n");
-            reportsDisplayArea.append("Returns: $0.00\n");
-            reportsDisplayArea.append("Voids: $15.50\n");
-            reportsDisplayArea.append("\n⚠ End-of-day totals reset after this report\n");
-        } else {
-            reportsDisplayArea.append("This feature will be enhanced when database is connected.\n");
+            out.append("Daily Summary:\n");
+            out.append("Total Orders: 67\n");
+            out.append("Total Sales: $1,245.75\n");
+            out.append("Cash: $345.25\n");
+            out.append("Card: $900.50\n");
+            out.append("Returns: $0.00\n");
+            out.append("Voids: $15.50\n");
+            out.append("\n⚠ End-of-day totals reset after this report\n");
+            return;
+        }
+
+        RegisterCloseout.Totals totals = dbManager.closeRegisterDay();
+        if (totals == null) {
+            out.append("The register day could not be closed. Please try again later.\n");
+            return;
+        }
+        appendRegisterTotals(out, totals);
+        out.append("\n✓ Register day closed at " + totals.getTakenAt() + "; totals reset\n");
+    }
+
+    /**
+     * Appends register totals, split by hour and employee, for the X- and
+     * Z-reports.
+     *
+     * @param out    receives the report text
+     * @param totals the register totals to show
+     */
+    private void appendRegisterTotals(ReportText out, RegisterCloseout.Totals totals) {
+        long orders = totals.getOrderCount();
+        out.append("Register Open Since: " + totals.getOpenedAt() + "\n");
+        out.append(String.format("Total Orders: %d\n", orders));
+        out.append(String.format("Total Sales: $%,.2f\n", totals.getRevenue()));
+        out.append(String.format("Average Order: $%.2f\n",
+                orders == 0 ? 0.0 : totals.getRevenue() / orders));
+
+        out.append("\nSales by Hour:\n");
+        for (java.util.Map.Entry<Integer, RegisterCloseout.Line> hour : totals.getByHour().entrySet()) {
+            out.append(String.format("%02d:00  %4d orders  $%9.2f\n", hour.getKey(),
+                    hour.getValue().getCount(), hour.getValue().getRevenue()));
+        }
+
+        java.util.Map<Integer, String> names = new java.util.HashMap<>();
+        for (Employee employee : dbManager.getAllEmployees()) {
+            names.put(employee.getEmployeeID(), employee.getEmployeeName());
+        }
+        out.append("\nSales by Employee:\n");
+        for (java.util.Map.Entry<Integer, RegisterCloseout.Line> employee : totals.getByEmployee().entrySet()) {
+            out.append(String.format("%-20s %4d orders  $%9.2f\n",
+                    names.getOrDefault(employee.getKey(), "Employee #" + employee.getKey()),
+                    employee.getValue().getCount(), employee.getValue().getRevenue()));
+        }
+    }
+
+    /**
+     * Asks what to export: the report on screen as text, or a full data set
+     * streamed straight to a CSV, JSON lines or columnar file.
+     */
+    private void exportCurrentReport() {
+        String[] choices = { "Current Report", "All Orders", "All Order Items", "Daily Sales" };
+        int choice = JOptionPane.showOptionDialog(this, "What would you like to export?", "Export",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (choice < 0) {
+            return;
+        }
+        if (choice == 0) {
+            exportReportText();
+            return;
+        }
+
+        StreamingExporter.Format[] formats = StreamingExporter.Format.values();
+        String[] formatNames = { "CSV (.csv)", "JSON Lines (.jsonl)", "Columnar Binary (.bin)" };
+        int format = JOptionPane.showOptionDialog(this, "Choose a file format:", "Export " + choices[choice],
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, formatNames, formatNames[0]);
+        if (format < 0) {
+            return;
         }
+        exportData(choices[choice], formats[format]);
     }
 
     /**
-     * Exports the current report text to a timestamped file.
-     * Shows a dialog indicating success or failure.
+     * Streams a data set to a timestamped file on a background thread. Rows
+     * go straight from the database cursor (or order cube) to the file, so
+     * memory use does not grow with the data and the window stays responsive.
+     * Progress is shown in a monitor that can hide the export but not stop it.
+     *
+     * @param dataSet the choice made in {@link #exportCurrentReport()}
+     * @param format  the file format
      */
+    private void exportData(String dataSet, StreamingExporter.Format format) {
+        String timestamp = java.time.LocalDateTime.now()
+                .format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String filename = "boba_shop_" + dataSet.toLowerCase().replace(' ', '_') + "_" + timestamp
+                + format.getExtension();
+        java.nio.file.Path file = java.nio.file.Paths.get(filename);
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting " + dataSet.toLowerCase() + " to "
+                + filename, "Starting...", 0, 1);
+        monitor.setMillisToDecideToPopup(250);
+
+        StreamingExporter.ProgressListener progress = (rows, bytes) -> SwingUtilities.invokeLater(() -> {
+            monitor.setNote(String.format("%,d rows, %,d KB", rows, bytes / 1024));
+            monitor.setProgress((int) Math.min(rows, monitor.getMaximum() - 1));
+        });
+
+        BackgroundTasks.run("Export " + dataSet.toLowerCase(), () -> {
+            // Sized from the catalog's row estimate, so the export does not wait on loading the order cube
+            long estimate = dataSet.equals("All Order Items") ? dbManager.estimateRowCount("orderitems")
+                    : dataSet.equals("All Orders") ? dbManager.estimateRowCount("orders") : 0;
+            int expected = (int) Math.min(estimate, Integer.MAX_VALUE);
+            SwingUtilities.invokeLater(() -> monitor.setMaximum(Math.max(expected, 1)));
+
+            long rows;
+            switch (dataSet) {
+                case "All Orders":
+                    rows = dbManager.exportOrders(file, format, progress);
+                    break;
+                case "All Order Items":
+                    rows = dbManager.exportOrderItems(file, format, progress);
+                    break;
+                default:
+                    rows = dbManager.exportDailySales(file, format, progress);
+                    break;
+            }
+            return rows;
+        }, rows -> {
+            monitor.close();
+            if (rows < 0) {
+                JOptionPane.showMessageDialog(this,
+                        "Failed to export " + dataSet.toLowerCase() + ". See the console for details.",
+                        "Export Error",
+                        JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        String.format("Exported %,d rows to: %s", rows, filename),
+                        "Export Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        }, e -> {
+            monitor.close();
+            JOptionPane.showMessageDialog(this,
+                    "Failed to export " + dataSet.toLowerCase() + ": " + e.getMessage(),
+                    "Export Error",
+                    JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
     /**
      * Exports the currently displayed report to a text file.
      * The file is saved with a timestamp in the format 'boba_shop_report_YYYY-MM-DD_HH-mm-ss.txt'.
      * Shows success or error dialogs based on the operation outcome.
-     * 
-     * @throws IOException if there's an error writing the file
-     * @throws SecurityException if there are insufficient permissions to write the file
      */
-    private void exportCurrentReport() {
+    private void exportReportText() {
         try {
             String reportContent = reportsDisplayArea.getText();
             if (reportContent.trim().isEmpty()) {
@@ -1310,7 +2218,15 @@ public class ManagerUI extends JFrame {
      * Releases resources and closes database connections.
      */
     public void cleanup() {
+        if (liveUpdateTimer != null) {
+            liveUpdateTimer.stop();
+        }
+        menuLane.cancel();
+        inventoryLane.cancel();
+        employeeLane.cancel();
+        reportLane.cancel();
         if (dbManager != null) {
+            dbManager.removeChangeListener(changeListener);
             dbManager.closeConnection();
         }
     }
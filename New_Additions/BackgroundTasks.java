@@ -0,0 +1,320 @@
+package New_Additions;
+
+import java.awt.event.HierarchyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import javax.swing.JProgressBar;
+import javax.swing.SwingUtilities;
+
+/**
+ * BackgroundTasks runs database work for the Swing screens off the event
+ * dispatch thread, so a slow query never freezes a window.
+ *
+ * Each task runs on its own virtual thread; the connection pool already
+ * bounds how many of them can talk to the database at once. When the task
+ * finishes, its result (or error) is handed to a callback on the event
+ * thread, like {@code SwingWorker.done()}. A cancelled task never calls
+ * back, so a screen can drop work the user has moved on from. A
+ * {@link Lane} keeps one task per display area and cancels the previous one
+ * when a new one starts, so a slow older result can never overwrite a newer
+ * one. Cancelling only drops the result; the work itself runs to the end,
+ * so put reads on a lane but never writes, whose outcome the user needs to
+ * see.
+ *
+ * Every task is timed by name; {@link #getStatistics()} summarises the
+ * timings, {@link #createIndicator()} gives a busy bar for status panels and
+ * {@link #showStatistics(JComponent)} keeps the summary in a tooltip.
+ */
+public final class BackgroundTasks {
+
+    /** Tasks slower than this are counted as slow, in ms */
+    private static final long SLOW_TASK_MILLIS = 1_000;
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ui-task-", 0).factory());
+
+    /** Told on the event thread whenever the set of running tasks changes. */
+    public interface ActivityListener {
+        /**
+         * @param running names of the tasks now running, oldest first
+         */
+        void activityChanged(List<String> running);
+    }
+
+    /** A running or finished background task. */
+    public static final class Task {
+        private final String name;
+        private final long startNanos = System.nanoTime();
+        private volatile boolean cancelled;
+        private volatile long elapsedMillis = -1;
+
+        private Task(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Cancels the task: its callbacks will not run. The worker thread is
+         * not interrupted, since interrupting a virtual thread blocked on a
+         * socket closes the socket, breaking the pooled connection and
+         * possibly a write halfway through; the work finishes and its result
+         * is dropped.
+         */
+        public void cancel() {
+            cancelled = true;
+            // A task cancelled before it started never reaches its own cleanup
+            onEventThread(() -> finished(this));
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /** Tells whether the task has finished, failed or been cancelled. */
+        public boolean isDone() {
+            return cancelled || elapsedMillis >= 0;
+        }
+
+        /** Gets how long the task took, or how long it has run so far. */
+        public long getElapsedMillis() {
+            long elapsed = elapsedMillis;
+            return elapsed >= 0 ? elapsed : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Runs at most one task at a time for a display area. Starting a task
+     * cancels the one before it. Use from the event thread.
+     */
+    public static final class Lane {
+        private Task current;
+
+        /**
+         * Cancels the current task, if any, and starts a new one.
+         *
+         * @see BackgroundTasks#run(String, Callable, Consumer, Consumer)
+         */
+        public <T> Task run(String name, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+            cancel();
+            current = BackgroundTasks.run(name, work, onSuccess, onFailure);
+            return current;
+        }
+
+        /** Cancels the current task, if any. */
+        public void cancel() {
+            if (current != null) {
+                current.cancel();
+                current = null;
+            }
+        }
+    }
+
+    /** Count, total and worst time of every task with one name. */
+    private static final class Timing {
+        final LongAdder count = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder totalMillis = new LongAdder();
+        final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+    }
+
+    private static final Map<String, Timing> timings = new ConcurrentHashMap<>();
+    /** Running tasks, oldest first; only changed on the event thread */
+    private static final List<Task> running = new ArrayList<>();
+    private static final List<ActivityListener> listeners = new CopyOnWriteArrayList<>();
+    private static final AtomicInteger cancelledCount = new AtomicInteger();
+    private static final AtomicInteger slowCount = new AtomicInteger();
+
+    private BackgroundTasks() {
+    }
+
+    /**
+     * Runs work on a background thread and hands the result to a callback
+     * on the event thread. Errors are logged and passed to the failure
+     * callback.
+     *
+     * @param name      what the task does, for the busy indicator and timings
+     * @param work      the work; it must not touch Swing components
+     * @param onSuccess given the result on the event thread
+     * @param onFailure given the error on the event thread, or null to only log it
+     * @param <T>       the type of result
+     * @return the task, which can be cancelled
+     */
+    public static <T> Task run(String name, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Task task = new Task(name);
+        onEventThread(() -> {
+            running.add(task);
+            fireActivityChanged();
+        });
+
+        EXECUTOR.execute(() -> {
+            T result = null;
+            Exception error = null;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                error = e;
+            }
+            task.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.startNanos);
+            record(task, error);
+
+            T value = result;
+            Exception failure = error;
+            SwingUtilities.invokeLater(() -> {
+                finished(task);
+                if (task.isCancelled()) {
+                    return;
+                }
+                if (failure == null) {
+                    onSuccess.accept(value);
+                } else if (onFailure != null) {
+                    onFailure.accept(failure);
+                }
+            });
+        });
+        return task;
+    }
+
+    /** Takes a task off the running list. Runs on the event thread. */
+    private static void finished(Task task) {
+        if (running.remove(task)) {
+            fireActivityChanged();
+        }
+    }
+
+    private static void record(Task task, Exception error) {
+        Timing timing = timings.computeIfAbsent(task.getName(), k -> new Timing());
+        timing.count.increment();
+        timing.totalMillis.add(task.elapsedMillis);
+        timing.maxMillis.accumulate(task.elapsedMillis);
+        if (task.isCancelled()) {
+            cancelledCount.incrementAndGet();
+        } else if (error != null) {
+            timing.failed.increment();
+            System.err.println("Background task " + task.getName() + " failed: " + error.getMessage());
+        }
+        if (task.elapsedMillis > SLOW_TASK_MILLIS) {
+            slowCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Registers a listener told whenever a task starts or finishes.
+     *
+     * @param listener the listener; called on the event thread
+     */
+    public static void addActivityListener(ActivityListener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeActivityListener(ActivityListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static void fireActivityChanged() {
+        List<String> names = new ArrayList<>(running.size());
+        for (Task task : running) {
+            names.add(task.getName());
+        }
+        for (ActivityListener listener : listeners) {
+            listener.activityChanged(names);
+        }
+    }
+
+    private static void onEventThread(Runnable action) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            action.run();
+        } else {
+            SwingUtilities.invokeLater(action);
+        }
+    }
+
+    /**
+     * Creates a busy bar for a status panel. It is shown, animated and
+     * labelled with the oldest running task while any task runs, and hidden
+     * otherwise. It follows the tasks only while its window is displayable,
+     * so a disposed window is not kept alive.
+     *
+     * @return the busy bar
+     */
+    public static JProgressBar createIndicator() {
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true);
+        bar.setStringPainted(true);
+        bar.setVisible(false);
+        ActivityListener listener = names -> {
+            bar.setVisible(!names.isEmpty());
+            if (!names.isEmpty()) {
+                bar.setString(names.size() == 1 ? names.get(0) + "..."
+                        : names.get(0) + "... (+" + (names.size() - 1) + " more)");
+                bar.setToolTipText(String.join(", ", names));
+            }
+        };
+        followWhileDisplayable(bar, listener);
+        return bar;
+    }
+
+    /**
+     * Keeps the task timings from {@link #getStatistics()} in a component's
+     * tooltip, such as a status label, updated as tasks finish. Like the busy
+     * bar, it follows the tasks only while its window is displayable.
+     *
+     * @param component where the timings are shown on hover
+     */
+    public static void showStatistics(JComponent component) {
+        followWhileDisplayable(component, names -> component.setToolTipText("<html><pre>"
+                + getStatistics().replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                + "</pre></html>"));
+    }
+
+    /** Registers a listener while the component's window is displayable, and removes it otherwise. */
+    private static void followWhileDisplayable(JComponent component, ActivityListener listener) {
+        component.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.DISPLAYABILITY_CHANGED) != 0) {
+                if (component.isDisplayable()) {
+                    addActivityListener(listener);
+                } else {
+                    removeActivityListener(listener);
+                }
+            }
+        });
+    }
+
+    /**
+     * Gets a summary of task timings, slowest average first.
+     *
+     * @return human readable timings, one line per task name
+     */
+    public static String getStatistics() {
+        StringBuilder text = new StringBuilder("background tasks (" + cancelledCount.get() + " cancelled, "
+                + slowCount.get() + " over " + SLOW_TASK_MILLIS + " ms):\n");
+        timings.entrySet().stream()
+                .sorted((a, b) -> Double.compare(average(b.getValue()), average(a.getValue())))
+                .forEach(entry -> {
+                    Timing timing = entry.getValue();
+                    text.append(String.format("  %-28s %5d runs %4d failed  avg %6.0f ms  max %6d ms\n",
+                            entry.getKey(), timing.count.sum(), timing.failed.sum(), average(timing),
+                            timing.maxMillis.get()));
+                });
+        return text.toString();
+    }
+
+    private static double average(Timing timing) {
+        long count = timing.count.sum();
+        return count == 0 ? 0 : (double) timing.totalMillis.sum() / count;
+    }
+}
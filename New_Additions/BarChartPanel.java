@@ -0,0 +1,140 @@
+package New_Additions;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+
+/**
+ * BarChartPanel draws one bar per label, with the value above each bar, a
+ * five-step scale and a legend. The scale is worked out when the data is
+ * set, and the drawing is cached by {@link CachedChartPanel}.
+ */
+public class BarChartPanel extends CachedChartPanel {
+
+    private static final int PADDING = 60;
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font AXIS_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Font LEGEND_FONT = new Font("Arial", Font.PLAIN, 11);
+    private static final Font SCALE_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font VALUE_FONT = new Font("Arial", Font.BOLD, 9);
+    private static final Color BAR_TOP = new Color(70, 130, 180);
+    private static final Color BAR_BOTTOM = new Color(135, 206, 250);
+
+    private final String title;
+    private final String xAxisLabel;
+    private final String yAxisLabel;
+
+    private String[] labels = new String[0];
+    private double[] values = new double[0];
+    private double maxValue = 1;
+    private boolean wholeValues = true;
+
+    /**
+     * Creates an empty chart.
+     *
+     * @param title      shown above the chart
+     * @param xAxisLabel shown under the labels
+     * @param yAxisLabel shown above the scale, and in the legend
+     */
+    public BarChartPanel(String title, String xAxisLabel, String yAxisLabel) {
+        this.title = title;
+        this.xAxisLabel = xAxisLabel;
+        this.yAxisLabel = yAxisLabel;
+        setBackground(Color.WHITE);
+    }
+
+    /**
+     * Replaces the bars.
+     *
+     * @param labels the label under each bar
+     * @param values the height of each bar; must not be negative
+     */
+    public void setData(String[] labels, double[] values) {
+        if (labels.length != values.length) {
+            throw new IllegalArgumentException("Expected " + labels.length + " values, got " + values.length);
+        }
+        this.labels = labels.clone();
+        this.values = values.clone();
+        maxValue = 0;
+        wholeValues = true;
+        for (double value : values) {
+            maxValue = Math.max(maxValue, value);
+            wholeValues &= value == Math.rint(value);
+        }
+        if (maxValue == 0) {
+            maxValue = 1;
+        }
+        chartChanged();
+    }
+
+    private String format(double value) {
+        return wholeValues ? String.format("%,.0f", value) : String.format("%,.2f", value);
+    }
+
+    @Override
+    protected void renderChart(Graphics2D g, int width, int height) {
+        if (labels.length == 0) {
+            g.setColor(Color.BLACK);
+            g.drawString("No data available", width / 2 - 50, height / 2);
+            return;
+        }
+
+        int chartWidth = width - 2 * PADDING;
+        int chartHeight = height - 2 * PADDING;
+        int baseline = height - PADDING;
+
+        // Title
+        g.setFont(TITLE_FONT);
+        g.setColor(Color.BLACK);
+        int titleWidth = g.getFontMetrics().stringWidth(title);
+        g.drawString(title, (width - titleWidth) / 2, 30);
+
+        // Axes and their labels
+        g.drawLine(PADDING, baseline, width - PADDING, baseline);
+        g.drawLine(PADDING, PADDING, PADDING, baseline);
+        g.setFont(AXIS_FONT);
+        g.drawString(yAxisLabel, 10, PADDING - 10);
+        g.drawString(xAxisLabel, width / 2 - 30, height - 10);
+
+        // Scale lines go under the bars
+        g.setFont(SCALE_FONT);
+        for (int i = 0; i <= 5; i++) {
+            int y = baseline - chartHeight * i / 5;
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawLine(PADDING + 1, y, width - PADDING, y);
+            g.setColor(Color.BLACK);
+            String scale = format(maxValue * i / 5);
+            g.drawString(scale, PADDING - 5 - g.getFontMetrics().stringWidth(scale), y + 5);
+        }
+
+        int spacing = Math.max(1, chartWidth / labels.length);
+        int barWidth = Math.max(2, Math.min(spacing - 2, Math.max(10, chartWidth / (labels.length * 2))));
+        for (int i = 0; i < labels.length; i++) {
+            int barHeight = (int) (values[i] / maxValue * chartHeight);
+            int x = PADDING + i * spacing + (spacing - barWidth) / 2;
+            int y = baseline - barHeight;
+
+            g.setPaint(new GradientPaint(x, y, BAR_TOP, x, baseline, BAR_BOTTOM));
+            g.fillRect(x, y, barWidth, barHeight);
+            g.setColor(Color.BLACK);
+            g.drawRect(x, y, barWidth, barHeight);
+
+            g.setFont(SCALE_FONT);
+            int labelWidth = g.getFontMetrics().stringWidth(labels[i]);
+            g.drawString(labels[i], x + (barWidth - labelWidth) / 2, baseline + 15);
+
+            g.setFont(VALUE_FONT);
+            String value = format(values[i]);
+            int valueWidth = g.getFontMetrics().stringWidth(value);
+            g.drawString(value, x + (barWidth - valueWidth) / 2, y - 5);
+        }
+
+        // Legend
+        g.setFont(LEGEND_FONT);
+        g.setColor(BAR_TOP);
+        g.fillRect(width - PADDING - 150, PADDING + 20, 15, 15);
+        g.setColor(Color.BLACK);
+        g.drawString(yAxisLabel, width - PADDING - 130, PADDING + 32);
+    }
+}
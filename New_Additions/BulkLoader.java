@@ -0,0 +1,321 @@
+package New_Additions;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * BulkLoader imports the CSV files written by creatingSqlTables/generateCSVs.py
+ * with PostgreSQL COPY, replacing the hand-run psql \copy commands.
+ *
+ * Usage: {@code java New_Additions.BulkLoader [csv directory] [--replace]}
+ *
+ * Tables are loaded in dependency waves (customers, employees, menu items and
+ * inventory first; then orders and recipes; then order items and payments) so
+ * foreign keys are always satisfied, and the tables inside a wave are loaded
+ * in parallel on separate connections. Secondary indexes on the loaded tables
+ * are dropped before the load and rebuilt in parallel afterwards, which is
+ * much faster than maintaining them row by row. The sales rollup tables are
+ * recomputed once orders have been loaded. With --replace the tables are
+ * emptied first. Database credentials come from the same .env file the apps use.
+ */
+public class BulkLoader {
+
+    /** Tables in load order; each inner array is one wave of parallel loads */
+    private static final String[][] WAVES = {
+            { "customers", "employees", "menuitems", "inventory" },
+            { "orders", "menuitemingredients" },
+            { "orderitems", "payments" },
+    };
+
+    /** Secondary indexes on the loaded tables, excluding those backing constraints */
+    private static final String SECONDARY_INDEXES_SQL = "SELECT i.indexname, i.indexdef FROM pg_indexes i "
+            + "WHERE i.schemaname = current_schema() AND i.tablename = ANY (?) "
+            + "AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conname = i.indexname)";
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final ConnectionPool pool;
+    private final Path csvDirectory;
+
+    /** Rows sent so far per table, for progress reporting */
+    private final Map<String, LongAdder> rowsSent = new LinkedHashMap<>();
+    /** Bytes sent so far across all tables */
+    private final LongAdder bytesSent = new LongAdder();
+
+    /**
+     * Creates a loader that reads CSV files from the given directory.
+     *
+     * @param pool         source of database connections
+     * @param csvDirectory directory holding the generated .csv files
+     */
+    public BulkLoader(ConnectionPool pool, Path csvDirectory) {
+        this.pool = pool;
+        this.csvDirectory = csvDirectory;
+        for (String[] wave : WAVES) {
+            for (String table : wave) {
+                rowsSent.put(table, new LongAdder());
+            }
+        }
+    }
+
+    /**
+     * Runs the full import.
+     *
+     * @param replace whether to empty the tables before loading
+     * @return rows loaded per table
+     * @throws SQLException if a table fails to load
+     * @throws IOException  if a CSV file cannot be read
+     */
+    public Map<String, Long> load(boolean replace) throws SQLException, IOException {
+        List<String> tables = new ArrayList<>(rowsSent.keySet());
+        Map<String, Long> loaded = new LinkedHashMap<>();
+        long start = System.nanoTime();
+
+        if (replace) {
+            try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.execute("TRUNCATE " + String.join(", ", tables));
+            }
+            System.out.println("Emptied " + String.join(", ", tables));
+        }
+
+        Map<String, String> indexes = dropSecondaryIndexes(tables);
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "bulk-load-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> printProgress(start), 1, 1, TimeUnit.SECONDS);
+        ExecutorService workers = Executors.newFixedThreadPool(WAVES[0].length);
+
+        try {
+            for (String[] wave : WAVES) {
+                Map<String, Future<Long>> running = new LinkedHashMap<>();
+                for (String table : wave) {
+                    Path file = csvDirectory.resolve(table + ".csv");
+                    if (!Files.exists(file)) {
+                        System.out.println("Skipping " + table + ": " + file + " not found");
+                        continue;
+                    }
+                    running.put(table, workers.submit(() -> copyTable(table, file)));
+                }
+                for (Map.Entry<String, Future<Long>> entry : running.entrySet()) {
+                    loaded.put(entry.getKey(), await(entry.getValue()));
+                }
+            }
+        } finally {
+            reporter.shutdownNow();
+            // Put the indexes back even if a load failed, so the schema is never left without them
+            rebuildIndexes(indexes, workers);
+            workers.shutdown();
+        }
+
+        if (loaded.containsKey("orders")) {
+            // COPY bypasses the per-order rollup updates, so recompute them
+            try (Connection conn = pool.getConnection()) {
+                SalesRollups.rebuild(conn);
+            }
+            System.out.println("Rebuilt sales rollups");
+        }
+        analyze(loaded.keySet());
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long totalRows = loaded.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("Loaded %,d rows in %.1fs (%,.0f rows/s)%n", totalRows, seconds, totalRows / seconds);
+        return loaded;
+    }
+
+    /** Streams one CSV file into its table with COPY and returns the row count. */
+    private long copyTable(String table, Path file) throws SQLException, IOException {
+        long start = System.nanoTime();
+        LongAdder rows = rowsSent.get(table);
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), COPY_BUFFER_SIZE);
+                Connection conn = pool.getConnection()) {
+            // Column list comes from the CSV header, so the file decides the column order
+            String columns = readHeader(in).toLowerCase();
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copy = copyManager.copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+
+            try {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) > 0) {
+                    copy.writeToCopy(buffer, 0, read);
+                    bytesSent.add(read);
+                    int lines = 0;
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                    rows.add(lines);
+                }
+                long copied = copy.endCopy();
+                System.out.printf("  %-20s %,10d rows in %.2fs%n", table, copied, (System.nanoTime() - start) / 1e9);
+                return copied;
+            } finally {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            }
+        }
+    }
+
+    /** Reads the first line of a CSV file (the header) and returns it. */
+    private static String readHeader(InputStream in) throws IOException {
+        StringBuilder header = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                header.append((char) b);
+            }
+        }
+        return header.toString();
+    }
+
+    /** Drops the secondary indexes of the given tables and returns their definitions. */
+    private Map<String, String> dropSecondaryIndexes(List<String> tables) throws SQLException {
+        Map<String, String> indexes = new LinkedHashMap<>();
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SECONDARY_INDEXES_SQL)) {
+                stmt.setArray(1, conn.createArrayOf("text", tables.toArray()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        indexes.put(rs.getString("indexname"), rs.getString("indexdef"));
+                    }
+                }
+            }
+            try (Statement stmt = conn.createStatement()) {
+                for (String index : indexes.keySet()) {
+                    stmt.execute("DROP INDEX " + index);
+                }
+            }
+        }
+        if (!indexes.isEmpty()) {
+            System.out.println("Dropped " + indexes.size() + " secondary indexes until the load finishes");
+        }
+        return indexes;
+    }
+
+    /** Recreates dropped indexes, several at a time. */
+    private void rebuildIndexes(Map<String, String> indexes, ExecutorService workers) throws SQLException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Future<Long>> builds = new ArrayList<>();
+        for (String definition : indexes.values()) {
+            builds.add(workers.submit(() -> {
+                try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+                    stmt.execute(definition);
+                }
+                return 0L;
+            }));
+        }
+        for (Future<Long> build : builds) {
+            await(build);
+        }
+        System.out.printf("Rebuilt %d indexes in %.2fs%n", indexes.size(), (System.nanoTime() - start) / 1e9);
+    }
+
+    /** Refreshes planner statistics for the loaded tables. */
+    private void analyze(Iterable<String> tables) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            for (String table : tables) {
+                stmt.execute("ANALYZE " + table);
+            }
+        }
+    }
+
+    private void printProgress(long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        StringBuilder line = new StringBuilder(String.format("[%5.1fs]", seconds));
+        for (Map.Entry<String, LongAdder> entry : rowsSent.entrySet()) {
+            long rows = entry.getValue().sum();
+            if (rows > 0) {
+                line.append(String.format(" %s=%,d", entry.getKey(), rows));
+            }
+        }
+        line.append(String.format(" | %.1f MB/s", bytesSent.sum() / 1e6 / seconds));
+        System.out.println(line);
+    }
+
+    /** Waits for a load task and unwraps its failure. */
+    private static long await(Future<Long> task) throws SQLException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Load failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Command line entry point.
+     *
+     * @param args optional CSV directory and --replace flag
+     */
+    public static void main(String[] args) {
+        Path directory = Paths.get(".");
+        boolean replace = false;
+        for (String arg : args) {
+            if (arg.equals("--replace")) {
+                replace = true;
+            } else {
+                directory = Paths.get(arg);
+            }
+        }
+
+        Map<String, String> env = DatabaseManager.loadEnvironment();
+        if (!env.containsKey("DB_URL") || !env.containsKey("DB_USER") || !env.containsKey("DB_PASS")) {
+            System.err.println("DB_URL, DB_USER and DB_PASS must be set in .env");
+            System.exit(1);
+        }
+
+        ConnectionPool.Settings settings = ConnectionPool.Settings.fromEnvironment(env);
+        // One connection per parallel table plus one for setup, and no leak
+        // warnings for long-running COPYs
+        settings.setMaxPoolSize(Math.max(settings.getMaxPoolSize(), WAVES[0].length + 1));
+        settings.setMinIdle(0);
+        settings.setLeakDetectionThresholdMillis(0);
+
+        try (ConnectionPool pool = new ConnectionPool(env.get("DB_URL"), env.get("DB_USER"), env.get("DB_PASS"),
+                settings)) {
+            System.out.println("Loading CSV files from " + directory.toAbsolutePath().normalize()
+                    + (replace ? " (replacing existing rows)" : ""));
+            new BulkLoader(pool, directory).load(replace);
+        } catch (SQLException | IOException e) {
+            System.err.println("Bulk load failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package New_Additions;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import javax.swing.JPanel;
+
+/**
+ * CachedChartPanel draws a chart once into an offscreen image and repaints
+ * by copying the image, so covering the window, moving it or repainting a
+ * neighbour costs no chart drawing at all.
+ *
+ * Subclasses draw in {@link #renderChart} and call {@link #chartChanged()}
+ * whenever their data or view changes. The image is also redrawn when the
+ * panel is resized. Use from the event dispatch thread.
+ */
+public abstract class CachedChartPanel extends JPanel {
+
+    private BufferedImage image;
+    private boolean stale = true;
+    private long renderCount;
+    private long renderNanos;
+
+    protected CachedChartPanel() {
+        setOpaque(true);
+    }
+
+    /**
+     * Draws the whole chart, background included.
+     *
+     * @param g      graphics of the offscreen image, with antialiasing on
+     * @param width  image width in pixels
+     * @param height image height in pixels
+     */
+    protected abstract void renderChart(Graphics2D g, int width, int height);
+
+    /** Marks the cached image out of date and schedules a repaint. */
+    protected void chartChanged() {
+        stale = true;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int width = getWidth();
+        int height = getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (stale || image == null || image.getWidth() != width || image.getHeight() != height) {
+            render(width, height);
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    private void render(int width, int height) {
+        long start = System.nanoTime();
+        if (image == null || image.getWidth() != width || image.getHeight() != height) {
+            GraphicsConfiguration config = getGraphicsConfiguration();
+            image = config != null ? config.createCompatibleImage(width, height, Transparency.OPAQUE)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(getBackground());
+            g.fillRect(0, 0, width, height);
+            renderChart(g, width, height);
+        } finally {
+            g.dispose();
+        }
+        stale = false;
+        renderCount++;
+        renderNanos += System.nanoTime() - start;
+    }
+
+    /** Gets how many times the chart has been drawn into its image. */
+    public long getRenderCount() {
+        return renderCount;
+    }
+
+    /** Gets the average time to draw the chart, in ms. */
+    public double getAverageRenderMillis() {
+        return renderCount == 0 ? 0 : renderNanos / 1e6 / renderCount;
+    }
+}
@@ -6,6 +6,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 /**
  * CashierUI provids an interface for cashiers to proces orders.
@@ -16,8 +17,11 @@ public class CashierUI extends JFrame {
     /** Manages all databse related operation. */
     private DatabaseManager dbManager;
 
-    /** List of menu items shown to the cashier. */
-    private JList<String> menuList;
+    /** Days of sales used to pick the quick keys. */
+    private static final int QUICK_KEY_SALES_DAYS = 7;
+
+    /** Menu search, item list and quick keys shown to the cashier. */
+    private MenuPicker<MenuItem> menuPicker;
 
     /** Model that holds items currently in order. */
     private DefaultListModel<String> orderListModel;
@@ -25,15 +29,15 @@ public class CashierUI extends JFrame {
     /** Shows total cost of order. */
     private JLabel totalLabel;
 
+    /** Shows connection state and the result of the last order. */
+    private JLabel statusLabel;
+
     /** Field for customer name input. */
     private JTextField customerNameField;
 
     /** Dropdown for selecting item quantitie. */
     private JComboBox<Integer> quantityBox;
 
-    /** Holds all menu items retrived from DB. */
-    private List<MenuItem> menuItems = new ArrayList<>();
-
     /** Keeps track of current order items dispalyed. */
     private List<OrderItemDisplay> currentOrder = new ArrayList<>();
 
@@ -43,8 +47,8 @@ public class CashierUI extends JFrame {
     /** Constrctor initializes and builds UI. */
     public CashierUI() {
         initializeServices();
-        loadMenuItems();
         createAndShowGUI();
+        loadMenuItems();
     }
 
     /** Intializ the database manager and check mode. */
@@ -119,6 +123,13 @@ public class CashierUI extends JFrame {
                     setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
                 }
             }
+
+            /** However the window was left, waits for queued orders to be saved and releases the database. */
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                System.out.println("Cashier " + menuPicker.getLatencySummary());
+                dbManager.close();
+            }
         });
     }
 
@@ -149,20 +160,12 @@ public class CashierUI extends JFrame {
         leftPanel.setBorder(BorderFactory.createTitledBorder(
                 BorderFactory.createEtchedBorder(), "Menu Items"));
 
-        /** Display menu item names and prices. */
-        menuList = new JList<>(menuItems.stream()
-                .map(item -> item.getMenuItemName() + " - $" + String.format("%.2f", item.getPrice()))
-                .toArray(String[]::new));
-        menuList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
-        menuList.setFont(new Font("Monospaced", Font.PLAIN, 12));
-        JScrollPane menuScrollPane = new JScrollPane(menuList);
-        leftPanel.add(menuScrollPane, BorderLayout.CENTER);
-
-        /** Button to add item to order. */
-        JButton addButton = new JButton("Add to Order");
-        addButton.setFont(new Font("Arial", Font.BOLD, 14));
-        addButton.addActionListener(e -> addToOrder());
-        leftPanel.add(addButton, BorderLayout.SOUTH);
+        /** Search box, matching items and the Add to Order button. */
+        menuPicker = new MenuPicker<>(MenuItem::getMenuItemID, MenuItem::getMenuItemName,
+                MenuItem::getDrinkCategory,
+                item -> item.getMenuItemName() + " - $" + String.format("%.2f", item.getPrice()),
+                this::addToOrder, dbManager.getQuickKeyCount());
+        leftPanel.add(menuPicker, BorderLayout.CENTER);
 
         return leftPanel;
     }
@@ -234,6 +237,12 @@ public class CashierUI extends JFrame {
         rightPanel.add(quantityPanel);
         rightPanel.add(Box.createVerticalStrut(20));
         rightPanel.add(customerPanel);
+        rightPanel.add(Box.createVerticalStrut(20));
+
+        /** Best sellers, one click to add. */
+        JPanel quickKeys = menuPicker.getQuickKeyPanel();
+        quickKeys.setBorder(BorderFactory.createTitledBorder("Quick Keys"));
+        rightPanel.add(quickKeys);
         rightPanel.add(Box.createVerticalGlue());
 
         return rightPanel;
@@ -247,36 +256,42 @@ public class CashierUI extends JFrame {
         String statusText = dbManager.isUsingMockData() ? "Status: Running in demo mode (mock data)"
                 : "Status: Connected to database";
 
-        JLabel statusLabel = new JLabel(statusText);
+        statusLabel = new JLabel(statusText);
         statusLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         statusLabel.setForeground(dbManager.isUsingMockData() ? Color.ORANGE : Color.BLACK);
 
         statusPanel.add(statusLabel, BorderLayout.WEST);
+        statusPanel.add(BackgroundTasks.createIndicator(), BorderLayout.EAST);
         return statusPanel;
     }
 
-    /** Loads all menu items from database. */
+    /**
+     * Loads all menu items from database in the background, then fills the
+     * menu and loads recent sales to rank the quick keys.
+     */
     private void loadMenuItems() {
-        try {
-            menuItems = dbManager.getAllMenuItems();
-            if (menuItems.isEmpty()) {
+        BackgroundTasks.run("Load menu", dbManager::getAllMenuItems, items -> {
+            menuPicker.setItems(items);
+            menuPicker.focusSearch();
+            BackgroundTasks.run("Load best sellers", () -> dbManager.getMenuItemSales(QUICK_KEY_SALES_DAYS),
+                    menuPicker::setSalesCounts, null);
+            if (items.isEmpty()) {
                 JOptionPane.showMessageDialog(this,
                         "No menu items found in database",
                         "Warning",
                         JOptionPane.WARNING_MESSAGE);
             }
-        } catch (Exception e) {
+        }, e -> {
             JOptionPane.showMessageDialog(this,
                     "Failed to load menu items: " + e.getMessage(),
                     "Database Error",
                     JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
-    /** Adds selected menu item to curent order. */
-    private void addToOrder() {
-        int selectedIndex = menuList.getSelectedIndex();
-        if (selectedIndex < 0) {
+    /** Adds a menu item to curent order, or complains if none was selected. */
+    private void addToOrder(MenuItem item) {
+        if (item == null) {
             JOptionPane.showMessageDialog(this,
                     "Please select a menu item",
                     "Error",
@@ -284,14 +299,12 @@ public class CashierUI extends JFrame {
             return;
         }
 
-        MenuItem item = menuItems.get(selectedIndex);
         int quantity = (int) quantityBox.getSelectedItem();
 
         OrderItemDisplay orderItem = new OrderItemDisplay(item, quantity);
         currentOrder.add(orderItem);
 
-        orderListModel.addElement(quantity + "x " + item.getMenuItemName() +
-                " - $" + String.format("%.2f", item.getPrice() * quantity));
+        orderListModel.addElement(orderItem.toString());
 
         totalCost += item.getPrice() * quantity;
         updateTotalDisplay();
@@ -306,7 +319,11 @@ public class CashierUI extends JFrame {
         customerNameField.setText("");
     }
 
-    /** Submits the current order to databse. */
+    /**
+     * Submits the current order to databse. The order is queued and the form
+     * is cleared right away so the next customer can be rung up; the result
+     * shows up in the status bar once the order has been saved.
+     */
     private void submitOrder() {
         if (currentOrder.isEmpty()) {
             JOptionPane.showMessageDialog(this,
@@ -316,58 +333,90 @@ public class CashierUI extends JFrame {
             return;
         }
 
-        try {
-            /** Converts displayed items to database order items. */
-            List<OrderItem> orderItems = new ArrayList<>();
-            for (OrderItemDisplay displayItem : currentOrder) {
-                OrderItem orderItem = new OrderItem();
-                orderItem.setMenuItemID(displayItem.getMenuItem().getMenuItemID());
-                orderItem.setQuantity(displayItem.getQuantity());
-                orderItems.add(orderItem);
-            }
+        /** Converts displayed items to database order items. */
+        List<OrderItem> orderItems = new ArrayList<>();
+        for (OrderItemDisplay displayItem : currentOrder) {
+            OrderItem orderItem = new OrderItem();
+            orderItem.setMenuItemID(displayItem.getMenuItem().getMenuItemID());
+            orderItem.setQuantity(displayItem.getQuantity());
+            orderItems.add(orderItem);
+        }
 
-            /** Creates and populate new order object. */
-            Order order = new Order();
-            order.setTimeOfOrder(new Timestamp(System.currentTimeMillis()));
-            order.setCustomerID(null);
-            order.setEmployeeID(1);
-            order.setTotalCost(totalCost);
-            order.setOrderWeek(getCurrentWeek());
+        /** Creates and populate new order object. */
+        Order order = new Order();
+        order.setTimeOfOrder(new Timestamp(System.currentTimeMillis()));
+        order.setCustomerID(null);
+        order.setEmployeeID(1);
+        order.setTotalCost(totalCost);
+        order.setOrderWeek(getCurrentWeek());
+
+        /** Keeps the displayed items so a rejected order can be put back. */
+        List<OrderItemDisplay> submittedItems = new ArrayList<>(currentOrder);
+        double submittedTotal = totalCost;
+
+        /** Sends order to the background writer and frees the form. */
+        dbManager.submitOrderAsync(order, orderItems).whenComplete((orderId, error) ->
+                SwingUtilities.invokeLater(() -> showOrderResult(orderId, error, submittedItems, submittedTotal)));
+        clearOrder();
+        setStatus("Submitting order ($" + String.format("%.2f", submittedTotal) + ")...", Color.BLACK);
+    }
 
-            /** Sends order to database. */
-            boolean success = dbManager.createOrder(order, orderItems);
+    /** Reports the outcome of a submitted order. Runs on the event thread. */
+    private void showOrderResult(Integer orderId, Throwable error, List<OrderItemDisplay> items, double total) {
+        if (error == null) {
+            for (OrderItemDisplay item : items) {
+                menuPicker.recordSale(item.getMenuItem().getMenuItemID(), item.getQuantity());
+            }
+        }
+        if (error == null && orderId == DatabaseManager.JOURNALED_ORDER_ID) {
+            setStatus("Database unavailable - order saved offline and will be sent automatically. Total: $"
+                    + String.format("%.2f", total), new Color(200, 120, 0));
+            return;
+        }
+        if (error == null) {
+            setStatus("Order #" + orderId + " submitted successfully! Total: $" + String.format("%.2f", total),
+                    new Color(0, 128, 0));
+            return;
+        }
 
-            if (success) {
-                JOptionPane.showMessageDialog(this,
-                        "Order #" + order.getOrderID() + " submitted successfully!\nTotal: $" +
-                                String.format("%.2f", totalCost),
-                        "Success",
-                        JOptionPane.INFORMATION_MESSAGE);
-                clearOrder();
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Failed to submit order. Please check inventory levels.",
-                        "Order Error",
-                        JOptionPane.ERROR_MESSAGE);
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        setStatus("Order was not saved", Color.RED);
+
+        /** Puts the items back if the cashier has not started another order. */
+        boolean restored = currentOrder.isEmpty();
+        if (restored) {
+            for (OrderItemDisplay item : items) {
+                currentOrder.add(item);
+                orderListModel.addElement(item.toString());
             }
+            totalCost = total;
+            updateTotalDisplay();
+        }
+        String restoredNote = restored ? "\nThe order has been put back so it can be changed." : "";
 
-        } catch (Exception e) {
-            // Check if it's an inventory-related error
-            if (e.getMessage() != null && e.getMessage().contains("Insufficient inventory")) {
-                JOptionPane.showMessageDialog(this,
-                        "Cannot fulfill this order due to insufficient inventory.\n" +
-                        "Please check stock levels and try again.",
-                        "Inventory Error",
-                        JOptionPane.ERROR_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Failed to submit order: " + e.getMessage(),
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
+        if (cause instanceof InsufficientInventoryException) {
+            StringBuilder message = new StringBuilder("Cannot fulfill this order due to insufficient inventory:\n");
+            for (InventoryShortfall shortfall : ((InsufficientInventoryException) cause).getShortfalls()) {
+                message.append("  ").append(shortfall).append("\n");
             }
+            JOptionPane.showMessageDialog(this,
+                    message + restoredNote,
+                    "Inventory Error",
+                    JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Failed to submit order: " + cause.getMessage() + restoredNote,
+                    "Order Error",
+                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    /** Shows a message in the status bar. */
+    private void setStatus(String text, Color color) {
+        statusLabel.setText("Status: " + text);
+        statusLabel.setForeground(color);
+    }
+
     /** Updates total label display on screen. */
     private void updateTotalDisplay() {
         totalLabel.setText("Total: $" + String.format("%.2f", totalCost));
@@ -399,5 +448,12 @@ public class CashierUI extends JFrame {
         public int getQuantity() {
             return quantity;
         }
+
+        /** Formats the item as a line in the order list. */
+        @Override
+        public String toString() {
+            return quantity + "x " + menuItem.getMenuItemName() +
+                    " - $" + String.format("%.2f", menuItem.getPrice() * quantity);
+        }
     }
 }
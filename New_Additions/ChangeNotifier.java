@@ -0,0 +1,327 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * ChangeNotifier tells listeners which orders, ingredients, menu items and
+ * employees changed, so open screens can update just those rows instead of
+ * polling for them.
+ *
+ * Connected to a database, it keeps one connection of its own, outside the
+ * pool, that LISTENs on {@value #CHANNEL}. The connection and its thread are
+ * only opened by {@link #start()}, so processes that never watch for
+ * changes, such as cashier terminals, do not hold one. The triggers in
+ * creatingSqlTables/changeNotifications.sql notify it of every changed row
+ * (once per statement for orders, so bulk loads do not flood the channel),
+ * whichever terminal made the change. Between notifications the connection
+ * just waits on its socket, so listening costs the database nothing. If the
+ * connection drops, the notifier reconnects and sends a
+ * {@link Operation#RESYNC} for every table, since anything sent meanwhile
+ * was lost. If the triggers are not installed it stops at once and stays
+ * not listening, so callers keep polling.
+ *
+ * In mock mode there is no database to listen to, and DatabaseManager
+ * publishes its own writes with {@link #publish(Table, Operation, int)}.
+ *
+ * Listeners are called on the listener thread, or on the writing thread in
+ * mock mode, and must hand any Swing work to the event thread.
+ */
+public class ChangeNotifier implements AutoCloseable {
+
+    /** The notification channel the triggers send to */
+    public static final String CHANNEL = "boba_changes";
+
+    /** How long one wait for notifications lasts, so close() is noticed, in ms */
+    private static final int WAIT_MILLIS = 1_000;
+
+    /** Counts the triggers from changeNotifications.sql that are installed */
+    private static final String COUNT_TRIGGERS_SQL = "SELECT COUNT(*) FROM pg_trigger WHERE tgname IN "
+            + "('menuitemschanged', 'inventorychanged', 'employeeschanged', 'ordersinserted')";
+    private static final int TRIGGER_COUNT = 4;
+
+    /** Tables whose changes are sent, by their name in a notification */
+    public enum Table {
+        ORDERS("orders"), INVENTORY("inventory"), MENU("menu"), EMPLOYEES("employees");
+
+        private final String channelName;
+
+        Table(String channelName) {
+            this.channelName = channelName;
+        }
+
+        static Table fromChannelName(String name) {
+            for (Table table : values()) {
+                if (table.channelName.equals(name)) {
+                    return table;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** What happened to a row. RESYNC means any row may have changed. */
+    public enum Operation {
+        INSERT, UPDATE, DELETE, RESYNC
+    }
+
+    /** One changed row. */
+    public static final class Change {
+        private final Table table;
+        private final Operation operation;
+        private final int id;
+
+        public Change(Table table, Operation operation, int id) {
+            this.table = table;
+            this.operation = operation;
+            this.id = id;
+        }
+
+        public Table getTable() {
+            return table;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        /** Gets the primary key of the row, or of the newest row for an order insert; 0 for RESYNC. */
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return table.channelName + ":" + operation + ":" + id;
+        }
+    }
+
+    /** Receives changes, in the order they were made. */
+    public interface Listener {
+        /**
+         * Called with the changes that arrived together.
+         *
+         * @param changes one or more changes
+         */
+        void changesArrived(List<Change> changes);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final String url;
+    private final String user;
+    private final String password;
+    private final long reconnectMillis;
+    private final Thread listenerThread;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean listening;
+    private volatile boolean closed;
+
+    /** Changes handed to listeners */
+    private final LongAdder deliveredCount = new LongAdder();
+    /** Times the listening connection was opened again after failing */
+    private final LongAdder reconnectCount = new LongAdder();
+
+    private ChangeNotifier(String url, String user, String password, long reconnectMillis) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.reconnectMillis = reconnectMillis;
+        if (url == null) {
+            listenerThread = null;
+        } else {
+            listenerThread = new Thread(this::run, "change-listener");
+            listenerThread.setDaemon(true);
+        }
+    }
+
+    /**
+     * Creates a notifier that only passes on what is published to it, for
+     * mock mode.
+     *
+     * @return an in-process notifier
+     */
+    public static ChangeNotifier inProcess() {
+        return new ChangeNotifier(null, null, null, 0);
+    }
+
+    /**
+     * Creates a notifier that listens for database notifications on a
+     * connection of its own once {@link #start()} is called.
+     *
+     * @param url             JDBC URL of the database
+     * @param user            database user
+     * @param password        database password
+     * @param reconnectMillis how long to wait before reconnecting after a failure
+     * @return a notifier, not yet listening
+     */
+    public static ChangeNotifier listen(String url, String user, String password, long reconnectMillis) {
+        return new ChangeNotifier(url, user, password, Math.max(100, reconnectMillis));
+    }
+
+    /**
+     * Opens the listening connection, if this notifier has a database and
+     * has not been started. Later calls do nothing.
+     */
+    public void start() {
+        if (listenerThread != null && !closed && started.compareAndSet(false, true)) {
+            listenerThread.start();
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Tells listeners about a change made in this process. Only needed in
+     * mock mode; database triggers report changes made while connected.
+     *
+     * @param table     the table changed
+     * @param operation what happened to the row
+     * @param id        the row's primary key
+     */
+    public void publish(Table table, Operation operation, int id) {
+        if (!closed) {
+            deliver(List.of(new Change(table, operation, id)));
+        }
+    }
+
+    /**
+     * Checks whether changes from other terminals are arriving. False for an
+     * in-process notifier, and while a listening one is reconnecting.
+     *
+     * @return true if the listening connection is open
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    /** Listener loop: connect, LISTEN, then pass on notifications until closed. */
+    private void run() {
+        boolean reconnecting = false;
+        while (!closed) {
+            try (Connection conn = DriverManager.getConnection(url, user, password)) {
+                try (Statement stmt = conn.createStatement()) {
+                    try (ResultSet rs = stmt.executeQuery(COUNT_TRIGGERS_SQL)) {
+                        if (rs.next() && rs.getInt(1) < TRIGGER_COUNT) {
+                            System.err.println("Change notification triggers are missing; run "
+                                    + "creatingSqlTables/changeNotifications.sql for live updates.");
+                            return;
+                        }
+                    }
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                listening = true;
+                if (reconnecting) {
+                    reconnectCount.increment();
+                    List<Change> resync = new ArrayList<>();
+                    for (Table table : Table.values()) {
+                        resync.add(new Change(table, Operation.RESYNC, 0));
+                    }
+                    deliver(resync);
+                }
+
+                while (!closed) {
+                    PGNotification[] notifications = pgConnection.getNotifications(WAIT_MILLIS);
+                    if (notifications != null && notifications.length > 0) {
+                        deliver(parse(notifications));
+                    }
+                }
+            } catch (SQLException e) {
+                if (!closed) {
+                    System.err.println("Change listener disconnected: " + e.getMessage());
+                }
+            } finally {
+                listening = false;
+            }
+
+            reconnecting = true;
+            try {
+                if (!closed) {
+                    Thread.sleep(reconnectMillis);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** Reads "table:operation:id" payloads, skipping any it does not understand. */
+    private static List<Change> parse(PGNotification[] notifications) {
+        List<Change> changes = new ArrayList<>(notifications.length);
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(":");
+            Table table = parts.length == 3 ? Table.fromChannelName(parts[0]) : null;
+            try {
+                if (table == null) {
+                    throw new IllegalArgumentException("unknown table");
+                }
+                changes.add(new Change(table, Operation.valueOf(parts[1]), Integer.parseInt(parts[2])));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring change notification \"" + notification.getParameter() + "\": "
+                        + e.getMessage());
+            }
+        }
+        return changes;
+    }
+
+    private void deliver(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        deliveredCount.add(changes.size());
+        for (Listener listener : listeners) {
+            try {
+                listener.changesArrived(changes);
+            } catch (RuntimeException e) {
+                System.err.println("Error handling changes: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stops listening and waits briefly for the listener thread to finish.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (listenerThread != null && started.get()) {
+            listenerThread.interrupt();
+            try {
+                listenerThread.join(WAIT_MILLIS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets a one-line summary of changes passed on.
+     *
+     * @return human readable notifier statistics
+     */
+    public String getStatistics() {
+        return String.format("change notifier: %s, %d changes delivered, %d reconnects",
+                listenerThread == null ? "in-process" : !started.get() ? "not started"
+                        : listening ? "listening" : "not listening",
+                deliveredCount.sum(), reconnectCount.sum());
+    }
+}
@@ -0,0 +1,610 @@
+package New_Additions;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+/**
+ * ConnectionPool keeps a bounded set of physical database connections and
+ * lends them out to callers. Connections returned by {@link #getConnection()}
+ * go back to the pool when closed, so callers keep using the normal
+ * try-with-resources pattern and several terminals can run queries in
+ * parallel instead of sharing one connection.
+ *
+ * The pool validates connections that have been idle for a while before
+ * handing them out, evicts connections that stay idle too long, reports
+ * connections that are held longer than the leak detection threshold, and
+ * records how long each borrow had to wait. Each connection also keeps its
+ * prepared statements open between borrows (see StatementCache), so hot
+ * queries are parsed once per connection.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    /**
+     * Tunable settings for a ConnectionPool. Defaults suit a handful of
+     * terminals and one manager dashboard; every value can be overridden from
+     * the .env file.
+     */
+    public static class Settings {
+        /** Maximum number of physical connections the pool will open */
+        private int maxPoolSize = 10;
+        /** Number of idle connections the housekeeper keeps warm */
+        private int minIdle = 2;
+        /** How long a borrower waits for a free connection before failing */
+        private long connectionTimeoutMillis = 5_000;
+        /** Idle connections older than this are closed by the housekeeper */
+        private long idleTimeoutMillis = 600_000;
+        /** Connections idle longer than this are validated before reuse */
+        private long validationIntervalMillis = 30_000;
+        /** Seconds given to Connection.isValid during validation */
+        private int validationTimeoutSeconds = 2;
+        /** Borrows held longer than this are reported as leaks (0 disables) */
+        private long leakDetectionThresholdMillis = 60_000;
+        /** How often the housekeeper runs eviction and leak checks */
+        private long housekeepingIntervalMillis = 30_000;
+        /** Prepared statements cached per connection (0 disables the cache) */
+        private int statementCacheSize = 64;
+        /** Executions before the driver switches a statement to a server-side plan */
+        private int prepareThreshold = 1;
+
+        /**
+         * Builds settings from the DB_POOL_* keys of an environment map,
+         * falling back to the defaults for keys that are missing or invalid.
+         *
+         * @param env environment values loaded from the .env file
+         * @return settings populated from the environment
+         */
+        public static Settings fromEnvironment(Map<String, String> env) {
+            Settings settings = new Settings();
+            settings.maxPoolSize = (int) readLong(env, "DB_POOL_MAX_SIZE", settings.maxPoolSize);
+            settings.minIdle = (int) readLong(env, "DB_POOL_MIN_IDLE", settings.minIdle);
+            settings.connectionTimeoutMillis = readLong(env, "DB_POOL_TIMEOUT_MS", settings.connectionTimeoutMillis);
+            settings.idleTimeoutMillis = readLong(env, "DB_POOL_IDLE_TIMEOUT_MS", settings.idleTimeoutMillis);
+            settings.validationIntervalMillis = readLong(env, "DB_POOL_VALIDATION_INTERVAL_MS",
+                    settings.validationIntervalMillis);
+            settings.leakDetectionThresholdMillis = readLong(env, "DB_POOL_LEAK_THRESHOLD_MS",
+                    settings.leakDetectionThresholdMillis);
+            settings.statementCacheSize = (int) readLong(env, "DB_POOL_STATEMENT_CACHE_SIZE",
+                    settings.statementCacheSize);
+            settings.prepareThreshold = (int) readLong(env, "DB_PREPARE_THRESHOLD", settings.prepareThreshold);
+            return settings;
+        }
+
+        private static long readLong(Map<String, String> env, String key, long defaultValue) {
+            String value = env.get(key);
+            if (value == null || value.isEmpty()) {
+                return defaultValue;
+            }
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring invalid value for " + key + ": " + value);
+                return defaultValue;
+            }
+        }
+
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public long getConnectionTimeoutMillis() {
+            return connectionTimeoutMillis;
+        }
+
+        public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+            this.connectionTimeoutMillis = connectionTimeoutMillis;
+        }
+
+        public long getIdleTimeoutMillis() {
+            return idleTimeoutMillis;
+        }
+
+        public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+            this.idleTimeoutMillis = idleTimeoutMillis;
+        }
+
+        public long getValidationIntervalMillis() {
+            return validationIntervalMillis;
+        }
+
+        public void setValidationIntervalMillis(long validationIntervalMillis) {
+            this.validationIntervalMillis = validationIntervalMillis;
+        }
+
+        public int getValidationTimeoutSeconds() {
+            return validationTimeoutSeconds;
+        }
+
+        public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+        }
+
+        public long getLeakDetectionThresholdMillis() {
+            return leakDetectionThresholdMillis;
+        }
+
+        public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+            this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        }
+
+        public long getHousekeepingIntervalMillis() {
+            return housekeepingIntervalMillis;
+        }
+
+        public void setHousekeepingIntervalMillis(long housekeepingIntervalMillis) {
+            this.housekeepingIntervalMillis = housekeepingIntervalMillis;
+        }
+
+        public int getStatementCacheSize() {
+            return statementCacheSize;
+        }
+
+        public void setStatementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+        }
+
+        public int getPrepareThreshold() {
+            return prepareThreshold;
+        }
+
+        public void setPrepareThreshold(int prepareThreshold) {
+            this.prepareThreshold = prepareThreshold;
+        }
+    }
+
+    /** JDBC URL of the database */
+    private final String url;
+    /** Driver properties (credentials and tuning) used for new connections */
+    private final Properties connectionProperties;
+    /** Pool settings */
+    private final Settings settings;
+
+    /** Idle connections, most recently used first */
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    /** Connections currently lent out */
+    private final Set<PooledEntry> inUse = ConcurrentHashMap.newKeySet();
+    /** One permit per connection the pool is still allowed to lend */
+    private final Semaphore permits;
+    /** Background thread for eviction, leak detection and min-idle refill */
+    private final ScheduledExecutorService housekeeper;
+    /** Set once the pool has been closed */
+    private volatile boolean closed;
+
+    /** Number of successful borrows */
+    private final LongAdder borrowCount = new LongAdder();
+    /** Total time borrowers spent waiting, in nanoseconds */
+    private final LongAdder totalWaitNanos = new LongAdder();
+    /** Longest single wait, in nanoseconds */
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    /** Number of borrows that timed out */
+    private final LongAdder timeoutCount = new LongAdder();
+    /** Number of physical connections opened over the pool's lifetime */
+    private final LongAdder createdCount = new LongAdder();
+    /** Number of leaked borrows reported */
+    private final LongAdder leakCount = new LongAdder();
+    /** prepareStatement calls served from a connection's statement cache */
+    private final LongAdder statementHits = new LongAdder();
+    /** prepareStatement calls that had to prepare a new statement */
+    private final LongAdder statementMisses = new LongAdder();
+
+    /**
+     * Creates a pool and opens its first connection so configuration problems
+     * surface immediately.
+     *
+     * @param url      JDBC URL of the database
+     * @param user     database user name
+     * @param password database password
+     * @param settings pool settings
+     * @throws SQLException if the first connection cannot be opened
+     */
+    public ConnectionPool(String url, String user, String password, Settings settings) throws SQLException {
+        this.url = url;
+        this.settings = settings;
+        this.connectionProperties = new Properties();
+        connectionProperties.setProperty("user", user);
+        connectionProperties.setProperty("password", password);
+        // Cached statements are reused across calls, so let the driver move them
+        // to named server-side statements and skip re-parsing on the server too
+        connectionProperties.setProperty("prepareThreshold", String.valueOf(settings.getPrepareThreshold()));
+        this.permits = new Semaphore(Math.max(1, settings.getMaxPoolSize()), true);
+
+        idle.offerFirst(createEntry());
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1_000, settings.getHousekeepingIntervalMillis());
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the configured
+     * connection timeout for one to become free. Closing the returned
+     * connection hands it back to the pool.
+     *
+     * @return a pooled connection
+     * @throws SQLTransientConnectionException if no connection became free in time
+     * @throws SQLException                    if the pool is closed or a new
+     *                                         connection could not be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException("Timed out after " + settings.getConnectionTimeoutMillis()
+                        + "ms waiting for a database connection (" + inUse.size() + " in use)", "08001");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledEntry entry = takeValidEntry();
+            recordWait(System.nanoTime() - start);
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = settings.getLeakDetectionThresholdMillis() > 0
+                    ? new Throwable("Connection borrowed by " + Thread.currentThread().getName())
+                    : null;
+            entry.leakReported = false;
+            inUse.add(entry);
+            return newHandle(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns an idle connection that passed validation, or opens a new one.
+     */
+    private PooledEntry takeValidEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - entry.lastReturnedAt;
+            if (idleFor < settings.getValidationIntervalMillis() || isUsable(entry)) {
+                return entry;
+            }
+            closeQuietly(entry);
+        }
+        return createEntry();
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            return entry.connection.isValid(settings.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, connectionProperties);
+        createdCount.increment();
+        StatementCache statements = settings.getStatementCacheSize() > 0
+                ? new StatementCache(connection, settings.getStatementCacheSize(), statementHits, statementMisses)
+                : null;
+        return new PooledEntry(connection, statements);
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Takes a connection back from a borrower. Any open transaction is rolled
+     * back so the next borrower always starts in auto-commit mode.
+     */
+    private void release(PooledEntry entry) {
+        inUse.remove(entry);
+        boolean reusable = !closed;
+        try {
+            if (entry.statements != null) {
+                entry.statements.reclaim();
+            }
+            if (reusable && !entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+            reusable = reusable && !entry.connection.isClosed();
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        if (reusable) {
+            entry.lastReturnedAt = System.currentTimeMillis();
+            entry.borrowSite = null;
+            idle.offerFirst(entry);
+        } else {
+            closeQuietly(entry);
+        }
+        permits.release();
+    }
+
+    /**
+     * Evicts long-idle connections, tops the pool up to its minimum idle size
+     * and reports connections held past the leak detection threshold.
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledEntry> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() > settings.getMinIdle()) {
+            PooledEntry entry = oldestFirst.next();
+            if (now - entry.lastReturnedAt > settings.getIdleTimeoutMillis() && idle.remove(entry)) {
+                closeQuietly(entry);
+            }
+        }
+
+        while (!closed && idle.size() < settings.getMinIdle()
+                && idle.size() + inUse.size() < settings.getMaxPoolSize()) {
+            try {
+                PooledEntry entry = createEntry();
+                entry.lastReturnedAt = now;
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                System.err.println("Connection pool could not refill idle connections: " + e.getMessage());
+                break;
+            }
+        }
+
+        long threshold = settings.getLeakDetectionThresholdMillis();
+        if (threshold > 0) {
+            for (PooledEntry entry : inUse) {
+                Throwable site = entry.borrowSite;
+                if (!entry.leakReported && site != null && now - entry.borrowedAt > threshold) {
+                    entry.leakReported = true;
+                    leakCount.increment();
+                    System.err.println("Possible connection leak: connection held for "
+                            + (now - entry.borrowedAt) + "ms");
+                    site.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void closeQuietly(PooledEntry entry) {
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeper. Connections
+     * still lent out are closed as soon as their borrowers return them.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry);
+        }
+    }
+
+    /**
+     * Gets a one-line summary of pool usage and borrow wait times.
+     *
+     * @return human readable pool statistics
+     */
+    public String getStatistics() {
+        return String.format("pool: %d active, %d idle, %d created, %d borrows, "
+                + "avg wait %.2fms, max wait %.2fms, %d timeouts, %d leaks, "
+                + "statements %d hits / %d misses (%.1f%% hit rate)",
+                getActiveCount(), getIdleCount(), createdCount.sum(), getBorrowCount(),
+                getAverageWaitMillis(), getMaxWaitMillis(), getTimeoutCount(), leakCount.sum(),
+                getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheHitRate() * 100.0);
+    }
+
+    public int getActiveCount() {
+        return inUse.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.sum();
+        return borrows == 0 ? 0.0 : totalWaitNanos.sum() / (double) borrows / 1_000_000.0;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    public long getStatementCacheHits() {
+        return statementHits.sum();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementMisses.sum();
+    }
+
+    /**
+     * Gets the share of prepareStatement calls served from the statement cache.
+     *
+     * @return hit rate between 0 and 1, or 0 before any statement was prepared
+     */
+    public double getStatementCacheHitRate() {
+        long hits = statementHits.sum();
+        long total = hits + statementMisses.sum();
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Wraps a pooled entry in a Connection proxy whose close() returns the
+     * entry to the pool instead of closing the socket.
+     */
+    private Connection newHandle(PooledEntry entry) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandle(entry));
+    }
+
+    /** A physical connection plus its pool bookkeeping. */
+    private static class PooledEntry {
+        private final Connection connection;
+        /** Prepared statements kept open on this connection, or null if disabled */
+        private final StatementCache statements;
+        private volatile long lastReturnedAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledEntry(Connection connection, StatementCache statements) {
+            this.connection = connection;
+            this.statements = statements;
+        }
+    }
+
+    /** Invocation handler behind every borrowed Connection. */
+    private class ConnectionHandle implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean handleClosed;
+
+        ConnectionHandle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!handleClosed) {
+                        handleClosed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return handleClosed || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + entry.connection;
+                default:
+                    break;
+            }
+
+            if (handleClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (entry.statements != null && method.getName().equals("prepareStatement")
+                    && args != null && args.length == 1) {
+                return entry.statements.prepare((String) args[0], (Connection) proxy);
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // DataSource plumbing
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ConnectionPool only lends connections for its configured user");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return (int) (settings.getConnectionTimeoutMillis() / 1000);
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("ConnectionPool does not use java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
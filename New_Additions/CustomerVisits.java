@@ -0,0 +1,174 @@
+package New_Additions;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * CustomerVisits estimates distinct customers over any time range, and how
+ * many of them had visited before, without COUNT(DISTINCT) scans.
+ *
+ * It keeps one {@link HyperLogLog} sketch per week and per day for the whole
+ * history, and one per hour for the last {@value #HOURLY_RETENTION_DAYS} days,
+ * each a fixed {@value HyperLogLog#REGISTERS} bytes. A range is answered by
+ * merging the fewest sketches that cover it: whole weeks, then whole days,
+ * then hours at the edges (or the surrounding day once hourly sketches have
+ * been dropped). Walk-in orders have no customer and are not counted.
+ *
+ * It is fed by an {@link OrderCube} as an {@link OrderCube.OrderListener}.
+ */
+public class CustomerVisits implements OrderCube.OrderListener {
+
+    /** How long hourly sketches are kept before only the daily ones remain */
+    public static final int HOURLY_RETENTION_DAYS = 7;
+
+    private static final long HOURS_PER_DAY = 24;
+    private static final long HOURS_PER_WEEK = 7 * HOURS_PER_DAY;
+
+    /** Distinct-customer counts for a range, split by whether they had visited before. */
+    public static class Retention {
+        private final long uniqueCustomers;
+        private final long returningCustomers;
+
+        Retention(long uniqueCustomers, long returningCustomers) {
+            this.uniqueCustomers = uniqueCustomers;
+            this.returningCustomers = returningCustomers;
+        }
+
+        /** Gets the estimated distinct customers in the range. */
+        public long getUniqueCustomers() {
+            return uniqueCustomers;
+        }
+
+        /** Gets the estimated customers in the range who had ordered before it. */
+        public long getReturningCustomers() {
+            return returningCustomers;
+        }
+
+        /** Gets the estimated customers whose first order fell in the range. */
+        public long getNewCustomers() {
+            return uniqueCustomers - returningCustomers;
+        }
+    }
+
+    private final TreeMap<Long, HyperLogLog> hourly = new TreeMap<>();
+    private final TreeMap<Long, HyperLogLog> daily = new TreeMap<>();
+    /** Keyed by the day number of the week's Monday */
+    private final TreeMap<Long, HyperLogLog> weekly = new TreeMap<>();
+
+    @Override
+    public synchronized void orderAdded(long seconds, int customerId, int employeeId, int totalCents) {
+        if (customerId < 0) {
+            return;
+        }
+        long hour = Math.floorDiv(seconds, 3600);
+        long day = Math.floorDiv(hour, HOURS_PER_DAY);
+
+        weekly.computeIfAbsent(weekStart(day), k -> new HyperLogLog()).add(customerId);
+        daily.computeIfAbsent(day, k -> new HyperLogLog()).add(customerId);
+        long oldestHour = (currentDay() - HOURLY_RETENTION_DAYS + 1) * HOURS_PER_DAY;
+        if (hour >= oldestHour) {
+            hourly.computeIfAbsent(hour, k -> new HyperLogLog()).add(customerId);
+        }
+        hourly.headMap(oldestHour).clear();
+    }
+
+    /**
+     * Estimates the distinct customers who ordered within a range.
+     *
+     * @param range the range to count; partial hours count as whole hours
+     * @return the estimated number of distinct customers
+     */
+    public synchronized long countUniqueCustomers(TimeRange range) {
+        return union(startHour(range), endHour(range)).estimate();
+    }
+
+    /**
+     * Estimates distinct customers in a range and how many had ordered before
+     * it. Returning customers are found from the sizes of the range, the
+     * history before it and their union, so small counts are rougher than the
+     * plain distinct count.
+     *
+     * @param range the range to count; partial hours count as whole hours
+     * @return the unique and returning customer estimates
+     */
+    public synchronized Retention getRetention(TimeRange range) {
+        long from = startHour(range);
+        HyperLogLog inRange = union(from, endHour(range));
+        HyperLogLog before = daily.isEmpty() ? new HyperLogLog() : union(daily.firstKey() * HOURS_PER_DAY, from);
+
+        long unique = inRange.estimate();
+        long earlier = before.estimate();
+        HyperLogLog both = inRange.copy();
+        both.merge(before);
+        long returning = unique + earlier - both.estimate();
+        return new Retention(unique, Math.max(0, Math.min(unique, returning)));
+    }
+
+    /** Merges the sketches covering hours [fromHour, toHour). Caller holds the lock. */
+    private HyperLogLog union(long fromHour, long toHour) {
+        HyperLogLog result = new HyperLogLog();
+        long oldestHour = (currentDay() - HOURLY_RETENTION_DAYS + 1) * HOURS_PER_DAY;
+        long hour = fromHour;
+        while (hour < toHour) {
+            long day = Math.floorDiv(hour, HOURS_PER_DAY);
+            boolean dayStart = hour == day * HOURS_PER_DAY;
+            if (dayStart && weekStart(day) == day && hour + HOURS_PER_WEEK <= toHour) {
+                mergeInto(result, weekly.get(day));
+                hour += HOURS_PER_WEEK;
+            } else if (dayStart && hour + HOURS_PER_DAY <= toHour) {
+                mergeInto(result, daily.get(day));
+                hour += HOURS_PER_DAY;
+            } else if (hour < oldestHour) {
+                // Hourly detail is gone; the whole day is the closest cover
+                mergeInto(result, daily.get(day));
+                hour = (day + 1) * HOURS_PER_DAY;
+            } else {
+                mergeInto(result, hourly.get(hour));
+                hour++;
+            }
+        }
+        return result;
+    }
+
+    private static void mergeInto(HyperLogLog target, HyperLogLog source) {
+        if (source != null) {
+            target.merge(source);
+        }
+    }
+
+    /** Gets the day number of the Monday starting the week of a day; day 0 was a Thursday. */
+    private static long weekStart(long day) {
+        return day - Math.floorMod(day + 3, 7);
+    }
+
+    private static long startHour(TimeRange range) {
+        return Math.floorDiv(OrderCube.toSeconds(range.getStart()), 3600);
+    }
+
+    private static long endHour(TimeRange range) {
+        return Math.floorDiv(OrderCube.toSeconds(range.getEnd()) + 3599, 3600);
+    }
+
+    private static long currentDay() {
+        return Math.floorDiv(OrderCube.toSeconds(LocalDateTime.now()), 86400);
+    }
+
+    /**
+     * Gets the distinct customers per day for the days in a range, for trend
+     * reports.
+     *
+     * @param range the days to include
+     * @return estimated distinct customers keyed by day number (days since
+     *         1970-01-01), only for days with orders
+     */
+    public synchronized Map<Long, Long> getDailyUniqueCustomers(TimeRange range) {
+        Map<Long, Long> counts = new TreeMap<>();
+        long from = Math.floorDiv(startHour(range), HOURS_PER_DAY);
+        long to = Math.floorDiv(endHour(range) - 1, HOURS_PER_DAY);
+        for (Map.Entry<Long, HyperLogLog> entry : daily.subMap(from, true, to, true).entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().estimate());
+        }
+        return counts;
+    }
+}
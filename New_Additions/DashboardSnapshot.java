@@ -0,0 +1,164 @@
+package New_Additions;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DashboardSnapshot runs a set of reports at the same time and collects
+ * their text into one view, so a full overview takes as long as its slowest
+ * report rather than the sum of all of them.
+ *
+ * Each report runs on its own worker thread and borrows its own pooled
+ * connection (or reads the in-memory order cube), so no report waits behind
+ * another. A report that does not finish within the timeout is shown as
+ * timed out and its late result is dropped; one that throws is shown as
+ * failed. Neither holds up the rest of the snapshot. A timed-out report is
+ * not interrupted, since interrupting a thread blocked in JDBC closes the
+ * socket of its pooled connection; it runs on until its query returns.
+ */
+public class DashboardSnapshot {
+
+    /** How a report in the snapshot ended. */
+    public enum Status {
+        OK, FAILED, TIMED_OUT
+    }
+
+    /** One report's text and how long it took. */
+    public static class Section {
+        private final String name;
+        private final String text;
+        private final Status status;
+        private final long latencyMillis;
+
+        Section(String name, String text, Status status, long latencyMillis) {
+            this.name = name;
+            this.text = text;
+            this.status = status;
+            this.latencyMillis = latencyMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** Gets the report text, or a short error message if it did not finish. */
+        public String getText() {
+            return text;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /** Gets how long this report ran, from its own start until it finished. */
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+    }
+
+    /** Report workers; each report gets its own virtual thread */
+    private static final ExecutorService WORKERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("dashboard-report-", 0).factory());
+
+    private final LocalDateTime takenAt;
+    private final List<Section> sections;
+    private final long totalMillis;
+
+    private DashboardSnapshot(LocalDateTime takenAt, List<Section> sections, long totalMillis) {
+        this.takenAt = takenAt;
+        this.sections = sections;
+        this.totalMillis = totalMillis;
+    }
+
+    /**
+     * Starts every report at once. The returned future completes when all
+     * reports have finished, failed or timed out, so it never waits longer
+     * than the timeout.
+     *
+     * @param reports       report generators keyed by name, in display order;
+     *                      each must be safe to run off the Swing thread
+     * @param timeoutMillis how long each report may run
+     * @return a future completed with the snapshot
+     */
+    public static CompletableFuture<DashboardSnapshot> take(Map<String, Callable<String>> reports,
+            long timeoutMillis) {
+        LocalDateTime takenAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        List<CompletableFuture<Section>> futures = new ArrayList<>(reports.size());
+        for (Map.Entry<String, Callable<String>> report : reports.entrySet()) {
+            futures.add(run(report.getKey(), report.getValue(), timeoutMillis));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<Section> sections = new ArrayList<>(futures.size());
+            for (CompletableFuture<Section> future : futures) {
+                sections.add(future.join());
+            }
+            return new DashboardSnapshot(takenAt, Collections.unmodifiableList(sections), elapsedMillis(start));
+        });
+    }
+
+    /**
+     * Runs one report on a worker, completing with a timed-out section if it
+     * takes too long. A result that arrives after that is dropped.
+     */
+    private static CompletableFuture<Section> run(String name, Callable<String> report, long timeoutMillis) {
+        CompletableFuture<Section> section = new CompletableFuture<>();
+        WORKERS.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                section.complete(new Section(name, report.call(), Status.OK, elapsedMillis(start)));
+            } catch (Exception e) {
+                if (section.isDone()) {
+                    return; // already shown as timed out
+                }
+                System.err.println("Dashboard report " + name + " failed: " + e.getMessage());
+                section.complete(new Section(name, "ERROR: " + e.getMessage() + "\n", Status.FAILED,
+                        elapsedMillis(start)));
+            }
+        });
+        return section.completeOnTimeout(new Section(name, "Timed out after " + timeoutMillis + " ms\n",
+                Status.TIMED_OUT, timeoutMillis), timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    /** Gets the reports in the order they were given. */
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    /** Gets the wall-clock time of the whole snapshot, which is about that of the slowest report. */
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * Gets the sum of each report's latency, i.e. roughly how long running
+     * them one after another would have taken.
+     *
+     * @return summed report latencies in ms
+     */
+    public long getSumOfLatenciesMillis() {
+        long sum = 0;
+        for (Section section : sections) {
+            sum += section.getLatencyMillis();
+        }
+        return sum;
+    }
+}
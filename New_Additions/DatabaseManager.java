@@ -2,10 +2,17 @@ package New_Additions;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.stream.Stream;
 
 /**
@@ -18,12 +25,122 @@ import java.util.stream.Stream;
  */
 public class DatabaseManager {
 
+    // Every statement this manager runs, by name. The pool caches prepared
+    // statements per connection keyed on this text, so each is parsed once
+    // per connection rather than once per call.
+    private static final String SELECT_MENU_ITEMS_SQL = "SELECT menuitemid, drinkcategory, menuitemname, price FROM menuitems ORDER BY menuitemname";
+    private static final String SELECT_INVENTORY_SQL = "SELECT ingredientid, ingredientname, ingredientcount FROM inventory ORDER BY ingredientname";
+    private static final String SELECT_EMPLOYEES_SQL = "SELECT employeeid, employeename, employeerole, hoursworked FROM employees ORDER BY employeename";
+    private static final String SELECT_ORDERS_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost, orderweek FROM orders ORDER BY timeoforder DESC, orderid DESC";
+    private static final String SELECT_ORDERS_FIRST_PAGE_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost, orderweek FROM orders "
+            + "ORDER BY timeoforder DESC, orderid DESC LIMIT ?";
+    private static final String SELECT_ORDERS_PAGE_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost, orderweek FROM orders "
+            + "WHERE (timeoforder, orderid) < (?, ?) ORDER BY timeoforder DESC, orderid DESC LIMIT ?";
+    private static final String EXPORT_ORDERS_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost, orderweek FROM orders ORDER BY orderid";
+    private static final String EXPORT_ORDER_ITEMS_SQL = "SELECT * FROM orderitems ORDER BY orderid, orderitemid";
+    private static final String ESTIMATE_ROWS_SQL = "SELECT reltuples::bigint AS estimate FROM pg_class WHERE relname = ?";
+    private static final String INSERT_ORDER_SQL = "INSERT INTO orders (orderid, timeoforder, customerid, employeeid, totalcost, orderweek) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_ORDER_ITEM_SQL = "INSERT INTO orderitems (orderitemid, orderid, menuitemid, quantity) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_MENU_ITEM_SQL = "INSERT INTO menuitems (menuitemid, drinkcategory, menuitemname, price) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_MENU_ITEM_PRICE_SQL = "UPDATE menuitems SET price = ? WHERE menuitemid = ?";
+    private static final String INSERT_INVENTORY_SQL = "INSERT INTO inventory (ingredientid, ingredientname, ingredientcount) VALUES (?, ?, ?)";
+    private static final String UPDATE_INVENTORY_QUANTITY_SQL = "UPDATE inventory SET ingredientcount = ? WHERE ingredientid = ?";
+    private static final String INSERT_EMPLOYEE_SQL = "INSERT INTO employees (employeeid, employeename, employeerole, hoursworked) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_EMPLOYEE_SQL = "UPDATE employees SET employeename = ?, employeerole = ?, hoursworked = ? WHERE employeeid = ?";
+    private static final String DELETE_EMPLOYEE_SQL = "DELETE FROM employees WHERE employeeid = ?";
+    private static final String PRODUCT_USAGE_SQL = """
+            SELECT m.menuitemname, SUM(oi.quantity) as total_sold
+            FROM menuitems m
+            JOIN orderitems oi ON m.menuitemid = oi.menuitemid
+            JOIN orders o ON oi.orderid = o.orderid
+            WHERE o.timeoforder >= ? AND o.timeoforder < ?
+            GROUP BY m.menuitemname
+            ORDER BY total_sold DESC
+            """;
+    private static final String MENU_ITEM_SALES_SQL = """
+            SELECT oi.menuitemid, SUM(oi.quantity) as total_sold
+            FROM orderitems oi
+            JOIN orders o ON oi.orderid = o.orderid
+            WHERE o.timeoforder >= ? AND o.timeoforder < ?
+            GROUP BY oi.menuitemid
+            """;
+    private static final String CLAIM_JOURNAL_ENTRY_SQL = "INSERT INTO orderjournalapplied (journalid, orderid) VALUES (?, ?) "
+            + "ON CONFLICT (journalid) DO NOTHING";
+    private static final String FIND_JOURNAL_CLAIM_SQL = "SELECT orderid FROM orderjournalapplied WHERE journalid = ?";
+    private static final String TOTAL_SALES_SQL = "SELECT COALESCE(SUM(totalcost), 0) as total FROM orders WHERE "
+            + TimeRange.ORDER_TIME_CONDITION;
+
+    /** Days of history covered by the product usage chart */
+    private static final int PRODUCT_USAGE_DAYS = 30;
+
+    /** Most journal files open at once, one per window or process on this machine */
+    private static final int ORDER_JOURNAL_SLOTS = 8;
+
+    /** Rows fetched per round trip when streaming orders */
+    private static final int ORDER_STREAM_FETCH_SIZE = 500;
+
+    /**
+     * How often the order cube checks for orders saved by other terminals
+     * while change notifications are not arriving
+     */
+    private static final long ORDER_CUBE_REFRESH_MILLIS = 30_000;
+
     /** Flag indicating if database connection is established */
     private boolean isConnected;
     /** Flag indicating if system is using mock data instead of real database */
     private boolean useMockData;
-    /** Active database connection */
-    private Connection connection;
+    /** Pool of database connections shared by all callers of this manager */
+    private ConnectionPool pool;
+    /** Hands out primary keys from per-process reserved blocks */
+    private IdAllocator idAllocator;
+    /** In-memory copy of MenuItemIngredients used to compute order demand */
+    private RecipeCache recipeCache;
+    /** Background writer that saves submitted orders in groups */
+    private OrderSubmissionQueue orderQueue;
+    /** Local file that keeps orders while the database is unreachable */
+    private OrderJournal orderJournal;
+    /**
+     * Orders whose commit was sent but never acknowledged, held in the journal
+     * by journal ID until replay finds out whether they were saved
+     */
+    private final Map<UUID, OrderSubmissionQueue.Submission> unresolvedOrders = new ConcurrentHashMap<>();
+    /** In-memory copy of the order history for analytics, loaded on first use */
+    private volatile OrderCube orderCube;
+    /** Best and worst sellers, fed by the order cube */
+    private volatile SalesLeaderboard salesLeaderboard;
+    /** Distinct customer sketches, fed by the order cube */
+    private volatile CustomerVisits customerVisits;
+    /** Order total distributions, fed by the order cube */
+    private volatile OrderValues orderValues;
+    /** Running register totals for X- and Z-reports, fed by the order cube */
+    private volatile RegisterCloseout registerCloseout;
+    /** Drink sales rates for stockout forecasts, fed by the order cube */
+    private volatile InventoryForecast inventoryForecast;
+    /**
+     * Held while the order cube and the trackers fed by it are first loaded.
+     * A lock rather than synchronized, so a virtual thread waiting on the
+     * load does not pin its carrier.
+     */
+    private final ReentrantLock analyticsLock = new ReentrantLock();
+    /** Finished report results, dropped when the data behind them changes */
+    private final ReportCache<String> reportCache;
+    /** Reads that failed and returned sample data instead */
+    private final LongAdder readFailures = new LongAdder();
+    /** How many best sellers get a quick key on the cashier screen */
+    private final int quickKeyCount;
+    /**
+     * Tells listeners about rows changed by any terminal, or by this one in
+     * mock mode. Only listens to the database once a change listener is
+     * added; until then the order cube polls for other terminals' orders.
+     */
+    private final ChangeNotifier changeNotifier;
+
+    /**
+     * Order ID reported for an order that was saved to the local journal
+     * because the database was unavailable. The real ID is assigned when the
+     * journal is replayed.
+     */
+    public static final int JOURNALED_ORDER_ID = 0;
     /** Provider for mock data when database is unavailable */
     private MockDataProvider mockProvider;
 
@@ -36,25 +153,31 @@ public class DatabaseManager {
      */
     public DatabaseManager() {
         this.mockProvider = new MockDataProvider();
+        Map<String, String> env = loadEnvironment();
+        this.reportCache = new ReportCache<>(readInt(env, "REPORT_CACHE_TTL_SECONDS", 60) * 1000L);
+        this.quickKeyCount = Math.max(0, readInt(env, "CASHIER_QUICK_KEYS", 12));
         try {
-            initializeConnection();
+            initializeConnection(env);
         } catch (SQLException e) {
             System.err.println("Database connection failed: " + e.getMessage());
             System.out.println("Switching to mock data mode...");
             this.useMockData = true;
             this.isConnected = false;
         }
+        this.changeNotifier = useMockData ? ChangeNotifier.inProcess()
+                : ChangeNotifier.listen(env.get("DB_URL"), env.get("DB_USER"), env.get("DB_PASS"),
+                        readInt(env, "CHANGE_LISTENER_RECONNECT_MS", 5000));
+        changeNotifier.addListener(this::changesArrived);
     }
 
     /**
      * Initializes the database connection using environment variables.
      * 
+     * @param env settings loaded from the .env file
      * @throws SQLException if database connection fails
      * @author harry
      */
-    private void initializeConnection() throws SQLException {
-        Map<String, String> env = loadEnvironment();
-
+    private void initializeConnection(Map<String, String> env) throws SQLException {
         if (env.containsKey("DB_URL") && env.containsKey("DB_USER") && env.containsKey("DB_PASS")) {
             String url = env.get("DB_URL");
             String user = env.get("DB_USER");
@@ -62,7 +185,14 @@ public class DatabaseManager {
 
             try {
                 Class.forName("org.postgresql.Driver");
-                this.connection = DriverManager.getConnection(url, user, password);
+                this.pool = new ConnectionPool(url, user, password, ConnectionPool.Settings.fromEnvironment(env));
+                this.idAllocator = new IdAllocator(pool);
+                this.recipeCache = new RecipeCache(pool);
+                this.orderQueue = new OrderSubmissionQueue(this::writeOrderBatch,
+                        readInt(env, "ORDER_QUEUE_CAPACITY", 256),
+                        readInt(env, "ORDER_QUEUE_MAX_BATCH", 32),
+                        readInt(env, "ORDER_QUEUE_LINGER_MS", 5));
+                openOrderJournal(env);
                 this.isConnected = true;
                 this.useMockData = false;
                 System.out.println("Successfully connected to database: " + url);
@@ -124,10 +254,10 @@ public class DatabaseManager {
         }
 
         List<MenuItem> items = new ArrayList<>();
-        String query = "SELECT menuitemid, drinkcategory, menuitemname, price FROM menuitems ORDER BY menuitemname";
 
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_MENU_ITEMS_SQL);
+                ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
                 MenuItem item = new MenuItem(
@@ -139,6 +269,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error fetching menu items: " + e.getMessage());
+            readFailures.increment();
             return mockProvider.getAllMenuItems();
         }
 
@@ -157,10 +288,10 @@ public class DatabaseManager {
         }
 
         List<Inventory> items = new ArrayList<>();
-        String query = "SELECT ingredientid, ingredientname, ingredientcount FROM inventory ORDER BY ingredientname";
 
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_INVENTORY_SQL);
+                ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
                 Inventory item = new Inventory(
@@ -171,6 +302,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error fetching inventory: " + e.getMessage());
+            readFailures.increment();
             return mockProvider.getAllInventory();
         }
 
@@ -189,10 +321,10 @@ public class DatabaseManager {
         }
 
         List<Employee> employees = new ArrayList<>();
-        String query = "SELECT employeeid, employeename, employeerole, hoursworked FROM employees ORDER BY employeename";
 
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SELECT_EMPLOYEES_SQL);
+                ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
                 Employee emp = new Employee(
@@ -204,6 +336,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error fetching employees: " + e.getMessage());
+            readFailures.increment();
             return mockProvider.getAllEmployees();
         }
 
@@ -211,7 +344,103 @@ public class DatabaseManager {
     }
 
     /**
-     * Retrieves all orders from the database or mock data.
+     * Gets the menu as pages for a table view. Sorting and filtering run in
+     * the database, or in memory in mock mode.
+     * 
+     * @return a page source over every menu item
+     */
+    public PagedTableModel.PageSource getMenuItemPages() {
+        String[] names = { "Item ID", "Category", "Item Name", "Price" };
+        Class<?>[] classes = { Integer.class, String.class, String.class, Double.class };
+        if (useMockData) {
+            return new PagedTableModel.ListSource(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                for (MenuItem item : mockProvider.getAllMenuItems()) {
+                    rows.add(new Object[] { item.getMenuItemID(), item.getDrinkCategory(), item.getMenuItemName(),
+                            item.getPrice() });
+                }
+                return rows;
+            }, names, classes);
+        }
+        return new PagedTableModel.QuerySource(pool, "SELECT menuitemid, drinkcategory, menuitemname, price FROM menuitems",
+                new String[] { "menuitemid", "drinkcategory", "menuitemname", "price" }, names, classes,
+                "drinkcategory", "menuitemname");
+    }
+
+    /**
+     * Gets the inventory as pages for a table view.
+     * 
+     * @return a page source over every ingredient
+     */
+    public PagedTableModel.PageSource getInventoryPages() {
+        String[] names = { "Ingredient ID", "Ingredient Name", "Quantity" };
+        Class<?>[] classes = { Integer.class, String.class, Integer.class };
+        if (useMockData) {
+            return new PagedTableModel.ListSource(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                for (Inventory item : mockProvider.getAllInventory()) {
+                    rows.add(new Object[] { item.getIngredientID(), item.getIngredientName(),
+                            item.getIngredientCount() });
+                }
+                return rows;
+            }, names, classes);
+        }
+        return new PagedTableModel.QuerySource(pool, "SELECT ingredientid, ingredientname, ingredientcount FROM inventory",
+                new String[] { "ingredientid", "ingredientname", "ingredientcount" }, names, classes,
+                "ingredientname");
+    }
+
+    /**
+     * Gets the employees as pages for a table view.
+     * 
+     * @return a page source over every employee
+     */
+    public PagedTableModel.PageSource getEmployeePages() {
+        String[] names = { "Employee ID", "Employee Name", "Role", "Hours Worked" };
+        Class<?>[] classes = { Integer.class, String.class, String.class, Integer.class };
+        if (useMockData) {
+            return new PagedTableModel.ListSource(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                for (Employee employee : mockProvider.getAllEmployees()) {
+                    rows.add(new Object[] { employee.getEmployeeID(), employee.getEmployeeName(),
+                            employee.getEmployeeRole(), employee.getHoursWorked() });
+                }
+                return rows;
+            }, names, classes);
+        }
+        return new PagedTableModel.QuerySource(pool, "SELECT employeeid, employeename, employeerole, hoursworked FROM employees",
+                new String[] { "employeeid", "employeename", "employeerole", "hoursworked" }, names, classes,
+                "employeename", "employeerole");
+    }
+
+    /**
+     * Gets the order history as pages for a table view. Scrolling down the
+     * default newest-first order seeks along idx_orders_time_id.
+     * 
+     * @return a page source over every order
+     */
+    public PagedTableModel.PageSource getOrderPages() {
+        String[] names = { "Order ID", "Time", "Customer ID", "Employee ID", "Total" };
+        Class<?>[] classes = { Integer.class, Timestamp.class, Integer.class, Integer.class, Double.class };
+        if (useMockData) {
+            return new PagedTableModel.ListSource(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                for (Order order : mockProvider.getAllOrders()) {
+                    rows.add(new Object[] { order.getOrderID(), order.getTimeOfOrder(), order.getCustomerID(),
+                            order.getEmployeeID(), order.getTotalCost() });
+                }
+                return rows;
+            }, names, classes);
+        }
+        return new PagedTableModel.QuerySource(pool, "SELECT orderid, timeoforder, customerid, employeeid, totalcost FROM orders",
+                new String[] { "orderid", "timeoforder", "customerid", "employeeid", "totalcost" }, names, classes,
+                "orderid", "customerid", "employeeid");
+    }
+
+    /**
+     * Retrieves all orders from the database or mock data. This holds the
+     * whole order history in memory; prefer {@link #getOrdersPage} or
+     * {@link #streamOrders} for anything that can grow.
      * 
      * @return List of Order objects containing all orders
      * @author harry
@@ -222,112 +451,943 @@ public class DatabaseManager {
         }
 
         List<Order> orders = new ArrayList<>();
-        String query = "SELECT orderid, timeoforder, customerid, employeeid, totalcost, orderweek FROM orders ORDER BY timeoforder DESC";
+        if (streamOrders(orders::add) < 0) {
+            return mockProvider.getAllOrders();
+        }
+        return orders;
+    }
 
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
+    /**
+     * Retrieves one page of orders, newest first. Pages are found with a
+     * keyset on (timeoforder, orderid) rather than OFFSET, so every page costs
+     * the same no matter how deep the caller has scrolled.
+     * 
+     * @param after    the last order of the previous page, or null for the
+     *                 first page
+     * @param pageSize the most orders to return
+     * @return the next page of orders; shorter than pageSize on the last page
+     * @throws SQLException if the page could not be read; a short or empty
+     *         page is never returned for a failed read, since callers take it
+     *         as the end of the history
+     */
+    public List<Order> getOrdersPage(Order after, int pageSize) throws SQLException {
+        if (useMockData) {
+            return mockProvider.getOrdersPage(after, pageSize);
+        }
 
-            while (rs.next()) {
-                Order order = new Order(
-                        rs.getInt("orderid"),
-                        rs.getTimestamp("timeoforder"),
-                        rs.getObject("customerid", Integer.class),
-                        rs.getInt("employeeid"),
-                        rs.getDouble("totalcost"),
-                        rs.getInt("orderweek"));
-                orders.add(order);
+        List<Order> orders = new ArrayList<>(pageSize);
+        String query = after == null ? SELECT_ORDERS_FIRST_PAGE_SQL : SELECT_ORDERS_PAGE_SQL;
+
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(query)) {
+            int index = 1;
+            if (after != null) {
+                stmt.setTimestamp(index++, after.getTimeOfOrder());
+                stmt.setInt(index++, after.getOrderID());
+            }
+            stmt.setInt(index, pageSize);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(readOrder(rs));
+                }
+            }
+        }
+
+        return orders;
+    }
+
+    /**
+     * Hands every order to a consumer, newest first, without holding the
+     * whole history in memory. Rows are read through a server-side cursor
+     * {@value #ORDER_STREAM_FETCH_SIZE} at a time.
+     * 
+     * @param consumer receives each order in turn
+     * @return the number of orders streamed, or -1 if the query failed
+     */
+    public long streamOrders(Consumer<Order> consumer) {
+        if (useMockData) {
+            List<Order> orders = mockProvider.getAllOrders();
+            orders.forEach(consumer);
+            return orders.size();
+        }
+
+        long count = 0;
+        try (Connection conn = pool.getConnection()) {
+            // The driver only uses a cursor inside a transaction; the pool
+            // rolls it back and restores auto-commit when the connection returns
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_ORDERS_SQL)) {
+                stmt.setFetchSize(ORDER_STREAM_FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(readOrder(rs));
+                        count++;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error streaming orders: " + e.getMessage());
+            return -1;
+        }
+
+        return count;
+    }
+
+    /**
+     * Gets the planner's estimate of a table's row count, which is read from
+     * the catalog instead of counting, for sizing export progress bars.
+     * 
+     * @param table a table name, such as "orders"
+     * @return the estimated row count, or 0 if unknown
+     */
+    public long estimateRowCount(String table) {
+        if (useMockData) {
+            return table.equals("orders") ? mockProvider.getAllOrders().size() : 0;
+        }
+
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(ESTIMATE_ROWS_SQL)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                // Tables never analyzed report -1
+                if (rs.next()) {
+                    return Math.max(rs.getLong("estimate"), 0);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error estimating rows of " + table + ": " + e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Streams every order straight from a database cursor to a file, so the
+     * export uses the same memory however many orders there are.
+     * 
+     * @param file     the file to write
+     * @param format   the file format
+     * @param progress told about progress, or null
+     * @return the number of orders written, or -1 if the export failed
+     */
+    public long exportOrders(Path file, StreamingExporter.Format format,
+            StreamingExporter.ProgressListener progress) {
+        if (useMockData) {
+            String[] columns = { "orderid", "timeoforder", "customerid", "employeeid", "totalcost", "orderweek" };
+            StreamingExporter.ColumnType[] types = { StreamingExporter.ColumnType.INT,
+                    StreamingExporter.ColumnType.TIMESTAMP, StreamingExporter.ColumnType.INT,
+                    StreamingExporter.ColumnType.INT, StreamingExporter.ColumnType.DOUBLE,
+                    StreamingExporter.ColumnType.INT };
+            try (StreamingExporter exporter = new StreamingExporter(file, format, columns, types, progress)) {
+                for (Order order : mockProvider.getAllOrders()) {
+                    exporter.writeRow(order.getOrderID(), order.getTimeOfOrder(), order.getCustomerID(),
+                            order.getEmployeeID(), order.getTotalCost(), order.getOrderWeek());
+                }
+                return exporter.finish();
+            } catch (IOException e) {
+                System.err.println("Error exporting orders: " + e.getMessage());
+                return -1;
+            }
+        }
+        return exportQuery("orders", EXPORT_ORDERS_SQL, file, format, progress);
+    }
+
+    /**
+     * Streams every order item, with all its toppings, from a database
+     * cursor to a file.
+     * 
+     * @param file     the file to write
+     * @param format   the file format
+     * @param progress told about progress, or null
+     * @return the number of order items written, or -1 if the export failed
+     *         or in mock mode
+     */
+    public long exportOrderItems(Path file, StreamingExporter.Format format,
+            StreamingExporter.ProgressListener progress) {
+        if (useMockData) {
+            System.err.println("Order item export needs a database connection");
+            return -1;
+        }
+        return exportQuery("order items", EXPORT_ORDER_ITEMS_SQL, file, format, progress);
+    }
+
+    private long exportQuery(String what, String sql, Path file, StreamingExporter.Format format,
+            StreamingExporter.ProgressListener progress) {
+        try {
+            return StreamingExporter.exportQuery(pool, sql, file, format, progress);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error exporting " + what + ": " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Writes the order count and revenue of every day from the
+     * in-memory order cube to a file, one row per day.
+     * 
+     * @param file     the file to write
+     * @param format   the file format
+     * @param progress told about progress, or null
+     * @return the number of days written, or -1 if the export failed or in
+     *         mock mode
+     */
+    public long exportDailySales(Path file, StreamingExporter.Format format,
+            StreamingExporter.ProgressListener progress) {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            System.err.println("Daily sales export needs the order cube");
+            return -1;
+        }
+
+        OrderCube.Breakdown orders = cube.breakdown(OrderCube.Dimension.DATE, null);
+        String[] columns = { "date", "orders", "revenue" };
+        StreamingExporter.ColumnType[] types = { StreamingExporter.ColumnType.TEXT,
+                StreamingExporter.ColumnType.LONG, StreamingExporter.ColumnType.DOUBLE };
+        try (StreamingExporter exporter = new StreamingExporter(file, format, columns, types, progress)) {
+            for (int day = 0; day < orders.size(); day++) {
+                exporter.writeRow(LocalDate.ofEpochDay(orders.getKey(day)).toString(),
+                        orders.getCount(day), orders.getRevenue(day));
+            }
+            return exporter.finish();
+        } catch (IOException e) {
+            System.err.println("Error exporting daily sales: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /** Builds an Order from the current row of an orders query. */
+    private Order readOrder(ResultSet rs) throws SQLException {
+        return new Order(
+                rs.getInt("orderid"),
+                rs.getTimestamp("timeoforder"),
+                rs.getObject("customerid", Integer.class),
+                rs.getInt("employeeid"),
+                rs.getDouble("totalcost"),
+                rs.getInt("orderweek"));
+    }
+
+    /**
+     * Creates a new order with associated order items.
+     * 
+     * @param order      the Order object to be created
+     * @param orderItems List of OrderItem objects for the order
+     * @return true if order creation was successful, false otherwise
+     * @author harry
+     */
+    public boolean createOrder(Order order, List<OrderItem> orderItems) {
+        if (useMockData) {
+            return publishMockChange(invalidateReports(mockProvider.createOrder(order, orderItems),
+                    ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY), ChangeNotifier.Table.ORDERS, ChangeNotifier.Operation.INSERT, order.getOrderID());
+        }
+
+        OrderSubmissionQueue.Submission submission = new OrderSubmissionQueue.Submission(order, orderItems);
+        try {
+            writeOrderBatch(Collections.singletonList(submission));
+            if (!submission.getResult().isDone()) {
+                // Held in the journal until the database says whether the commit landed
+                return true;
+            }
+            submission.getResult().join();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error creating order: " + e.getMessage());
+            return false;
+        } catch (CompletionException e) {
+            System.err.println("Error creating order: " + e.getCause().getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Queues an order to be saved by the background order writer, so the
+     * caller does not wait on the database. Orders that arrive close together
+     * are saved in one transaction.
+     * 
+     * @param order      the Order object to be created; its ID is set once saved
+     * @param orderItems List of OrderItem objects for the order
+     * @return a future completed with the new order ID, or exceptionally with an
+     *         {@link InsufficientInventoryException} or other error
+     */
+    public CompletableFuture<Integer> submitOrderAsync(Order order, List<OrderItem> orderItems) {
+        if (useMockData) {
+            CompletableFuture<Integer> result = new CompletableFuture<>();
+            if (publishMockChange(invalidateReports(mockProvider.createOrder(order, orderItems),
+                    ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY), ChangeNotifier.Table.ORDERS, ChangeNotifier.Operation.INSERT, order.getOrderID())) {
+                result.complete(order.getOrderID());
+            } else {
+                result.completeExceptionally(new SQLException("Failed to create mock order"));
+            }
+            return result;
+        }
+        CompletableFuture<Integer> result = orderQueue.submit(order, orderItems);
+        if (result.isCompletedExceptionally() && orderJournal != null) {
+            // The writer is backed up, so keep the order locally rather than
+            // turning the customer away
+            result = new CompletableFuture<>();
+            journalOrder(UUID.randomUUID(), order, orderItems, result);
+        }
+        return result;
+    }
+
+    /**
+     * Saves an order to the local journal and completes its future with
+     * {@link #JOURNALED_ORDER_ID} once it is on disk.
+     */
+    private void journalOrder(UUID journalId, Order order, List<OrderItem> orderItems,
+            CompletableFuture<Integer> result) {
+        try {
+            orderJournal.append(journalId, order, orderItems);
+            order.setOrderID(JOURNALED_ORDER_ID);
+            result.complete(JOURNALED_ORDER_ID);
+        } catch (IOException e) {
+            result.completeExceptionally(new SQLException("Could not save order to the journal: " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Tells whether an error means the database could not be reached, as
+     * opposed to the order itself being rejected.
+     */
+    private static boolean isConnectionFailure(SQLException e) {
+        for (SQLException current = e; current != null; current = current.getNextException()) {
+            String state = current.getSQLState();
+            if (current instanceof SQLTransientConnectionException
+                    || current instanceof SQLNonTransientConnectionException
+                    || current instanceof SQLRecoverableException
+                    || (state != null && state.startsWith("08"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Thrown when the connection was lost while a commit was in flight and
+     * the database could not be asked whether it landed.
+     */
+    private static class CommitOutcomeUnknownException extends SQLException {
+        private final List<OrderSubmissionQueue.Submission> pending;
+
+        CommitOutcomeUnknownException(SQLException cause, List<OrderSubmissionQueue.Submission> pending) {
+            super("Commit outcome unknown: " + cause.getMessage(), cause.getSQLState(), cause);
+            this.pending = pending;
+        }
+
+        /** Gets the orders that may or may not have been saved. */
+        List<OrderSubmissionQueue.Submission> getPending() {
+            return pending;
+        }
+    }
+
+    /**
+     * Keeps orders whose commit outcome is unknown in the journal under the
+     * journal IDs claimed in that transaction. Replay skips any that did land
+     * and completes their futures with the saved order ID either way; until
+     * then the futures stay pending.
+     */
+    private void holdUntilResolved(CommitOutcomeUnknownException e) {
+        System.err.println("Lost the database during commit, holding " + e.getPending().size()
+                + " orders in the journal until it is known whether they were saved: " + e.getMessage());
+        for (OrderSubmissionQueue.Submission submission : e.getPending()) {
+            unresolvedOrders.put(submission.getJournalId(), submission);
+            try {
+                orderJournal.append(submission.getJournalId(), submission.getOrder(), submission.getItems());
+            } catch (IOException io) {
+                unresolvedOrders.remove(submission.getJournalId());
+                submission.getResult().completeExceptionally(new SQLException(
+                        "Order may not have been saved and could not be journaled: " + io.getMessage(), io));
+            }
+        }
+    }
+
+    /** Completes a held order's future once replay knows its order ID. */
+    private void resolveJournaledOrder(UUID journalId, int orderId) {
+        OrderSubmissionQueue.Submission submission = unresolvedOrders.remove(journalId);
+        if (submission != null) {
+            submission.getOrder().setOrderID(orderId);
+            submission.getResult().complete(orderId);
+        }
+    }
+
+    /**
+     * Looks up the order saved under a journal ID.
+     *
+     * @return the order ID, or null if no order claimed the journal ID
+     */
+    private static Integer findJournalClaim(Connection conn, UUID journalId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(FIND_JOURNAL_CLAIM_SQL)) {
+            stmt.setObject(1, journalId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("orderid") : null;
+            }
+        }
+    }
+
+    /**
+     * Opens the order journal and starts replaying anything left from an
+     * earlier run. The journal is optional: if it cannot be opened, orders
+     * simply fail when the database is down, as before.
+     *
+     * Each journal file belongs to one manager at a time. When another
+     * window or process already has it, the next free numbered file beside
+     * it is used instead (order-journal.1.dat and so on), up to
+     * {@value #ORDER_JOURNAL_SLOTS} files; records left in a numbered file
+     * are replayed the next time one is opened there.
+     */
+    private void openOrderJournal(Map<String, String> env) {
+        String journalPath = env.getOrDefault("ORDER_JOURNAL_PATH", "order-journal.dat");
+        try {
+            orderJournal = null;
+            for (int slot = 0; orderJournal == null; slot++) {
+                Path path = journalSlotPath(Paths.get(journalPath), slot);
+                try {
+                    orderJournal = new OrderJournal(path, readInt(env, "ORDER_JOURNAL_FLUSH_MS", 5));
+                } catch (OrderJournal.LockedException e) {
+                    if (slot + 1 >= ORDER_JOURNAL_SLOTS) {
+                        throw e;
+                    }
+                }
+            }
+            journalPath = orderJournal.getPath().toString();
+            int pending = orderJournal.getPendingCount();
+            if (pending > 0) {
+                System.out.println("Order journal has " + pending + " orders waiting to be replayed");
+            }
+            orderJournal.startReplaying(this::applyJournaledOrder, readInt(env, "ORDER_JOURNAL_REPLAY_MS", 10_000));
+        } catch (IOException e) {
+            System.err.println("Order journal unavailable (" + journalPath + "): " + e.getMessage());
+            orderJournal = null;
+        }
+    }
+
+    /** Gets a numbered journal file beside the configured one; slot 0 is the configured file. */
+    private static Path journalSlotPath(Path journalPath, int slot) {
+        if (slot == 0) {
+            return journalPath;
+        }
+        String name = journalPath.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String numbered = dot > 0 ? name.substring(0, dot) + "." + slot + name.substring(dot) : name + "." + slot;
+        return journalPath.resolveSibling(numbered);
+    }
+
+    /**
+     * Writes one journaled order to the database. The journal ID is recorded
+     * in the same transaction, so an order that was already applied, or whose
+     * original commit landed after all, is skipped. Inventory is decremented without the stock check, since the
+     * drinks were already sold; ingredients that go negative are reported.
+     */
+    private void applyJournaledOrder(OrderJournal.Entry entry) throws SQLException {
+        Order order = entry.getOrder();
+        List<OrderItem> items = entry.getItems();
+        int orderId = idAllocator.nextId(IdAllocator.Sequence.ORDERS);
+        int[] orderItemIds = idAllocator.nextIds(IdAllocator.Sequence.ORDER_ITEMS, items.size());
+        RecipeCache.Demand demand = recipeCache.computeDemand(items);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement claim = conn.prepareStatement(CLAIM_JOURNAL_ENTRY_SQL)) {
+                    claim.setObject(1, entry.getJournalId());
+                    claim.setInt(2, orderId);
+                    if (claim.executeUpdate() == 0) {
+                        conn.rollback();
+                        Integer savedId = findJournalClaim(conn, entry.getJournalId());
+                        conn.rollback();
+                        if (savedId != null) {
+                            reportCache.invalidate(ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY);
+                            resolveJournaledOrder(entry.getJournalId(), savedId);
+                        }
+                        return;
+                    }
+                }
+
+                try (PreparedStatement orderStmt = conn.prepareStatement(INSERT_ORDER_SQL)) {
+                    orderStmt.setInt(1, orderId);
+                    orderStmt.setTimestamp(2, order.getTimeOfOrder());
+                    orderStmt.setObject(3, order.getCustomerID());
+                    orderStmt.setInt(4, order.getEmployeeID());
+                    orderStmt.setDouble(5, order.getTotalCost());
+                    orderStmt.setInt(6, order.getOrderWeek());
+                    orderStmt.executeUpdate();
+                }
+
+                try (PreparedStatement itemStmt = conn.prepareStatement(INSERT_ORDER_ITEM_SQL)) {
+                    for (int i = 0; i < items.size(); i++) {
+                        itemStmt.setInt(1, orderItemIds[i]);
+                        itemStmt.setInt(2, orderId);
+                        itemStmt.setInt(3, items.get(i).getMenuItemID());
+                        itemStmt.setInt(4, items.get(i).getQuantity());
+                        itemStmt.addBatch();
+                    }
+                    itemStmt.executeBatch();
+                }
+
+                SalesRollups.record(conn, Collections.singletonList(order));
+
+                if (demand.size() > 0) {
+                    try (PreparedStatement stmt = conn.prepareStatement(DECREMENT_INVENTORY_SQL)) {
+                        bindDemand(conn, stmt, demand);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                System.err.println("Replayed order #" + orderId + " left ingredient "
+                                        + rs.getInt("ingredientid") + " at " + rs.getInt("ingredientcount"));
+                            }
+                        }
+                    }
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (!OrderJournal.isRetryable(e)) {
+                // The journal sets this record aside, so its order will never be resolved
+                OrderSubmissionQueue.Submission held = unresolvedOrders.remove(entry.getJournalId());
+                if (held != null) {
+                    held.getResult().completeExceptionally(e);
+                }
+            }
+            throw e;
+        }
+
+        reportCache.invalidate(ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY);
+        OrderCube cube = orderCube;
+        if (cube != null) {
+            order.setOrderID(orderId);
+            cube.append(order, items);
+        }
+        resolveJournaledOrder(entry.getJournalId(), orderId);
+    }
+
+    /**
+     * Gets the number of orders saved locally that are waiting for the
+     * database.
+     *
+     * @return pending journal entries, or 0 if no journal is open
+     */
+    public int getPendingJournalCount() {
+        return orderJournal != null ? orderJournal.getPendingCount() : 0;
+    }
+
+    /**
+     * Gets the in-memory order cube used for manager analytics. The first
+     * call loads the whole order history. Orders saved by other terminals are
+     * pulled in as their change notifications arrive, or, while notifications
+     * are not arriving, by later calls at most every
+     * {@value #ORDER_CUBE_REFRESH_MILLIS} ms.
+     * If that refresh fails the cube is still returned, a little stale, so
+     * reports keep working while the database is busy or down.
+     * 
+     * @return the order cube, or null in mock mode or if it could not be loaded
+     */
+    public OrderCube getOrderCube() {
+        if (useMockData) {
+            return null;
+        }
+
+        OrderCube cube = orderCube;
+        if (cube == null) {
+            analyticsLock.lock();
+            try {
+                if (orderCube == null) {
+                    try {
+                        orderCube = OrderCube.load(pool);
+                    } catch (SQLException e) {
+                        System.err.println("Error loading order cube: " + e.getMessage());
+                        return null;
+                    }
+                }
+                return orderCube;
+            } finally {
+                analyticsLock.unlock();
+            }
+        }
+
+        if (!changeNotifier.isListening() && cube.getMillisSinceRefresh() > ORDER_CUBE_REFRESH_MILLIS) {
+            try {
+                if (cube.refresh() > 0) {
+                    // Other terminals saved orders that cached reports have not seen
+                    reportCache.invalidate(ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY);
+                }
+            } catch (SQLException e) {
+                System.err.println("Error refreshing order cube: " + e.getMessage());
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * Gets the live best- and worst-seller rankings. They are kept up to date
+     * from the order cube, so ranking queries never touch the database.
+     * 
+     * @return the leaderboard, or null in mock mode or if orders could not be
+     *         loaded
+     */
+    public SalesLeaderboard getSalesLeaderboard() {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            return null;
+        }
+
+        analyticsLock.lock();
+        try {
+            if (salesLeaderboard == null) {
+                SalesLeaderboard leaderboard = new SalesLeaderboard();
+                List<Integer> menuItemIds = new ArrayList<>();
+                for (MenuItem item : getAllMenuItems()) {
+                    menuItemIds.add(item.getMenuItemID());
+                }
+                leaderboard.track(menuItemIds);
+                cube.addItemListener(leaderboard);
+                salesLeaderboard = leaderboard;
+            }
+            return salesLeaderboard;
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the distinct customer estimates used by the unique customer and
+     * retention reports. They are kept up to date from the order cube.
+     * 
+     * @return the customer visit sketches, or null in mock mode or if orders
+     *         could not be loaded
+     */
+    public CustomerVisits getCustomerVisits() {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            return null;
+        }
+
+        analyticsLock.lock();
+        try {
+            if (customerVisits == null) {
+                CustomerVisits visits = new CustomerVisits();
+                cube.addOrderListener(visits);
+                customerVisits = visits;
+            }
+            return customerVisits;
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the order total distributions used by the order value report.
+     * They are kept up to date from the order cube.
+     * 
+     * @return the order value sketches, or null in mock mode or if orders
+     *         could not be loaded
+     */
+    public OrderValues getOrderValues() {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            return null;
+        }
+
+        analyticsLock.lock();
+        try {
+            if (orderValues == null) {
+                OrderValues values = new OrderValues();
+                cube.addOrderListener(values);
+                orderValues = values;
+            }
+            return orderValues;
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the running register totals since the last Z-report, kept up to
+     * date from the order cube, for instant X-reports.
+     *
+     * @return the register totals, or null in mock mode or if they could not
+     *         be loaded
+     */
+    public RegisterCloseout getRegisterCloseout() {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            return null;
+        }
+
+        analyticsLock.lock();
+        try {
+            if (registerCloseout == null) {
+                try {
+                    registerCloseout = RegisterCloseout.open(pool, cube);
+                } catch (SQLException e) {
+                    System.err.println("Error opening register day: " + e.getMessage());
+                    return null;
+                }
+            }
+            return registerCloseout;
+        } finally {
+            analyticsLock.unlock();
+        }
+    }
+
+    /**
+     * Closes the register day for a Z-report: saves the day's totals and
+     * starts a new day from zero.
+     *
+     * @return the totals of the closed day, or null if the day could not be
+     *         closed (it then stays open)
+     */
+    public RegisterCloseout.Totals closeRegisterDay() {
+        RegisterCloseout closeout = getRegisterCloseout();
+        if (closeout == null) {
+            return null;
+        }
+        try {
+            return closeout.close(pool);
+        } catch (SQLException e) {
+            System.err.println("Error saving Z-report: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Forecasts when each inventory item will run out, from the recent sales
+     * rate of every drink at each hour of the day and the drink recipes.
+     *
+     * @return forecasts for every inventory row, soonest stockout first, or
+     *         null in mock mode or if order data could not be loaded
+     */
+    public List<InventoryForecast.Forecast> getInventoryForecast() {
+        OrderCube cube = getOrderCube();
+        if (cube == null) {
+            return null;
+        }
+
+        InventoryForecast forecast;
+        analyticsLock.lock();
+        try {
+            if (inventoryForecast == null) {
+                InventoryForecast created = new InventoryForecast();
+                cube.addItemListener(created);
+                inventoryForecast = created;
+            }
+            forecast = inventoryForecast;
+        } finally {
+            analyticsLock.unlock();
+        }
+
+        try {
+            return forecast.forecast(getAllInventory(), recipeCache);
+        } catch (SQLException e) {
+            System.err.println("Error forecasting inventory: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves a group of orders in one transaction. If the group fails as a
+     * whole, each order is retried on its own so one bad order cannot fail the
+     * others.
+     *
+     * When the database is lost before the commit is sent, the orders were
+     * certainly not saved and go to the journal as offline orders. When it is
+     * lost during the commit, they are held in the journal until replay finds
+     * out whether the commit landed.
+     * 
+     * @param batch the orders to save
+     * @throws SQLException if a single order could not be saved
+     */
+    private void writeOrderBatch(List<OrderSubmissionQueue.Submission> batch) throws SQLException {
+        try {
+            writeOrderGroup(batch);
+        } catch (CommitOutcomeUnknownException e) {
+            holdUntilResolved(e);
+        } catch (SQLException e) {
+            if (orderJournal != null && isConnectionFailure(e)) {
+                System.err.println("Database unavailable, saving " + batch.size() + " orders to the journal: "
+                        + e.getMessage());
+                for (OrderSubmissionQueue.Submission submission : batch) {
+                    journalOrder(submission.getJournalId(), submission.getOrder(), submission.getItems(),
+                            submission.getResult());
+                }
+                return;
+            }
+            if (batch.size() == 1) {
+                throw e;
+            }
+            System.err.println("Order batch of " + batch.size() + " failed, retrying one at a time: "
+                    + e.getMessage());
+            for (OrderSubmissionQueue.Submission submission : batch) {
+                try {
+                    writeOrderGroup(Collections.singletonList(submission));
+                } catch (CommitOutcomeUnknownException unknown) {
+                    holdUntilResolved(unknown);
+                } catch (SQLException single) {
+                    submission.getResult().completeExceptionally(single);
+                }
             }
-        } catch (SQLException e) {
-            System.err.println("Error fetching orders: " + e.getMessage());
-            return mockProvider.getAllOrders();
         }
-
-        return orders;
     }
 
     /**
-     * Creates a new order with associated order items.
-     * 
-     * @param order      the Order object to be created
-     * @param orderItems List of OrderItem objects for the order
-     * @return true if order creation was successful, false otherwise
-     * @author harry
+     * Saves orders in one transaction: one inventory statement per order, then
+     * one batched insert for all orders, one for all their items and one
+     * update of the sales rollups. Futures are only completed after the commit.
+     *
+     * While a journal is open each order's journal ID is claimed in the same
+     * transaction. If the connection drops during the commit, the claim tells
+     * whether the orders were saved; when the database cannot be asked, a
+     * {@link CommitOutcomeUnknownException} is thrown.
      */
-    public boolean createOrder(Order order, List<OrderItem> orderItems) {
-        if (useMockData) {
-            return mockProvider.createOrder(order, orderItems);
+    private void writeOrderGroup(List<OrderSubmissionQueue.Submission> batch) throws SQLException {
+        // Reserve all IDs and work out the ingredient demand up front: both come
+        // from memory, and on the rare reload they borrow a connection before the
+        // order holds one.
+        int totalItems = 0;
+        for (OrderSubmissionQueue.Submission submission : batch) {
+            totalItems += submission.getItems().size();
         }
+        int[] orderIds = idAllocator.nextIds(IdAllocator.Sequence.ORDERS, batch.size());
+        int[] orderItemIds = idAllocator.nextIds(IdAllocator.Sequence.ORDER_ITEMS, totalItems);
+        RecipeCache.Demand[] demands = new RecipeCache.Demand[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            demands[i] = recipeCache.computeDemand(batch.get(i).getItems());
+        }
+        InsufficientInventoryException[] rejections = new InsufficientInventoryException[batch.size()];
+        List<Order> accepted = new ArrayList<>(batch.size());
+        boolean committing = false;
+
+        // Each batch runs on its own pooled connection, so switching auto-commit
+        // off here never affects other callers.
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Check and decrement each order's ingredients in one statement.
+                // The inventory rows stay locked until commit, so concurrent orders
+                // cannot both take the last of an ingredient.
+                for (int i = 0; i < batch.size(); i++) {
+                    List<InventoryShortfall> shortfalls = reserveInventory(conn, demands[i]);
+                    if (!shortfalls.isEmpty()) {
+                        rejections[i] = new InsufficientInventoryException(shortfalls);
+                    }
+                }
 
-        try {
-            connection.setAutoCommit(false);
-
-            // NEW: Validate inventory before processing
-            if (!validateInventoryForOrder(orderItems)) {
-                throw new SQLException("Insufficient inventory for this order");
-            }
-
-            // Get next available order ID
-            int orderId = getNextOrderId();
-            if (orderId == -1) {
-                throw new SQLException("Failed to generate order ID");
-            }
+                try (PreparedStatement orderStmt = conn.prepareStatement(INSERT_ORDER_SQL);
+                        PreparedStatement itemStmt = conn.prepareStatement(INSERT_ORDER_ITEM_SQL)) {
+                    int itemIndex = 0;
+                    for (int i = 0; i < batch.size(); i++) {
+                        Order order = batch.get(i).getOrder();
+                        List<OrderItem> items = batch.get(i).getItems();
+                        if (rejections[i] != null) {
+                            itemIndex += items.size();
+                            continue;
+                        }
 
-            // Insert order with explicit orderID
-            String orderQuery = "INSERT INTO orders (orderid, timeoforder, customerid, employeeid, totalcost, orderweek) VALUES (?, ?, ?, ?, ?, ?)";
+                        orderStmt.setInt(1, orderIds[i]);
+                        orderStmt.setTimestamp(2, order.getTimeOfOrder());
+                        orderStmt.setObject(3, order.getCustomerID());
+                        orderStmt.setInt(4, order.getEmployeeID());
+                        orderStmt.setDouble(5, order.getTotalCost());
+                        orderStmt.setInt(6, order.getOrderWeek());
+                        orderStmt.addBatch();
+                        accepted.add(order);
+
+                        for (OrderItem item : items) {
+                            itemStmt.setInt(1, orderItemIds[itemIndex++]);
+                            itemStmt.setInt(2, orderIds[i]);
+                            itemStmt.setInt(3, item.getMenuItemID());
+                            itemStmt.setInt(4, item.getQuantity());
+                            itemStmt.addBatch();
+                        }
+                    }
+                    orderStmt.executeBatch();
+                    itemStmt.executeBatch();
+                }
+                SalesRollups.record(conn, accepted);
+
+                if (orderJournal != null) {
+                    try (PreparedStatement claimStmt = conn.prepareStatement(CLAIM_JOURNAL_ENTRY_SQL)) {
+                        for (int i = 0; i < batch.size(); i++) {
+                            if (rejections[i] == null) {
+                                claimStmt.setObject(1, batch.get(i).getJournalId());
+                                claimStmt.setInt(2, orderIds[i]);
+                                claimStmt.addBatch();
+                            }
+                        }
+                        claimStmt.executeBatch();
+                    }
+                }
 
-            try (PreparedStatement pstmt = connection.prepareStatement(orderQuery)) {
-                pstmt.setInt(1, orderId);
-                pstmt.setTimestamp(2, order.getTimeOfOrder());
-                pstmt.setObject(3, order.getCustomerID());
-                pstmt.setInt(4, order.getEmployeeID());
-                pstmt.setDouble(5, order.getTotalCost());
-                pstmt.setInt(6, order.getOrderWeek());
+                committing = true;
+                conn.commit();
 
-                int rowsAffected = pstmt.executeUpdate();
-                if (rowsAffected == 0) {
-                    throw new SQLException("Failed to insert order");
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
                 }
-                
-                // Update the order object with the generated ID
-                order.setOrderID(orderId);
+                throw e;
+            }
+        } catch (SQLException e) {
+            if (!committing || orderJournal == null || accepted.isEmpty()
+                    || !commitLanded(batch, rejections, e)) {
+                throw e;
             }
+        }
 
-            // Insert order items
-            String itemQuery = "INSERT INTO orderitems (orderitemid, orderid, menuitemid, quantity) VALUES (?, ?, ?, ?)";
-            try (PreparedStatement pstmt = connection.prepareStatement(itemQuery)) {
-                for (OrderItem item : orderItems) {
-                    int orderItemId = getNextOrderItemId();
-                    if (orderItemId == -1) {
-                        throw new SQLException("Failed to generate order item ID");
-                    }
-                    
-                    pstmt.setInt(1, orderItemId);
-                    pstmt.setInt(2, orderId);
-                    pstmt.setInt(3, item.getMenuItemID());
-                    pstmt.setInt(4, item.getQuantity());
-                    pstmt.addBatch();
+        if (!accepted.isEmpty()) {
+            reportCache.invalidate(ReportCache.Tag.ORDERS, ReportCache.Tag.INVENTORY);
+        }
+        OrderCube cube = orderCube;
+        for (int i = 0; i < batch.size(); i++) {
+            OrderSubmissionQueue.Submission submission = batch.get(i);
+            if (rejections[i] != null) {
+                submission.getResult().completeExceptionally(rejections[i]);
+            } else {
+                // Update the order object with the generated ID
+                submission.getOrder().setOrderID(orderIds[i]);
+                if (cube != null) {
+                    cube.append(submission.getOrder(), submission.getItems());
                 }
-                pstmt.executeBatch();
+                submission.getResult().complete(orderIds[i]);
             }
+        }
+    }
 
-            // NEW: Update inventory after successful order creation
-            if (!updateInventoryForOrder(orderItems)) {
-                throw new SQLException("Failed to update inventory");
+    /**
+     * Asks the database on a fresh connection whether a commit that lost its
+     * connection landed, by looking for the journal claim of its first
+     * accepted order.
+     *
+     * @return true if the orders were saved, false if they were not
+     * @throws CommitOutcomeUnknownException if the database cannot be asked;
+     *         the rejected orders' futures are completed first
+     */
+    private boolean commitLanded(List<OrderSubmissionQueue.Submission> batch,
+            InsufficientInventoryException[] rejections, SQLException commitError)
+            throws CommitOutcomeUnknownException {
+        List<OrderSubmissionQueue.Submission> pending = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (rejections[i] == null) {
+                pending.add(batch.get(i));
             }
-
-            connection.commit();
-            connection.setAutoCommit(true);
-            return true;
-
+        }
+        try (Connection conn = pool.getConnection()) {
+            return findJournalClaim(conn, pending.get(0).getJournalId()) != null;
         } catch (SQLException e) {
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException rollbackEx) {
-                System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+            commitError.addSuppressed(e);
+            for (int i = 0; i < batch.size(); i++) {
+                if (rejections[i] != null) {
+                    batch.get(i).getResult().completeExceptionally(rejections[i]);
+                }
             }
-            System.err.println("Error creating order: " + e.getMessage());
-            return false;
+            throw new CommitOutcomeUnknownException(commitError, pending);
         }
     }
 
@@ -340,26 +1400,29 @@ public class DatabaseManager {
      */
     public boolean addMenuItem(MenuItem item) {
         if (useMockData) {
-            return mockProvider.addMenuItem(item);
-        }
-
-        // First, get the next available menu item ID
-        int nextId = getNextMenuItemId();
-        if (nextId == -1) {
-            System.err.println("Error: Could not generate next menu item ID");
-            return false;
+            return publishMockChange(invalidateReports(mockProvider.addMenuItem(item), ReportCache.Tag.MENU),
+                    ChangeNotifier.Table.MENU, ChangeNotifier.Operation.INSERT, item.getMenuItemID());
         }
 
-        String query = "INSERT INTO menuitems (menuitemid, drinkcategory, menuitemname, price) VALUES (?, ?, ?, ?)";
+        try {
+            // First, get the next available menu item ID
+            int nextId = idAllocator.nextId(IdAllocator.Sequence.MENU_ITEMS);
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, nextId);
-            pstmt.setString(2, item.getDrinkCategory());
-            pstmt.setString(3, item.getMenuItemName());
-            pstmt.setDouble(4, item.getPrice());
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(INSERT_MENU_ITEM_SQL)) {
+                pstmt.setInt(1, nextId);
+                pstmt.setString(2, item.getDrinkCategory());
+                pstmt.setString(3, item.getMenuItemName());
+                pstmt.setDouble(4, item.getPrice());
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+                int rowsAffected = pstmt.executeUpdate();
+                RecipeCache.invalidateAll();
+                SalesLeaderboard leaderboard = salesLeaderboard;
+                if (leaderboard != null && rowsAffected > 0) {
+                    leaderboard.track(Collections.singletonList(nextId));
+                }
+                return invalidateReports(rowsAffected > 0, ReportCache.Tag.MENU);
+            }
 
         } catch (SQLException e) {
             System.err.println("Error adding menu item: " + e.getMessage());
@@ -367,30 +1430,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Gets the next available menu item ID by finding the maximum existing ID and
-     * adding 1.
-     * 
-     * @return the next available ID, or -1 if there was an error
-     * @author assistant
-     */
-    private int getNextMenuItemId() {
-        String query = "SELECT COALESCE(MAX(menuitemid), 0) + 1 FROM menuitems";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
-                ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 1; // If no records exist, start with ID 1
-
-        } catch (SQLException e) {
-            System.err.println("Error getting next menu item ID: " + e.getMessage());
-            return -1;
-        }
-    }
-
     /**
      * Updates the price of an existing menu item.
      * 
@@ -401,17 +1440,18 @@ public class DatabaseManager {
      */
     public boolean updateMenuItemPrice(int itemId, double newPrice) {
         if (useMockData) {
-            return mockProvider.updateMenuItemPrice(itemId, newPrice);
+            return publishMockChange(invalidateReports(mockProvider.updateMenuItemPrice(itemId, newPrice),
+                    ReportCache.Tag.MENU), ChangeNotifier.Table.MENU, ChangeNotifier.Operation.UPDATE, itemId);
         }
 
-        String query = "UPDATE menuitems SET price = ? WHERE menuitemid = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(UPDATE_MENU_ITEM_PRICE_SQL)) {
             pstmt.setDouble(1, newPrice);
             pstmt.setInt(2, itemId);
 
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            RecipeCache.invalidateAll();
+            return invalidateReports(rowsAffected > 0, ReportCache.Tag.MENU);
 
         } catch (SQLException e) {
             System.err.println("Error updating menu item price: " + e.getMessage());
@@ -428,25 +1468,23 @@ public class DatabaseManager {
      */
     public boolean addInventoryItem(Inventory item) {
         if (useMockData) {
-            return mockProvider.addInventoryItem(item);
-        }
-
-        // First, get the next available inventory item ID
-        int nextId = getNextInventoryItemId();
-        if (nextId == -1) {
-            System.err.println("Error: Could not generate next inventory item ID");
-            return false;
+            return publishMockChange(invalidateReports(mockProvider.addInventoryItem(item), ReportCache.Tag.INVENTORY),
+                    ChangeNotifier.Table.INVENTORY, ChangeNotifier.Operation.INSERT, item.getIngredientID());
         }
 
-        String query = "INSERT INTO inventory (ingredientid, ingredientname, ingredientcount) VALUES (?, ?, ?)";
+        try {
+            // First, get the next available inventory item ID
+            int nextId = idAllocator.nextId(IdAllocator.Sequence.INVENTORY);
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, nextId);
-            pstmt.setString(2, item.getIngredientName());
-            pstmt.setInt(3, item.getIngredientCount());
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(INSERT_INVENTORY_SQL)) {
+                pstmt.setInt(1, nextId);
+                pstmt.setString(2, item.getIngredientName());
+                pstmt.setInt(3, item.getIngredientCount());
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+                int rowsAffected = pstmt.executeUpdate();
+                return invalidateReports(rowsAffected > 0, ReportCache.Tag.INVENTORY);
+            }
 
         } catch (SQLException e) {
             System.err.println("Error adding inventory item: " + e.getMessage());
@@ -454,76 +1492,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Gets the next available inventory item ID by finding the maximum existing ID
-     * and adding 1.
-     * 
-     * @return the next available ID, or -1 if there was an error
-     * @author assistant
-     */
-    private int getNextInventoryItemId() {
-        String query = "SELECT COALESCE(MAX(ingredientid), 0) + 1 FROM inventory";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
-                ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 1; // If no records exist, start with ID 1
-
-        } catch (SQLException e) {
-            System.err.println("Error getting next inventory item ID: " + e.getMessage());
-            return -1;
-        }
-    }
-
-    /**
-     * Gets the next available order ID by finding the maximum existing ID and adding 1.
-     * 
-     * @return the next available ID, or -1 if there was an error
-     * @author harry
-     */
-    private int getNextOrderId() {
-        String query = "SELECT COALESCE(MAX(orderid), 0) + 1 FROM orders";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
-                ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 1; // If no records exist, start with ID 1
-
-        } catch (SQLException e) {
-            System.err.println("Error getting next order ID: " + e.getMessage());
-            return -1;
-        }
-    }
-
-    /**
-     * Gets the next available order item ID by finding the maximum existing ID and adding 1.
-     * 
-     * @return the next available ID, or -1 if there was an error
-     * @author harry
-     */
-    private int getNextOrderItemId() {
-        String query = "SELECT COALESCE(MAX(orderitemid), 0) + 1 FROM orderitems";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
-                ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 1; // If no records exist, start with ID 1
-
-        } catch (SQLException e) {
-            System.err.println("Error getting next order item ID: " + e.getMessage());
-            return -1;
-        }
-    }
-
     /**
      * Updates the quantity of an existing inventory item.
      * 
@@ -534,17 +1502,17 @@ public class DatabaseManager {
      */
     public boolean updateInventoryQuantity(int itemId, int newQuantity) {
         if (useMockData) {
-            return mockProvider.updateInventoryQuantity(itemId, newQuantity);
+            return publishMockChange(invalidateReports(mockProvider.updateInventoryQuantity(itemId, newQuantity),
+                    ReportCache.Tag.INVENTORY), ChangeNotifier.Table.INVENTORY, ChangeNotifier.Operation.UPDATE, itemId);
         }
 
-        String query = "UPDATE inventory SET ingredientcount = ? WHERE ingredientid = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(UPDATE_INVENTORY_QUANTITY_SQL)) {
             pstmt.setInt(1, newQuantity);
             pstmt.setInt(2, itemId);
 
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return invalidateReports(rowsAffected > 0, ReportCache.Tag.INVENTORY);
 
         } catch (SQLException e) {
             System.err.println("Error updating inventory quantity: " + e.getMessage());
@@ -561,26 +1529,24 @@ public class DatabaseManager {
      */
     public boolean addEmployee(Employee employee) {
         if (useMockData) {
-            return mockProvider.addEmployee(employee);
+            return publishMockChange(invalidateReports(mockProvider.addEmployee(employee), ReportCache.Tag.EMPLOYEES),
+                    ChangeNotifier.Table.EMPLOYEES, ChangeNotifier.Operation.INSERT, employee.getEmployeeID());
         }
 
-        // First, get the next available employee ID
-        int nextId = getNextEmployeeId();
-        if (nextId == -1) {
-            System.err.println("Error: Could not generate next employee ID");
-            return false;
-        }
-
-        String query = "INSERT INTO employees (employeeid, employeename, employeerole, hoursworked) VALUES (?, ?, ?, ?)";
+        try {
+            // First, get the next available employee ID
+            int nextId = idAllocator.nextId(IdAllocator.Sequence.EMPLOYEES);
 
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setInt(1, nextId);
-            pstmt.setString(2, employee.getEmployeeName());
-            pstmt.setString(3, employee.getEmployeeRole());
-            pstmt.setInt(4, employee.getHoursWorked());
+            try (Connection conn = pool.getConnection();
+                    PreparedStatement pstmt = conn.prepareStatement(INSERT_EMPLOYEE_SQL)) {
+                pstmt.setInt(1, nextId);
+                pstmt.setString(2, employee.getEmployeeName());
+                pstmt.setString(3, employee.getEmployeeRole());
+                pstmt.setInt(4, employee.getHoursWorked());
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+                int rowsAffected = pstmt.executeUpdate();
+                return invalidateReports(rowsAffected > 0, ReportCache.Tag.EMPLOYEES);
+            }
 
         } catch (SQLException e) {
             System.err.println("Error adding employee: " + e.getMessage());
@@ -588,30 +1554,6 @@ public class DatabaseManager {
         }
     }
 
-    /**
-     * Gets the next available employee ID by finding the maximum existing ID and
-     * adding 1.
-     * 
-     * @return the next available ID, or -1 if there was an error
-     * @author assistant
-     */
-    private int getNextEmployeeId() {
-        String query = "SELECT COALESCE(MAX(employeeid), 0) + 1 FROM employees";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query);
-                ResultSet rs = pstmt.executeQuery()) {
-
-            if (rs.next()) {
-                return rs.getInt(1);
-            }
-            return 1; // If no records exist, start with ID 1
-
-        } catch (SQLException e) {
-            System.err.println("Error getting next employee ID: " + e.getMessage());
-            return -1;
-        }
-    }
-
     /**
      * Updates an existing employee in the database or mock data.
      * 
@@ -621,19 +1563,19 @@ public class DatabaseManager {
      */
     public boolean updateEmployee(Employee employee) {
         if (useMockData) {
-            return mockProvider.updateEmployee(employee);
+            return publishMockChange(invalidateReports(mockProvider.updateEmployee(employee), ReportCache.Tag.EMPLOYEES),
+                    ChangeNotifier.Table.EMPLOYEES, ChangeNotifier.Operation.UPDATE, employee.getEmployeeID());
         }
 
-        String query = "UPDATE employees SET employeename = ?, employeerole = ?, hoursworked = ? WHERE employeeid = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(UPDATE_EMPLOYEE_SQL)) {
             pstmt.setString(1, employee.getEmployeeName());
             pstmt.setString(2, employee.getEmployeeRole());
             pstmt.setInt(3, employee.getHoursWorked());
             pstmt.setInt(4, employee.getEmployeeID());
 
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return invalidateReports(rowsAffected > 0, ReportCache.Tag.EMPLOYEES);
 
         } catch (SQLException e) {
             System.err.println("Error updating employee: " + e.getMessage());
@@ -650,16 +1592,16 @@ public class DatabaseManager {
      */
     public boolean deleteEmployee(int employeeId) {
         if (useMockData) {
-            return mockProvider.deleteEmployee(employeeId);
+            return publishMockChange(invalidateReports(mockProvider.deleteEmployee(employeeId),
+                    ReportCache.Tag.EMPLOYEES), ChangeNotifier.Table.EMPLOYEES, ChangeNotifier.Operation.DELETE, employeeId);
         }
 
-        String query = "DELETE FROM employees WHERE employeeid = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(DELETE_EMPLOYEE_SQL)) {
             pstmt.setInt(1, employeeId);
 
             int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return invalidateReports(rowsAffected > 0, ReportCache.Tag.EMPLOYEES);
 
         } catch (SQLException e) {
             System.err.println("Error deleting employee: " + e.getMessage());
@@ -679,35 +1621,68 @@ public class DatabaseManager {
         }
 
         Map<String, Integer> usage = new HashMap<>();
-        String query = """
-                SELECT m.menuitemname, SUM(oi.quantity) as total_sold
-                FROM menuitems m
-                JOIN orderitems oi ON m.menuitemid = oi.menuitemid
-                JOIN orders o ON oi.orderid = o.orderid
-                WHERE DATE(o.timeoforder) >= CURRENT_DATE - INTERVAL '30 days'
-                GROUP BY m.menuitemname
-                ORDER BY total_sold DESC
-                """;
-
-        try (Statement stmt = connection.createStatement();
-                ResultSet rs = stmt.executeQuery(query)) {
 
-            while (rs.next()) {
-                usage.put(rs.getString("menuitemname"), rs.getInt("total_sold"));
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(PRODUCT_USAGE_SQL)) {
+            TimeRange.lastDays(PRODUCT_USAGE_DAYS).bind(stmt, 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    usage.put(rs.getString("menuitemname"), rs.getInt("total_sold"));
+                }
             }
         } catch (SQLException e) {
             System.err.println("Error fetching product usage data: " + e.getMessage());
+            readFailures.increment();
             return mockProvider.getProductUsageData();
         }
 
         return usage;
     }
 
+    /**
+     * Gets how many of each menu item sold over the last few days, for
+     * ranking cashier quick keys and search results.
+     * 
+     * @param days number of days, including today
+     * @return units sold by menu item ID; items with no sales are left out
+     */
+    public Map<Integer, Long> getMenuItemSales(int days) {
+        if (useMockData) {
+            return mockProvider.getMenuItemSales();
+        }
+
+        Map<Integer, Long> sales = new HashMap<>();
+        try (Connection conn = pool.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(MENU_ITEM_SALES_SQL)) {
+            TimeRange.lastDays(days).bind(stmt, 1);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sales.put(rs.getInt("menuitemid"), rs.getLong("total_sold"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error fetching menu item sales: " + e.getMessage());
+        }
+        return sales;
+    }
+
+    /**
+     * Gets how many best sellers get a quick key on the cashier screen, from
+     * CASHIER_QUICK_KEYS in .env (12 if unset).
+     * 
+     * @return number of quick keys
+     */
+    public int getQuickKeyCount() {
+        return quickKeyCount;
+    }
+
     /**
      * Calculates total sales for a given date range.
      * 
-     * @param startDate the start date for sales calculation
-     * @param endDate   the end date for sales calculation
+     * @param startDate the first day included in the calculation
+     * @param endDate   the last day included in the calculation
      * @return total sales amount for the specified date range
      * @author harry
      */
@@ -716,11 +1691,9 @@ public class DatabaseManager {
             return mockProvider.getTotalSales(startDate, endDate);
         }
 
-        String query = "SELECT COALESCE(SUM(totalcost), 0) as total FROM orders WHERE DATE(timeoforder) BETWEEN ? AND ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(query)) {
-            pstmt.setDate(1, startDate);
-            pstmt.setDate(2, endDate);
+        try (Connection conn = pool.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(TOTAL_SALES_SQL)) {
+            TimeRange.days(startDate, endDate).bind(pstmt, 1);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -729,6 +1702,7 @@ public class DatabaseManager {
             }
         } catch (SQLException e) {
             System.err.println("Error fetching total sales: " + e.getMessage());
+            readFailures.increment();
             return mockProvider.getTotalSales(startDate, endDate);
         }
 
@@ -751,13 +1725,149 @@ public class DatabaseManager {
      * @author harry
      */
     public void close() {
-        if (connection != null && !useMockData) {
+        changeNotifier.close();
+        if (pool != null && !useMockData) {
+            // Let queued orders reach the database before the pool goes away
+            orderQueue.close();
+            if (orderJournal != null) {
+                orderJournal.close();
+            }
+            System.out.println("Closing database " + pool.getStatistics());
+            System.out.println(orderQueue.getStatistics());
+            System.out.println(recipeCache.getStatistics());
+            OrderCube cube = orderCube;
+            if (cube != null) {
+                System.out.println(cube.getStatistics());
+            }
+            pool.close();
+        }
+        System.out.println(reportCache.getStatistics());
+        System.out.println(changeNotifier.getStatistics());
+    }
+
+    /**
+     * Gets the cache of finished manager reports. Writes made through this
+     * manager drop the cached reports they affect.
+     *
+     * @return the report cache
+     */
+    public ReportCache<String> getReportCache() {
+        return reportCache;
+    }
+
+    /**
+     * Counts the reads that failed and returned sample data in place of the
+     * real rows. A report built while the count went up shows that sample
+     * data and should not be cached.
+     *
+     * @return failed reads since startup
+     */
+    public long getReadFailureCount() {
+        return readFailures.sum();
+    }
+
+    /** Drops cached reports built from the given data if a write changed it, and passes its result through. */
+    private boolean invalidateReports(boolean changed, ReportCache.Tag... tags) {
+        if (changed) {
+            reportCache.invalidate(tags);
+        }
+        return changed;
+    }
+
+    /** Tells change listeners about a mock-mode write if it changed a row, and passes its result through. */
+    private boolean publishMockChange(boolean changed, ChangeNotifier.Table table, ChangeNotifier.Operation operation,
+            int id) {
+        if (changed) {
+            changeNotifier.publish(table, operation, id);
+        }
+        return changed;
+    }
+
+    /**
+     * Drops what changes from other terminals have made stale: the reports
+     * built from the changed tables, the recipes when the menu changed, and
+     * the order cube's view of recent orders when orders this process did
+     * not save arrive.
+     */
+    private void changesArrived(List<ChangeNotifier.Change> changes) {
+        EnumSet<ReportCache.Tag> tags = EnumSet.noneOf(ReportCache.Tag.class);
+        boolean newOrders = false;
+        OrderCube cube = orderCube;
+        for (ChangeNotifier.Change change : changes) {
+            switch (change.getTable()) {
+                case ORDERS -> {
+                    tags.add(ReportCache.Tag.ORDERS);
+                    newOrders |= cube != null && !cube.contains(change.getId());
+                }
+                case INVENTORY -> tags.add(ReportCache.Tag.INVENTORY);
+                case MENU -> tags.add(ReportCache.Tag.MENU);
+                case EMPLOYEES -> tags.add(ReportCache.Tag.EMPLOYEES);
+            }
+        }
+        if (tags.contains(ReportCache.Tag.MENU)) {
+            RecipeCache.invalidateAll();
+        }
+        if (newOrders) {
             try {
-                connection.close();
+                cube.refresh();
             } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
+                System.err.println("Error refreshing order cube: " + e.getMessage());
             }
         }
+        reportCache.invalidate(tags.toArray(new ReportCache.Tag[0]));
+    }
+
+    /**
+     * Registers a listener for rows changed by any terminal, and starts
+     * listening for them if this is the first. Changes arrive on a background
+     * thread.
+     *
+     * @param listener the listener to add
+     */
+    public void addChangeListener(ChangeNotifier.Listener listener) {
+        changeNotifier.addListener(listener);
+        changeNotifier.start();
+    }
+
+    public void removeChangeListener(ChangeNotifier.Listener listener) {
+        changeNotifier.removeListener(listener);
+    }
+
+    /**
+     * Checks whether changes made by other terminals are arriving. Always
+     * false in mock mode, where only this manager's own writes are reported.
+     *
+     * @return true if change notifications are being received
+     */
+    public boolean isReceivingChanges() {
+        return changeNotifier.isListening();
+    }
+
+    /**
+     * Gets a one-line summary of connection pool usage, including how long
+     * callers waited for a connection.
+     *
+     * @return pool statistics, or a mock-mode note when no pool is in use
+     */
+    public String getPoolStatistics() {
+        if (pool == null) {
+            return "pool: not in use (mock data)";
+        }
+        return pool.getStatistics();
+    }
+
+    /** Reads an optional integer setting, falling back to the default if missing or invalid. */
+    private static int readInt(Map<String, String> env, String key, int defaultValue) {
+        String value = env.get(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
     }
 
     /**
@@ -766,7 +1876,7 @@ public class DatabaseManager {
      * @return Map containing environment variables
      * @author harry
      */
-    private Map<String, String> loadEnvironment() {
+    static Map<String, String> loadEnvironment() {
         Map<String, String> env = new HashMap<>();
         Path envPath = Paths.get(".env");
 
@@ -790,6 +1900,44 @@ public class DatabaseManager {
         return env;
     }
 
+    /**
+     * Turns an order's ingredient demand into rows. Expects two int[]
+     * parameters: ingredient IDs and the amount needed of each, as computed
+     * by the recipe cache.
+     */
+    private static final String ORDER_DEMAND_CTE = "WITH demand AS ("
+            + "SELECT * FROM unnest(?::int[], ?::int[]) AS d(ingredientid, needed))";
+
+    /** Decrements an order's demand without a stock check, returning rows that went negative */
+    private static final String DECREMENT_INVENTORY_SQL = ORDER_DEMAND_CTE
+            + ", decremented AS (UPDATE inventory i SET ingredientcount = i.ingredientcount - d.needed "
+            + "FROM demand d WHERE i.ingredientid = d.ingredientid "
+            + "RETURNING i.ingredientid, i.ingredientcount) "
+            + "SELECT ingredientid, ingredientcount FROM decremented WHERE ingredientcount < 0";
+
+    /** Lists the ingredients that cannot cover an order, without changing stock */
+    private static final String CHECK_INVENTORY_SQL = ORDER_DEMAND_CTE
+            + " SELECT d.ingredientid, i.ingredientname, COALESCE(i.ingredientcount, 0) AS available, d.needed "
+            + "FROM demand d LEFT JOIN inventory i ON i.ingredientid = d.ingredientid "
+            + "WHERE i.ingredientid IS NULL OR i.ingredientcount < d.needed "
+            + "ORDER BY d.ingredientid";
+
+    /**
+     * Locks the order's inventory rows, then decrements all of them only if none
+     * are short. Returns the shortfalls, so an empty result means the stock was
+     * taken. Rows are locked in ID order to avoid deadlocks between terminals.
+     */
+    private static final String RESERVE_INVENTORY_SQL = ORDER_DEMAND_CTE
+            + ", locked AS (SELECT i.ingredientid, i.ingredientname, i.ingredientcount FROM inventory i "
+            + "WHERE i.ingredientid IN (SELECT ingredientid FROM demand) ORDER BY i.ingredientid FOR UPDATE), "
+            + "shortfall AS (SELECT d.ingredientid, l.ingredientname, COALESCE(l.ingredientcount, 0) AS available, d.needed "
+            + "FROM demand d LEFT JOIN locked l ON l.ingredientid = d.ingredientid "
+            + "WHERE l.ingredientid IS NULL OR l.ingredientcount < d.needed), "
+            + "decremented AS (UPDATE inventory i SET ingredientcount = i.ingredientcount - d.needed "
+            + "FROM demand d WHERE i.ingredientid = d.ingredientid AND NOT EXISTS (SELECT 1 FROM shortfall) "
+            + "RETURNING i.ingredientid) "
+            + "SELECT ingredientid, ingredientname, available, needed FROM shortfall ORDER BY ingredientid";
+
     /**
      * Validates if there's sufficient inventory for an order before processing.
      * 
@@ -803,41 +1951,47 @@ public class DatabaseManager {
         }
 
         try {
-            for (OrderItem orderItem : orderItems) {
-                // Get all ingredients needed for this menu item
-                String checkQuery = "SELECT i.ingredientID, i.ingredientCount, mi.ingredientQty " +
-                                   "FROM inventory i " +
-                                   "INNER JOIN MenuItemIngredients mi ON i.ingredientID = mi.ingredientID " +
-                                   "WHERE mi.menuItemID = ?";
-                
-                try (PreparedStatement stmt = connection.prepareStatement(checkQuery)) {
-                    stmt.setInt(1, orderItem.getMenuItemID());
-                    
-                    try (ResultSet rs = stmt.executeQuery()) {
-                        while (rs.next()) {
-                            int available = rs.getInt("ingredientCount");
-                            int requiredPerDrink = rs.getInt("ingredientQty");
-                            int totalRequired = requiredPerDrink * orderItem.getQuantity();
-                            
-                            if (available < totalRequired) {
-                                System.err.println("Insufficient inventory for ingredient ID: " + rs.getInt("ingredientID") + 
-                                                 " (Available: " + available + ", Required: " + totalRequired + ")");
-                                return false;
-                            }
-                        }
-                    }
-                }
+            List<InventoryShortfall> shortfalls = findInventoryShortfalls(orderItems);
+            for (InventoryShortfall shortfall : shortfalls) {
+                System.err.println("Insufficient inventory for " + shortfall);
             }
-            return true;
-            
+            return shortfalls.isEmpty();
         } catch (SQLException e) {
             System.err.println("Error validating inventory: " + e.getMessage());
             return false;
         }
     }
 
+    /**
+     * Lists the ingredients that do not have enough stock for an order. The
+     * demand of all items is added up first, so two drinks sharing an
+     * ingredient are checked against their combined amount.
+     * 
+     * @param orderItems List of OrderItem objects to check
+     * @return the shortfalls, or an empty list if the order can be filled
+     * @throws SQLException if stock could not be checked; the order must then
+     *         be treated as not checked rather than fillable
+     */
+    public List<InventoryShortfall> checkInventoryForOrder(List<OrderItem> orderItems) throws SQLException {
+        if (useMockData) {
+            return new ArrayList<>();
+        }
+        return findInventoryShortfalls(orderItems);
+    }
+
+    /** Runs the read-only shortfall query on a pooled connection. */
+    private List<InventoryShortfall> findInventoryShortfalls(List<OrderItem> orderItems) throws SQLException {
+        RecipeCache.Demand demand = recipeCache.computeDemand(orderItems);
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(CHECK_INVENTORY_SQL)) {
+            bindDemand(conn, stmt, demand);
+            return readShortfalls(stmt);
+        }
+    }
+
     /**
      * Updates inventory by decrementing ingredient quantities when an order is placed.
+     * Nothing is decremented if any ingredient would go below zero.
      * 
      * @param orderItems List of OrderItem objects from the completed order
      * @return true if inventory update was successful, false otherwise
@@ -845,46 +1999,81 @@ public class DatabaseManager {
      */
     public boolean updateInventoryForOrder(List<OrderItem> orderItems) {
         if (useMockData) {
-            return mockProvider.updateInventoryForOrder(orderItems);
+            return invalidateReports(mockProvider.updateInventoryForOrder(orderItems), ReportCache.Tag.INVENTORY);
         }
 
         try {
-            for (OrderItem orderItem : orderItems) {
-                // Get required ingredients for this menu item from MenuItemIngredients table
-                String ingredientQuery = "SELECT ingredientID, ingredientQty FROM MenuItemIngredients WHERE menuItemID = ?";
-                
-                try (PreparedStatement ingredientStmt = connection.prepareStatement(ingredientQuery)) {
-                    ingredientStmt.setInt(1, orderItem.getMenuItemID());
-                    
-                    try (ResultSet rs = ingredientStmt.executeQuery()) {
-                        while (rs.next()) {
-                            int ingredientID = rs.getInt("ingredientID");
-                            int requiredPerDrink = rs.getInt("ingredientQty");
-                            int totalNeeded = requiredPerDrink * orderItem.getQuantity();
-                            
-                            // Update inventory by decrementing
-                            String updateQuery = "UPDATE inventory SET ingredientCount = ingredientCount - ? WHERE ingredientID = ?";
-                            try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery)) {
-                                updateStmt.setInt(1, totalNeeded);
-                                updateStmt.setInt(2, ingredientID);
-                                
-                                int rowsAffected = updateStmt.executeUpdate();
-                                if (rowsAffected == 0) {
-                                    throw new SQLException("Ingredient not found: " + ingredientID);
-                                }
-                                
-                                System.out.println("Updated inventory: Ingredient " + ingredientID + 
-                                                 " decremented by " + totalNeeded);
-                            }
-                        }
-                    }
-                }
+            RecipeCache.Demand demand = recipeCache.computeDemand(orderItems);
+            List<InventoryShortfall> shortfalls;
+            try (Connection conn = pool.getConnection()) {
+                shortfalls = reserveInventory(conn, demand);
             }
-            return true;
-            
+            for (InventoryShortfall shortfall : shortfalls) {
+                System.err.println("Insufficient inventory for " + shortfall);
+            }
+            return invalidateReports(shortfalls.isEmpty(), ReportCache.Tag.INVENTORY);
         } catch (SQLException e) {
             System.err.println("Error updating inventory: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Checks and decrements inventory for a whole order in a single statement
+     * on the given connection, so it joins the caller's order transaction.
+     * 
+     * @param conn   the connection to run the statement on
+     * @param demand the order's ingredient demand
+     * @return the shortfalls; empty if the inventory was decremented
+     * @throws SQLException if the statement fails
+     */
+    private List<InventoryShortfall> reserveInventory(Connection conn, RecipeCache.Demand demand)
+            throws SQLException {
+        if (demand.size() == 0) {
+            return new ArrayList<>();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(RESERVE_INVENTORY_SQL)) {
+            bindDemand(conn, stmt, demand);
+            return readShortfalls(stmt);
+        }
+    }
+
+    /** Binds an order's demand as the two arrays ORDER_DEMAND_CTE expects. */
+    private void bindDemand(Connection conn, PreparedStatement stmt, RecipeCache.Demand demand)
+            throws SQLException {
+        int[] ingredientIds = demand.getIngredientIds();
+        int[] quantities = demand.getQuantities();
+        Integer[] ids = new Integer[ingredientIds.length];
+        Integer[] needed = new Integer[quantities.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ingredientIds[i];
+            needed[i] = quantities[i];
+        }
+        stmt.setArray(1, conn.createArrayOf("integer", ids));
+        stmt.setArray(2, conn.createArrayOf("integer", needed));
+    }
+
+    /**
+     * Drops the cached recipes so the next order reloads them from
+     * MenuItemIngredients. Call this after editing recipes outside of
+     * addMenuItem and updateMenuItemPrice.
+     */
+    public void invalidateRecipes() {
+        RecipeCache.invalidateAll();
+    }
+
+    /** Reads shortfall rows (ingredientid, ingredientname, available, needed). */
+    private List<InventoryShortfall> readShortfalls(PreparedStatement stmt) throws SQLException {
+        List<InventoryShortfall> shortfalls = new ArrayList<>();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                shortfalls.add(new InventoryShortfall(
+                        rs.getInt("ingredientid"),
+                        rs.getString("ingredientname"),
+                        rs.getInt("available"),
+                        rs.getInt("needed")));
+            }
+        }
+        return shortfalls;
+    }
 }
@@ -0,0 +1,107 @@
+package New_Additions;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog estimates how many distinct values it has seen using a fixed
+ * {@value #REGISTERS} bytes, however many values are added.
+ *
+ * Each value is hashed; the top {@value #PRECISION} bits pick a register and
+ * the register keeps the longest run of leading zeros seen in the remaining
+ * bits. Two sketches merge by taking the larger register, which gives the
+ * sketch of the union, so sketches kept per hour or day can be combined into
+ * any longer range. Estimates are typically within about 1.6% of the true
+ * count.
+ */
+public class HyperLogLog {
+
+    /** Bits of the hash used to choose a register */
+    public static final int PRECISION = 12;
+
+    /** Number of registers, and bytes of memory per sketch */
+    public static final int REGISTERS = 1 << PRECISION;
+
+    /** Bias correction constant for {@value #REGISTERS} registers */
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers;
+
+    /**
+     * Creates an empty sketch.
+     */
+    public HyperLogLog() {
+        this.registers = new byte[REGISTERS];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    /**
+     * Adds a value to the sketch.
+     *
+     * @param value the value, for example a customer ID
+     */
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // The guard bit caps the run so it never exceeds the bits left over
+        long rest = (hash << PRECISION) | (1L << (PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Folds another sketch into this one, so this sketch covers both.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Gets an independent copy of this sketch.
+     *
+     * @return a copy
+     */
+    public HyperLogLog copy() {
+        return new HyperLogLog(Arrays.copyOf(registers, REGISTERS));
+    }
+
+    /**
+     * Estimates the number of distinct values added.
+     *
+     * @return the estimated distinct count
+     */
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate while most registers are empty
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /** Spreads the bits of a value over the whole 64-bit hash (SplitMix64 finalizer). */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,161 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+
+/**
+ * IdAllocator hands out primary keys for the main tables without a database
+ * round trip per ID.
+ *
+ * Each process reserves a block of IDs at a time from the IdBlocks table
+ * (see creatingSqlTables/idBlocks.sql) and serves them from memory until the
+ * block runs out. Reserving a block is a single UPDATE on the sequence's row,
+ * so two terminals can never receive overlapping blocks. The reservation also
+ * jumps past the current MAX of the table, which keeps it safe next to rows
+ * inserted by bulk loads or older tools. IDs left in a block when the process
+ * exits are simply skipped.
+ */
+public class IdAllocator {
+
+    /** The ID sequences managed by the allocator, with their default block sizes. */
+    public enum Sequence {
+        ORDERS("orders", "orderid", 50),
+        ORDER_ITEMS("orderitems", "orderitemid", 200),
+        MENU_ITEMS("menuitems", "menuitemid", 5),
+        INVENTORY("inventory", "ingredientid", 5),
+        EMPLOYEES("employees", "employeeid", 5);
+
+        private final String table;
+        private final String idColumn;
+        private final int blockSize;
+
+        Sequence(String table, String idColumn, int blockSize) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.blockSize = blockSize;
+        }
+
+        /** Gets the table whose primary key this sequence feeds. */
+        public String getTable() {
+            return table;
+        }
+
+        /** Gets the primary key column of the table. */
+        public String getIdColumn() {
+            return idColumn;
+        }
+    }
+
+    /** Creates the sequence row the first time a sequence is used */
+    private static final String SEED_SQL = "INSERT INTO idblocks (sequencename, nextvalue) VALUES (?, 1) "
+            + "ON CONFLICT (sequencename) DO NOTHING";
+
+    /** Range of IDs reserved in memory for one sequence. */
+    private static class Block {
+        /** Held while taking IDs, including while reserving the next range */
+        private final ReentrantLock lock = new ReentrantLock();
+        private int next;
+        private int limit;
+        private boolean seeded;
+
+        int remaining() {
+            return limit - next;
+        }
+    }
+
+    /** Source of the connections used to reserve blocks */
+    private final DataSource dataSource;
+    /** In-memory blocks, one per sequence */
+    private final Map<Sequence, Block> blocks = new EnumMap<>(Sequence.class);
+
+    /**
+     * Creates an allocator that reserves blocks through the given data source.
+     * Reservations run on their own auto-commit connection, so a rolled back
+     * order never hands the same block out twice.
+     *
+     * @param dataSource source of database connections
+     */
+    public IdAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+        for (Sequence sequence : Sequence.values()) {
+            blocks.put(sequence, new Block());
+        }
+    }
+
+    /**
+     * Gets the next ID for a sequence, reserving a new block if needed.
+     *
+     * @param sequence the sequence to draw from
+     * @return a unique ID
+     * @throws SQLException if a new block could not be reserved
+     */
+    public int nextId(Sequence sequence) throws SQLException {
+        return nextIds(sequence, 1)[0];
+    }
+
+    /**
+     * Gets several IDs for a sequence at once. The IDs are unique but not
+     * necessarily contiguous when the request crosses a block boundary.
+     *
+     * @param sequence the sequence to draw from
+     * @param count    how many IDs are needed
+     * @return an array of {@code count} unique IDs
+     * @throws SQLException if a new block could not be reserved
+     */
+    public int[] nextIds(Sequence sequence, int count) throws SQLException {
+        int[] ids = new int[count];
+        Block block = blocks.get(sequence);
+        block.lock.lock();
+        try {
+            int filled = 0;
+            while (filled < count) {
+                if (block.remaining() == 0) {
+                    reserveBlock(sequence, block, Math.max(sequence.blockSize, count - filled));
+                }
+                ids[filled++] = block.next++;
+            }
+        } finally {
+            block.lock.unlock();
+        }
+        return ids;
+    }
+
+    /**
+     * Reserves a fresh block of IDs for a sequence. Must be called while
+     * holding the block's lock.
+     */
+    private void reserveBlock(Sequence sequence, Block block, int size) throws SQLException {
+        String reserveSql = "UPDATE idblocks SET nextvalue = GREATEST(nextvalue, "
+                + "(SELECT COALESCE(MAX(" + sequence.idColumn + "), 0) + 1 FROM " + sequence.table + ")) + ? "
+                + "WHERE sequencename = ? RETURNING nextvalue - ?";
+
+        try (Connection conn = dataSource.getConnection()) {
+            if (!block.seeded) {
+                try (PreparedStatement seed = conn.prepareStatement(SEED_SQL)) {
+                    seed.setString(1, sequence.name());
+                    seed.executeUpdate();
+                }
+                block.seeded = true;
+            }
+
+            try (PreparedStatement reserve = conn.prepareStatement(reserveSql)) {
+                reserve.setInt(1, size);
+                reserve.setString(2, sequence.name());
+                reserve.setInt(3, size);
+                try (ResultSet rs = reserve.executeQuery()) {
+                    if (!rs.next()) {
+                        throw new SQLException("No IdBlocks row for sequence " + sequence.name());
+                    }
+                    block.next = rs.getInt(1);
+                    block.limit = block.next + size;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package New_Additions;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown when an order cannot be placed because one or more ingredients do not
+ * have enough stock. Carries the shortfalls so the cashier can be told exactly
+ * what is missing.
+ */
+public class InsufficientInventoryException extends SQLException {
+
+    /** The ingredients that could not cover the order */
+    private final List<InventoryShortfall> shortfalls;
+
+    /**
+     * Creates an exception for the given shortfalls.
+     *
+     * @param shortfalls the ingredients that are short
+     */
+    public InsufficientInventoryException(List<InventoryShortfall> shortfalls) {
+        super("Insufficient inventory for this order: " + shortfalls);
+        this.shortfalls = Collections.unmodifiableList(shortfalls);
+    }
+
+    /**
+     * Gets the ingredients that could not cover the order.
+     *
+     * @return the shortfalls
+     */
+    public List<InventoryShortfall> getShortfalls() {
+        return shortfalls;
+    }
+}
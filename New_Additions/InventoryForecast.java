@@ -0,0 +1,215 @@
+package New_Additions;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * InventoryForecast predicts when each ingredient will run out from how fast
+ * drinks have been selling at each hour of the day.
+ *
+ * It follows the order stream as an {@link OrderCube.ItemListener} and
+ * counts drinks per menu item in hourly buckets covering the last
+ * {@value #WINDOW_DAYS} days. Averaging the buckets for each hour of the
+ * day gives a sales rate per hour that follows the daily rush, and the
+ * {@link RecipeCache} turns drink rates into ingredient rates. A forecast
+ * walks the current stock of each ingredient forward hour by hour until it
+ * reaches zero. Recipes are applied when forecasting rather than per order,
+ * so a recipe edit is reflected straight away and the listener never needs
+ * the database.
+ */
+public class InventoryForecast implements OrderCube.ItemListener {
+
+    /** Days of sales history the rates are averaged over */
+    public static final int WINDOW_DAYS = 28;
+
+    /** How far ahead stockouts are predicted, in hours */
+    public static final int HORIZON_HOURS = 14 * 24;
+
+    private static final int WINDOW_HOURS = WINDOW_DAYS * 24;
+
+    /** Predicted stock and stockout time of one ingredient. */
+    public static class Forecast {
+        private final Inventory item;
+        private final double dailyUsage;
+        private final double hoursToStockout;
+
+        Forecast(Inventory item, double dailyUsage, double hoursToStockout) {
+            this.item = item;
+            this.dailyUsage = dailyUsage;
+            this.hoursToStockout = hoursToStockout;
+        }
+
+        public Inventory getItem() {
+            return item;
+        }
+
+        /** Gets the expected use over the next 24 hours. */
+        public double getDailyUsage() {
+            return dailyUsage;
+        }
+
+        /**
+         * Gets the hours until the stock is used up.
+         *
+         * @return hours from now, 0 if already out, or infinity if it lasts
+         *         past {@link #HORIZON_HOURS}
+         */
+        public double getHoursToStockout() {
+            return hoursToStockout;
+        }
+
+        /** Tells whether the ingredient runs out within the forecast horizon. */
+        public boolean runsOut() {
+            return hoursToStockout != Double.POSITIVE_INFINITY;
+        }
+
+        /** Gets when the ingredient is expected to run out, or null past the horizon. */
+        public LocalDateTime getStockoutTime() {
+            if (!runsOut()) {
+                return null;
+            }
+            return LocalDateTime.now().plusSeconds(Math.round(hoursToStockout * 3600)).withNano(0);
+        }
+    }
+
+    /** Drinks sold per menu item in a ring of hourly buckets, indexed by hour % WINDOW_HOURS */
+    private final Map<Integer, int[]> drinksByHour = new HashMap<>();
+    /** Newest hour in the ring; older buckets hold the hours before it */
+    private long newestHour = Long.MIN_VALUE;
+    /** First hour any drink was seen, to average over fewer days while history is short */
+    private long firstHour = Long.MAX_VALUE;
+
+    @Override
+    public synchronized void itemAdded(long seconds, int menuItemId, int quantity) {
+        long hour = Math.floorDiv(seconds, 3600);
+        advanceTo(hour);
+        if (hour <= newestHour - WINDOW_HOURS) {
+            return; // older than the window
+        }
+        drinksByHour.computeIfAbsent(menuItemId, k -> new int[WINDOW_HOURS])[bucket(hour)] += quantity;
+        firstHour = Math.min(firstHour, hour);
+    }
+
+    /** Moves the ring forward to an hour, clearing the buckets it reuses. */
+    private void advanceTo(long hour) {
+        if (hour <= newestHour) {
+            return;
+        }
+        if (newestHour == Long.MIN_VALUE || hour - newestHour >= WINDOW_HOURS) {
+            drinksByHour.values().forEach(counts -> Arrays.fill(counts, 0));
+        } else {
+            for (long h = newestHour + 1; h <= hour; h++) {
+                int index = bucket(h);
+                for (int[] counts : drinksByHour.values()) {
+                    counts[index] = 0;
+                }
+            }
+        }
+        newestHour = hour;
+    }
+
+    private static int bucket(long hour) {
+        return (int) Math.floorMod(hour, (long) WINDOW_HOURS);
+    }
+
+    /**
+     * Gets the average drinks sold per hour of the day for each menu item.
+     *
+     * @param nowHour the current hour, so buckets older than the window are dropped
+     * @return rates per menu item, each indexed by hour of day 0-23
+     */
+    private synchronized Map<Integer, double[]> getHourlyRates(long nowHour) {
+        advanceTo(nowHour);
+        Map<Integer, double[]> rates = new HashMap<>();
+        if (firstHour == Long.MAX_VALUE) {
+            return rates;
+        }
+        long oldestHour = Math.max(firstHour, newestHour - WINDOW_HOURS + 1);
+        double days = Math.max(1.0, (newestHour - oldestHour + 1) / 24.0);
+        for (Map.Entry<Integer, int[]> item : drinksByHour.entrySet()) {
+            double[] perHour = new double[24];
+            int[] counts = item.getValue();
+            for (int i = 0; i < WINDOW_HOURS; i++) {
+                perHour[i % 24] += counts[i];
+            }
+            for (int h = 0; h < 24; h++) {
+                perHour[h] /= days;
+            }
+            rates.put(item.getKey(), perHour);
+        }
+        return rates;
+    }
+
+    /**
+     * Forecasts every inventory row, soonest stockout first.
+     *
+     * @param inventory current stock of every ingredient
+     * @param recipes   ingredients used by each menu item
+     * @return one forecast per inventory row
+     * @throws SQLException if the recipes had to be loaded and the load failed
+     */
+    public List<Forecast> forecast(List<Inventory> inventory, RecipeCache recipes) throws SQLException {
+        long nowSeconds = OrderCube.toSeconds(LocalDateTime.now());
+        long nowHour = Math.floorDiv(nowSeconds, 3600);
+
+        // Ingredient use per hour of day = sum over drinks of drink rate * recipe amount
+        Map<Integer, double[]> ingredientRates = new HashMap<>();
+        for (Map.Entry<Integer, double[]> item : getHourlyRates(nowHour).entrySet()) {
+            RecipeCache.Demand recipe = recipes.getRecipe(item.getKey());
+            for (int i = 0; i < recipe.size(); i++) {
+                double[] rate = ingredientRates.computeIfAbsent(recipe.getIngredientIds()[i], k -> new double[24]);
+                int amount = recipe.getQuantities()[i];
+                for (int h = 0; h < 24; h++) {
+                    rate[h] += item.getValue()[h] * amount;
+                }
+            }
+        }
+
+        double hourElapsed = Math.floorMod(nowSeconds, 3600L) / 3600.0;
+        int hourOfDay = (int) Math.floorMod(nowHour, 24L);
+        List<Forecast> forecasts = new ArrayList<>(inventory.size());
+        for (Inventory item : inventory) {
+            double[] rate = ingredientRates.get(item.getIngredientID());
+            if (rate == null) {
+                forecasts.add(new Forecast(item, 0, item.getIngredientCount() <= 0 ? 0 : Double.POSITIVE_INFINITY));
+                continue;
+            }
+            double daily = 0;
+            for (double r : rate) {
+                daily += r;
+            }
+            forecasts.add(new Forecast(item, daily,
+                    hoursToStockout(item.getIngredientCount(), rate, hourOfDay, hourElapsed)));
+        }
+        forecasts.sort(Comparator.comparingDouble(Forecast::getHoursToStockout)
+                .thenComparing(f -> f.getItem().getIngredientName()));
+        return forecasts;
+    }
+
+    /** Uses up stock hour by hour from now, starting partway into the current hour. */
+    private static double hoursToStockout(double stock, double[] rate, int hourOfDay, double hourElapsed) {
+        if (stock <= 0) {
+            return 0;
+        }
+        double hours = 0;
+        double fraction = 1 - hourElapsed;
+        int h = hourOfDay;
+        while (hours < HORIZON_HOURS) {
+            double use = rate[h] * fraction;
+            if (use >= stock) {
+                return hours + fraction * stock / use;
+            }
+            stock -= use;
+            hours += fraction;
+            fraction = 1;
+            h = (h + 1) % 24;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,95 @@
+package New_Additions;
+
+/**
+ * InventoryShortfall describes one ingredient that does not have enough stock
+ * to cover an order.
+ *
+ * Shortfalls are produced by the set-based inventory check in DatabaseManager,
+ * which adds up the demand of every drink in the order before comparing it to
+ * the Inventory table. An ingredient that is used by a recipe but missing from
+ * Inventory is reported with an available count of 0.
+ */
+public class InventoryShortfall {
+    /** The ID of the ingredient that is short */
+    private final int ingredientID;
+
+    /** The name of the ingredient, or null if it is missing from inventory */
+    private final String ingredientName;
+
+    /** How much of the ingredient is currently in stock */
+    private final int available;
+
+    /** How much of the ingredient the whole order needs */
+    private final int required;
+
+    /**
+     * Constructs a new shortfall.
+     *
+     * @param ingredientID   the ingredient that is short
+     * @param ingredientName the ingredient name, or null if not in inventory
+     * @param available      the amount currently in stock
+     * @param required       the amount the order needs
+     */
+    public InventoryShortfall(int ingredientID, String ingredientName, int available, int required) {
+        this.ingredientID = ingredientID;
+        this.ingredientName = ingredientName;
+        this.available = available;
+        this.required = required;
+    }
+
+    /**
+     * Gets the ingredient ID.
+     *
+     * @return the ingredient ID
+     */
+    public int getIngredientID() {
+        return ingredientID;
+    }
+
+    /**
+     * Gets the ingredient name.
+     *
+     * @return the ingredient name, or null if the ingredient is not in inventory
+     */
+    public String getIngredientName() {
+        return ingredientName;
+    }
+
+    /**
+     * Gets the amount currently in stock.
+     *
+     * @return the available amount
+     */
+    public int getAvailable() {
+        return available;
+    }
+
+    /**
+     * Gets the amount the order needs.
+     *
+     * @return the required amount
+     */
+    public int getRequired() {
+        return required;
+    }
+
+    /**
+     * Gets how much more stock would be needed to fill the order.
+     *
+     * @return required minus available
+     */
+    public int getMissing() {
+        return required - available;
+    }
+
+    /**
+     * Returns a string representation of the shortfall.
+     *
+     * @return string with the ingredient and its available and required amounts
+     */
+    @Override
+    public String toString() {
+        String name = ingredientName != null ? ingredientName : "Ingredient #" + ingredientID;
+        return name + " (Available: " + available + ", Required: " + required + ")";
+    }
+}
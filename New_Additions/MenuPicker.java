@@ -0,0 +1,287 @@
+package New_Additions;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.GridLayout;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * MenuPicker is the menu side of a cashier screen: a search box, the
+ * matching menu items and an Add to Order button, plus a grid of quick keys
+ * for the best sellers that the screen places where it likes.
+ *
+ * Typing searches a {@link MenuSearchIndex} on every keystroke. Up and Down
+ * move through the matches, Enter adds the highlighted one and clears the
+ * search for the next drink, and Escape clears the search. The time from
+ * the first keystroke of a search to the add is recorded, as is the time
+ * each search takes, so slow lookups or awkward entry show up in the
+ * summary. Use from the event dispatch thread.
+ *
+ * @param <T> the menu item class
+ */
+public class MenuPicker<T> extends JPanel {
+
+    /** Most matches listed while searching */
+    private static final int MAX_RESULTS = 50;
+
+    /** Shortest time between quick key rearrangements, so keys do not move under the cashier */
+    private static final long QUICK_KEY_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private final Function<T, String> categoryOf;
+    private final Consumer<T> onAdd;
+    private final int quickKeyCount;
+
+    private final JTextField searchField = new JTextField();
+    private final DefaultListModel<T> resultModel = new DefaultListModel<>();
+    private final JList<T> resultList = new JList<>(resultModel);
+    private final JPanel quickKeyPanel = new JPanel(new GridLayout(0, 3, 5, 5));
+
+    private MenuSearchIndex<T> index;
+    /** Units sold by menu item ID, kept so a reloaded menu keeps its ranking */
+    private final Map<Integer, Long> salesCounts = new HashMap<>();
+    private long quickKeysBuiltMillis;
+    /** When the first key of the current search was typed, or 0 */
+    private long searchStartNanos;
+    /** Milliseconds from first keystroke to add */
+    private final QuantileSketch keystrokeToAdd = new QuantileSketch();
+    /** Microseconds per search */
+    private final QuantileSketch searchTime = new QuantileSketch();
+
+    /**
+     * Creates an empty picker. Call {@link #setItems(List)} to fill it.
+     *
+     * @param idOf          gets an item's menu item ID
+     * @param nameOf        gets an item's name
+     * @param categoryOf    gets an item's category, or null if it has none
+     * @param labelOf       gets the text shown for an item in the list
+     * @param onAdd         adds an item to the order; given null if Add is
+     *                      pressed with nothing highlighted
+     * @param quickKeyCount how many best sellers get a quick key
+     */
+    public MenuPicker(ToIntFunction<T> idOf, Function<T, String> nameOf, Function<T, String> categoryOf,
+            Function<T, String> labelOf, Consumer<T> onAdd, int quickKeyCount) {
+        super(new BorderLayout(5, 5));
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.categoryOf = categoryOf;
+        this.onAdd = onAdd;
+        this.quickKeyCount = quickKeyCount;
+        this.index = new MenuSearchIndex<>(List.of(), idOf, nameOf, categoryOf);
+
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchField.setFont(new Font("Arial", Font.PLAIN, 14));
+        searchField.setToolTipText("Type part of a name or category; Enter adds the highlighted item");
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        add(searchPanel, BorderLayout.NORTH);
+
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        resultList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list, labelOf.apply((T) value), index, isSelected,
+                        cellHasFocus);
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    addSelected();
+                }
+            }
+        });
+        add(new JScrollPane(resultList), BorderLayout.CENTER);
+
+        JButton addButton = new JButton("Add to Order");
+        addButton.setFont(new Font("Arial", Font.BOLD, 14));
+        addButton.addActionListener(e -> addSelected());
+        add(addButton, BorderLayout.SOUTH);
+
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchChanged();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchChanged();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchChanged();
+            }
+        });
+        searchField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> moveSelection(1);
+                    case KeyEvent.VK_UP -> moveSelection(-1);
+                    case KeyEvent.VK_ENTER -> addSelected();
+                    case KeyEvent.VK_ESCAPE -> searchField.setText("");
+                    default -> {
+                        return;
+                    }
+                }
+                e.consume();
+            }
+        });
+    }
+
+    /**
+     * Replaces the menu, keeping any sales counts already loaded for items
+     * still on it.
+     *
+     * @param items the menu, in the order shown when nothing is typed
+     */
+    public void setItems(List<T> items) {
+        index = new MenuSearchIndex<>(items, idOf, nameOf, categoryOf);
+        index.setSalesCounts(salesCounts);
+        showResults(items);
+        rebuildQuickKeys();
+    }
+
+    /**
+     * Sets recent sales per menu item and rearranges the quick keys to match.
+     *
+     * @param counts units sold by menu item ID
+     */
+    public void setSalesCounts(Map<Integer, Long> counts) {
+        salesCounts.clear();
+        salesCounts.putAll(counts);
+        index.setSalesCounts(salesCounts);
+        rebuildQuickKeys();
+    }
+
+    /**
+     * Counts a sale toward the quick key ranking. The keys are rearranged at
+     * most every {@value #QUICK_KEY_REFRESH_MILLIS} ms.
+     *
+     * @param menuItemId the item sold
+     * @param quantity   how many were sold
+     */
+    public void recordSale(int menuItemId, int quantity) {
+        salesCounts.merge(menuItemId, (long) quantity, Long::sum);
+        index.addSale(menuItemId, quantity);
+        if (System.currentTimeMillis() - quickKeysBuiltMillis >= QUICK_KEY_REFRESH_MILLIS) {
+            rebuildQuickKeys();
+        }
+    }
+
+    /** Gets the grid of best seller keys, for the screen to place. */
+    public JPanel getQuickKeyPanel() {
+        return quickKeyPanel;
+    }
+
+    /** Puts the keyboard focus in the search box. */
+    public void focusSearch() {
+        searchField.requestFocusInWindow();
+    }
+
+    /**
+     * Gets a summary of how quickly items are found and added.
+     *
+     * @return human readable latencies
+     */
+    public String getLatencySummary() {
+        return String.format("type-to-add: %d adds, p50 %.0f ms, p90 %.0f ms; search: %d lookups, p50 %.0f us, p99 %.0f us",
+                keystrokeToAdd.getCount(), keystrokeToAdd.getQuantile(0.5), keystrokeToAdd.getQuantile(0.9),
+                searchTime.getCount(), searchTime.getQuantile(0.5), searchTime.getQuantile(0.99));
+    }
+
+    private void searchChanged() {
+        String query = searchField.getText();
+        if (query.isBlank()) {
+            searchStartNanos = 0;
+        } else if (searchStartNanos == 0) {
+            searchStartNanos = System.nanoTime();
+        }
+        long start = System.nanoTime();
+        List<T> matches = index.search(query, query.isBlank() ? Integer.MAX_VALUE : MAX_RESULTS);
+        searchTime.add((System.nanoTime() - start) / 1_000.0);
+        showResults(matches);
+    }
+
+    private void showResults(List<T> matches) {
+        resultModel.clear();
+        resultModel.addAll(matches);
+        if (!matches.isEmpty()) {
+            resultList.setSelectedIndex(0);
+            resultList.ensureIndexIsVisible(0);
+        }
+    }
+
+    private void moveSelection(int step) {
+        int size = resultModel.getSize();
+        if (size > 0) {
+            int selected = Math.max(0, Math.min(size - 1, resultList.getSelectedIndex() + step));
+            resultList.setSelectedIndex(selected);
+            resultList.ensureIndexIsVisible(selected);
+        }
+    }
+
+    /** Adds the highlighted item, recording the latency if it was found by typing. */
+    private void addSelected() {
+        T item = resultList.getSelectedValue();
+        if (item == null) {
+            onAdd.accept(null);
+            return;
+        }
+        if (searchStartNanos != 0) {
+            keystrokeToAdd.add((System.nanoTime() - searchStartNanos) / 1_000_000.0);
+        }
+        onAdd.accept(item);
+        if (!searchField.getText().isEmpty()) {
+            searchField.setText("");
+            searchField.requestFocusInWindow();
+        }
+    }
+
+    private void rebuildQuickKeys() {
+        quickKeyPanel.removeAll();
+        for (T item : index.getBestSellers(quickKeyCount)) {
+            JButton key = new JButton("<html><center>" + escape(nameOf.apply(item)) + "</center></html>");
+            key.setFont(new Font("Arial", Font.PLAIN, 11));
+            key.setToolTipText(nameOf.apply(item));
+            key.addActionListener(e -> onAdd.accept(item));
+            quickKeyPanel.add(key);
+        }
+        quickKeyPanel.revalidate();
+        quickKeyPanel.repaint();
+        quickKeysBuiltMillis = System.currentTimeMillis();
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,286 @@
+package New_Additions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * MenuSearchIndex finds menu items by the start of any word of their name
+ * or category, so "tar", "taro" or "milk ta" all find Taro Milk Tea.
+ *
+ * Every word is stored in a prefix trie whose nodes list the items with a
+ * word starting that way, so an exact lookup costs one step per typed
+ * letter. Words of three letters or more also match with a typo (two typos
+ * from seven letters), found by walking the trie with an edit distance row
+ * per node and cutting off branches that are already too far away. Items
+ * must match every typed word; exact matches rank before typo matches, then
+ * best sellers first, then menu order.
+ *
+ * Build a new index when the menu changes. Sales counts can be updated in
+ * place. Use from one thread at a time, normally the event thread.
+ *
+ * @param <T> the menu item class
+ */
+public class MenuSearchIndex<T> {
+
+    /** One letter of the trie. */
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        /** Items with a word starting with this node's prefix, ascending */
+        int[] items = new int[0];
+        int itemCount;
+
+        Node child(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char key) {
+            Node child = child(key);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        void addItem(int item) {
+            if (itemCount > 0 && items[itemCount - 1] == item) {
+                return; // two words of one item share this prefix
+            }
+            if (itemCount == items.length) {
+                items = Arrays.copyOf(items, Math.max(4, itemCount * 2));
+            }
+            items[itemCount++] = item;
+        }
+
+        void trim() {
+            items = Arrays.copyOf(items, itemCount);
+            for (Node child : children) {
+                child.trim();
+            }
+        }
+    }
+
+    private final List<T> items;
+    private final int[] ids;
+    private final Node root = new Node();
+    private final long[] sales;
+
+    /**
+     * Indexes a menu.
+     *
+     * @param items      the menu, in the order shown when nothing is typed
+     * @param idOf       gets an item's menu item ID
+     * @param nameOf     gets an item's name
+     * @param categoryOf gets an item's category, or null if it has none
+     */
+    public MenuSearchIndex(List<T> items, ToIntFunction<T> idOf, Function<T, String> nameOf,
+            Function<T, String> categoryOf) {
+        this.items = List.copyOf(items);
+        this.ids = new int[items.size()];
+        this.sales = new long[items.size()];
+        for (int i = 0; i < ids.length; i++) {
+            T item = this.items.get(i);
+            ids[i] = idOf.applyAsInt(item);
+            String category = categoryOf.apply(item);
+            for (String word : words(nameOf.apply(item) + " " + (category == null ? "" : category))) {
+                Node node = root;
+                for (int c = 0; c < word.length(); c++) {
+                    node = node.addChild(word.charAt(c));
+                    node.addItem(i);
+                }
+            }
+        }
+        root.trim();
+    }
+
+    /**
+     * Sets how many of each item have sold, for ranking matches and picking
+     * best sellers. Items missing from the map count as no sales.
+     *
+     * @param counts units sold by menu item ID
+     */
+    public void setSalesCounts(Map<Integer, Long> counts) {
+        for (int i = 0; i < ids.length; i++) {
+            sales[i] = counts.getOrDefault(ids[i], 0L);
+        }
+    }
+
+    /**
+     * Adds sales of one item to its count.
+     *
+     * @param menuItemId the item sold
+     * @param quantity   how many were sold
+     */
+    public void addSale(int menuItemId, int quantity) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == menuItemId) {
+                sales[i] += quantity;
+            }
+        }
+    }
+
+    /** Gets every item, in menu order. */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Finds the items matching what was typed, best match first.
+     *
+     * @param query the words typed; blank matches the whole menu
+     * @param limit the most items to return
+     * @return the matching items, or the whole menu in menu order for a blank query
+     */
+    public List<T> search(String query, int limit) {
+        String[] words = words(query);
+        if (words.length == 0) {
+            return items.subList(0, Math.min(limit, items.size()));
+        }
+
+        // Edits needed per item, summed over the typed words; -1 once a word misses
+        int[] edits = null;
+        for (String word : words) {
+            int[] wordEdits = new int[items.size()];
+            Arrays.fill(wordEdits, Integer.MAX_VALUE);
+            int maxEdits = word.length() >= 7 ? 2 : word.length() >= 3 ? 1 : 0;
+            if (maxEdits == 0) {
+                Node node = find(word);
+                if (node != null) {
+                    for (int i = 0; i < node.itemCount; i++) {
+                        wordEdits[node.items[i]] = 0;
+                    }
+                }
+            } else {
+                int[] firstRow = new int[word.length() + 1];
+                for (int c = 0; c < firstRow.length; c++) {
+                    firstRow[c] = c;
+                }
+                fuzzy(root, word, (char) 0, null, firstRow, maxEdits, wordEdits);
+            }
+
+            if (edits == null) {
+                edits = wordEdits;
+                for (int i = 0; i < edits.length; i++) {
+                    if (edits[i] == Integer.MAX_VALUE) {
+                        edits[i] = -1;
+                    }
+                }
+            } else {
+                for (int i = 0; i < edits.length; i++) {
+                    edits[i] = edits[i] < 0 || wordEdits[i] == Integer.MAX_VALUE ? -1 : edits[i] + wordEdits[i];
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < edits.length; i++) {
+            if (edits[i] >= 0) {
+                matches.add(i);
+            }
+        }
+        int[] total = edits;
+        matches.sort(Comparator.<Integer>comparingInt(i -> total[i])
+                .thenComparingLong(i -> -sales[i])
+                .thenComparingInt(i -> i));
+
+        List<T> result = new ArrayList<>(Math.min(limit, matches.size()));
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            result.add(items.get(matches.get(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Gets the best sellers, for quick keys. Items with equal sales keep
+     * their menu order, so an unsold menu gives its first items.
+     *
+     * @param count the most items to return
+     * @return the best sellers, best first
+     */
+    public List<T> getBestSellers(int count) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.<Integer>comparingLong(i -> -sales[i]).thenComparingInt(i -> i));
+        List<T> best = new ArrayList<>();
+        for (int i = 0; i < order.size() && i < count; i++) {
+            best.add(items.get(order.get(i)));
+        }
+        return best;
+    }
+
+    /** Follows a word down the trie exactly. */
+    private Node find(String word) {
+        Node node = root;
+        for (int c = 0; c < word.length() && node != null; c++) {
+            node = node.child(word.charAt(c));
+        }
+        return node;
+    }
+
+    /**
+     * Visits the children of a node with the edit distance row of the node's
+     * prefix against the typed word, counting a swap of two neighbouring
+     * letters as one edit. A child whose row ends within the limit is a
+     * prefix that matches the word; a child whose whole row is over the
+     * limit cannot lead to one.
+     *
+     * @param last   the node's own letter, for spotting swaps
+     * @param oldRow the row of the node's parent, or null at the root
+     * @param row    the row of the node
+     */
+    private static void fuzzy(Node node, String word, char last, int[] oldRow, int[] row, int maxEdits,
+            int[] edits) {
+        for (int k = 0; k < node.keys.length; k++) {
+            char key = node.keys[k];
+            int[] next = new int[row.length];
+            next[0] = row[0] + 1;
+            int best = next[0];
+            for (int c = 1; c < row.length; c++) {
+                int substitute = row[c - 1] + (word.charAt(c - 1) == key ? 0 : 1);
+                next[c] = Math.min(substitute, Math.min(row[c] + 1, next[c - 1] + 1));
+                if (oldRow != null && c > 1 && word.charAt(c - 1) == last && word.charAt(c - 2) == key) {
+                    next[c] = Math.min(next[c], oldRow[c - 2] + 1);
+                }
+                best = Math.min(best, next[c]);
+            }
+            if (best > maxEdits) {
+                continue;
+            }
+            Node child = node.children[k];
+            int distance = next[row.length - 1];
+            if (distance <= maxEdits) {
+                for (int i = 0; i < child.itemCount; i++) {
+                    int item = child.items[i];
+                    edits[item] = Math.min(edits[item], distance);
+                }
+            }
+            fuzzy(child, word, key, row, next, maxEdits, edits);
+        }
+    }
+
+    /** Splits text into lower case words of letters and digits. */
+    private static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase().split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+}
@@ -327,6 +327,42 @@ public class MockDataProvider {
         return new ArrayList<>(orders);
     }
 
+    /**
+     * Retrieves one page of mock orders, newest first, after the given order.
+     * 
+     * @param after    the last order of the previous page, or null for the first page
+     * @param pageSize the most orders to return
+     * @return the next page of orders
+     */
+    public List<Order> getOrdersPage(Order after, int pageSize) {
+        Comparator<Order> newestFirst = Comparator.comparing(Order::getTimeOfOrder)
+                .thenComparingInt(Order::getOrderID).reversed();
+        List<Order> page = new ArrayList<>();
+        for (Order order : orders.stream().sorted(newestFirst).toList()) {
+            if (after != null && newestFirst.compare(order, after) <= 0) {
+                continue;
+            }
+            if (page.size() == pageSize) {
+                break;
+            }
+            page.add(order);
+        }
+        return page;
+    }
+
+    /**
+     * Totals units sold per menu item across the mock orders.
+     * 
+     * @return units sold by menu item ID
+     */
+    public Map<Integer, Long> getMenuItemSales() {
+        Map<Integer, Long> sales = new HashMap<>();
+        for (OrderItem item : orderItems) {
+            sales.merge(item.getMenuItemID(), (long) item.getQuantity(), Long::sum);
+        }
+        return sales;
+    }
+
     /**
      * Retrieves product usage data for charts and analytics.
      * 
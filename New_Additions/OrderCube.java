@@ -0,0 +1,859 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+
+/**
+ * OrderCube holds the order history in memory as primitive column arrays so
+ * manager reports can be answered without going back to the database.
+ *
+ * Orders are stored one row per order (time, customer, employee, total in
+ * cents and number of drinks) and order items one row per line (owning order, menu item,
+ * quantity, sugar and ice level). Times are wall-clock seconds since
+ * 1970-01-01, matching the TIMESTAMP column, so hour-of-day and date buckets
+ * need no time zone lookups.
+ *
+ * The cube is loaded once, then kept current by {@link #append} for orders
+ * this process saves and by {@link #refresh()} for orders saved by other
+ * terminals. Columns only ever grow; queries work on an immutable view of the
+ * rows present when they started, so they never block appends. Each query is
+ * a fork-join scan split into chunks of {@value #SCAN_CHUNK} rows.
+ *
+ * Structures that track sales incrementally register an {@link ItemListener}
+ * or {@link OrderListener} and are told about every order item or order as it
+ * enters the cube.
+ */
+public class OrderCube {
+
+    /** Rows scanned by one fork-join leaf task */
+    private static final int SCAN_CHUNK = 1 << 16;
+
+    /**
+     * How far below the newest order ID held refresh() looks for orders
+     * committed late by other terminals: 100 blocks of order IDs, since
+     * another terminal may still be serving an older block
+     */
+    private static final int REFRESH_LOOKBACK_IDS = 5_000;
+
+    private static final String LOAD_ORDERS_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost "
+            + "FROM orders ORDER BY orderid";
+    private static final String LOAD_ITEMS_SQL = "SELECT orderid, menuitemid, quantity, sugarlevel, icelevel "
+            + "FROM orderitems ORDER BY orderid";
+    private static final String RECENT_ORDERS_SQL = "SELECT orderid, timeoforder, customerid, employeeid, totalcost "
+            + "FROM orders WHERE orderid > ? ORDER BY orderid";
+    private static final String ITEMS_FOR_ORDERS_SQL = "SELECT orderid, menuitemid, quantity, sugarlevel, icelevel "
+            + "FROM orderitems WHERE orderid = ANY (?)";
+
+    /** An order read by refresh(), held until it is added under the lock. */
+    private static final class FetchedOrder {
+        final int id;
+        final Timestamp time;
+        final Integer customerId;
+        final int employeeId;
+        final double totalCost;
+        /** Menu item, quantity, sugar level and ice level of each item */
+        final List<int[]> items = new ArrayList<>();
+
+        FetchedOrder(ResultSet rs) throws SQLException {
+            this.id = rs.getInt("orderid");
+            this.time = rs.getTimestamp("timeoforder");
+            this.customerId = rs.getObject("customerid", Integer.class);
+            this.employeeId = rs.getInt("employeeid");
+            this.totalCost = rs.getDouble("totalcost");
+        }
+    }
+
+    /** Rows fetched per round trip while loading */
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    /**
+     * Told about every order item added to the cube. Called while the cube is
+     * locked, so implementations must be quick and must not query the cube.
+     */
+    public interface ItemListener {
+        /**
+         * @param seconds    when the order was placed, in wall-clock seconds
+         * @param menuItemId the menu item ordered
+         * @param quantity   how many were ordered
+         */
+        void itemAdded(long seconds, int menuItemId, int quantity);
+    }
+
+    /**
+     * Told about every order added to the cube. Called while the cube is
+     * locked, so implementations must be quick and must not query the cube.
+     */
+    public interface OrderListener {
+        /**
+         * @param seconds    when the order was placed, in wall-clock seconds
+         * @param customerId the customer, or -1 for a walk-in order
+         * @param employeeId the employee who took the order
+         * @param totalCents the order total in cents
+         */
+        void orderAdded(long seconds, int customerId, int employeeId, int totalCents);
+    }
+
+    /** What a breakdown groups rows by. */
+    public enum Dimension {
+        /** Hour the order was placed, 0-23 */
+        HOUR_OF_DAY(false),
+        /** ISO day of week the order was placed, 1 (Monday) to 7 (Sunday) */
+        DAY_OF_WEEK(false),
+        /** Day the order was placed, as days since 1970-01-01 */
+        DATE(false),
+        /** Employee who took the order */
+        EMPLOYEE(false),
+        /** Menu item ordered; counts are order lines */
+        MENU_ITEM(true),
+        /** Sugar level of the drink; counts are order lines */
+        SUGAR_LEVEL(true),
+        /** Ice level of the drink; counts are order lines */
+        ICE_LEVEL(true);
+
+        private final boolean itemLevel;
+
+        Dimension(boolean itemLevel) {
+            this.itemLevel = itemLevel;
+        }
+
+        /** Whether this dimension groups order items rather than orders. */
+        public boolean isItemLevel() {
+            return itemLevel;
+        }
+    }
+
+    /**
+     * Totals per group, sorted by key. Item-level breakdowns have no revenue,
+     * since the stored order total is not split between its drinks.
+     */
+    public static class Breakdown {
+        private final int[] keys;
+        private final long[] counts;
+        private final long[] quantities;
+        private final long[] revenueCents;
+
+        Breakdown(int[] keys, long[] counts, long[] quantities, long[] revenueCents) {
+            this.keys = keys;
+            this.counts = counts;
+            this.quantities = quantities;
+            this.revenueCents = revenueCents;
+        }
+
+        /** Gets the number of non-empty groups. */
+        public int size() {
+            return keys.length;
+        }
+
+        /** Gets the key of a group, in the units of its dimension. */
+        public int getKey(int group) {
+            return keys[group];
+        }
+
+        /** Gets the number of orders (or order lines) in a group. */
+        public long getCount(int group) {
+            return counts[group];
+        }
+
+        /** Gets the number of drinks in a group. */
+        public long getQuantity(int group) {
+            return quantities[group];
+        }
+
+        /** Gets the revenue of a group in cents. */
+        public long getRevenueCents(int group) {
+            return revenueCents[group];
+        }
+
+        /** Gets the revenue of a group in dollars. */
+        public double getRevenue(int group) {
+            return revenueCents[group] / 100.0;
+        }
+
+        /** Gets the number of orders (or order lines) across all groups. */
+        public long getTotalCount() {
+            return Arrays.stream(counts).sum();
+        }
+
+        /** Gets the number of drinks across all groups. */
+        public long getTotalQuantity() {
+            return Arrays.stream(quantities).sum();
+        }
+
+        /** Gets the revenue across all groups in dollars. */
+        public double getTotalRevenue() {
+            return Arrays.stream(revenueCents).sum() / 100.0;
+        }
+
+        /**
+         * Gets the group indexes ordered by drinks sold, largest first.
+         *
+         * @param limit the most groups to return
+         * @return group indexes usable with the getters above
+         */
+        public int[] topByQuantity(int limit) {
+            return IntStream.range(0, keys.length).boxed()
+                    .sorted((a, b) -> Long.compare(quantities[b], quantities[a]))
+                    .limit(limit).mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Orders and revenue in equally sized time buckets, in time order. Only
+     * buckets with orders are held, plus an empty bucket at each edge of a
+     * run of empty ones, so a chart drops to zero across the gap without a
+     * point for every empty bucket.
+     */
+    public static class Series {
+        private final int bucketSeconds;
+        private final long[] times;
+        private final long[] counts;
+        private final long[] revenueCents;
+
+        Series(int bucketSeconds, long[] times, long[] counts, long[] revenueCents) {
+            this.bucketSeconds = bucketSeconds;
+            this.times = times;
+            this.counts = counts;
+            this.revenueCents = revenueCents;
+        }
+
+        /** Gets the number of buckets. */
+        public int size() {
+            return counts.length;
+        }
+
+        /** Gets when a bucket starts, in wall-clock seconds. */
+        public long getTime(int bucket) {
+            return times[bucket];
+        }
+
+        /** Gets the width of every bucket in seconds. */
+        public int getBucketSeconds() {
+            return bucketSeconds;
+        }
+
+        /** Gets the number of orders in a bucket. */
+        public long getCount(int bucket) {
+            return counts[bucket];
+        }
+
+        /** Gets the revenue of a bucket in dollars. */
+        public double getRevenue(int bucket) {
+            return revenueCents[bucket] / 100.0;
+        }
+    }
+
+    /** Immutable view of the first orderCount / itemCount rows of the columns. */
+    private static final class Columns {
+        final long[] orderTime;
+        final int[] orderEmployee;
+        final int[] orderCents;
+        final int[] orderDrinks;
+        final int orderCount;
+        final int[] itemOrder;
+        final int[] itemMenuItem;
+        final int[] itemQuantity;
+        final byte[] itemSugar;
+        final byte[] itemIce;
+        final int itemCount;
+        /** Exclusive upper bounds of the small integer dimensions */
+        final int employeeBound;
+        final int menuItemBound;
+        final int levelBound;
+        final long minDay;
+        final long maxDay;
+
+        Columns(OrderCube cube) {
+            this.orderTime = cube.orderTime;
+            this.orderEmployee = cube.orderEmployee;
+            this.orderCents = cube.orderCents;
+            this.orderDrinks = cube.orderDrinks;
+            this.orderCount = cube.orderCount;
+            this.itemOrder = cube.itemOrder;
+            this.itemMenuItem = cube.itemMenuItem;
+            this.itemQuantity = cube.itemQuantity;
+            this.itemSugar = cube.itemSugar;
+            this.itemIce = cube.itemIce;
+            this.itemCount = cube.itemCount;
+            this.employeeBound = cube.employeeBound;
+            this.menuItemBound = cube.menuItemBound;
+            this.levelBound = cube.levelBound;
+            this.minDay = cube.minDay;
+            this.maxDay = cube.maxDay;
+        }
+    }
+
+    private final DataSource dataSource;
+
+    // Growable columns, written only while holding the cube's lock
+    private int[] orderId = new int[1024];
+    private long[] orderTime = new long[1024];
+    private int[] orderEmployee = new int[1024];
+    private int[] orderCustomer = new int[1024];
+    private int[] orderCents = new int[1024];
+    private int[] orderDrinks = new int[1024];
+    private int orderCount;
+    private int[] itemOrder = new int[4096];
+    private int[] itemMenuItem = new int[4096];
+    private int[] itemQuantity = new int[4096];
+    private byte[] itemSugar = new byte[4096];
+    private byte[] itemIce = new byte[4096];
+    private int itemCount;
+    private int employeeBound;
+    private int menuItemBound;
+    private int levelBound;
+    private long minDay = Long.MAX_VALUE;
+    private long maxDay = Long.MIN_VALUE;
+
+    /** Order IDs already in the cube */
+    private final BitSet loadedIds = new BitSet();
+    /** Notified of every item added */
+    private final List<ItemListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<OrderListener> orderListeners = new CopyOnWriteArrayList<>();
+    private long lastRefreshMillis;
+    /** How long the initial load took */
+    private long loadMillis;
+
+    /** Snapshot handed to queries; replaced after every change */
+    private volatile Columns columns = new Columns(this);
+
+    private OrderCube(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Loads every order and order item into a new cube.
+     *
+     * @param dataSource where to read orders from, and later refresh them
+     * @return the loaded cube
+     * @throws SQLException if the orders cannot be read
+     */
+    public static OrderCube load(DataSource dataSource) throws SQLException {
+        OrderCube cube = new OrderCube(dataSource);
+        long start = System.nanoTime();
+
+        try (Connection conn = dataSource.getConnection()) {
+            // Cursor-based fetching only works inside a transaction
+            conn.setAutoCommit(false);
+            synchronized (cube) {
+                try (PreparedStatement stmt = conn.prepareStatement(LOAD_ORDERS_SQL)) {
+                    stmt.setFetchSize(LOAD_FETCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            cube.addOrder(rs.getInt("orderid"), rs.getTimestamp("timeoforder"),
+                                    rs.getObject("customerid", Integer.class), rs.getInt("employeeid"),
+                                    rs.getDouble("totalcost"));
+                        }
+                    }
+                }
+
+                // Orders were read in ID order, so items (also in order ID order)
+                // are matched to their order with a merge instead of a lookup
+                try (PreparedStatement stmt = conn.prepareStatement(LOAD_ITEMS_SQL)) {
+                    stmt.setFetchSize(LOAD_FETCH_SIZE);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        int index = 0;
+                        while (rs.next()) {
+                            int id = rs.getInt("orderid");
+                            while (index < cube.orderCount && cube.orderId[index] < id) {
+                                index++;
+                            }
+                            if (index < cube.orderCount && cube.orderId[index] == id) {
+                                cube.addItem(index, rs);
+                            }
+                        }
+                    }
+                }
+                cube.lastRefreshMillis = System.currentTimeMillis();
+                cube.loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                cube.publish();
+            }
+        }
+        return cube;
+    }
+
+    /**
+     * Adds an order this process has just committed. Orders already in the
+     * cube are ignored.
+     *
+     * @param order the saved order, with its ID set
+     * @param items the items of the order
+     */
+    public synchronized void append(Order order, List<OrderItem> items) {
+        if (loadedIds.get(order.getOrderID())) {
+            return;
+        }
+        int index = addOrder(order.getOrderID(), order.getTimeOfOrder(), order.getCustomerID(),
+                order.getEmployeeID(), order.getTotalCost());
+        for (OrderItem item : items) {
+            addItem(index, item.getMenuItemID(), item.getQuantity(), item.getSugarLevel(), item.getIceLevel());
+        }
+        publish();
+    }
+
+    /**
+     * Pulls in orders saved by other terminals since the last load. Reads
+     * every order above the newest ID held less {@value #REFRESH_LOOKBACK_IDS},
+     * skipping those already held, since IDs are handed out in blocks and do
+     * not arrive in order. The database is read without holding the cube's
+     * lock, so appends and listener registration are not held up by it.
+     *
+     * @return the number of orders added
+     * @throws SQLException if the orders cannot be read
+     */
+    public int refresh() throws SQLException {
+        int fromId;
+        synchronized (this) {
+            // Counted from the attempt, so a database outage is not retried on every query
+            lastRefreshMillis = System.currentTimeMillis();
+            fromId = loadedIds.length() - 1 - REFRESH_LOOKBACK_IDS;
+        }
+
+        Map<Integer, FetchedOrder> fetched = new HashMap<>();
+        List<FetchedOrder> inIdOrder = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(RECENT_ORDERS_SQL)) {
+                stmt.setInt(1, fromId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        int id = rs.getInt("orderid");
+                        if (!contains(id)) {
+                            FetchedOrder order = new FetchedOrder(rs);
+                            fetched.put(id, order);
+                            inIdOrder.add(order);
+                        }
+                    }
+                }
+            }
+
+            if (!fetched.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(ITEMS_FOR_ORDERS_SQL)) {
+                    stmt.setArray(1, conn.createArrayOf("integer", fetched.keySet().toArray()));
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            fetched.get(rs.getInt("orderid")).items.add(new int[] {
+                                    rs.getInt("menuitemid"), rs.getInt("quantity"),
+                                    rs.getObject("sugarlevel") == null ? -1 : rs.getInt("sugarlevel"),
+                                    rs.getObject("icelevel") == null ? -1 : rs.getInt("icelevel") });
+                        }
+                    }
+                }
+            }
+        }
+
+        int added = 0;
+        synchronized (this) {
+            for (FetchedOrder order : inIdOrder) {
+                // This process may have appended it, or another refresh added it, meanwhile
+                if (loadedIds.get(order.id)) {
+                    continue;
+                }
+                int index = addOrder(order.id, order.time, order.customerId, order.employeeId, order.totalCost);
+                for (int[] item : order.items) {
+                    addItem(index, item[0], item[1], item[2], item[3]);
+                }
+                added++;
+            }
+            if (added > 0) {
+                publish();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Registers a listener. It is first told about every item already in the
+     * cube, then about each new item as it arrives.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addItemListener(ItemListener listener) {
+        for (int i = 0; i < itemCount; i++) {
+            listener.itemAdded(orderTime[itemOrder[i]], itemMenuItem[i], itemQuantity[i]);
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers an order listener. It is first told about every order already
+     * in the cube, then about each new order as it arrives.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addOrderListener(OrderListener listener) {
+        replayOrders(listener);
+        orderListeners.add(listener);
+    }
+
+    /**
+     * Hands every order already held to a listener, without registering it
+     * for later orders. Callers that also need to reset the listener's state
+     * can hold the cube's lock around both, so no order arrives in between.
+     *
+     * @param listener receives the orders held so far
+     */
+    public synchronized void replayOrders(OrderListener listener) {
+        for (int i = 0; i < orderCount; i++) {
+            listener.orderAdded(orderTime[i], orderCustomer[i], orderEmployee[i], orderCents[i]);
+        }
+    }
+
+    /**
+     * Gets how long ago the cube last synced with the database.
+     *
+     * @return milliseconds since the last load or refresh attempt
+     */
+    public synchronized long getMillisSinceRefresh() {
+        return System.currentTimeMillis() - lastRefreshMillis;
+    }
+
+    /**
+     * Checks whether an order is already held, such as one this process
+     * appended itself.
+     *
+     * @param orderId the order ID
+     * @return true if the order is in the cube
+     */
+    public synchronized boolean contains(int orderId) {
+        return orderId >= 0 && loadedIds.get(orderId);
+    }
+
+    /** Gets the number of orders held. */
+    public int getOrderCount() {
+        return columns.orderCount;
+    }
+
+    /** Gets the number of order items held. */
+    public int getItemCount() {
+        return columns.itemCount;
+    }
+
+    /**
+     * Gets how long the initial load of every order took.
+     *
+     * @return load time in ms
+     */
+    public synchronized long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Gets a one-line summary of the cube's size and load time.
+     *
+     * @return human readable statistics
+     */
+    public String getStatistics() {
+        return String.format("order cube: %,d orders, %,d items, loaded in %,d ms, refreshed %,d ms ago",
+                getOrderCount(), getItemCount(), getLoadMillis(), getMillisSinceRefresh());
+    }
+
+    /**
+     * Adds up orders, drinks and revenue placed within a time range.
+     *
+     * @param range the orders to include, or null for all
+     * @return a single-group breakdown keyed 0 (empty if there were no orders)
+     */
+    public Breakdown summarize(TimeRange range) {
+        return scan(columns, null, range);
+    }
+
+    /**
+     * Groups the orders (or order items) placed within a time range.
+     *
+     * @param dimension what to group by
+     * @param range     the orders to include, or null for all
+     * @return the non-empty groups, sorted by key
+     */
+    public Breakdown breakdown(Dimension dimension, TimeRange range) {
+        return scan(columns, dimension, range);
+    }
+
+    /**
+     * Totals orders and revenue per time bucket, for the buckets that have
+     * orders. Buckets are aligned to midnight of the first day with orders.
+     * Costs O(n log n) in the number of orders, however long the history.
+     *
+     * @param bucketSeconds width of each bucket, such as 60 for per minute
+     * @return the buckets, empty if there are no orders
+     */
+    public Series series(int bucketSeconds) {
+        Columns c = columns;
+        long start = c.orderCount == 0 ? 0 : c.minDay * 86_400;
+
+        // Bucket in the high half, cents in the low half, so sorting groups each bucket's orders
+        long[] packed = new long[c.orderCount];
+        for (int i = 0; i < c.orderCount; i++) {
+            packed[i] = (c.orderTime[i] - start) / bucketSeconds << 32 | (c.orderCents[i] & 0xFFFFFFFFL);
+        }
+        Arrays.parallelSort(packed);
+
+        int occupied = 0;
+        for (int i = 0; i < packed.length; i++) {
+            if (i == 0 || packed[i] >>> 32 != packed[i - 1] >>> 32) {
+                occupied++;
+            }
+        }
+        // Each occupied bucket may bring up to two empty ones before it
+        long[] times = new long[occupied * 3];
+        long[] counts = new long[times.length];
+        long[] revenue = new long[times.length];
+        int size = 0;
+        long previous = -1;
+        for (int i = 0; i < packed.length;) {
+            long bucket = packed[i] >>> 32;
+            long count = 0;
+            long cents = 0;
+            for (; i < packed.length && packed[i] >>> 32 == bucket; i++) {
+                count++;
+                cents += (int) packed[i];
+            }
+            if (previous >= 0 && bucket > previous + 1) {
+                times[size++] = start + (previous + 1) * bucketSeconds;
+                if (bucket > previous + 2) {
+                    times[size++] = start + (bucket - 1) * bucketSeconds;
+                }
+            }
+            times[size] = start + bucket * bucketSeconds;
+            counts[size] = count;
+            revenue[size] = cents;
+            size++;
+            previous = bucket;
+        }
+        return new Series(bucketSeconds, Arrays.copyOf(times, size), Arrays.copyOf(counts, size),
+                Arrays.copyOf(revenue, size));
+    }
+
+    /** Runs one parallel scan and turns its accumulators into a breakdown. */
+    private static Breakdown scan(Columns c, Dimension dimension, TimeRange range) {
+        long from = range == null ? Long.MIN_VALUE : toSeconds(range.getStart());
+        long to = range == null ? Long.MAX_VALUE : toSeconds(range.getEnd());
+        long base = 0;
+        long bound = 1;
+        if (dimension != null) {
+            switch (dimension) {
+                case HOUR_OF_DAY -> bound = 24;
+                case DAY_OF_WEEK -> {
+                    base = 1;
+                    bound = 8;
+                }
+                case DATE -> {
+                    base = c.minDay;
+                    bound = c.maxDay + 1;
+                }
+                case EMPLOYEE -> bound = c.employeeBound;
+                case MENU_ITEM -> bound = c.menuItemBound;
+                case SUGAR_LEVEL, ICE_LEVEL -> bound = c.levelBound;
+            }
+        }
+        int width = (int) Math.max(0, bound - base);
+        boolean items = dimension != null && dimension.isItemLevel();
+        int rows = items ? c.itemCount : c.orderCount;
+
+        long[] acc = rows == 0 || width == 0 ? new long[0]
+                : ForkJoinPool.commonPool().invoke(new ScanTask(c, dimension, from, to, base, width, 0, rows));
+
+        int groups = 0;
+        for (int k = 0; k < width && 3 * k < acc.length; k++) {
+            if (acc[3 * k] > 0) {
+                groups++;
+            }
+        }
+        int[] keys = new int[groups];
+        long[] counts = new long[groups];
+        long[] quantities = new long[groups];
+        long[] revenue = new long[groups];
+        int g = 0;
+        for (int k = 0; k < width && 3 * k < acc.length; k++) {
+            if (acc[3 * k] > 0) {
+                keys[g] = (int) (k + base);
+                counts[g] = acc[3 * k];
+                quantities[g] = acc[3 * k + 1];
+                revenue[g] = acc[3 * k + 2];
+                g++;
+            }
+        }
+        return new Breakdown(keys, counts, quantities, revenue);
+    }
+
+    /**
+     * Scans a slice of rows into an accumulator of (count, quantity, revenue)
+     * triples, one per group, splitting large slices in half.
+     */
+    private static final class ScanTask extends RecursiveTask<long[]> {
+        private final Columns c;
+        private final Dimension dimension;
+        private final long from;
+        private final long to;
+        private final long base;
+        private final int width;
+        private final int lo;
+        private final int hi;
+
+        ScanTask(Columns c, Dimension dimension, long from, long to, long base, int width, int lo, int hi) {
+            this.c = c;
+            this.dimension = dimension;
+            this.from = from;
+            this.to = to;
+            this.base = base;
+            this.width = width;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (hi - lo > SCAN_CHUNK) {
+                int mid = (lo + hi) >>> 1;
+                ScanTask left = new ScanTask(c, dimension, from, to, base, width, lo, mid);
+                left.fork();
+                long[] right = new ScanTask(c, dimension, from, to, base, width, mid, hi).compute();
+                long[] merged = left.join();
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i] += right[i];
+                }
+                return merged;
+            }
+
+            long[] acc = new long[3 * width];
+            if (dimension != null && dimension.isItemLevel()) {
+                for (int i = lo; i < hi; i++) {
+                    long t = c.orderTime[c.itemOrder[i]];
+                    if (t < from || t >= to) {
+                        continue;
+                    }
+                    long k = switch (dimension) {
+                        case MENU_ITEM -> c.itemMenuItem[i];
+                        case SUGAR_LEVEL -> c.itemSugar[i];
+                        default -> c.itemIce[i];
+                    } - base;
+                    if (k >= 0 && k < width) {
+                        int slot = 3 * (int) k;
+                        acc[slot]++;
+                        acc[slot + 1] += c.itemQuantity[i];
+                    }
+                }
+                return acc;
+            }
+
+            for (int i = lo; i < hi; i++) {
+                long t = c.orderTime[i];
+                if (t < from || t >= to) {
+                    continue;
+                }
+                long k = dimension == null ? 0 : switch (dimension) {
+                    case HOUR_OF_DAY -> Math.floorMod(Math.floorDiv(t, 3600), 24);
+                    // 1970-01-01 was a Thursday (ISO day 4)
+                    case DAY_OF_WEEK -> Math.floorMod(Math.floorDiv(t, 86400) + 3, 7) + 1;
+                    case DATE -> Math.floorDiv(t, 86400);
+                    default -> c.orderEmployee[i];
+                } - base;
+                if (k >= 0 && k < width) {
+                    int slot = 3 * (int) k;
+                    acc[slot]++;
+                    acc[slot + 1] += c.orderDrinks[i];
+                    acc[slot + 2] += c.orderCents[i];
+                }
+            }
+            return acc;
+        }
+    }
+
+    /** Appends one order row and returns its index. Caller holds the lock. */
+    private int addOrder(int id, Timestamp time, Integer customerId, int employeeId, double totalCost) {
+        if (orderCount == orderTime.length) {
+            int size = orderCount * 2;
+            orderId = Arrays.copyOf(orderId, size);
+            orderTime = Arrays.copyOf(orderTime, size);
+            orderEmployee = Arrays.copyOf(orderEmployee, size);
+            orderCustomer = Arrays.copyOf(orderCustomer, size);
+            orderCents = Arrays.copyOf(orderCents, size);
+            orderDrinks = Arrays.copyOf(orderDrinks, size);
+        }
+        long seconds = toSeconds(time.toLocalDateTime());
+        int index = orderCount++;
+        orderId[index] = id;
+        orderTime[index] = seconds;
+        orderEmployee[index] = employeeId;
+        orderCustomer[index] = customerId == null ? -1 : customerId;
+        orderCents[index] = (int) Math.round(totalCost * 100);
+        orderDrinks[index] = 0;
+
+        loadedIds.set(id);
+        employeeBound = Math.max(employeeBound, employeeId + 1);
+        long day = Math.floorDiv(seconds, 86400);
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+        for (OrderListener listener : orderListeners) {
+            listener.orderAdded(seconds, orderCustomer[index], employeeId, orderCents[index]);
+        }
+        return index;
+    }
+
+    /** Appends one item row read from an order items query. Caller holds the lock. */
+    private void addItem(int orderIndex, ResultSet rs) throws SQLException {
+        addItem(orderIndex, rs.getInt("menuitemid"), rs.getInt("quantity"),
+                rs.getObject("sugarlevel") == null ? -1 : rs.getInt("sugarlevel"),
+                rs.getObject("icelevel") == null ? -1 : rs.getInt("icelevel"));
+    }
+
+    /** Appends one item row. Caller holds the lock. */
+    private void addItem(int orderIndex, int menuItemId, int quantity, int sugarLevel, int iceLevel) {
+        if (itemCount == itemOrder.length) {
+            int size = itemCount * 2;
+            itemOrder = Arrays.copyOf(itemOrder, size);
+            itemMenuItem = Arrays.copyOf(itemMenuItem, size);
+            itemQuantity = Arrays.copyOf(itemQuantity, size);
+            itemSugar = Arrays.copyOf(itemSugar, size);
+            itemIce = Arrays.copyOf(itemIce, size);
+        }
+        int index = itemCount++;
+        itemOrder[index] = orderIndex;
+        itemMenuItem[index] = menuItemId;
+        itemQuantity[index] = quantity;
+        itemSugar[index] = toLevel(sugarLevel);
+        itemIce[index] = toLevel(iceLevel);
+
+        orderDrinks[orderIndex] += quantity;
+        menuItemBound = Math.max(menuItemBound, menuItemId + 1);
+        levelBound = Math.max(levelBound, Math.max(itemSugar[index], itemIce[index]) + 1);
+        for (ItemListener listener : listeners) {
+            listener.itemAdded(orderTime[orderIndex], menuItemId, quantity);
+        }
+    }
+
+    /** Levels are percentages; anything outside 0-127 is stored as unknown. */
+    private static byte toLevel(int level) {
+        return level >= 0 && level <= Byte.MAX_VALUE ? (byte) level : -1;
+    }
+
+    /** Makes the rows added so far visible to queries. Caller holds the lock. */
+    private void publish() {
+        columns = new Columns(this);
+    }
+
+    /**
+     * Converts a wall-clock time to the seconds used by the cube.
+     *
+     * @param time a local date and time
+     * @return seconds since 1970-01-01T00:00 on the same wall clock
+     */
+    static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,514 @@
+package New_Additions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * OrderJournal is an append-only file of orders that could not be written to
+ * the database yet, so a sale is never lost when Postgres is down or too slow.
+ *
+ * The file is memory mapped. It starts with a small header holding the offset
+ * up to which records have been replayed, followed by records of the form
+ * [length][CRC32][payload]. {@link #append(Order, List)} returns only after its
+ * record has been forced to disk; a flusher thread forces all records written
+ * within one flush interval together, so a burst of offline orders shares one
+ * fsync. A record that was only partly written when the machine went down
+ * fails its CRC and is ignored when the journal is reopened.
+ *
+ * A replayer thread periodically hands pending records to a {@link Replayer}
+ * and advances the replayed offset after each one. Every record carries a
+ * journal ID that the replayer records in the database, so a record applied
+ * just before a crash, or an order whose original commit did land, is skipped
+ * instead of duplicated. Once every
+ * record has been replayed the file is reused from the start.
+ *
+ * A failure that means the database is unreachable or busy stops the replay
+ * so the record is retried later. Any other failure, such as a constraint
+ * violation, would fail on every retry and hold up the orders behind it, so
+ * the record is written to a dead-letter file beside the journal (its name
+ * plus {@value #DEAD_LETTER_SUFFIX}) for a manager to re-enter, and skipped.
+ *
+ * The file is locked while open, so only one journal, in this process or
+ * another, owns it at a time; opening a locked file fails with
+ * {@link LockedException}.
+ */
+public class OrderJournal implements AutoCloseable {
+
+    /** Applies one journaled order to the database. */
+    public interface Replayer {
+        /**
+         * Writes the order unless its journal ID was already applied.
+         *
+         * @param entry the journaled order
+         * @throws SQLException if the database is still unavailable
+         */
+        void apply(Entry entry) throws SQLException;
+    }
+
+    /** Thrown when another journal already has the file open. */
+    public static class LockedException extends IOException {
+        LockedException(Path path) {
+            super(path + " is in use by another order journal");
+        }
+    }
+
+    /** One order read back from the journal. */
+    public static class Entry {
+        private final UUID journalId;
+        private final Order order;
+        private final List<OrderItem> items;
+
+        Entry(UUID journalId, Order order, List<OrderItem> items) {
+            this.journalId = journalId;
+            this.order = order;
+            this.items = items;
+        }
+
+        /** Gets the ID that makes replaying this entry idempotent. */
+        public UUID getJournalId() {
+            return journalId;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public List<OrderItem> getItems() {
+            return items;
+        }
+    }
+
+    private static final int MAGIC = 0x4F4A524E;
+    private static final int VERSION = 1;
+    /** magic, version, replayed offset, padding */
+    private static final int HEADER_SIZE = 32;
+    private static final int REPLAYED_OFFSET_POSITION = 8;
+    /** length and CRC in front of every payload */
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int INITIAL_SIZE = 1 << 20;
+    /** Appended to the journal name for records that could never be applied */
+    public static final String DEAD_LETTER_SUFFIX = ".failed";
+
+    private final Path path;
+    private final FileChannel channel;
+    /** Keeps other journals off the file while this one has it open */
+    private final FileLock fileLock;
+    private final long flushIntervalMillis;
+    private final ScheduledExecutorService background;
+
+    /** Guards the mapping and the write/flush positions */
+    private final Object lock = new Object();
+    /** Serializes replay runs */
+    private final Object replayLock = new Object();
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private int flushedPosition;
+    private int replayedPosition;
+    private volatile boolean closed;
+
+    /**
+     * Opens (or creates) a journal and recovers its write position. Records
+     * after the last intact one are discarded.
+     *
+     * @param path                the journal file
+     * @param flushIntervalMillis how long appends may wait to share an fsync
+     * @throws LockedException if another journal has the file open
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public OrderJournal(Path path, long flushIntervalMillis) throws IOException {
+        this.path = path;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another journal in this process
+            acquired = null;
+        }
+        if (acquired == null) {
+            channel.close();
+            throw new LockedException(path);
+        }
+        this.fileLock = acquired;
+
+        boolean fresh = channel.size() < HEADER_SIZE;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_SIZE, channel.size()));
+        if (fresh) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(REPLAYED_OFFSET_POSITION, HEADER_SIZE);
+            buffer.putInt(HEADER_SIZE, 0);
+            buffer.force(0, HEADER_SIZE + 4);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not an order journal");
+        }
+
+        this.replayedPosition = (int) buffer.getLong(REPLAYED_OFFSET_POSITION);
+        this.writePosition = recoverWritePosition();
+        this.flushedPosition = writePosition;
+        if (replayedPosition > writePosition) {
+            replayedPosition = writePosition;
+        }
+
+        this.background = Executors.newScheduledThreadPool(2, r -> {
+            Thread thread = new Thread(r, "order-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(this::flush, this.flushIntervalMillis, this.flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Walks the records from the start and returns the end of the last one
+     * whose CRC matches.
+     */
+    private int recoverWritePosition() {
+        int position = HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(position + RECORD_HEADER_SIZE, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                System.err.println("Order journal: ignoring damaged record at offset " + position);
+                break;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * Appends an order and waits until it is on disk.
+     *
+     * @param order the order to keep
+     * @param items the items in the order
+     * @return the journal ID assigned to the order
+     * @throws IOException if the journal is closed or the record could not be written
+     */
+    public UUID append(Order order, List<OrderItem> items) throws IOException {
+        return append(UUID.randomUUID(), order, items);
+    }
+
+    /**
+     * Appends an order under a journal ID the caller already has, such as one
+     * written with the order in a transaction whose commit may have landed.
+     *
+     * @param journalId the ID the replayer claims in the database
+     * @param order     the order to keep
+     * @param items     the items in the order
+     * @return the journal ID
+     * @throws IOException if the journal is closed or the record could not be written
+     */
+    public UUID append(UUID journalId, Order order, List<OrderItem> items) throws IOException {
+        byte[] payload = encode(journalId, order, items);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        int end;
+        synchronized (lock) {
+            if (closed) {
+                throw new IOException("Order journal is closed");
+            }
+            ensureCapacity(writePosition + RECORD_HEADER_SIZE + payload.length + 4);
+            int position = writePosition;
+            // Body first and length last, so a torn write never looks like a whole record
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(position + RECORD_HEADER_SIZE + payload.length, 0);
+            buffer.putInt(position, payload.length);
+            writePosition = position + RECORD_HEADER_SIZE + payload.length;
+            end = writePosition;
+
+            while (flushedPosition < end) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the order journal to flush", e);
+                }
+                if (closed && flushedPosition < end) {
+                    throw new IOException("Order journal closed before the order was flushed");
+                }
+            }
+        }
+        return journalId;
+    }
+
+    /** Grows the file and remaps it when the next record would not fit. */
+    private void ensureCapacity(int needed) throws IOException {
+        if (needed <= buffer.capacity()) {
+            return;
+        }
+        int size = buffer.capacity();
+        while (size < needed) {
+            size *= 2;
+        }
+        buffer.force(0, writePosition);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    /** Forces everything written since the last flush and wakes the waiting appenders. */
+    private void flush() {
+        MappedByteBuffer target;
+        int from;
+        int to;
+        synchronized (lock) {
+            if (flushedPosition >= writePosition) {
+                return;
+            }
+            target = buffer;
+            from = flushedPosition;
+            to = writePosition;
+        }
+        // Include the trailing zero length so recovery stops at the right place
+        target.force(from, Math.min(to + 4, target.capacity()) - from);
+        synchronized (lock) {
+            flushedPosition = Math.max(flushedPosition, to);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Starts replaying pending records in the background at a fixed interval.
+     *
+     * @param replayer       writes each record to the database
+     * @param intervalMillis how often to try
+     */
+    public void startReplaying(Replayer replayer, long intervalMillis) {
+        background.scheduleWithFixedDelay(() -> {
+            try {
+                replayPending(replayer);
+            } catch (RuntimeException e) {
+                System.err.println("Order journal replay failed: " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies every pending record in order. Stops at the first failure that
+     * may pass, so it can be retried later; records that fail for any other
+     * reason are moved to the dead-letter file.
+     *
+     * @param replayer writes each record to the database
+     * @return the number of records applied
+     */
+    public int replayPending(Replayer replayer) {
+        synchronized (replayLock) {
+            int applied = 0;
+            while (true) {
+                Entry entry;
+                int next;
+                synchronized (lock) {
+                    if (closed || replayedPosition >= flushedPosition) {
+                        break;
+                    }
+                    int length = buffer.getInt(replayedPosition);
+                    entry = decode(buffer.slice(replayedPosition + RECORD_HEADER_SIZE, length));
+                    next = replayedPosition + RECORD_HEADER_SIZE + length;
+                }
+
+                try {
+                    replayer.apply(entry);
+                    applied++;
+                } catch (SQLException e) {
+                    if (isRetryable(e)) {
+                        System.err.println("Order journal: " + getPendingCount()
+                                + " orders still waiting for the database (" + e.getMessage() + ")");
+                        break;
+                    }
+                    try {
+                        deadLetter(entry, e);
+                    } catch (IOException writeError) {
+                        System.err.println("Order journal: could not set aside order " + entry.getJournalId()
+                                + " (" + writeError.getMessage() + "); will retry");
+                        break;
+                    }
+                }
+
+                synchronized (lock) {
+                    replayedPosition = next;
+                    markReplayed();
+                }
+            }
+            if (applied > 0) {
+                System.out.println("Order journal: replayed " + applied + " orders into the database");
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Checks whether a replay failure may pass by itself: the database is
+     * unreachable, shutting down, out of resources or in a transient
+     * conflict. Errors from this application with no SQL state, such as a
+     * closed pool, also count, since they say nothing about the record.
+     */
+    static boolean isRetryable(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        String state = e.getSQLState();
+        return state == null || state.startsWith("08") || state.startsWith("40") || state.startsWith("53")
+                || state.startsWith("57");
+    }
+
+    /**
+     * Gets the dead-letter file for a journal.
+     *
+     * @param journalPath the journal file
+     * @return the file that records which could not be replayed go to
+     */
+    public static Path getDeadLetterPath(Path journalPath) {
+        Path name = journalPath.getFileName();
+        return journalPath.resolveSibling((name != null ? name.toString() : "order-journal") + DEAD_LETTER_SUFFIX);
+    }
+
+    /** Appends a record that can never be applied to the dead-letter file, one line per order. */
+    private void deadLetter(Entry entry, SQLException e) throws IOException {
+        Order order = entry.getOrder();
+        StringBuilder line = new StringBuilder();
+        line.append(LocalDateTime.now().withNano(0)).append('\t')
+                .append(entry.getJournalId()).append('\t')
+                .append(order.getTimeOfOrder()).append('\t')
+                .append("employee ").append(order.getEmployeeID()).append('\t')
+                .append("customer ").append(order.getCustomerID()).append('\t')
+                .append(String.format("$%.2f", order.getTotalCost())).append('\t');
+        for (int i = 0; i < entry.getItems().size(); i++) {
+            OrderItem item = entry.getItems().get(i);
+            line.append(i == 0 ? "" : ",").append(item.getMenuItemID()).append('x').append(item.getQuantity());
+        }
+        line.append('\t').append(e.getSQLState()).append(' ').append(e.getMessage()).append('\n');
+        Files.writeString(getDeadLetterPath(path), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        System.err.println("Order journal: order " + entry.getJournalId() + " cannot be applied ("
+                + e.getMessage() + "); moved to " + getDeadLetterPath(path));
+    }
+
+    /**
+     * Saves the replayed offset, and reuses the file from the start once
+     * everything has been replayed. Must be called while holding the lock.
+     */
+    private void markReplayed() {
+        if (replayedPosition == writePosition && flushedPosition == writePosition) {
+            writePosition = HEADER_SIZE;
+            flushedPosition = HEADER_SIZE;
+            replayedPosition = HEADER_SIZE;
+            buffer.putInt(HEADER_SIZE, 0);
+        }
+        buffer.putLong(REPLAYED_OFFSET_POSITION, replayedPosition);
+        buffer.force(0, HEADER_SIZE + 4);
+    }
+
+    /**
+     * Counts the records that have not been replayed yet.
+     *
+     * @return the number of pending orders
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            int count = 0;
+            int position = replayedPosition;
+            while (position < writePosition) {
+                position += RECORD_HEADER_SIZE + buffer.getInt(position);
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /** Gets the journal file. */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Flushes outstanding records and closes the file. Pending records stay in
+     * the file and are replayed the next time the journal is opened.
+     */
+    @Override
+    public void close() {
+        flush();
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        background.shutdownNow();
+        try {
+            fileLock.release();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing order journal: " + e.getMessage());
+        }
+    }
+
+    /** Serializes an order into a record payload. */
+    private static byte[] encode(UUID journalId, Order order, List<OrderItem> items) {
+        ByteBuffer out = ByteBuffer.allocate(16 + 8 + 4 + 4 + 8 + 4 + 4 + items.size() * 8);
+        out.putLong(journalId.getMostSignificantBits());
+        out.putLong(journalId.getLeastSignificantBits());
+        out.putLong(order.getTimeOfOrder() != null ? order.getTimeOfOrder().getTime() : System.currentTimeMillis());
+        out.putInt(order.getCustomerID() != null ? order.getCustomerID() : -1);
+        out.putInt(order.getEmployeeID());
+        out.putDouble(order.getTotalCost());
+        out.putInt(order.getOrderWeek());
+        out.putInt(items.size());
+        for (OrderItem item : items) {
+            out.putInt(item.getMenuItemID());
+            out.putInt(item.getQuantity());
+        }
+        return out.array();
+    }
+
+    /** Reads a record payload back into an order. */
+    private static Entry decode(ByteBuffer in) {
+        UUID journalId = new UUID(in.getLong(), in.getLong());
+        Order order = new Order();
+        order.setTimeOfOrder(new Timestamp(in.getLong()));
+        int customerId = in.getInt();
+        order.setCustomerID(customerId >= 0 ? customerId : null);
+        order.setEmployeeID(in.getInt());
+        order.setTotalCost(in.getDouble());
+        order.setOrderWeek(in.getInt());
+
+        int itemCount = in.getInt();
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setMenuItemID(in.getInt());
+            item.setQuantity(in.getInt());
+            items.add(item);
+        }
+        return new Entry(journalId, order, items);
+    }
+}
@@ -0,0 +1,253 @@
+package New_Additions;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * OrderSubmissionQueue takes orders off the cashier's thread and writes them
+ * to the database in groups.
+ *
+ * Terminals call {@link #submit(Order, List)} and get a future right away. A
+ * single writer thread takes the first waiting order, keeps collecting orders
+ * that arrive within the linger window (up to the maximum batch size), and
+ * hands the whole group to a {@link BatchWriter}, which saves them in one
+ * transaction. Under load many orders share one commit; when the shop is quiet
+ * an order waits at most the linger window.
+ *
+ * The queue is bounded. When it is full, submit() fails the future at once
+ * instead of blocking the caller.
+ */
+public class OrderSubmissionQueue implements AutoCloseable {
+
+    /**
+     * Saves a group of orders. Implementations complete each submission's
+     * future themselves: with the order ID when it was saved, or exceptionally
+     * when that order was rejected. Throwing fails every submission that is
+     * still incomplete.
+     */
+    public interface BatchWriter {
+        void writeBatch(List<Submission> batch) throws SQLException;
+    }
+
+    /** One order waiting to be written, plus the future its terminal holds. */
+    public static class Submission {
+        private final Order order;
+        private final List<OrderItem> items;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        /** Claimed in the database with the order, so a journaled copy is never applied twice */
+        private final UUID journalId = UUID.randomUUID();
+        private final long enqueuedAt = System.nanoTime();
+
+        Submission(Order order, List<OrderItem> items) {
+            this.order = order;
+            this.items = items;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+
+        public List<OrderItem> getItems() {
+            return items;
+        }
+
+        /** Gets the future completed with the saved order's ID. */
+        public CompletableFuture<Integer> getResult() {
+            return result;
+        }
+
+        /** Gets the journal ID recorded with this order when it is saved or journaled. */
+        public UUID getJournalId() {
+            return journalId;
+        }
+    }
+
+    /** Marks the end of the queue when closing */
+    private static final Submission SHUTDOWN = new Submission(null, null);
+
+    private final BatchWriter writer;
+    private final BlockingQueue<Submission> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Thread writerThread;
+    /**
+     * Held shared by submit() around its closed check and offer, and
+     * exclusively by close() to set closed, so no order can be queued after
+     * the writer's final drain
+     */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    /** Orders accepted onto the queue */
+    private final LongAdder submittedCount = new LongAdder();
+    /** Orders turned away because the queue was full */
+    private final LongAdder rejectedCount = new LongAdder();
+    /** Batches handed to the writer */
+    private final LongAdder batchCount = new LongAdder();
+    /** Orders handed to the writer across all batches */
+    private final LongAdder writtenCount = new LongAdder();
+    /** Total time from submit to completion, in nanoseconds */
+    private final LongAdder totalLatencyNanos = new LongAdder();
+
+    /**
+     * Creates a queue and starts its writer thread.
+     *
+     * @param writer       saves each batch of orders
+     * @param capacity     most orders that may wait at once
+     * @param maxBatchSize most orders written in one transaction
+     * @param lingerMillis how long to wait for more orders before writing
+     */
+    public OrderSubmissionQueue(BatchWriter writer, int capacity, int maxBatchSize, long lingerMillis) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, lingerMillis));
+        this.writerThread = new Thread(this::run, "order-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an order for writing.
+     *
+     * @param order the order to save; its ID is set once it has been written
+     * @param items the items in the order
+     * @return a future completed with the new order ID, or exceptionally with
+     *         an {@link InsufficientInventoryException} or other SQLException
+     */
+    public CompletableFuture<Integer> submit(Order order, List<OrderItem> items) {
+        Submission submission = new Submission(order, new ArrayList<>(items));
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                submission.result.completeExceptionally(new RejectedExecutionException("Order queue is closed"));
+            } else if (!queue.offer(submission)) {
+                rejectedCount.increment();
+                submission.result.completeExceptionally(new RejectedExecutionException(
+                        "Order queue is full (" + queue.size() + " orders waiting)"));
+            } else {
+                submittedCount.increment();
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        return submission.result;
+    }
+
+    /** Writer loop: take one order, linger for more, write the batch. */
+    private void run() {
+        List<Submission> batch = new ArrayList<>(maxBatchSize);
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                Submission first = queue.take();
+                if (first == SHUTDOWN) {
+                    break;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Submission next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (next == SHUTDOWN) {
+                        stopping = true;
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                stopping = true;
+            }
+
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+
+        // Write whatever was queued before close() so no terminal is left waiting
+        List<Submission> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.remove(SHUTDOWN);
+        for (int i = 0; i < rest.size(); i += maxBatchSize) {
+            write(rest.subList(i, Math.min(rest.size(), i + maxBatchSize)));
+        }
+    }
+
+    private void write(List<Submission> batch) {
+        batchCount.increment();
+        writtenCount.add(batch.size());
+        try {
+            writer.writeBatch(batch);
+        } catch (SQLException | RuntimeException e) {
+            for (Submission submission : batch) {
+                submission.result.completeExceptionally(e);
+            }
+        }
+
+        long now = System.nanoTime();
+        for (Submission submission : batch) {
+            if (!submission.result.isDone()) {
+                submission.result.completeExceptionally(
+                        new IllegalStateException("Order was not completed by the batch writer"));
+            }
+            totalLatencyNanos.add(now - submission.enqueuedAt);
+        }
+    }
+
+    /**
+     * Stops accepting orders, writes everything already queued and waits up to
+     * five seconds for the writer thread to finish.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            queue.put(SHUTDOWN);
+            writerThread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets a one-line summary of queue throughput and batching.
+     *
+     * @return human readable queue statistics
+     */
+    public String getStatistics() {
+        long batches = batchCount.sum();
+        long written = writtenCount.sum();
+        return String.format("order queue: %d submitted, %d rejected, %d waiting, %d batches, "
+                + "avg batch %.1f, avg latency %.2fms",
+                submittedCount.sum(), rejectedCount.sum(), queue.size(), batches,
+                batches == 0 ? 0.0 : written / (double) batches,
+                written == 0 ? 0.0 : totalLatencyNanos.sum() / (double) written / 1_000_000.0);
+    }
+
+    public int getWaitingCount() {
+        return queue.size();
+    }
+}
@@ -0,0 +1,117 @@
+package New_Additions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * OrderValues keeps the distribution of order totals per hour, per day and
+ * per employee per day as {@link QuantileSketch}es, so percentile and
+ * histogram reports over any range are built by merging a few sketches
+ * instead of sorting the Orders table.
+ *
+ * A range is covered with whole days where possible and single hours at its
+ * edges. It is fed by an {@link OrderCube} as an
+ * {@link OrderCube.OrderListener}, so it follows every committed order.
+ */
+public class OrderValues implements OrderCube.OrderListener {
+
+    private static final long HOURS_PER_DAY = 24;
+
+    /** Keyed by hour number (hours since 1970-01-01) */
+    private final TreeMap<Long, QuantileSketch> hourly = new TreeMap<>();
+    /** Keyed by day number (days since 1970-01-01) */
+    private final TreeMap<Long, QuantileSketch> daily = new TreeMap<>();
+    /** Per employee, keyed by day number */
+    private final Map<Integer, TreeMap<Long, QuantileSketch>> employeeDaily = new HashMap<>();
+
+    @Override
+    public synchronized void orderAdded(long seconds, int customerId, int employeeId, int totalCents) {
+        double total = totalCents / 100.0;
+        long hour = Math.floorDiv(seconds, 3600);
+        long day = Math.floorDiv(hour, HOURS_PER_DAY);
+        hourly.computeIfAbsent(hour, k -> new QuantileSketch()).add(total);
+        daily.computeIfAbsent(day, k -> new QuantileSketch()).add(total);
+        employeeDaily.computeIfAbsent(employeeId, k -> new TreeMap<>())
+                .computeIfAbsent(day, k -> new QuantileSketch()).add(total);
+    }
+
+    /**
+     * Gets the distribution of order totals in a range.
+     *
+     * @param range the orders to include, or null for all; partial hours count
+     *              as whole hours
+     * @return a new sketch of the order totals in dollars
+     */
+    public synchronized QuantileSketch getDistribution(TimeRange range) {
+        QuantileSketch result = new QuantileSketch();
+        if (range == null) {
+            daily.values().forEach(result::merge);
+            return result;
+        }
+
+        long hour = startHour(range);
+        long end = endHour(range);
+        while (hour < end) {
+            long day = Math.floorDiv(hour, HOURS_PER_DAY);
+            if (hour == day * HOURS_PER_DAY && hour + HOURS_PER_DAY <= end) {
+                QuantileSketch sketch = daily.get(day);
+                if (sketch != null) {
+                    result.merge(sketch);
+                }
+                hour += HOURS_PER_DAY;
+            } else {
+                QuantileSketch sketch = hourly.get(hour);
+                if (sketch != null) {
+                    result.merge(sketch);
+                }
+                hour++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the distribution of order totals per employee over whole days.
+     *
+     * @param range the days to include; partial days count as whole days
+     * @return a new sketch per employee with orders in the range
+     */
+    public synchronized Map<Integer, QuantileSketch> getDistributionByEmployee(TimeRange range) {
+        long firstDay = Math.floorDiv(startHour(range), HOURS_PER_DAY);
+        long lastDay = Math.floorDiv(endHour(range) - 1, HOURS_PER_DAY);
+        Map<Integer, QuantileSketch> result = new TreeMap<>();
+        for (Map.Entry<Integer, TreeMap<Long, QuantileSketch>> employee : employeeDaily.entrySet()) {
+            QuantileSketch merged = new QuantileSketch();
+            employee.getValue().subMap(firstDay, true, lastDay, true).values().forEach(merged::merge);
+            if (merged.getCount() > 0) {
+                result.put(employee.getKey(), merged);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the distribution of order totals for each hour of the day across a
+     * range, for spotting when large orders come in.
+     *
+     * @param range the orders to include; partial hours count as whole hours
+     * @return a new sketch per hour of day (0-23) with orders in the range
+     */
+    public synchronized Map<Integer, QuantileSketch> getDistributionByHourOfDay(TimeRange range) {
+        Map<Integer, QuantileSketch> result = new TreeMap<>();
+        for (Map.Entry<Long, QuantileSketch> hour : hourly.subMap(startHour(range), endHour(range)).entrySet()) {
+            int hourOfDay = (int) Math.floorMod(hour.getKey(), HOURS_PER_DAY);
+            result.computeIfAbsent(hourOfDay, k -> new QuantileSketch()).merge(hour.getValue());
+        }
+        return result;
+    }
+
+    private static long startHour(TimeRange range) {
+        return Math.floorDiv(OrderCube.toSeconds(range.getStart()), 3600);
+    }
+
+    private static long endHour(TimeRange range) {
+        return Math.floorDiv(OrderCube.toSeconds(range.getEnd()) + 3599, 3600);
+    }
+}
@@ -0,0 +1,671 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * PagedTableModel backs a JTable with rows fetched a page at a time, only
+ * when the table asks to paint them.
+ *
+ * A JTable only calls {@link #getValueAt} for the rows on screen, so
+ * scrolling through tens of thousands of rows loads just the pages that come
+ * into view. Pages are loaded on {@link BackgroundTasks} threads; until a
+ * page arrives its cells are blank, and the rows are repainted when it does.
+ * The most recently used {@value #MAX_CACHED_PAGES} pages are kept.
+ *
+ * Sorting and filtering are done by the {@link PageSource}: in the database
+ * for a {@link QuerySource}, or in memory for a {@link ListSource}. Changing
+ * either starts over from a fresh row count; pages still loading for the old
+ * order are dropped when they arrive.
+ *
+ * Rows changed at the source while shown are applied with
+ * {@link #applyChanges}: changed rows are fetched again by key, and added or
+ * removed rows reload the pages on screen in the background while the old
+ * rows stay shown. The view reports which rows are on screen with
+ * {@link #setVisibleRows}.
+ *
+ * Use from the event thread.
+ */
+public class PagedTableModel extends AbstractTableModel {
+
+    /** Rows per page */
+    public static final int PAGE_SIZE = 100;
+
+    /** Most pages kept in memory; the least recently used is dropped beyond this */
+    private static final int MAX_CACHED_PAGES = 50;
+
+    /** Where the rows come from. Called off the event thread. */
+    public interface PageSource {
+        /** Gets the column headers. */
+        String[] getColumnNames();
+
+        /** Gets the value class of each column, for rendering. */
+        Class<?>[] getColumnClasses();
+
+        /**
+         * Counts the rows that match a filter.
+         *
+         * @param filter text every row must contain, or "" for all rows
+         * @return the number of matching rows
+         * @throws SQLException if the rows could not be counted
+         */
+        int count(String filter) throws SQLException;
+
+        /**
+         * Fetches one page of rows.
+         *
+         * @param offset     index of the first row to return
+         * @param limit      most rows to return
+         * @param sortColumn column to sort by
+         * @param ascending  whether the sort is ascending
+         * @param filter     text every row must contain, or "" for all rows
+         * @param after      the row just before offset if it is known, so the
+         *                   source can seek past it rather than skip rows; or null
+         * @return the rows, each holding one value per column
+         * @throws SQLException if the rows could not be loaded
+         */
+        List<Object[]> fetch(int offset, int limit, int sortColumn, boolean ascending, String filter,
+                Object[] after) throws SQLException;
+
+        /**
+         * Fetches rows by their first column, ignoring any filter.
+         *
+         * @param keys first-column values of the rows wanted
+         * @return the rows that still exist, in any order
+         * @throws SQLException if the rows could not be loaded
+         */
+        List<Object[]> fetchRows(Collection<?> keys) throws SQLException;
+    }
+
+    private final PageSource source;
+    private final String[] columnNames;
+    private final Class<?>[] columnClasses;
+
+    private final LinkedHashMap<Integer, List<Object[]>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> loading = new HashSet<>();
+    /** Loaded pages whose rows may have moved; shown until their reload arrives */
+    private final Set<Integer> stale = new HashSet<>();
+
+    private int rowCount;
+    /** Rows on screen, as last reported by the view; all rows until then */
+    private int firstVisibleRow;
+    private int lastVisibleRow = Integer.MAX_VALUE;
+    private int sortColumn;
+    private boolean ascending;
+    private String filter = "";
+    /** Bumped whenever the rows change, so loads for the old rows are dropped */
+    private int generation;
+    private Consumer<Exception> errorHandler = e -> {
+    };
+
+    /**
+     * Creates a model. Call {@link #refresh()} to load it.
+     *
+     * @param source     where the rows come from
+     * @param sortColumn the column to sort by at first
+     * @param ascending  whether that sort is ascending
+     */
+    public PagedTableModel(PageSource source, int sortColumn, boolean ascending) {
+        this.source = source;
+        this.columnNames = source.getColumnNames();
+        this.columnClasses = source.getColumnClasses();
+        this.sortColumn = sortColumn;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Sets what to do when a count or page fails to load.
+     *
+     * @param errorHandler given the error on the event thread
+     */
+    public void setErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /** Drops every loaded page and counts the rows again. */
+    public void refresh() {
+        pages.clear();
+        stale.clear();
+        recount();
+    }
+
+    /**
+     * Tells the model which rows are on screen, so added or removed rows
+     * reload just those.
+     *
+     * @param first first row shown
+     * @param last  last row shown
+     */
+    public void setVisibleRows(int first, int last) {
+        firstVisibleRow = Math.max(first, 0);
+        lastVisibleRow = Math.max(last, firstVisibleRow);
+    }
+
+    /**
+     * Applies rows that changed at the source. Changed rows on loaded pages
+     * are fetched again and updated in place, keeping their position until
+     * the next refresh. Added or removed rows shift the rows after them, so
+     * the rows are counted again, the pages on screen reload with their old
+     * rows shown in the meantime, and other loaded pages are dropped to load
+     * again if scrolled to. The table is told only of the rows inserted or
+     * deleted at the end, so it keeps its selection. Pages not loaded yet
+     * need nothing. Does nothing before the first {@link #refresh()}.
+     *
+     * @param changedKeys        first-column values of rows whose values changed
+     * @param rowsAddedOrRemoved whether any rows were added or removed
+     */
+    public void applyChanges(Collection<?> changedKeys, boolean rowsAddedOrRemoved) {
+        if (generation == 0) {
+            return;
+        }
+        if (rowsAddedOrRemoved) {
+            int firstPage = firstVisibleRow / PAGE_SIZE;
+            int lastPage = lastVisibleRow / PAGE_SIZE;
+            pages.keySet().removeIf(page -> page < firstPage || page > lastPage);
+            stale.clear();
+            stale.addAll(pages.keySet());
+            resize();
+            return;
+        }
+
+        Set<Object> shown = new HashSet<>();
+        for (List<Object[]> rows : pages.values()) {
+            for (Object[] row : rows) {
+                if (changedKeys.contains(row[0])) {
+                    shown.add(row[0]);
+                }
+            }
+        }
+        if (shown.isEmpty()) {
+            return;
+        }
+        int current = generation;
+        BackgroundTasks.run("Reload rows", () -> source.fetchRows(shown), rows -> {
+            if (current != generation) {
+                return;
+            }
+            if (rows.size() < shown.size()) {
+                // A row is gone, so the rows after it have moved
+                applyChanges(List.of(), true);
+                return;
+            }
+            for (Object[] row : rows) {
+                replaceRow(row);
+            }
+        }, errorHandler);
+    }
+
+    /** Puts a fetched row in place of the loaded row with the same key. */
+    private void replaceRow(Object[] row) {
+        for (Map.Entry<Integer, List<Object[]>> page : pages.entrySet()) {
+            List<Object[]> rows = page.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i)[0].equals(row[0])) {
+                    rows.set(i, row);
+                    int index = page.getKey() * PAGE_SIZE + i;
+                    if (index < rowCount) {
+                        fireTableRowsUpdated(index, index);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Counts the rows again, dropping loads for the old rows. */
+    private void recount() {
+        int current = ++generation;
+        loading.clear();
+        String countFilter = filter;
+        BackgroundTasks.run("Count rows", () -> source.count(countFilter), count -> {
+            if (current != generation) {
+                return;
+            }
+            rowCount = count;
+            fireTableDataChanged();
+        }, errorHandler);
+    }
+
+    /**
+     * Counts the rows again after rows were added or removed, then reports
+     * the change in size and repaints the rows on screen so their stale pages
+     * reload.
+     */
+    private void resize() {
+        int current = ++generation;
+        loading.clear();
+        String countFilter = filter;
+        BackgroundTasks.run("Count rows", () -> source.count(countFilter), count -> {
+            if (current != generation) {
+                return;
+            }
+            int previous = rowCount;
+            rowCount = count;
+            if (count > previous) {
+                fireTableRowsInserted(previous, count - 1);
+            } else if (count < previous) {
+                fireTableRowsDeleted(count, previous - 1);
+            }
+            int last = Math.min(lastVisibleRow, count - 1);
+            if (firstVisibleRow <= last) {
+                fireTableRowsUpdated(firstVisibleRow, last);
+            }
+        }, errorHandler);
+    }
+
+    /**
+     * Gets the key of a row if its page is loaded and current, without
+     * loading it.
+     *
+     * @param row the row index
+     * @return the row's first-column value, or null if not loaded
+     */
+    public Object getKeyAt(int row) {
+        int page = row / PAGE_SIZE;
+        List<Object[]> rows = stale.contains(page) ? null : pages.get(page);
+        int index = row % PAGE_SIZE;
+        return rows != null && index < rows.size() ? rows.get(index)[0] : null;
+    }
+
+    /**
+     * Finds a row by key among the loaded, current pages.
+     *
+     * @param key a first-column value
+     * @return the row index, or -1 if no loaded row has that key
+     */
+    public int indexOfKey(Object key) {
+        for (Map.Entry<Integer, List<Object[]>> page : pages.entrySet()) {
+            if (stale.contains(page.getKey())) {
+                continue;
+            }
+            List<Object[]> rows = page.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (rows.get(i)[0].equals(key)) {
+                    int index = page.getKey() * PAGE_SIZE + i;
+                    return index < rowCount ? index : -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts by a column. Choosing the current sort column again reverses it.
+     *
+     * @param column the column to sort by
+     */
+    public void sortBy(int column) {
+        ascending = column == sortColumn ? !ascending : true;
+        sortColumn = column;
+        refresh();
+    }
+
+    /**
+     * Shows only the rows containing some text.
+     *
+     * @param text text to look for, ignoring case; "" for all rows
+     */
+    public void setFilter(String text) {
+        String trimmed = text == null ? "" : text.trim();
+        if (!trimmed.equals(filter)) {
+            filter = trimmed;
+            refresh();
+        }
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columnClasses[column];
+    }
+
+    /**
+     * Gets a cell, starting to load its page if it is not loaded yet.
+     *
+     * @return the value, or null while its page loads
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        List<Object[]> rows = pages.get(page);
+        if (rows == null || stale.contains(page)) {
+            load(page);
+        }
+        if (rows == null) {
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < rows.size() ? rows.get(index)[column] : null;
+    }
+
+    private void load(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        int current = generation;
+        int offset = page * PAGE_SIZE;
+        int column = sortColumn;
+        boolean asc = ascending;
+        String text = filter;
+        // The row before the page lets the source seek instead of skipping rows
+        List<Object[]> previous = page > 0 && !stale.contains(page - 1) ? pages.get(page - 1) : null;
+        Object[] after = previous != null && previous.size() == PAGE_SIZE ? previous.get(PAGE_SIZE - 1) : null;
+
+        BackgroundTasks.run("Load rows", () -> source.fetch(offset, PAGE_SIZE, column, asc, text, after), rows -> {
+            if (current != generation) {
+                return;
+            }
+            loading.remove(page);
+            stale.remove(page);
+            pages.put(page, new ArrayList<>(rows));
+            int last = Math.min(offset + PAGE_SIZE, rowCount) - 1;
+            if (last >= offset) {
+                fireTableRowsUpdated(offset, last);
+            }
+        }, e -> {
+            if (current == generation) {
+                loading.remove(page);
+                errorHandler.accept(e);
+            }
+        });
+    }
+
+    /**
+     * Pages through a query in the database. The query's first column must
+     * uniquely identify a row; it breaks ties in the sort order. Nulls sort
+     * as the largest values, as in a plain index. A page that follows a
+     * loaded page seeks past that page's last row, so scrolling down stays an
+     * index range scan; other pages fall back to OFFSET.
+     */
+    public static class QuerySource implements PageSource {
+        private final DataSource dataSource;
+        private final String select;
+        private final String[] columnNames;
+        private final Class<?>[] columnClasses;
+        private final String[] columns;
+        private final String searchExpression;
+
+        /**
+         * @param dataSource    where to run the query
+         * @param select        the query, without WHERE, ORDER BY or LIMIT
+         * @param columns       the SQL name of each column in the query
+         * @param columnNames   the header of each column
+         * @param columnClasses the value class of each column
+         * @param searchColumns the columns a filter looks in
+         */
+        public QuerySource(DataSource dataSource, String select, String[] columns, String[] columnNames,
+                Class<?>[] columnClasses, String... searchColumns) {
+            this.dataSource = dataSource;
+            this.select = select;
+            this.columns = columns.clone();
+            this.columnNames = columnNames.clone();
+            this.columnClasses = columnClasses.clone();
+            List<String> search = new ArrayList<>();
+            for (String column : searchColumns) {
+                search.add("CAST(" + column + " AS TEXT)");
+            }
+            this.searchExpression = "concat_ws(' ', " + String.join(", ", search) + ")";
+        }
+
+        @Override
+        public String[] getColumnNames() {
+            return columnNames;
+        }
+
+        @Override
+        public Class<?>[] getColumnClasses() {
+            return columnClasses;
+        }
+
+        @Override
+        public int count(String filter) throws SQLException {
+            String sql = "SELECT COUNT(*) FROM (" + select + ") q" + (filter.isEmpty() ? "" : " WHERE " + search());
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+                if (!filter.isEmpty()) {
+                    stmt.setString(1, pattern(filter));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        @Override
+        public List<Object[]> fetch(int offset, int limit, int sortColumn, boolean ascending, String filter,
+                Object[] after) throws SQLException {
+            String sort = columns[sortColumn];
+            String key = columns[0];
+            boolean seek = after != null && after[sortColumn] != null;
+
+            List<String> conditions = new ArrayList<>();
+            if (!filter.isEmpty()) {
+                conditions.add(search());
+            }
+            if (seek) {
+                conditions.add(ascending ? "((" + sort + ", " + key + ") > (?, ?) OR " + sort + " IS NULL)"
+                        : "(" + sort + ", " + key + ") < (?, ?)");
+            }
+            String direction = ascending ? " ASC" : " DESC";
+            String sql = "SELECT * FROM (" + select + ") q"
+                    + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                    + " ORDER BY " + sort + direction + ", " + key + direction
+                    + " LIMIT ?" + (seek ? "" : " OFFSET ?");
+
+            List<Object[]> rows = new ArrayList<>(limit);
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int parameter = 1;
+                if (!filter.isEmpty()) {
+                    stmt.setString(parameter++, pattern(filter));
+                }
+                if (seek) {
+                    stmt.setObject(parameter++, after[sortColumn]);
+                    stmt.setObject(parameter++, after[0]);
+                }
+                stmt.setInt(parameter++, limit);
+                if (!seek) {
+                    stmt.setInt(parameter, offset);
+                }
+                readRows(stmt, rows);
+            }
+            return rows;
+        }
+
+        @Override
+        public List<Object[]> fetchRows(Collection<?> keys) throws SQLException {
+            List<Object[]> rows = new ArrayList<>(keys.size());
+            if (keys.isEmpty()) {
+                return rows;
+            }
+            String sql = "SELECT * FROM (" + select + ") q WHERE " + columns[0] + " IN ("
+                    + String.join(", ", Collections.nCopies(keys.size(), "?")) + ")";
+            try (Connection conn = dataSource.getConnection();
+                    PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int parameter = 1;
+                for (Object key : keys) {
+                    stmt.setObject(parameter++, key);
+                }
+                readRows(stmt, rows);
+            }
+            return rows;
+        }
+
+        private void readRows(PreparedStatement stmt, List<Object[]> rows) throws SQLException {
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Object[] row = new Object[columns.length];
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] = toColumnClass(rs.getObject(i + 1), columnClasses[i]);
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+
+        /** Converts numbers such as NUMERIC columns, read as BigDecimal, to the declared class. */
+        private static Object toColumnClass(Object value, Class<?> columnClass) {
+            if (value instanceof Number number && value.getClass() != columnClass) {
+                if (columnClass == Double.class) {
+                    return number.doubleValue();
+                }
+                if (columnClass == Integer.class) {
+                    return number.intValue();
+                }
+                if (columnClass == Long.class) {
+                    return number.longValue();
+                }
+            }
+            return value;
+        }
+
+        private String search() {
+            return searchExpression + " ILIKE ?";
+        }
+
+        /** Escapes LIKE wildcards in the filter and matches it anywhere. */
+        private static String pattern(String filter) {
+            return "%" + filter.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        }
+    }
+
+    /**
+     * Pages through rows already in memory, such as mock data. The rows are
+     * read again each time they are counted, so a refresh picks up changes,
+     * and the sorted and filtered rows are kept until then.
+     */
+    public static class ListSource implements PageSource {
+        private final Supplier<List<Object[]>> rowSupplier;
+        private List<Object[]> rows = List.of();
+        private final String[] columnNames;
+        private final Class<?>[] columnClasses;
+
+        private String viewKey;
+        private List<Object[]> view;
+
+        /**
+         * @param rows          gets the current rows, each holding one value per column
+         * @param columnNames   the header of each column
+         * @param columnClasses the value class of each column
+         */
+        public ListSource(Supplier<List<Object[]>> rows, String[] columnNames, Class<?>[] columnClasses) {
+            this.rowSupplier = rows;
+            this.columnNames = columnNames.clone();
+            this.columnClasses = columnClasses.clone();
+        }
+
+        @Override
+        public String[] getColumnNames() {
+            return columnNames;
+        }
+
+        @Override
+        public Class<?>[] getColumnClasses() {
+            return columnClasses;
+        }
+
+        @Override
+        public synchronized int count(String filter) {
+            rows = new ArrayList<>(rowSupplier.get());
+            viewKey = null;
+            return view(0, true, filter).size();
+        }
+
+        @Override
+        public synchronized List<Object[]> fetch(int offset, int limit, int sortColumn, boolean ascending,
+                String filter, Object[] after) {
+            List<Object[]> sorted = view(sortColumn, ascending, filter);
+            int from = Math.min(offset, sorted.size());
+            return new ArrayList<>(sorted.subList(from, Math.min(from + limit, sorted.size())));
+        }
+
+        @Override
+        public List<Object[]> fetchRows(Collection<?> keys) {
+            List<Object[]> found = new ArrayList<>();
+            for (Object[] row : rowSupplier.get()) {
+                if (keys.contains(row[0])) {
+                    found.add(row);
+                }
+            }
+            return found;
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private List<Object[]> view(int sortColumn, boolean ascending, String filter) {
+            String key = sortColumn + ":" + ascending + ":" + filter;
+            if (key.equals(viewKey)) {
+                return view;
+            }
+            String needle = filter.toLowerCase(Locale.ROOT);
+            List<Object[]> matching = new ArrayList<>();
+            for (Object[] row : rows) {
+                if (needle.isEmpty() || contains(row, needle)) {
+                    matching.add(row);
+                }
+            }
+            Comparator<Object[]> order = Comparator.comparing(row -> (Comparable) row[sortColumn],
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            matching.sort(ascending ? order : Collections.reverseOrder(order));
+            viewKey = key;
+            view = matching;
+            return view;
+        }
+
+        private static boolean contains(Object[] row, String needle) {
+            for (Object value : row) {
+                if (value != null && value.toString().toLowerCase(Locale.ROOT).contains(needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
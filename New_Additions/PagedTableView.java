@@ -0,0 +1,195 @@
+package New_Additions;
+
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * PagedTableView shows a {@link PagedTableModel} as a table with a search
+ * box and a row count. Clicking a column header sorts by that column, and
+ * again reverses the order; typing in the search box filters the rows once
+ * typing pauses for {@value #FILTER_DELAY_MILLIS} ms.
+ *
+ * Changes from the source go through {@link #applyChanges}, which keeps the
+ * selected rows selected by key while the rows around them move.
+ */
+public class PagedTableView extends JPanel {
+
+    /** How long typing must pause before the filter is applied, in ms */
+    private static final int FILTER_DELAY_MILLIS = 300;
+
+    private final PagedTableModel model;
+    private final JTable table;
+    private final JLabel statusLabel = new JLabel(" ");
+    /** Keys of the rows selected before a change, reselected as their pages reload */
+    private final List<Object> selectedKeys = new ArrayList<>();
+
+    /**
+     * Creates a view of a model. Call {@link #refresh()} to load it.
+     *
+     * @param model the rows to show
+     */
+    public PagedTableView(PagedTableModel model) {
+        super(new BorderLayout(5, 5));
+        this.model = model;
+
+        JTextField searchField = new JTextField();
+        Timer filterTimer = new Timer(FILTER_DELAY_MILLIS, e -> model.setFilter(searchField.getText()));
+        filterTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterTimer.restart();
+            }
+        });
+        JPanel searchPanel = new JPanel(new BorderLayout(5, 0));
+        searchPanel.add(new JLabel("Search:"), BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+        add(searchPanel, BorderLayout.NORTH);
+
+        table = new JTable(model);
+        table.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column >= 0) {
+                    model.sortBy(table.convertColumnIndexToModel(column));
+                }
+            }
+        });
+        // A click or key press makes a new selection, so stop restoring the old one
+        table.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                selectedKeys.clear();
+            }
+        });
+        table.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                selectedKeys.clear();
+            }
+        });
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.getViewport().addChangeListener(e -> updateVisibleRows());
+        add(scrollPane, BorderLayout.CENTER);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(0, 2, 0, 2));
+        add(statusLabel, BorderLayout.SOUTH);
+        model.addTableModelListener(e -> {
+            updateStatus();
+            if (!selectedKeys.isEmpty()) {
+                // After the table has adjusted its own selection to the event
+                SwingUtilities.invokeLater(this::restoreSelection);
+            }
+        });
+        model.setErrorHandler(e -> statusLabel.setText("ERROR: " + e.getMessage()));
+    }
+
+    /** Reloads the rows, keeping the sort and filter. */
+    public void refresh() {
+        selectedKeys.clear();
+        statusLabel.setText("Loading...");
+        model.refresh();
+    }
+
+    /**
+     * Applies rows that changed at the source, as
+     * {@link PagedTableModel#applyChanges}, keeping the selected rows
+     * selected wherever they move to.
+     *
+     * @param changedKeys        first-column values of rows whose values changed
+     * @param rowsAddedOrRemoved whether any rows were added or removed
+     */
+    public void applyChanges(Collection<?> changedKeys, boolean rowsAddedOrRemoved) {
+        if (selectedKeys.isEmpty()) {
+            for (int row : table.getSelectedRows()) {
+                Object key = model.getKeyAt(row);
+                if (key != null) {
+                    selectedKeys.add(key);
+                }
+            }
+        }
+        model.applyChanges(changedKeys, rowsAddedOrRemoved);
+    }
+
+    public PagedTableModel getModel() {
+        return model;
+    }
+
+    public JTable getTable() {
+        return table;
+    }
+
+    /** Selects the rows whose keys were selected, once their pages have reloaded. */
+    private void restoreSelection() {
+        List<Integer> rows = new ArrayList<>();
+        for (Object key : selectedKeys) {
+            int row = model.indexOfKey(key);
+            if (row >= 0) {
+                rows.add(row);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        ListSelectionModel selection = table.getSelectionModel();
+        selection.setValueIsAdjusting(true);
+        selection.clearSelection();
+        for (int row : rows) {
+            selection.addSelectionInterval(row, row);
+        }
+        selection.setValueIsAdjusting(false);
+        if (rows.size() == selectedKeys.size()) {
+            selectedKeys.clear();
+        }
+    }
+
+    private void updateVisibleRows() {
+        Rectangle visible = table.getVisibleRect();
+        int first = table.rowAtPoint(new Point(0, visible.y));
+        int last = table.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+        model.setVisibleRows(Math.max(first, 0), last < 0 ? model.getRowCount() - 1 : last);
+    }
+
+    private void updateStatus() {
+        String text = String.format("%,d rows, sorted by %s %s", model.getRowCount(),
+                model.getColumnName(model.getSortColumn()), model.isAscending() ? "▲" : "▼");
+        if (!model.getFilter().isEmpty()) {
+            text += ", matching \"" + model.getFilter() + "\"";
+        }
+        statusLabel.setText(text);
+    }
+}
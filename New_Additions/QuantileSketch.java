@@ -0,0 +1,173 @@
+package New_Additions;
+
+/**
+ * QuantileSketch estimates percentiles of a stream of non-negative values
+ * (order totals, in practice) with a bounded relative error, in the style of
+ * DDSketch.
+ *
+ * Values are counted in logarithmic buckets whose width grows with the value,
+ * so any quantile it reports is within {@value #RELATIVE_ACCURACY} (1%) of a
+ * true value at that rank. Bucket boundaries are the same for every sketch,
+ * so two sketches merge by adding their counts, and the merge of sketches
+ * kept per hour or per day is exactly the sketch of the combined period.
+ * Count, sum, minimum and maximum are kept exactly.
+ */
+public class QuantileSketch {
+
+    /** Largest relative error of a reported quantile */
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /** Counts of buckets offset .. offset + counts.length - 1 */
+    private long[] counts = new long[0];
+    private int offset;
+    /** Values too small for a bucket (zero and below) */
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value; zero and negative values are counted as zero
+     */
+    public void add(double value) {
+        if (value <= 0) {
+            zeroCount++;
+            value = Math.max(0, value);
+        } else {
+            int index = bucketOf(value);
+            grow(index, index);
+            counts[index - offset]++;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds every value of another sketch to this one.
+     *
+     * @param other the sketch to merge
+     */
+    public void merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (other.counts.length > 0) {
+            grow(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Estimates the value at a quantile.
+     *
+     * @param q the quantile, from 0 (minimum) to 1 (maximum)
+     * @return the estimated value, or NaN if the sketch is empty
+     */
+    public double getQuantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(Math.max(0, Math.min(1, q)) * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Estimates how many values were at or below a limit. Exact except for
+     * values in the same bucket as the limit.
+     *
+     * @param limit the upper limit
+     * @return the estimated count of values &lt;= limit
+     */
+    public long countAtMost(double limit) {
+        if (limit < 0) {
+            return 0;
+        }
+        long total = zeroCount;
+        if (limit == 0) {
+            return total;
+        }
+        int last = bucketOf(limit) - offset;
+        for (int i = 0; i <= last && i < counts.length; i++) {
+            total += counts[i];
+        }
+        return total;
+    }
+
+    /** Gets an independent copy of this sketch. */
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /** Gets the exact mean, or NaN if the sketch is empty. */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    /** Gets the exact minimum, or NaN if the sketch is empty. */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /** Gets the exact maximum, or NaN if the sketch is empty. */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    private static int bucketOf(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /** Widens the bucket array to cover buckets from..to. */
+    private void grow(int from, int to) {
+        if (counts.length == 0) {
+            counts = new long[to - from + 1];
+            offset = from;
+            return;
+        }
+        int low = Math.min(from, offset);
+        int high = Math.max(to, offset + counts.length - 1);
+        if (low == offset && high == offset + counts.length - 1) {
+            return;
+        }
+        long[] wider = new long[high - low + 1];
+        System.arraycopy(counts, 0, wider, offset - low, counts.length);
+        counts = wider;
+        offset = low;
+    }
+}
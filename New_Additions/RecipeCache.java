@@ -0,0 +1,244 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+
+/**
+ * RecipeCache keeps the MenuItemIngredients table in memory so the order path
+ * can work out ingredient demand without reading recipes from the database.
+ *
+ * Recipes are stored in three int arrays: {@code start[menuItemID]} to
+ * {@code start[menuItemID + 1]} is the range of {@code ingredientIds} and
+ * {@code quantities} used by that menu item. The table is loaded in one query
+ * the first time it is needed and kept until {@link #invalidateAll()} is
+ * called, which DatabaseManager does whenever menu items are added or changed.
+ * Invalidation reaches every cache in the process, so an edit made in the
+ * manager window is seen by the cashier windows. As a safety net for edits
+ * made from another terminal, a snapshot older than {@link #MAX_AGE_MILLIS}
+ * is reloaded on next use.
+ */
+public class RecipeCache {
+
+    /** Longest time a loaded snapshot is trusted without an invalidation */
+    public static final long MAX_AGE_MILLIS = 15 * 60 * 1000L;
+
+    /** Bumped on every invalidation; snapshots from an older generation are reloaded */
+    private static final AtomicLong generation = new AtomicLong();
+
+    private static final String LOAD_SQL = "SELECT menuitemid, ingredientid, ingredientqty "
+            + "FROM menuitemingredients ORDER BY menuitemid, ingredientid";
+
+    /** Immutable copy of the recipe table. */
+    private static class Snapshot {
+        /** Offsets into the ingredient arrays, indexed by menu item ID */
+        final int[] start;
+        final int[] ingredientIds;
+        final int[] quantities;
+        /** Largest ingredient ID used by any recipe */
+        final int maxIngredientId;
+        final long loadedAt;
+        final long loadedGeneration;
+
+        Snapshot(int[] start, int[] ingredientIds, int[] quantities, int maxIngredientId, long loadedGeneration) {
+            this.start = start;
+            this.ingredientIds = ingredientIds;
+            this.quantities = quantities;
+            this.maxIngredientId = maxIngredientId;
+            this.loadedAt = System.currentTimeMillis();
+            this.loadedGeneration = loadedGeneration;
+        }
+
+        boolean isFresh() {
+            return loadedGeneration == generation.get()
+                    && System.currentTimeMillis() - loadedAt < MAX_AGE_MILLIS;
+        }
+    }
+
+    /** Ingredient demand of an order, as parallel arrays sorted by ingredient ID. */
+    public static class Demand {
+        private final int[] ingredientIds;
+        private final int[] quantities;
+
+        Demand(int[] ingredientIds, int[] quantities) {
+            this.ingredientIds = ingredientIds;
+            this.quantities = quantities;
+        }
+
+        /** Gets the IDs of the ingredients the order uses. */
+        public int[] getIngredientIds() {
+            return ingredientIds;
+        }
+
+        /** Gets the total amount of each ingredient, matching getIngredientIds(). */
+        public int[] getQuantities() {
+            return quantities;
+        }
+
+        /** Gets how many different ingredients the order uses. */
+        public int size() {
+            return ingredientIds.length;
+        }
+    }
+
+    private final DataSource dataSource;
+    private volatile Snapshot snapshot;
+    /** Held while a snapshot is loaded, so only one caller queries at a time */
+    private final ReentrantLock loadLock = new ReentrantLock();
+    /** Times the recipe table was read */
+    private final AtomicLong loadCount = new AtomicLong();
+
+    /**
+     * Creates an empty cache that loads recipes through the given data source.
+     *
+     * @param dataSource source of database connections
+     */
+    public RecipeCache(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Drops the cached recipes in every RecipeCache of this process, so the
+     * next lookup reloads them.
+     */
+    public static void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Adds up the ingredients needed by every item in an order. Menu items with
+     * no recipe contribute nothing.
+     *
+     * @param orderItems the items in the order
+     * @return the combined demand per ingredient
+     * @throws SQLException if the recipes had to be loaded and the load failed
+     */
+    public Demand computeDemand(List<OrderItem> orderItems) throws SQLException {
+        Snapshot current = current();
+        int[] totals = new int[current.maxIngredientId + 1];
+        int used = 0;
+
+        for (OrderItem item : orderItems) {
+            int menuItemId = item.getMenuItemID();
+            if (menuItemId < 0 || menuItemId + 1 >= current.start.length) {
+                continue;
+            }
+            for (int i = current.start[menuItemId]; i < current.start[menuItemId + 1]; i++) {
+                int ingredientId = current.ingredientIds[i];
+                if (totals[ingredientId] == 0) {
+                    used++;
+                }
+                totals[ingredientId] += current.quantities[i] * item.getQuantity();
+            }
+        }
+
+        int[] ids = new int[used];
+        int[] quantities = new int[used];
+        int n = 0;
+        for (int ingredientId = 0; ingredientId < totals.length && n < used; ingredientId++) {
+            if (totals[ingredientId] != 0) {
+                ids[n] = ingredientId;
+                quantities[n] = totals[ingredientId];
+                n++;
+            }
+        }
+        return new Demand(Arrays.copyOf(ids, n), Arrays.copyOf(quantities, n));
+    }
+
+    /**
+     * Gets the ingredients used by one of a menu item.
+     *
+     * @param menuItemId the menu item
+     * @return the recipe as a demand, empty if the item has no recipe
+     * @throws SQLException if the recipes had to be loaded and the load failed
+     */
+    public Demand getRecipe(int menuItemId) throws SQLException {
+        Snapshot current = current();
+        if (menuItemId < 0 || menuItemId + 1 >= current.start.length) {
+            return new Demand(new int[0], new int[0]);
+        }
+        int from = current.start[menuItemId];
+        int to = current.start[menuItemId + 1];
+        return new Demand(Arrays.copyOfRange(current.ingredientIds, from, to),
+                Arrays.copyOfRange(current.quantities, from, to));
+    }
+
+    /** Gets the current snapshot, loading it if missing or too old. */
+    private Snapshot current() throws SQLException {
+        Snapshot current = snapshot;
+        if (current != null && current.isFresh()) {
+            return current;
+        }
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current == null || !current.isFresh()) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /** Reads the whole recipe table into a new snapshot. */
+    private Snapshot load() throws SQLException {
+        // Read the generation first, so an invalidation during the load forces another one
+        long loadGeneration = generation.get();
+        int[] menuItemIds = new int[64];
+        int[] ingredientIds = new int[64];
+        int[] quantities = new int[64];
+        int rows = 0;
+        int maxMenuItemId = 0;
+        int maxIngredientId = 0;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(LOAD_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                if (rows == menuItemIds.length) {
+                    menuItemIds = Arrays.copyOf(menuItemIds, rows * 2);
+                    ingredientIds = Arrays.copyOf(ingredientIds, rows * 2);
+                    quantities = Arrays.copyOf(quantities, rows * 2);
+                }
+                menuItemIds[rows] = rs.getInt("menuitemid");
+                ingredientIds[rows] = rs.getInt("ingredientid");
+                quantities[rows] = rs.getInt("ingredientqty");
+                maxMenuItemId = Math.max(maxMenuItemId, menuItemIds[rows]);
+                maxIngredientId = Math.max(maxIngredientId, ingredientIds[rows]);
+                rows++;
+            }
+        }
+
+        // Rows arrive sorted by menu item, so the offsets are a running count
+        int[] start = new int[maxMenuItemId + 2];
+        for (int i = 0; i < rows; i++) {
+            start[menuItemIds[i] + 1]++;
+        }
+        for (int id = 1; id < start.length; id++) {
+            start[id] += start[id - 1];
+        }
+
+        loadCount.incrementAndGet();
+        return new Snapshot(start, Arrays.copyOf(ingredientIds, rows), Arrays.copyOf(quantities, rows),
+                maxIngredientId, loadGeneration);
+    }
+
+    /**
+     * Gets a one-line summary of recipe loads.
+     *
+     * @return human readable cache statistics
+     */
+    public String getStatistics() {
+        Snapshot current = snapshot;
+        return String.format("recipe cache: %d loads, %d recipe rows for %d menu item IDs", loadCount.get(),
+                current == null ? 0 : current.ingredientIds.length, current == null ? 0 : current.start.length - 1);
+    }
+}
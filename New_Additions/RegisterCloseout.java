@@ -0,0 +1,317 @@
+package New_Additions;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+
+/**
+ * RegisterCloseout keeps the running totals for the X- and Z-reports: orders
+ * and sales since the register day was opened, split by hour of day and
+ * employee.
+ *
+ * The totals follow the order stream as an {@link OrderCube.OrderListener},
+ * so an X-report is a copy of a few counters. A Z-report ({@link #close})
+ * first pulls in any orders other terminals saved since the cube's last
+ * refresh, then takes a copy of the counters, resets them and saves the copy
+ * to ZReports / ZReportLines; Orders is never scanned. If saving fails the
+ * counters are put back. ZReports.openedAt is unique, so when two managers
+ * close the same day the second save fails; that day is then reloaded from
+ * the cube starting at the first manager's report. The day opens at the
+ * last saved Z-report (or midnight if there is none), so restarting the app
+ * rebuilds the totals from the cube. Orders are counted in the day their
+ * time falls in; one replayed from the journal after its day was closed is
+ * left out of both.
+ *
+ * The registers do not record how an order was paid (nothing writes
+ * Payments for live orders), so the reports carry no payment split.
+ */
+public class RegisterCloseout implements OrderCube.OrderListener {
+
+    private static final String LAST_CLOSE_SQL = "SELECT MAX(closedat) AS closedat FROM zreports";
+    private static final String INSERT_REPORT_SQL = "INSERT INTO zreports (closedat, openedat, ordercount, revenue) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_LINE_SQL = "INSERT INTO zreportlines (closedat, linetype, linekey, "
+            + "ordercount, revenue) VALUES (?, ?, ?, ?, ?)";
+    /** SQL state of a unique violation: another manager already saved this day */
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    /** Order count and sales for one line of a report. */
+    public static class Line {
+        private final long count;
+        private final long cents;
+
+        Line(long count, long cents) {
+            this.count = count;
+            this.cents = cents;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getRevenueCents() {
+            return cents;
+        }
+
+        public double getRevenue() {
+            return cents / 100.0;
+        }
+    }
+
+    /** A copy of the register totals at one moment. */
+    public static class Totals {
+        private final LocalDateTime openedAt;
+        private final LocalDateTime takenAt;
+        private final long orderCount;
+        private final long revenueCents;
+        private final Map<Integer, Line> byHour;
+        private final Map<Integer, Line> byEmployee;
+
+        Totals(LocalDateTime openedAt, LocalDateTime takenAt, long orderCount, long revenueCents,
+                Map<Integer, Line> byHour, Map<Integer, Line> byEmployee) {
+            this.openedAt = openedAt;
+            this.takenAt = takenAt;
+            this.orderCount = orderCount;
+            this.revenueCents = revenueCents;
+            this.byHour = Collections.unmodifiableMap(byHour);
+            this.byEmployee = Collections.unmodifiableMap(byEmployee);
+        }
+
+        /** Gets when the register day started (the previous Z-report). */
+        public LocalDateTime getOpenedAt() {
+            return openedAt;
+        }
+
+        /** Gets when these totals were taken; for a Z-report, when the day was closed. */
+        public LocalDateTime getTakenAt() {
+            return takenAt;
+        }
+
+        public long getOrderCount() {
+            return orderCount;
+        }
+
+        public double getRevenue() {
+            return revenueCents / 100.0;
+        }
+
+        /** Gets sales keyed by hour of day (0-23), only for hours with orders. */
+        public Map<Integer, Line> getByHour() {
+            return byHour;
+        }
+
+        /** Gets sales keyed by employee ID. */
+        public Map<Integer, Line> getByEmployee() {
+            return byEmployee;
+        }
+    }
+
+    private final OrderCube cube;
+    private long openedAt;
+    private long orderCount;
+    private long revenueCents;
+    private final long[] hourCounts = new long[24];
+    private final long[] hourCents = new long[24];
+    /** Per employee: { orders, cents } */
+    private final Map<Integer, long[]> employees = new HashMap<>();
+
+    private RegisterCloseout(OrderCube cube, long openedAt) {
+        this.cube = cube;
+        this.openedAt = openedAt;
+    }
+
+    /**
+     * Opens the register day at the last Z-report (or today's midnight) and
+     * starts following the cube's orders from then on.
+     *
+     * @param dataSource where Z-reports are read
+     * @param cube       the order stream
+     * @return the running totals
+     * @throws SQLException if the last Z-report could not be read
+     */
+    public static RegisterCloseout open(DataSource dataSource, OrderCube cube) throws SQLException {
+        RegisterCloseout closeout = new RegisterCloseout(cube,
+                OrderCube.toSeconds(readLastClose(dataSource, LocalDate.now().atStartOfDay())));
+        cube.addOrderListener(closeout);
+        return closeout;
+    }
+
+    /** Reads when the last Z-report was saved, or returns the default if there is none. */
+    private static LocalDateTime readLastClose(DataSource dataSource, LocalDateTime none) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(LAST_CLOSE_SQL);
+                ResultSet rs = stmt.executeQuery()) {
+            if (rs.next() && rs.getTimestamp("closedat") != null) {
+                return rs.getTimestamp("closedat").toLocalDateTime();
+            }
+            return none;
+        }
+    }
+
+    @Override
+    public synchronized void orderAdded(long seconds, int customerId, int employeeId, int totalCents) {
+        if (seconds < openedAt) {
+            return;
+        }
+        int hour = (int) Math.floorMod(Math.floorDiv(seconds, 3600), 24L);
+        orderCount++;
+        revenueCents += totalCents;
+        hourCounts[hour]++;
+        hourCents[hour] += totalCents;
+        long[] employee = employees.computeIfAbsent(employeeId, k -> new long[2]);
+        employee[0]++;
+        employee[1] += totalCents;
+    }
+
+    /**
+     * Gets the totals since the day opened, for an X-report. Nothing is reset.
+     *
+     * @return a copy of the current totals
+     */
+    public synchronized Totals snapshot() {
+        Map<Integer, Line> byHour = new TreeMap<>();
+        for (int hour = 0; hour < 24; hour++) {
+            if (hourCounts[hour] > 0) {
+                byHour.put(hour, new Line(hourCounts[hour], hourCents[hour]));
+            }
+        }
+        Map<Integer, Line> byEmployee = new TreeMap<>();
+        employees.forEach((id, totals) -> byEmployee.put(id, new Line(totals[0], totals[1])));
+
+        return new Totals(toDateTime(openedAt), LocalDateTime.now().withNano(0), orderCount, revenueCents,
+                byHour, byEmployee);
+    }
+
+    /**
+     * Closes the register day for a Z-report: pulls in orders saved
+     * elsewhere since the last refresh, then saves a copy of the running
+     * totals and resets them. If saving fails the totals are merged back and
+     * the day stays open; if another manager already closed this day, the
+     * day is reloaded from their report on.
+     *
+     * @param dataSource where the Z-report is saved
+     * @return the totals of the day that was closed
+     * @throws SQLException if the Z-report could not be saved
+     */
+    public Totals close(DataSource dataSource) throws SQLException {
+        cube.refresh();
+        Totals closing;
+        synchronized (this) {
+            closing = snapshot();
+            reset(OrderCube.toSeconds(closing.getTakenAt()));
+        }
+
+        try {
+            save(dataSource, closing);
+            return closing;
+        } catch (SQLException e) {
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                reopen(closing);
+                throw e;
+            }
+            LocalDateTime lastClose = readLastClose(dataSource, closing.getOpenedAt());
+            reload(lastClose);
+            throw new SQLException("The register day opened at " + closing.getOpenedAt()
+                    + " was already closed by another manager; totals now run from " + lastClose, e);
+        }
+    }
+
+    /** Empties the totals and starts the day at the given time. Callers hold the lock. */
+    private void reset(long dayStart) {
+        openedAt = dayStart;
+        orderCount = 0;
+        revenueCents = 0;
+        Arrays.fill(hourCounts, 0);
+        Arrays.fill(hourCents, 0);
+        employees.clear();
+    }
+
+    /**
+     * Restarts the day at another manager's Z-report and recounts it from the
+     * cube. The cube's lock is held throughout, so no new order is counted
+     * twice or missed.
+     */
+    private void reload(LocalDateTime dayStart) {
+        synchronized (cube) {
+            synchronized (this) {
+                reset(OrderCube.toSeconds(dayStart));
+            }
+            cube.replayOrders(this);
+        }
+    }
+
+    /** Puts the totals of a Z-report that could not be saved back into the open day. */
+    private synchronized void reopen(Totals closing) {
+        openedAt = OrderCube.toSeconds(closing.getOpenedAt());
+        closing.getByHour().forEach((hour, line) -> {
+            hourCounts[hour] += line.getCount();
+            hourCents[hour] += line.getRevenueCents();
+        });
+        closing.getByEmployee().forEach((id, line) -> {
+            long[] employee = employees.computeIfAbsent(id, k -> new long[2]);
+            employee[0] += line.getCount();
+            employee[1] += line.getRevenueCents();
+        });
+        orderCount += closing.getOrderCount();
+        revenueCents += Math.round(closing.getRevenue() * 100);
+    }
+
+    /** Saves a Z-report and its lines in one transaction. */
+    private static void save(DataSource dataSource, Totals totals) throws SQLException {
+        Timestamp closedAt = Timestamp.valueOf(totals.getTakenAt());
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_REPORT_SQL)) {
+                    stmt.setTimestamp(1, closedAt);
+                    stmt.setTimestamp(2, Timestamp.valueOf(totals.getOpenedAt()));
+                    stmt.setLong(3, totals.getOrderCount());
+                    stmt.setDouble(4, totals.getRevenue());
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_LINE_SQL)) {
+                    for (Map.Entry<Integer, Line> hour : totals.getByHour().entrySet()) {
+                        addLine(stmt, closedAt, "HOUR", String.format("%02d", hour.getKey()), hour.getValue());
+                    }
+                    for (Map.Entry<Integer, Line> employee : totals.getByEmployee().entrySet()) {
+                        addLine(stmt, closedAt, "EMPLOYEE", String.valueOf(employee.getKey()), employee.getValue());
+                    }
+                    stmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static void addLine(PreparedStatement stmt, Timestamp closedAt, String type, String key, Line line)
+            throws SQLException {
+        stmt.setTimestamp(1, closedAt);
+        stmt.setString(2, type);
+        stmt.setString(3, key);
+        stmt.setLong(4, line.getCount());
+        stmt.setDouble(5, line.getRevenue());
+        stmt.addBatch();
+    }
+
+    private static LocalDateTime toDateTime(long seconds) {
+        return LocalDateTime.ofEpochSecond(seconds, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,183 @@
+package New_Additions;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ReportCache keeps finished report results so clicking the same report
+ * again costs nothing until the data behind it changes.
+ *
+ * Each result is stored under a key naming the report and its parameters,
+ * together with the kinds of data it was built from ({@link Tag}). Writes
+ * through DatabaseManager call {@link #invalidate(Tag...)}, which drops every
+ * result built from that data. Results also expire after a time to live, which
+ * covers changes made by other terminals. A result that was being computed
+ * while its data was invalidated is returned to the caller but not stored.
+ *
+ * @param <V> the type of cached result
+ */
+public class ReportCache<V> {
+
+    /** Kinds of data a report can depend on. */
+    public enum Tag {
+        ORDERS, INVENTORY, MENU, EMPLOYEES
+    }
+
+    /** Most results kept; the least recently used is dropped beyond this */
+    private static final int MAX_ENTRIES = 256;
+
+    private static final class Entry<V> {
+        final V value;
+        final Set<Tag> tags;
+        final long expiresAt;
+
+        Entry(V value, Set<Tag> tags, long expiresAt) {
+            this.value = value;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long defaultTtlMillis;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    /** Bumped on every invalidation of each tag */
+    private final AtomicLongArray generations = new AtomicLongArray(Tag.values().length);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param defaultTtlMillis how long results are kept when no TTL is given
+     */
+    public ReportCache(long defaultTtlMillis) {
+        this.defaultTtlMillis = defaultTtlMillis;
+    }
+
+    /**
+     * Gets a cached result, computing and storing it on a miss. The
+     * computation runs without holding the cache lock.
+     *
+     * @param key     the report name and its parameters
+     * @param tags    the kinds of data the report reads
+     * @param compute builds the result; returning null means "do not cache"
+     * @return the cached or freshly computed result
+     */
+    public V get(String key, Set<Tag> tags, Supplier<V> compute) {
+        return get(key, tags, defaultTtlMillis, compute);
+    }
+
+    /**
+     * Gets a cached result with a specific time to live.
+     *
+     * @param key       the report name and its parameters
+     * @param tags      the kinds of data the report reads
+     * @param ttlMillis how long a freshly computed result may be reused
+     * @param compute   builds the result; returning null means "do not cache"
+     * @return the cached or freshly computed result
+     */
+    public V get(String key, Set<Tag> tags, long ttlMillis, Supplier<V> compute) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                expired.increment();
+            }
+        }
+
+        misses.increment();
+        long stamp = stamp(tags);
+        V value = compute.get();
+        if (value != null && ttlMillis > 0) {
+            synchronized (entries) {
+                // Only store it if none of its data changed while it was computed
+                if (stamp(tags) == stamp) {
+                    entries.put(key, new Entry<>(value, EnumSet.copyOf(tags),
+                            System.currentTimeMillis() + ttlMillis));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops every result that depends on any of the given kinds of data.
+     *
+     * @param tags the data that changed
+     */
+    public void invalidate(Tag... tags) {
+        for (Tag tag : tags) {
+            generations.incrementAndGet(tag.ordinal());
+        }
+        synchronized (entries) {
+            for (Iterator<Entry<V>> it = entries.values().iterator(); it.hasNext();) {
+                Set<Tag> entryTags = it.next().tags;
+                for (Tag tag : tags) {
+                    if (entryTags.contains(tag)) {
+                        it.remove();
+                        invalidated.increment();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /** Drops every cached result. */
+    public void clear() {
+        invalidate(Tag.values());
+    }
+
+    /** Sums the generations of the given tags; changes whenever any of them is invalidated. */
+    private long stamp(Set<Tag> tags) {
+        long stamp = 0;
+        for (Tag tag : tags) {
+            stamp += generations.get(tag.ordinal());
+        }
+        return stamp;
+    }
+
+    /**
+     * Gets the share of lookups answered from the cache.
+     *
+     * @return hits divided by lookups, or 0 before the first lookup
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Gets a one-line summary of cache effectiveness.
+     *
+     * @return human readable cache statistics
+     */
+    public String getStatistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return String.format("report cache: %d hits, %d misses (%.1f%% hit rate), %d cached, "
+                + "%d invalidated, %d expired",
+                hits.sum(), misses.sum(), getHitRate() * 100, size, invalidated.sum(), expired.sum());
+    }
+}
@@ -0,0 +1,260 @@
+package New_Additions;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SalesLeaderboard keeps exact drinks-sold counters per menu item for a few
+ * fixed windows (last hour, today, last 7 days and all time) and answers
+ * best- and worst-seller queries without touching the database.
+ *
+ * It is fed by an {@link OrderCube} as an {@link OrderCube.ItemListener}, so
+ * it sees every committed order the cube sees. Each window keeps its menu
+ * items in an array ranked by count; a sale moves an item up a few places and
+ * an expiring sale moves it down, so the top or bottom K is simply the first
+ * or last K entries. Time-limited windows hold their sales in buckets (one per
+ * minute for the last hour, one per hour otherwise) and subtract a bucket once
+ * it falls out of the window.
+ */
+public class SalesLeaderboard implements OrderCube.ItemListener {
+
+    /** The spans a leaderboard can be asked about. */
+    public enum Window {
+        /** The last 60 minutes, to the minute */
+        LAST_HOUR(60),
+        /** Since midnight */
+        TODAY(3600),
+        /** The last 168 hours, to the hour */
+        LAST_7_DAYS(3600),
+        /** Every order ever placed */
+        ALL_TIME(0);
+
+        /** Width of one bucket in seconds, or 0 if sales never expire */
+        private final long bucketSeconds;
+
+        Window(long bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        /** Gets the first bucket still inside the window at the given time. */
+        private long firstBucket(long nowSeconds) {
+            return switch (this) {
+                case LAST_HOUR -> Math.floorDiv(nowSeconds, bucketSeconds) - 59;
+                case TODAY -> Math.floorDiv(nowSeconds, 86400) * 24;
+                case LAST_7_DAYS -> Math.floorDiv(nowSeconds, bucketSeconds) - (7 * 24 - 1);
+                case ALL_TIME -> Long.MIN_VALUE;
+            };
+        }
+    }
+
+    /** One menu item and how many of it were sold. */
+    public static class Entry {
+        private final int menuItemId;
+        private final long quantity;
+
+        Entry(int menuItemId, long quantity) {
+            this.menuItemId = menuItemId;
+            this.quantity = quantity;
+        }
+
+        public int getMenuItemId() {
+            return menuItemId;
+        }
+
+        public long getQuantity() {
+            return quantity;
+        }
+    }
+
+    /** Counters and expiry buckets for one window. */
+    private static final class WindowState {
+        final Window window;
+        final RankedCounters ranks = new RankedCounters();
+        /** Drinks sold per menu item, keyed by bucket number */
+        final TreeMap<Long, Map<Integer, Long>> buckets = new TreeMap<>();
+
+        WindowState(Window window) {
+            this.window = window;
+        }
+
+        void add(long seconds, long nowSeconds, int menuItemId, int quantity) {
+            if (window.bucketSeconds > 0) {
+                long bucket = Math.floorDiv(seconds, window.bucketSeconds);
+                if (bucket < window.firstBucket(nowSeconds)) {
+                    return;
+                }
+                buckets.computeIfAbsent(bucket, b -> new HashMap<>()).merge(menuItemId, (long) quantity, Long::sum);
+            }
+            ranks.add(menuItemId, quantity);
+        }
+
+        void expire(long nowSeconds) {
+            long first = window.firstBucket(nowSeconds);
+            while (!buckets.isEmpty() && buckets.firstKey() < first) {
+                for (Map.Entry<Integer, Long> sold : buckets.pollFirstEntry().getValue().entrySet()) {
+                    ranks.add(sold.getKey(), -sold.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Counters kept sorted from most to fewest sold. Menu item IDs are small,
+     * so counters are indexed by ID directly.
+     */
+    private static final class RankedCounters {
+        long[] counts = new long[64];
+        /** Place of each menu item in ranked, or -1 if not tracked */
+        int[] position = filled(64);
+        /** Menu item IDs, most sold first */
+        int[] ranked = new int[64];
+        int size;
+
+        void track(int menuItemId) {
+            if (menuItemId >= position.length) {
+                int length = Math.max(menuItemId + 1, position.length * 2);
+                counts = Arrays.copyOf(counts, length);
+                int old = position.length;
+                position = Arrays.copyOf(position, length);
+                Arrays.fill(position, old, length, -1);
+            }
+            if (position[menuItemId] >= 0) {
+                return;
+            }
+            if (size == ranked.length) {
+                ranked = Arrays.copyOf(ranked, size * 2);
+            }
+            ranked[size] = menuItemId;
+            position[menuItemId] = size++;
+            moveUp(menuItemId);
+        }
+
+        void add(int menuItemId, long delta) {
+            track(menuItemId);
+            counts[menuItemId] += delta;
+            if (delta > 0) {
+                moveUp(menuItemId);
+            } else {
+                moveDown(menuItemId);
+            }
+        }
+
+        private void moveUp(int menuItemId) {
+            int at = position[menuItemId];
+            while (at > 0 && counts[ranked[at - 1]] < counts[menuItemId]) {
+                swap(at, at - 1);
+                at--;
+            }
+        }
+
+        private void moveDown(int menuItemId) {
+            int at = position[menuItemId];
+            while (at < size - 1 && counts[ranked[at + 1]] > counts[menuItemId]) {
+                swap(at, at + 1);
+                at++;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int itemA = ranked[a];
+            int itemB = ranked[b];
+            ranked[a] = itemB;
+            ranked[b] = itemA;
+            position[itemB] = a;
+            position[itemA] = b;
+        }
+
+        private static int[] filled(int length) {
+            int[] array = new int[length];
+            Arrays.fill(array, -1);
+            return array;
+        }
+    }
+
+    private final WindowState[] windows;
+
+    /**
+     * Creates an empty leaderboard. Register it with
+     * {@link OrderCube#addItemListener} to fill it.
+     */
+    public SalesLeaderboard() {
+        Window[] values = Window.values();
+        windows = new WindowState[values.length];
+        for (int i = 0; i < values.length; i++) {
+            windows[i] = new WindowState(values[i]);
+        }
+    }
+
+    @Override
+    public synchronized void itemAdded(long seconds, int menuItemId, int quantity) {
+        long now = nowSeconds();
+        for (WindowState state : windows) {
+            state.expire(now);
+            state.add(seconds, now, menuItemId, quantity);
+        }
+    }
+
+    /**
+     * Makes sure menu items are ranked even before they sell, so items that
+     * never sold show up as worst sellers.
+     *
+     * @param menuItemIds the menu items to track
+     */
+    public synchronized void track(Iterable<Integer> menuItemIds) {
+        for (Integer id : menuItemIds) {
+            for (WindowState state : windows) {
+                state.ranks.track(id);
+            }
+        }
+    }
+
+    /**
+     * Gets the best sellers of a window.
+     *
+     * @param window the span to rank
+     * @param k      the most entries to return
+     * @return up to k entries, most sold first
+     */
+    public synchronized List<Entry> top(Window window, int k) {
+        RankedCounters ranks = current(window).ranks;
+        List<Entry> entries = new ArrayList<>(Math.min(k, ranks.size));
+        for (int i = 0; i < ranks.size && i < k; i++) {
+            int id = ranks.ranked[i];
+            entries.add(new Entry(id, ranks.counts[id]));
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the worst sellers of a window.
+     *
+     * @param window the span to rank
+     * @param k      the most entries to return
+     * @return up to k entries, fewest sold first
+     */
+    public synchronized List<Entry> bottom(Window window, int k) {
+        RankedCounters ranks = current(window).ranks;
+        List<Entry> entries = new ArrayList<>(Math.min(k, ranks.size));
+        for (int i = ranks.size - 1; i >= 0 && entries.size() < k; i--) {
+            int id = ranks.ranked[i];
+            entries.add(new Entry(id, ranks.counts[id]));
+        }
+        return entries;
+    }
+
+    /** Gets a window's state with expired sales removed. Caller holds the lock. */
+    private WindowState current(Window window) {
+        WindowState state = windows[window.ordinal()];
+        state.expire(nowSeconds());
+        return state;
+    }
+
+    private static long nowSeconds() {
+        return OrderCube.toSeconds(LocalDateTime.now());
+    }
+}
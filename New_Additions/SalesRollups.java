@@ -0,0 +1,152 @@
+package New_Additions;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * SalesRollups keeps the pre-aggregated sales tables (SalesHourly, SalesDaily,
+ * SalesWeekly and SalesYearly) in step with the Orders table.
+ *
+ * Every code path that inserts orders calls {@link #record(Connection, List)}
+ * inside the same transaction. It only appends the batch's totals per hour
+ * and week to SalesRollupDeltas, so terminals never wait on each other for
+ * the current hour's, day's or year's rollup row while their orders commit.
+ * Reports call {@link #fold(Connection)} first, which moves the deltas into
+ * the rollups in one statement. Manager reports then read a handful of
+ * rollup rows instead of grouping the whole order history on every click.
+ *
+ * Orders loaded outside the apps (COPY, psql) bypass the rollups; run
+ * {@link #rebuild(Connection)} or creatingSqlTables/salesRollups.sql after
+ * such a load.
+ */
+public final class SalesRollups {
+
+    /**
+     * Appends a group of orders' totals per hour and week. Plain inserts, so
+     * terminals recording at once never lock the same row.
+     */
+    private static final String RECORD_SQL = """
+            INSERT INTO salesrollupdeltas (hourstart, orderweek, ordercount, revenue)
+            SELECT date_trunc('hour', placed), week, COUNT(*), SUM(cost)
+            FROM unnest(?::timestamp[], ?::numeric[], ?::int[]) AS o(placed, cost, week) GROUP BY 1, 2
+            """;
+
+    /**
+     * Moves every delta into all four rollups in one statement. Rows are
+     * upserted in key order within each table, and the tables in a fixed
+     * order, so two folds running at once lock rollup rows in the same
+     * sequence; the second skips the deltas the first deleted.
+     */
+    private static final String FOLD_SQL = """
+            WITH d AS (
+                DELETE FROM salesrollupdeltas RETURNING hourstart, orderweek, ordercount, revenue
+            ), hourly AS (
+                INSERT INTO saleshourly (hourstart, ordercount, revenue)
+                SELECT hourstart, SUM(ordercount), SUM(revenue) FROM d GROUP BY 1 ORDER BY 1
+                ON CONFLICT (hourstart) DO UPDATE SET ordercount = saleshourly.ordercount + EXCLUDED.ordercount,
+                    revenue = saleshourly.revenue + EXCLUDED.revenue
+            ), daily AS (
+                INSERT INTO salesdaily (salesdate, ordercount, revenue)
+                SELECT hourstart::date, SUM(ordercount), SUM(revenue) FROM d GROUP BY 1 ORDER BY 1
+                ON CONFLICT (salesdate) DO UPDATE SET ordercount = salesdaily.ordercount + EXCLUDED.ordercount,
+                    revenue = salesdaily.revenue + EXCLUDED.revenue
+            ), weekly AS (
+                INSERT INTO salesweekly (orderweek, ordercount, revenue)
+                SELECT orderweek, SUM(ordercount), SUM(revenue) FROM d WHERE orderweek IS NOT NULL GROUP BY 1 ORDER BY 1
+                ON CONFLICT (orderweek) DO UPDATE SET ordercount = salesweekly.ordercount + EXCLUDED.ordercount,
+                    revenue = salesweekly.revenue + EXCLUDED.revenue
+            )
+            INSERT INTO salesyearly (salesyear, ordercount, revenue)
+            SELECT EXTRACT(YEAR FROM hourstart)::int, SUM(ordercount), SUM(revenue) FROM d GROUP BY 1 ORDER BY 1
+            ON CONFLICT (salesyear) DO UPDATE SET ordercount = salesyearly.ordercount + EXCLUDED.ordercount,
+                revenue = salesyearly.revenue + EXCLUDED.revenue
+            """;
+
+    /** Recomputes every rollup from Orders; keep in sync with salesRollups.sql */
+    private static final String[] REBUILD_SQL = {
+            "TRUNCATE saleshourly, salesdaily, salesweekly, salesyearly, salesrollupdeltas",
+            "INSERT INTO saleshourly (hourstart, ordercount, revenue) "
+                    + "SELECT date_trunc('hour', timeoforder), COUNT(*), SUM(totalcost) FROM orders GROUP BY 1",
+            "INSERT INTO salesdaily (salesdate, ordercount, revenue) "
+                    + "SELECT timeoforder::date, COUNT(*), SUM(totalcost) FROM orders GROUP BY 1",
+            "INSERT INTO salesweekly (orderweek, ordercount, revenue) "
+                    + "SELECT orderweek, COUNT(*), SUM(totalcost) FROM orders WHERE orderweek IS NOT NULL GROUP BY 1",
+            "INSERT INTO salesyearly (salesyear, ordercount, revenue) "
+                    + "SELECT EXTRACT(YEAR FROM timeoforder)::int, COUNT(*), SUM(totalcost) FROM orders GROUP BY 1",
+    };
+
+    private SalesRollups() {
+    }
+
+    /**
+     * Adds orders to the rollups, as deltas that the next {@link #fold}
+     * applies. Must run in the transaction that inserts the orders.
+     *
+     * @param conn   the connection holding the order transaction
+     * @param orders the orders being inserted
+     * @throws SQLException if the rollups cannot be updated
+     */
+    public static void record(Connection conn, List<Order> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Timestamp[] placed = new Timestamp[orders.size()];
+        BigDecimal[] costs = new BigDecimal[orders.size()];
+        Integer[] weeks = new Integer[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            placed[i] = order.getTimeOfOrder();
+            costs[i] = BigDecimal.valueOf(order.getTotalCost());
+            weeks[i] = order.getOrderWeek();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(RECORD_SQL)) {
+            stmt.setArray(1, conn.createArrayOf("timestamp", placed));
+            stmt.setArray(2, conn.createArrayOf("numeric", costs));
+            stmt.setArray(3, conn.createArrayOf("integer", weeks));
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Applies the deltas recorded since the last fold to the rollups. Call
+     * before reading the rollup tables. Runs as a single statement, so it
+     * needs no transaction of its own.
+     *
+     * @param conn connection to run the fold on
+     * @throws SQLException if the rollups cannot be updated
+     */
+    public static void fold(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(FOLD_SQL);
+        }
+    }
+
+    /**
+     * Recomputes all rollups from the Orders table. Meant for after a bulk
+     * load, while no terminals are taking orders.
+     *
+     * @param conn connection to run the rebuild on
+     * @throws SQLException if the rollups cannot be rebuilt
+     */
+    public static void rebuild(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : REBUILD_SQL) {
+                stmt.execute(sql);
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package New_Additions;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StatementCache keeps the prepared statements of one pooled connection so
+ * the same SQL text is prepared once per connection instead of once per call.
+ *
+ * Callers get a proxy from {@link #prepare(String, Connection)} and close it
+ * as usual; closing clears the parameters and puts the statement back in the
+ * cache instead of closing it. Statements are reused in least recently used
+ * order up to the cache size. If the same SQL is already checked out (for
+ * example a nested query), the second caller gets a plain uncached statement.
+ *
+ * Only used by ConnectionPool, which owns one cache per physical connection
+ * and only lends a connection to one thread at a time, so the cache needs no
+ * locking of its own.
+ */
+class StatementCache {
+
+    /** A cached statement and whether a caller currently holds it. */
+    private static class Entry {
+        private final PreparedStatement statement;
+        private boolean checkedOut;
+        /** Changes on every checkout, so a stale proxy cannot return it twice */
+        private int checkout;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    private final Connection connection;
+    private final LinkedHashMap<String, Entry> entries;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates a cache for one physical connection.
+     *
+     * @param connection the physical connection statements are prepared on
+     * @param maxSize    most statements kept open at once
+     * @param hits       counter shared by the pool for cache hits
+     * @param misses     counter shared by the pool for cache misses
+     */
+    StatementCache(Connection connection, int maxSize, LongAdder hits, LongAdder misses) {
+        this.connection = connection;
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxSize || eldest.getValue().checkedOut) {
+                    return false;
+                }
+                closeQuietly(eldest.getValue().statement);
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets a prepared statement for the given SQL, reusing a cached one when
+     * possible.
+     *
+     * @param sql   the SQL text
+     * @param owner the pooled connection handle the caller borrowed, returned
+     *              from the statement's getConnection()
+     * @return a statement whose close() hands it back to the cache
+     * @throws SQLException if the statement could not be prepared
+     */
+    PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && entry.checkedOut) {
+            misses.increment();
+            return connection.prepareStatement(sql);
+        }
+        if (entry == null) {
+            misses.increment();
+            entry = new Entry(connection.prepareStatement(sql));
+            entries.put(sql, entry);
+        } else {
+            hits.increment();
+        }
+
+        entry.checkedOut = true;
+        entry.checkout++;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                new StatementHandle(entry, entry.checkout, owner));
+    }
+
+    /**
+     * Takes back every statement a borrower forgot to close. Called when the
+     * connection returns to the pool.
+     */
+    void reclaim() {
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (entry.checkedOut && !checkIn(entry)) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Gets the number of statements currently cached. */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Resets a statement for the next caller. Returns false and closes the
+     * statement if it can no longer be used.
+     */
+    private boolean checkIn(Entry entry) {
+        entry.checkedOut = false;
+        entry.checkout++;
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            entry.statement.clearWarnings();
+            entry.statement.setFetchSize(0);
+            entry.statement.setMaxRows(0);
+            return true;
+        } catch (SQLException e) {
+            closeQuietly(entry.statement);
+            return false;
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached statement: " + e.getMessage());
+        }
+    }
+
+    /** Invocation handler behind every statement handed out by the cache. */
+    private class StatementHandle implements InvocationHandler {
+        private final Entry entry;
+        private final int checkout;
+        private final Connection owner;
+
+        StatementHandle(Entry entry, int checkout, Connection owner) {
+            this.entry = entry;
+            this.checkout = checkout;
+            this.owner = owner;
+        }
+
+        private boolean isCurrent() {
+            return entry.checkedOut && entry.checkout == checkout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (isCurrent() && !checkIn(entry)) {
+                        entries.values().remove(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return !isCurrent() || entry.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + entry.statement;
+                default:
+                    break;
+            }
+
+            if (!isCurrent()) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(entry.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package New_Additions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import javax.sql.DataSource;
+
+/**
+ * StreamingExporter writes rows to a file as they arrive, so exports of any
+ * size use the same small amount of memory and never go through a text area.
+ *
+ * Rows come from a database cursor ({@link #exportQuery}) or are written one
+ * at a time with {@link #writeRow} (for in-memory results such as order cube
+ * breakdowns). They are encoded into a {@value #BUFFER_SIZE}-byte direct
+ * buffer that is written to a {@link FileChannel} whenever it fills.
+ *
+ * Three formats are supported:
+ * <ul>
+ * <li>CSV with a header row, quoted where needed</li>
+ * <li>JSON lines, one object per row</li>
+ * <li>a compact columnar binary file: a header naming and typing the
+ * columns, then blocks of up to {@value #BLOCK_ROWS} rows, each stored
+ * column by column with a null bitmap, ended by a block of zero rows. Ints
+ * are 4 bytes, longs, doubles and timestamps (epoch ms) 8 bytes, and text a
+ * 4-byte length then UTF-8; all big-endian.</li>
+ * </ul>
+ *
+ * Call {@link #finish()} once every row is written. Only it writes the rows
+ * still buffered and the columnar end block; closing without it, as when an
+ * export fails, leaves a columnar file without its end block, so a reader
+ * can tell it was cut short.
+ */
+public class StreamingExporter implements Closeable {
+
+    /** Output file formats. */
+    public enum Format {
+        CSV(".csv"), JSON_LINES(".jsonl"), COLUMNAR(".bin");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /** Gets the usual file name extension, including the dot. */
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /** Column value types, as stored in the columnar format. */
+    public enum ColumnType {
+        INT, LONG, DOUBLE, TIMESTAMP, TEXT
+    }
+
+    /** Told how far an export has got. Called on the exporting thread. */
+    public interface ProgressListener {
+        /**
+         * @param rows  rows written so far
+         * @param bytes bytes written to the file so far
+         */
+        void progress(long rows, long bytes);
+    }
+
+    /** Magic bytes at the start of a columnar file, followed by a version byte */
+    private static final byte[] COLUMNAR_MAGIC = { 'B', 'O', 'B', 'A' };
+    private static final byte COLUMNAR_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Rows per block in the columnar format */
+    private static final int BLOCK_ROWS = 4096;
+    /** Rows between progress reports */
+    private static final int PROGRESS_ROWS = 10_000;
+    /** Rows fetched per round trip by {@link #exportQuery} */
+    private static final int FETCH_SIZE = 1000;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Format format;
+    private final String[] columns;
+    private final ColumnType[] types;
+    private final ProgressListener progress;
+    private final StringBuilder line = new StringBuilder();
+
+    /** Rows of the current columnar block, column by column */
+    private Object[][] block;
+    private int blockRows;
+
+    private long rows;
+    private long bytes;
+
+    /**
+     * Creates (or replaces) an export file and writes its header.
+     *
+     * @param file     the file to write
+     * @param format   the file format
+     * @param columns  column names
+     * @param types    column types, matching the names
+     * @param progress told about progress every {@value #PROGRESS_ROWS} rows, or null
+     * @throws IOException if the file could not be opened or written
+     */
+    public StreamingExporter(Path file, Format format, String[] columns, ColumnType[] types,
+            ProgressListener progress) throws IOException {
+        if (columns.length != types.length) {
+            throw new IllegalArgumentException("Expected one type per column");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.format = format;
+        this.columns = columns.clone();
+        this.types = types.clone();
+        this.progress = progress;
+
+        try {
+            writeHeader();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        switch (format) {
+            case CSV:
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    appendCsv(columns[i]);
+                }
+                line.append('\n');
+                flushLine();
+                break;
+            case JSON_LINES:
+                break;
+            case COLUMNAR:
+                block = new Object[columns.length][BLOCK_ROWS];
+                ensureSpace(COLUMNAR_MAGIC.length + 5);
+                buffer.put(COLUMNAR_MAGIC).put(COLUMNAR_VERSION).putInt(columns.length);
+                for (int i = 0; i < columns.length; i++) {
+                    ensureSpace(1);
+                    buffer.put((byte) types[i].ordinal());
+                    putText(columns[i]);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Writes one row.
+     *
+     * @param values one value per column: Integer, Long, Double (or any
+     *               Number), Timestamp or String to match the column type;
+     *               null for a missing value
+     * @throws IOException if the file could not be written
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+        }
+        switch (format) {
+            case CSV:
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    if (values[i] != null) {
+                        appendCsv(format(values[i]));
+                    }
+                }
+                line.append('\n');
+                flushLine();
+                break;
+            case JSON_LINES:
+                line.append('{');
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    appendJsonString(columns[i]);
+                    line.append(':');
+                    if (values[i] == null) {
+                        line.append("null");
+                    } else if (types[i] == ColumnType.TEXT || types[i] == ColumnType.TIMESTAMP) {
+                        appendJsonString(format(values[i]));
+                    } else {
+                        line.append(format(values[i]));
+                    }
+                }
+                line.append("}\n");
+                flushLine();
+                break;
+            case COLUMNAR:
+                for (int i = 0; i < values.length; i++) {
+                    block[i][blockRows] = values[i];
+                }
+                if (++blockRows == BLOCK_ROWS) {
+                    writeBlock();
+                }
+                break;
+        }
+
+        rows++;
+        if (progress != null && rows % PROGRESS_ROWS == 0) {
+            progress.progress(rows, bytes + buffer.position());
+        }
+    }
+
+    /** Writes the buffered columnar rows as one block, column by column. */
+    private void writeBlock() throws IOException {
+        ensureSpace(4);
+        buffer.putInt(blockRows);
+        for (int c = 0; c < columns.length; c++) {
+            Object[] values = block[c];
+            byte[] nulls = new byte[(blockRows + 7) / 8];
+            for (int r = 0; r < blockRows; r++) {
+                if (values[r] == null) {
+                    nulls[r >> 3] |= (byte) (1 << (r & 7));
+                }
+            }
+            ensureSpace(nulls.length);
+            buffer.put(nulls);
+
+            for (int r = 0; r < blockRows; r++) {
+                Object value = values[r];
+                switch (types[c]) {
+                    case INT:
+                        ensureSpace(4);
+                        buffer.putInt(value == null ? 0 : ((Number) value).intValue());
+                        break;
+                    case LONG:
+                        ensureSpace(8);
+                        buffer.putLong(value == null ? 0 : ((Number) value).longValue());
+                        break;
+                    case DOUBLE:
+                        ensureSpace(8);
+                        buffer.putDouble(value == null ? 0 : ((Number) value).doubleValue());
+                        break;
+                    case TIMESTAMP:
+                        ensureSpace(8);
+                        buffer.putLong(value == null ? 0 : ((Timestamp) value).getTime());
+                        break;
+                    case TEXT:
+                        putText(value == null ? "" : value.toString());
+                        break;
+                }
+            }
+            Arrays.fill(values, 0, blockRows, null);
+        }
+        blockRows = 0;
+    }
+
+    /**
+     * Writes what is left, including the columnar end block, and reports
+     * final progress. Call once after the last row.
+     *
+     * @return the number of rows written
+     * @throws IOException if the file could not be written
+     */
+    public long finish() throws IOException {
+        if (format == Format.COLUMNAR) {
+            if (blockRows > 0) {
+                writeBlock();
+            }
+            ensureSpace(4);
+            buffer.putInt(0);
+        }
+        drain();
+        if (progress != null) {
+            progress.progress(rows, bytes);
+        }
+        return rows;
+    }
+
+    /**
+     * Closes the file. Rows still buffered are dropped unless
+     * {@link #finish()} was called.
+     *
+     * @throws IOException if the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Gets the number of rows written so far. */
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Streams the result of a query to a file through a server-side cursor,
+     * so the rows are never all in memory. Column names and types come from
+     * the query.
+     *
+     * @param dataSource source of database connections
+     * @param sql        the query; it must not need parameters
+     * @param file       the file to write
+     * @param format     the file format
+     * @param progress   told about progress, or null
+     * @return the number of rows written
+     * @throws SQLException if the query failed
+     * @throws IOException  if the file could not be written
+     */
+    public static long exportQuery(DataSource dataSource, String sql, Path file, Format format,
+            ProgressListener progress) throws SQLException, IOException {
+        try (Connection conn = dataSource.getConnection()) {
+            // The driver only uses a cursor inside a transaction
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            Throwable failure = null;
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    String[] names = new String[meta.getColumnCount()];
+                    ColumnType[] types = new ColumnType[names.length];
+                    for (int i = 0; i < names.length; i++) {
+                        names[i] = meta.getColumnLabel(i + 1);
+                        types[i] = typeOf(meta.getColumnType(i + 1));
+                    }
+
+                    try (StreamingExporter exporter = new StreamingExporter(file, format, names, types, progress)) {
+                        Object[] row = new Object[names.length];
+                        while (rs.next()) {
+                            for (int i = 0; i < row.length; i++) {
+                                row[i] = read(rs, i + 1, types[i]);
+                            }
+                            exporter.writeRow(row);
+                        }
+                        return exporter.finish();
+                    }
+                }
+            } catch (Throwable e) {
+                failure = e;
+                throw e;
+            } finally {
+                // A cleanup failure must not hide the error that stopped the export
+                try {
+                    conn.rollback();
+                    conn.setAutoCommit(autoCommit);
+                } catch (SQLException cleanupError) {
+                    if (failure == null) {
+                        throw cleanupError;
+                    }
+                    failure.addSuppressed(cleanupError);
+                }
+            }
+        }
+    }
+
+    private static ColumnType typeOf(int sqlType) {
+        switch (sqlType) {
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return ColumnType.INT;
+            case Types.BIGINT:
+                return ColumnType.LONG;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return ColumnType.DOUBLE;
+            case Types.TIMESTAMP:
+            case Types.DATE:
+                return ColumnType.TIMESTAMP;
+            default:
+                return ColumnType.TEXT;
+        }
+    }
+
+    private static Object read(ResultSet rs, int column, ColumnType type) throws SQLException {
+        Object value;
+        switch (type) {
+            case INT:
+                value = rs.getInt(column);
+                break;
+            case LONG:
+                value = rs.getLong(column);
+                break;
+            case DOUBLE:
+                value = rs.getDouble(column);
+                break;
+            case TIMESTAMP:
+                value = rs.getTimestamp(column);
+                break;
+            default:
+                value = rs.getString(column);
+                break;
+        }
+        return rs.wasNull() ? null : value;
+    }
+
+    private static String format(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+
+    private void appendCsv(String value) {
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendJsonString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    /** Moves the current text line into the buffer and clears it. */
+    private void flushLine() throws IOException {
+        putBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        line.setLength(0);
+    }
+
+    private void putText(String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        ensureSpace(4);
+        buffer.putInt(utf8.length);
+        putBytes(utf8);
+    }
+
+    /** Puts bytes into the buffer, draining it as often as needed for long values. */
+    private void putBytes(byte[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int length = Math.min(buffer.remaining(), data.length - offset);
+            buffer.put(data, offset, length);
+            offset += length;
+        }
+    }
+
+    /** Makes room for a fixed-size value. */
+    private void ensureSpace(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            drain();
+        }
+    }
+
+    /** Writes the buffer to the file and empties it. */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytes += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,133 @@
+package New_Additions;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * TimeRange is a half-open span of order times, from the start (inclusive) to
+ * the end (exclusive).
+ *
+ * Report queries filter with {@code timeoforder >= ? AND timeoforder < ?}
+ * and bind a TimeRange instead of wrapping the column in DATE(...), so the
+ * database can answer them with a range scan on the timeoforder index rather
+ * than reading every order ever placed. Whole days are expressed as midnight
+ * to the following midnight, which also includes orders placed in the last
+ * second of a day.
+ */
+public class TimeRange {
+    /** Condition matching orders.timeoforder against a bound range */
+    public static final String ORDER_TIME_CONDITION = "timeoforder >= ? AND timeoforder < ?";
+
+    /** First instant inside the range */
+    private final LocalDateTime start;
+
+    /** First instant after the range */
+    private final LocalDateTime end;
+
+    /**
+     * Constructs a new range.
+     *
+     * @param start the first instant inside the range
+     * @param end   the first instant after the range
+     */
+    public TimeRange(LocalDateTime start, LocalDateTime end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + start + " to " + end);
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a range covering whole calendar days.
+     *
+     * @param firstDay the first day included
+     * @param lastDay  the last day included
+     * @return the range from midnight on firstDay to midnight after lastDay
+     */
+    public static TimeRange days(LocalDate firstDay, LocalDate lastDay) {
+        return new TimeRange(firstDay.atStartOfDay(), lastDay.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Creates a range covering whole calendar days given as SQL dates.
+     *
+     * @param firstDay the first day included
+     * @param lastDay  the last day included
+     * @return the range from midnight on firstDay to midnight after lastDay
+     */
+    public static TimeRange days(Date firstDay, Date lastDay) {
+        return days(firstDay.toLocalDate(), lastDay.toLocalDate());
+    }
+
+    /**
+     * Creates a range covering today.
+     *
+     * @return the range from this morning's midnight to tonight's
+     */
+    public static TimeRange today() {
+        LocalDate today = LocalDate.now();
+        return days(today, today);
+    }
+
+    /**
+     * Creates a range covering the last few days, counting today.
+     *
+     * @param count number of days, including today
+     * @return the range ending at midnight tonight
+     */
+    public static TimeRange lastDays(int count) {
+        LocalDate today = LocalDate.now();
+        return days(today.minusDays(Math.max(1, count) - 1), today);
+    }
+
+    /**
+     * Binds this range to two consecutive statement parameters, as used by
+     * {@link #ORDER_TIME_CONDITION}.
+     *
+     * @param stmt  the statement to bind
+     * @param index the parameter index of the start
+     * @return the index of the next unbound parameter
+     * @throws SQLException if the parameters cannot be set
+     */
+    public int bind(PreparedStatement stmt, int index) throws SQLException {
+        stmt.setTimestamp(index, getStartTimestamp());
+        stmt.setTimestamp(index + 1, getEndTimestamp());
+        return index + 2;
+    }
+
+    /**
+     * Checks whether an instant falls inside this range.
+     *
+     * @param time the instant to test
+     * @return true if start &lt;= time &lt; end
+     */
+    public boolean contains(LocalDateTime time) {
+        return !time.isBefore(start) && time.isBefore(end);
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public Timestamp getStartTimestamp() {
+        return Timestamp.valueOf(start);
+    }
+
+    public Timestamp getEndTimestamp() {
+        return Timestamp.valueOf(end);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
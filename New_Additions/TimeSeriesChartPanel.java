@@ -0,0 +1,331 @@
+package New_Additions;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * TimeSeriesChartPanel draws a line of values over time that can be zoomed
+ * with the mouse wheel, panned by dragging and reset by double-clicking.
+ *
+ * A series can be far longer than the chart is wide (a year of per-minute
+ * sales is over half a million points), so only the points in view are
+ * drawn, and they are first cut down to about one per pixel with the
+ * Largest-Triangle-Three-Buckets algorithm, which keeps the peaks and dips
+ * that averaging would flatten. Times are wall-clock seconds, as used by
+ * {@link OrderCube}.
+ */
+public class TimeSeriesChartPanel extends CachedChartPanel {
+
+    private static final int LEFT = 80;
+    private static final int RIGHT = 20;
+    private static final int TOP = 45;
+    private static final int BOTTOM = 40;
+
+    /** Zoom factor per mouse wheel notch */
+    private static final double ZOOM_STEP = 1.25;
+    /** Narrowest view, in points */
+    private static final int MIN_VIEW_POINTS = 10;
+
+    /** Spacing between time labels to choose from, in seconds */
+    private static final long[] TICK_STEPS = { 60, 5 * 60, 15 * 60, 3600, 3 * 3600, 6 * 3600, 12 * 3600, 86_400,
+            7 * 86_400, 30 * 86_400, 91 * 86_400 };
+    /** Least horizontal room per time label, in pixels */
+    private static final int MIN_TICK_PIXELS = 90;
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("MMM d");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("MMM d HH:mm");
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font SCALE_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Color LINE_COLOR = new Color(70, 130, 180);
+
+    private final String title;
+    private final String valueFormat;
+
+    private long[] times = new long[0];
+    private double[] values = new double[0];
+    private long viewStart;
+    private long viewEnd;
+    private int drawnPoints;
+
+    /**
+     * Creates an empty chart.
+     *
+     * @param title       shown above the chart
+     * @param valueFormat format of the scale values, such as "$%,.2f"
+     */
+    public TimeSeriesChartPanel(String title, String valueFormat) {
+        this.title = title;
+        this.valueFormat = valueFormat;
+        setBackground(Color.WHITE);
+        setToolTipText("Scroll to zoom, drag to pan, double-click to show everything");
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private int lastX;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                long shift = Math.round((double) (lastX - e.getX()) * (viewEnd - viewStart) / plotWidth());
+                lastX = e.getX();
+                setView(viewStart + shift, viewEnd + shift);
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    showAll();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(ZOOM_STEP, e.getPreciseWheelRotation()), e.getX());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    /**
+     * Replaces the series and shows all of it.
+     *
+     * @param times  when each point was measured, in ascending order
+     * @param values the value at each time
+     */
+    public void setData(long[] times, double[] values) {
+        if (times.length != values.length) {
+            throw new IllegalArgumentException("Expected " + times.length + " values, got " + values.length);
+        }
+        this.times = times.clone();
+        this.values = values.clone();
+        showAll();
+    }
+
+    /** Zooms out to the whole series. */
+    public void showAll() {
+        viewStart = times.length == 0 ? 0 : times[0];
+        viewEnd = times.length == 0 ? 0 : times[times.length - 1];
+        chartChanged();
+    }
+
+    /**
+     * Zooms in or out around a point on the chart.
+     *
+     * @param factor how much wider the view gets; below 1 zooms in
+     * @param x      the pixel column that stays in place
+     */
+    private void zoom(double factor, int x) {
+        if (times.length < 2) {
+            return;
+        }
+        double anchor = Math.min(1, Math.max(0, (double) (x - LEFT) / plotWidth()));
+        long span = viewEnd - viewStart;
+        long minSpan = Math.min(fullSpan(), (times[times.length - 1] - times[0]) * MIN_VIEW_POINTS / times.length);
+        long newSpan = Math.max(Math.max(1, minSpan), Math.min(fullSpan(), Math.round(span * factor)));
+        long start = viewStart + Math.round(anchor * span) - Math.round(anchor * newSpan);
+        setView(start, start + newSpan);
+    }
+
+    /** Moves the view, keeping its width and keeping it within the series. */
+    private void setView(long start, long end) {
+        long span = end - start;
+        long first = times.length == 0 ? 0 : times[0];
+        long last = times.length == 0 ? 0 : times[times.length - 1];
+        start = Math.max(first, Math.min(start, last - span));
+        if (start != viewStart || start + span != viewEnd) {
+            viewStart = start;
+            viewEnd = start + span;
+            chartChanged();
+        }
+    }
+
+    private long fullSpan() {
+        return times.length == 0 ? 0 : times[times.length - 1] - times[0];
+    }
+
+    private int plotWidth() {
+        return Math.max(1, getWidth() - LEFT - RIGHT);
+    }
+
+    /** Gets how many points the last drawing used, after downsampling. */
+    public int getDrawnPoints() {
+        return drawnPoints;
+    }
+
+    @Override
+    protected void renderChart(Graphics2D g, int width, int height) {
+        g.setFont(TITLE_FONT);
+        g.setColor(Color.BLACK);
+        g.drawString(title, (width - g.getFontMetrics().stringWidth(title)) / 2, 28);
+        if (times.length == 0) {
+            g.setFont(SCALE_FONT);
+            g.drawString("No data available", width / 2 - 40, height / 2);
+            return;
+        }
+
+        int plotWidth = Math.max(1, width - LEFT - RIGHT);
+        int plotHeight = Math.max(1, height - TOP - BOTTOM);
+        int baseline = TOP + plotHeight;
+
+        // Points in view, plus one either side so the line runs to the edges
+        int from = Math.max(0, lowerBound(times, viewStart) - 1);
+        int to = Math.min(times.length, lowerBound(times, viewEnd + 1) + 1);
+        double max = 0;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        if (max == 0) {
+            max = 1;
+        }
+        double span = Math.max(1, viewEnd - viewStart);
+
+        // Scale lines and values
+        g.setFont(SCALE_FONT);
+        for (int i = 0; i <= 5; i++) {
+            int y = baseline - plotHeight * i / 5;
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawLine(LEFT, y, LEFT + plotWidth, y);
+            g.setColor(Color.BLACK);
+            String label = String.format(valueFormat, max * i / 5);
+            g.drawString(label, LEFT - 5 - g.getFontMetrics().stringWidth(label), y + 4);
+        }
+
+        // Time labels on whole multiples of a step wide enough to fit them
+        long step = TICK_STEPS[TICK_STEPS.length - 1];
+        for (long candidate : TICK_STEPS) {
+            if (candidate / span * plotWidth >= MIN_TICK_PIXELS) {
+                step = candidate;
+                break;
+            }
+        }
+        DateTimeFormatter format = step >= 86_400 ? DAY_FORMAT : TIME_FORMAT;
+        for (long t = Math.floorDiv(viewStart + step - 1, step) * step; t <= viewEnd; t += step) {
+            int x = LEFT + (int) Math.round((t - viewStart) / span * plotWidth);
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawLine(x, TOP, x, baseline);
+            g.setColor(Color.BLACK);
+            String label = LocalDateTime.ofEpochSecond(t, 0, ZoneOffset.UTC).format(format);
+            g.drawString(label, x - g.getFontMetrics().stringWidth(label) / 2, baseline + 15);
+        }
+
+        // The line, clipped to the plot
+        int[] points = downsample(times, values, from, to, plotWidth);
+        drawnPoints = points.length;
+        Path2D.Double line = new Path2D.Double();
+        for (int k = 0; k < points.length; k++) {
+            int i = points[k];
+            double x = LEFT + (times[i] - viewStart) / span * plotWidth;
+            double y = baseline - values[i] / max * plotHeight;
+            if (k == 0) {
+                line.moveTo(x, y);
+            } else {
+                line.lineTo(x, y);
+            }
+        }
+        Graphics2D plot = (Graphics2D) g.create(LEFT, TOP, plotWidth + 1, plotHeight + 1);
+        plot.translate(-LEFT, -TOP);
+        plot.setColor(LINE_COLOR);
+        if (points.length > plotWidth / 2) {
+            // A line with a point every pixel or two gains nothing from antialiasing but costs the most
+            plot.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        }
+        plot.draw(line);
+        plot.dispose();
+
+        g.setColor(Color.BLACK);
+        g.drawLine(LEFT, TOP, LEFT, baseline);
+        g.drawLine(LEFT, baseline, LEFT + plotWidth, baseline);
+        g.setColor(Color.GRAY);
+        String shown = String.format("%,d of %,d points", to - from, times.length);
+        g.drawString(shown, width - RIGHT - g.getFontMetrics().stringWidth(shown), TOP - 8);
+    }
+
+    /** Finds the first index whose time is at least the given time. */
+    private static int lowerBound(long[] times, long time) {
+        int index = Arrays.binarySearch(times, time);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && times[index - 1] == time) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Picks the points of a slice of a series that best keep its shape,
+     * using Largest-Triangle-Three-Buckets: the first and last points are
+     * kept, and the rest are split into equal buckets, each contributing
+     * the point that makes the largest triangle with the point kept before
+     * it and the average of the next bucket.
+     *
+     * @param x         point times, ascending
+     * @param y         point values
+     * @param from      first index of the slice
+     * @param to        index after the slice
+     * @param threshold most points to keep
+     * @return indexes of the points kept, ascending
+     */
+    public static int[] downsample(long[] x, double[] y, int from, int to, int threshold) {
+        int count = to - from;
+        if (count <= threshold || threshold < 3) {
+            int[] all = new int[Math.max(0, count)];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int previous = from;
+        kept[0] = from;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = from + (int) (bucket * bucketSize) + 1;
+            int end = from + (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket; the last bucket looks at the final point
+            int nextStart = end;
+            int nextEnd = Math.min(to, from + (int) ((bucket + 2) * bucketSize) + 1);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i] - x[previous];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            // Times are taken relative to the previous point to keep precision
+            double largest = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((y[i] - y[previous]) * averageX
+                        - (x[i] - x[previous]) * (averageY - y[previous]));
+                if (area > largest) {
+                    largest = area;
+                    chosen = i;
+                }
+            }
+            kept[bucket + 1] = chosen;
+            previous = chosen;
+        }
+        kept[threshold - 1] = to - 1;
+        return kept;
+    }
+}
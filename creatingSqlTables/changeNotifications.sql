@@ -0,0 +1,47 @@
+-- Change notification triggers
+-- Send a NOTIFY on the boba_changes channel for every changed menu item,
+-- ingredient and employee, and once per statement for new orders, so open
+-- manager screens update without polling (see
+-- New_Additions/ChangeNotifier.java). Payloads are table:operation:id;
+-- for orders the id is the newest order the statement inserted.
+-- Notifications are sent when the transaction commits, and identical ones
+-- within a transaction are sent once.
+CREATE OR REPLACE FUNCTION notifyRowChange() RETURNS trigger AS $$
+DECLARE
+    changedRow JSONB := to_jsonb(CASE WHEN TG_OP = 'DELETE' THEN OLD ELSE NEW END);
+BEGIN
+    -- TG_ARGV[0] is the name sent, TG_ARGV[1] the key column
+    PERFORM pg_notify('boba_changes', TG_ARGV[0] || ':' || TG_OP || ':' || (changedRow ->> TG_ARGV[1]));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION notifyOrdersInserted() RETURNS trigger AS $$
+DECLARE
+    newestOrder INT;
+BEGIN
+    SELECT MAX(orderID) INTO newestOrder FROM insertedOrders;
+    IF newestOrder IS NOT NULL THEN
+        PERFORM pg_notify('boba_changes', 'orders:INSERT:' || newestOrder);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS menuItemsChanged ON MenuItems;
+CREATE TRIGGER menuItemsChanged AFTER INSERT OR UPDATE OR DELETE ON MenuItems
+    FOR EACH ROW EXECUTE FUNCTION notifyRowChange('menu', 'menuitemid');
+
+DROP TRIGGER IF EXISTS inventoryChanged ON Inventory;
+CREATE TRIGGER inventoryChanged AFTER INSERT OR UPDATE OR DELETE ON Inventory
+    FOR EACH ROW EXECUTE FUNCTION notifyRowChange('inventory', 'ingredientid');
+
+DROP TRIGGER IF EXISTS employeesChanged ON Employees;
+CREATE TRIGGER employeesChanged AFTER INSERT OR UPDATE OR DELETE ON Employees
+    FOR EACH ROW EXECUTE FUNCTION notifyRowChange('employees', 'employeeid');
+
+-- Also fires for \copy and BulkLoader, once per load
+DROP TRIGGER IF EXISTS ordersInserted ON Orders;
+CREATE TRIGGER ordersInserted AFTER INSERT ON Orders
+    REFERENCING NEW TABLE AS insertedOrders
+    FOR EACH STATEMENT EXECUTE FUNCTION notifyOrdersInserted();
@@ -0,0 +1,8 @@
+-- IdBlocks Table
+-- Next free primary key for each table. Terminals reserve IDs in blocks
+-- from here (see New_Additions/IdAllocator.java) instead of running MAX()+1.
+-- Rows are created on first use, so the table can start out empty.
+CREATE TABLE IdBlocks (
+    sequenceName VARCHAR(50) PRIMARY KEY,
+    nextValue INT NOT NULL
+);
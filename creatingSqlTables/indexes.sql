@@ -0,0 +1,22 @@
+-- Secondary indexes for the query paths used by the apps.
+-- Run after the tables have been created and loaded.
+
+-- Newest-first order history (DatabaseManager.getOrdersPage / streamOrders).
+-- Matches the (timeOfOrder, orderID) keyset so each page is an index range scan.
+-- Also serves date-filtered reports (total sales, product usage, today's
+-- revenue and orders): they bind a half-open [start, end) range on the bare
+-- column (see New_Additions/TimeRange) instead of DATE(timeOfOrder), and
+-- scan the leading column in either direction.
+CREATE INDEX IF NOT EXISTS idx_orders_time_id ON Orders (timeOfOrder DESC, orderID DESC);
+
+-- Covered by idx_orders_time_id; dropped where an earlier version created it.
+DROP INDEX IF EXISTS idx_orders_time;
+
+-- Joins from an order (or a range of orders) to its drinks.
+CREATE INDEX IF NOT EXISTS idx_orderitems_order ON OrderItems (orderID);
+
+-- Per-drink sales and usage reports joining OrderItems to MenuItems.
+CREATE INDEX IF NOT EXISTS idx_orderitems_menuitem ON OrderItems (menuItemID);
+
+-- Payment methods of the orders in the open register day (RegisterCloseout).
+CREATE INDEX IF NOT EXISTS idx_payments_order ON Payments (orderID);
@@ -0,0 +1,12 @@
+-- OrderJournalApplied Table
+-- Journal IDs of orders that were taken offline and later replayed from a
+-- terminal's local order journal (see New_Additions/OrderJournal.java).
+-- Replay inserts here in the same transaction as the order, so an order
+-- is never applied twice. While a terminal has a journal open, its live
+-- order writes claim their journal IDs here too, so an order whose commit
+-- was cut off can be journaled and replay skips it if the commit landed.
+CREATE TABLE OrderJournalApplied (
+    journalID UUID PRIMARY KEY,
+    orderID INT NOT NULL,
+    appliedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
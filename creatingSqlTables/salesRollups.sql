@@ -0,0 +1,51 @@
+-- Sales rollup tables
+-- Order counts and revenue pre-aggregated by hour, day, week and year for
+-- the manager reports. The apps append each order batch's totals to
+-- SalesRollupDeltas in the same transaction as the orders, and the reports
+-- fold the deltas into the rollups before reading them (see
+-- New_Additions/SalesRollups.java).
+CREATE TABLE SalesHourly (
+    hourStart TIMESTAMP PRIMARY KEY,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+CREATE TABLE SalesDaily (
+    salesDate DATE PRIMARY KEY,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+CREATE TABLE SalesWeekly (
+    orderWeek INT PRIMARY KEY,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+CREATE TABLE SalesYearly (
+    salesYear INT PRIMARY KEY,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+-- Append-only; no key, so concurrent inserts never wait on each other
+CREATE TABLE SalesRollupDeltas (
+    hourStart TIMESTAMP NOT NULL,
+    orderWeek INT,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+-- Backfill from existing orders. Also run this after loading orders with
+-- \copy, which bypasses the apps (BulkLoader does it automatically).
+BEGIN;
+TRUNCATE SalesHourly, SalesDaily, SalesWeekly, SalesYearly, SalesRollupDeltas;
+INSERT INTO SalesHourly (hourStart, orderCount, revenue)
+SELECT date_trunc('hour', timeOfOrder), COUNT(*), SUM(totalCost) FROM Orders GROUP BY 1;
+INSERT INTO SalesDaily (salesDate, orderCount, revenue)
+SELECT timeOfOrder::date, COUNT(*), SUM(totalCost) FROM Orders GROUP BY 1;
+INSERT INTO SalesWeekly (orderWeek, orderCount, revenue)
+SELECT orderWeek, COUNT(*), SUM(totalCost) FROM Orders WHERE orderWeek IS NOT NULL GROUP BY 1;
+INSERT INTO SalesYearly (salesYear, orderCount, revenue)
+SELECT EXTRACT(YEAR FROM timeOfOrder)::int, COUNT(*), SUM(totalCost) FROM Orders GROUP BY 1;
+COMMIT;
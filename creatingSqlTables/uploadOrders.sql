@@ -1,22 +1,15 @@
-\copy orders (
-  order_id,
-  datetime,
-  customer_id,
-  employee_id,
-  item_id,
-  sugar_content_pct,
-  boba_content_pct,
-  ice_content_pct,
-  total_amount
-) FROM 'order.csv' WITH (FORMAT csv, HEADER true);
-gang_x2_db=> \copy orders (
-  order_id,
-  datetime,
-  customer_id,
-  employee_id,
-  item_id,
-  sugar_content_pct,
-  boba_content_pct,
-  ice_content_pct,
-  total_amount
-) FROM 'order.csv' WITH (FORMAT csv, HEADER true);
+-- Manual fallback for loading the generateCSVs.py output with psql.
+-- The preferred way is the bulk loader, which runs the same COPYs in
+-- parallel and rebuilds indexes afterwards:
+--   java -cp .:postgresql-42.5.0.jar New_Additions.BulkLoader creatingSqlTables [--replace]
+-- Tables are listed in foreign key order.
+\copy customers (customerID, name, phoneNum, email) FROM 'customers.csv' WITH (FORMAT csv, HEADER true);
+\copy employees (employeeID, employeeName, employeeRole, hoursWorked) FROM 'employees.csv' WITH (FORMAT csv, HEADER true);
+\copy menuitems (menuItemID, drinkCategory, menuItemName, price) FROM 'menuitems.csv' WITH (FORMAT csv, HEADER true);
+\copy inventory (ingredientID, ingredientName, ingredientCount) FROM 'inventory.csv' WITH (FORMAT csv, HEADER true);
+\copy orders (orderID, timeOfOrder, customerID, employeeID, totalCost, orderWeek) FROM 'orders.csv' WITH (FORMAT csv, HEADER true);
+\copy menuitemingredients (menuItemIngredientID, menuItemID, ingredientID, ingredientQty) FROM 'menuitemingredients.csv' WITH (FORMAT csv, HEADER true);
+\copy orderitems (orderItemID, orderID, menuItemID, sugarLevel, iceLevel, milkType, boba, lycheeJelly, grassJelly, pudding, aloeVera, redBean, coffeeJelly, coconutJelly, chiaSeeds, taroBalls, mangoStars, rainbowJelly, crystalBoba, cheeseFoam, whippedCream, oreoCrumbs, caramelDrizzle, matchaFoam, strawberryPoppingBoba, mangoPoppingBoba, blueberryPoppingBoba, passionfruitPoppingBoba, chocolateChips, peanutCrumble, marshmallows, cinnamonDust, honey, mintLeaves, quantity) FROM 'orderitems.csv' WITH (FORMAT csv, HEADER true);
+\copy payments (paymentID, orderID, paymentMethod, status) FROM 'payments.csv' WITH (FORMAT csv, HEADER true);
+-- \copy skips the per-order rollup updates; recompute them afterwards by
+-- running the backfill section of salesRollups.sql.
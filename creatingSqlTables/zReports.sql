@@ -0,0 +1,21 @@
+-- Z-report tables
+-- End-of-day register totals saved when a manager runs the Z-report (see
+-- New_Additions/RegisterCloseout.java). Each report covers the orders
+-- since the previous one; lineType is HOUR or EMPLOYEE. openedAt
+-- is unique so no register day is saved twice.
+CREATE TABLE ZReports (
+    closedAt TIMESTAMP PRIMARY KEY,
+    openedAt TIMESTAMP NOT NULL UNIQUE,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL
+);
+
+CREATE TABLE ZReportLines (
+    closedAt TIMESTAMP NOT NULL,
+    lineType VARCHAR(10) NOT NULL,
+    lineKey VARCHAR(50) NOT NULL,
+    orderCount INT NOT NULL,
+    revenue DECIMAL(12,2) NOT NULL,
+    PRIMARY KEY (closedAt, lineType, lineKey),
+    FOREIGN KEY (closedAt) REFERENCES ZReports(closedAt)
+);
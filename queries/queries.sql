@@ -40,12 +40,12 @@ ORDER BY drinks_count DESC;
 -- number of orders so far today
 SELECT COUNT(*) AS orders_today
 FROM Orders
-WHERE DATE(timeOfOrder) = CURRENT_DATE;
+WHERE timeOfOrder >= CURRENT_DATE AND timeOfOrder < CURRENT_DATE + 1;
 
 -- revenue today
 SELECT SUM(totalCost) AS revenue_today
 FROM Orders
-WHERE DATE(timeOfOrder) = CURRENT_DATE;
+WHERE timeOfOrder >= CURRENT_DATE AND timeOfOrder < CURRENT_DATE + 1;
 
 -- 5 most frequent customers
 SELECT customerID, COUNT(*) AS order_count
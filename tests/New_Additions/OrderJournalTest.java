@@ -0,0 +1,135 @@
+package New_Additions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Checks for OrderJournal. Run from the repository root with:
+ *
+ * <pre>
+ * javac -cp postgresql-42.5.0.jar -d out New_Additions/*.java ManagerGUI/ManagerUI.java tests/New_Additions/*.java
+ * java -cp out New_Additions.OrderJournalTest
+ * </pre>
+ *
+ * Exits with status 1 if a check fails.
+ */
+public class OrderJournalTest {
+
+    public static void main(String[] args) throws Exception {
+        secondJournalOnOnePathIsRefused();
+        failingRecordDoesNotBlockLaterOnes();
+        unreachableDatabaseStopsReplay();
+        suppliedJournalIdIsReplayed();
+        System.out.println("OrderJournalTest passed");
+    }
+
+    /** Two journals on one file would both replay its records, inserting every order twice. */
+    private static void secondJournalOnOnePathIsRefused() throws IOException {
+        Path path = Files.createTempFile("order-journal", ".dat");
+        try (OrderJournal first = new OrderJournal(path, 1)) {
+            try (OrderJournal second = new OrderJournal(path, 1)) {
+                fail("second journal opened a locked file");
+            } catch (OrderJournal.LockedException expected) {
+                // The first journal keeps the file
+            }
+            first.append(order(), items());
+            check(first.getPendingCount() == 1, "first journal still usable after the refused open");
+        }
+
+        // Closing releases the lock and keeps the pending record
+        try (OrderJournal reopened = new OrderJournal(path, 1)) {
+            check(reopened.getPendingCount() == 1, "pending record survives reopening");
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /** A record the database always rejects is set aside, and the records after it are applied. */
+    private static void failingRecordDoesNotBlockLaterOnes() throws IOException {
+        Path path = Files.createTempFile("order-journal", ".dat");
+        Path deadLetters = OrderJournal.getDeadLetterPath(path);
+        try (OrderJournal journal = new OrderJournal(path, 1)) {
+            UUID bad = journal.append(order(), items());
+            journal.append(order(), items());
+            journal.append(order(), items());
+
+            List<UUID> applied = new ArrayList<>();
+            int count = journal.replayPending(entry -> {
+                if (entry.getJournalId().equals(bad)) {
+                    throw new SQLException("insert or update violates foreign key constraint", "23503");
+                }
+                applied.add(entry.getJournalId());
+            });
+            check(count == 2 && applied.size() == 2, "records after the failing one are applied");
+            check(journal.getPendingCount() == 0, "nothing left pending");
+            check(Files.readString(deadLetters).contains(bad.toString()), "failing record is in the dead-letter file");
+        }
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(deadLetters);
+    }
+
+    /** While the database is unreachable, replay stops and keeps every record for later. */
+    private static void unreachableDatabaseStopsReplay() throws IOException {
+        Path path = Files.createTempFile("order-journal", ".dat");
+        try (OrderJournal journal = new OrderJournal(path, 1)) {
+            journal.append(order(), items());
+            journal.append(order(), items());
+            int count = journal.replayPending(entry -> {
+                throw new SQLTransientConnectionException("Connection refused", "08001");
+            });
+            check(count == 0 && journal.getPendingCount() == 2, "records kept while the database is down");
+            check(!Files.exists(OrderJournal.getDeadLetterPath(path)), "no record set aside for a connection failure");
+            check(journal.replayPending(entry -> {
+            }) == 2, "records applied once the database is back");
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * An order whose commit outcome is unknown is journaled under the ID it
+     * claimed in that transaction, so replay can find it already applied.
+     */
+    private static void suppliedJournalIdIsReplayed() throws IOException {
+        Path path = Files.createTempFile("order-journal", ".dat");
+        try (OrderJournal journal = new OrderJournal(path, 1)) {
+            UUID claimed = UUID.randomUUID();
+            check(journal.append(claimed, order(), items()).equals(claimed), "append keeps the supplied ID");
+            List<UUID> replayed = new ArrayList<>();
+            journal.replayPending(entry -> replayed.add(entry.getJournalId()));
+            check(replayed.equals(List.of(claimed)), "replay sees the supplied ID");
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private static Order order() {
+        Order order = new Order();
+        order.setTimeOfOrder(new Timestamp(System.currentTimeMillis()));
+        order.setEmployeeID(1);
+        order.setTotalCost(5.25);
+        return order;
+    }
+
+    private static List<OrderItem> items() {
+        OrderItem item = new OrderItem();
+        item.setMenuItemID(1);
+        item.setQuantity(2);
+        return List.of(item);
+    }
+
+    private static void check(boolean condition, String description) {
+        if (!condition) {
+            fail(description);
+        }
+    }
+
+    private static void fail(String description) {
+        System.err.println("FAILED: " + description);
+        System.exit(1);
+    }
+}